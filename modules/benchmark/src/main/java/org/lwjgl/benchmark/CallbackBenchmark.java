@@ -0,0 +1,97 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.benchmark;
+
+import org.lwjgl.system.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+import static org.lwjgl.system.dyncall.DynCallback.*;
+
+/**
+ * Measures the overhead of native-to-Java callbacks.
+ *
+ * <p>Both benchmarks call a {@code void (*)(void*, void*, bool)} callback from native code, with {@link JNI#invokePPV}. The {@code typed} callback
+ * decodes the arguments natively and calls {@code invoke} with a single JNI call. The {@code dyncall} callback is invoked through
+ * {@code callback(long args)} and decodes each argument in Java, with one JNI call per argument.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallbackBenchmark {
+
+	/** Mirrors the callback interfaces created by the generator. */
+	@FunctionalInterface
+	public interface TestCallbackI extends CallbackI.V {
+
+		String SIGNATURE = "(ppB)v";
+
+		@Override
+		default String getSignature() { return SIGNATURE; }
+
+		@Override
+		default Class<? extends CallbackI> getInvokeInterface() { return TestCallbackI.class; }
+
+		@Override
+		default void callback(long args) {
+			invoke(
+				dcbArgPointer(args),
+				dcbArgPointer(args),
+				dcbArgBool(args)
+			);
+		}
+
+		void invoke(long a, long b, boolean c);
+
+	}
+
+	private static final class DyncallCallback implements TestCallbackI {
+
+		long sum;
+
+		@Override
+		public Class<? extends CallbackI> getInvokeInterface() {
+			return null;
+		}
+
+		@Override
+		public void invoke(long a, long b, boolean c) {
+			sum += a + b;
+		}
+
+	}
+
+	private long sum;
+
+	private long typed;
+	private long dyncall;
+
+	@Setup
+	public void setup() {
+		typed = ((TestCallbackI)(a, b, c) -> sum += a + b).address();
+		dyncall = new DyncallCallback().address();
+	}
+
+	@TearDown
+	public void tearDown() {
+		Callback.free(dyncall);
+		Callback.free(typed);
+	}
+
+	@Benchmark
+	public void typed() {
+		JNI.invokePPV(typed, 1L, 2L, true);
+	}
+
+	@Benchmark
+	public void dyncall() {
+		JNI.invokePPV(dyncall, 1L, 2L, true);
+	}
+
+}
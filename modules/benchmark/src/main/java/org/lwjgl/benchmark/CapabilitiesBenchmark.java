@@ -0,0 +1,67 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.benchmark;
+
+import org.lwjgl.opengl.*;
+import org.lwjgl.system.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Measures the time it takes to create a {@link GLCapabilities} instance, which is the bulk of the LWJGL work between context creation and the first frame.
+ *
+ * <p>The {@code lazy} parameter toggles {@link Configuration#LAZY_CAPABILITIES}. Requires a display, the context is created with a hidden GLFW window.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CapabilitiesBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean lazy;
+
+	private long window;
+
+	@Setup
+	public void setup() {
+		if ( !glfwInit() )
+			throw new IllegalStateException("Failed to initialize GLFW.");
+
+		glfwDefaultWindowHints();
+		glfwWindowHint(GLFW_VISIBLE, GLFW_FALSE);
+
+		window = glfwCreateWindow(64, 64, "CapabilitiesBenchmark", NULL, NULL);
+		if ( window == NULL ) {
+			glfwTerminate();
+			throw new IllegalStateException("Failed to create the GLFW window.");
+		}
+
+		glfwMakeContextCurrent(window);
+
+		Configuration.LAZY_CAPABILITIES.set(lazy);
+	}
+
+	@TearDown
+	public void tearDown() {
+		GL.setCapabilities(null);
+
+		glfwMakeContextCurrent(NULL);
+		glfwDestroyWindow(window);
+		glfwTerminate();
+	}
+
+	@Benchmark
+	public GLCapabilities createCapabilities() {
+		return GL.createCapabilities();
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.benchmark;
+
+import org.lwjgl.system.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Compares the JNI and FFM backends of the {@link JNI} methods.
+ *
+ * <p>The benchmarks call a few representative signatures with the memory allocator functions, which are always available. The backend is selected with
+ * {@link Configuration#NATIVE_BACKEND}, before the {@link JNI} class is initialized; JMH runs each parameter value in a new fork. The FFM backend requires
+ * Java 22 and {@code --enable-native-access=ALL-UNNAMED} in the JVM arguments, otherwise it falls back to JNI.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class ForeignBenchmark {
+
+	@Param({ "JNI", "FFM" })
+	public String backend;
+
+	private long malloc;
+	private long calloc;
+	private long free;
+
+	@Setup
+	public void setup() {
+		Configuration.NATIVE_BACKEND.set(backend);
+
+		MemoryAllocator allocator = getAllocator();
+
+		malloc = allocator.getMalloc();
+		calloc = allocator.getCalloc();
+		free = allocator.getFree();
+	}
+
+	/** A function that returns immediately: {@code void free(NULL)}. */
+	@Benchmark
+	public void pointer_void() {
+		JNI.invokePV(free, NULL);
+	}
+
+	/** Multiple arguments, including a non-pointer one: {@code void free(NULL)}, with the extra arguments ignored. */
+	@Benchmark
+	public void pointer_pointer_boolean_void() {
+		JNI.invokePPV(free, NULL, NULL, false);
+	}
+
+	/** A pointer return value: {@code free(malloc(16))}. */
+	@Benchmark
+	public void pointer_pointer() {
+		JNI.invokePV(free, JNI.invokePP(malloc, 16L));
+	}
+
+	/** Two arguments and a pointer return value: {@code free(calloc(1, 16))}. */
+	@Benchmark
+	public void pointer_pointer_pointer() {
+		JNI.invokePV(free, JNI.invokePPP(calloc, 1L, 16L));
+	}
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.benchmark;
+
+import org.lwjgl.system.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.libc.LibCStdlib.*;
+
+/**
+ * Measures the overhead of calling native functions.
+ *
+ * <p>All benchmarks call {@code free(NULL)}, which returns immediately. {@link JNI#invokePPV} is one of the signatures that are always generated. The
+ * unused arguments are ignored by {@code free}, which is safe with the default C calling convention.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JNIBenchmark {
+
+	private long free;
+
+	@Setup
+	public void setup() {
+		free = getAllocator().getFree();
+	}
+
+	@Benchmark
+	public void native_method() {
+		nfree(NULL);
+	}
+
+	@Benchmark
+	public void invoke_pointer() {
+		JNI.invokePPV(free, NULL, NULL, false);
+	}
+
+}
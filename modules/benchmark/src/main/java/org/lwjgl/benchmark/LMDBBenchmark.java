@@ -0,0 +1,224 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.benchmark;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.util.lmdb.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.lwjgl.util.lmdb.LMDB.*;
+
+/**
+ * Measures LMDB read and write throughput for different environment flags.
+ *
+ * <p>Each trial creates an environment in a temporary directory, populated with {@code entries} integer keys with {@code valueSize}-byte values. Reads and
+ * updates use random existing keys, unless noted otherwise. The throughput mode reports operations per microsecond (use {@code -tu s} for operations per
+ * second), the sample mode reports latency percentiles.</p>
+ *
+ * <p>The {@code flags} parameter is a {@code |}-separated list of {@link LMDB#mdb_env_open env_open} flags, e.g.
+ * {@code -p flags=MDB_WRITEMAP|MDB_NOSYNC}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LMDBBenchmark {
+
+	private static final int SCAN  = 1000;
+	private static final int BATCH = 100;
+
+	@Param({ "0", "MDB_NOSYNC", "MDB_NOMETASYNC", "MDB_WRITEMAP", "MDB_WRITEMAP|MDB_NOSYNC", "MDB_NOTLS" })
+	public String flags;
+
+	@Param({ "1073741824" })
+	public long mapSize;
+
+	@Param({ "100000" })
+	public int entries;
+
+	@Param({ "100" })
+	public int valueSize;
+
+	private File dir;
+
+	private LMDBEnv    env;
+	private int        dbi;
+	private LMDBWriter writer;
+
+	/** The per-thread key/value buffers. */
+	@State(Scope.Thread)
+	public static class Context {
+
+		private SplittableRandom random;
+
+		private ByteBuffer key;
+		private ByteBuffer value;
+		private MDBVal     data;
+
+		private int entries;
+		private int next;
+
+		@Setup
+		public void setup(LMDBBenchmark benchmark) {
+			random = new SplittableRandom(Thread.currentThread().getId());
+
+			key = BufferUtils.createByteBuffer(4);
+			value = BufferUtils.createByteBuffer(benchmark.valueSize);
+			for ( int i = 0; i < value.capacity(); i++ )
+				value.put(i, (byte)random.nextInt());
+			data = MDBVal.calloc();
+
+			entries = benchmark.entries;
+		}
+
+		@TearDown
+		public void tearDown() {
+			data.free();
+		}
+
+		ByteBuffer randomKey(int bound) {
+			return key.putInt(0, random.nextInt(bound));
+		}
+
+		ByteBuffer nextKey() {
+			key.putInt(0, next);
+			if ( ++next == entries )
+				next = 0;
+			return key;
+		}
+
+	}
+
+	@Setup
+	public void setup() throws IOException {
+		dir = Files.createTempDirectory("lwjgl-lmdb-benchmark").toFile();
+
+		env = new LMDBEnv(dir.getPath(), parseFlags(flags), mapSize, 0, 0);
+		dbi = env.openDatabase(null, MDB_INTEGERKEY);
+
+		ByteBuffer key   = BufferUtils.createByteBuffer(4);
+		ByteBuffer value = BufferUtils.createByteBuffer(valueSize);
+		for ( int i = 0; i < entries; ) {
+			try ( LMDBTxn txn = env.write() ) {
+				for ( int n = Math.min(i + 10000, entries); i < n; i++ )
+					txn.put(dbi, key.putInt(0, i), value.putInt(0, i), MDB_APPEND);
+				txn.commit();
+			}
+		}
+
+		writer = new LMDBWriter(env, 1000, TimeUnit.MILLISECONDS.toNanos(1));
+	}
+
+	@TearDown
+	public void tearDown() {
+		writer.close();
+		env.close();
+
+		File[] files = dir.listFiles();
+		if ( files != null ) {
+			for ( File file : files )
+				file.delete();
+		}
+		dir.delete();
+	}
+
+	private static int parseFlags(String flags) {
+		int value = 0;
+		for ( String flag : flags.split("\\|") ) {
+			switch ( flag.trim() ) {
+				case "0":
+					break;
+				case "MDB_NOSYNC":
+					value |= MDB_NOSYNC;
+					break;
+				case "MDB_NOMETASYNC":
+					value |= MDB_NOMETASYNC;
+					break;
+				case "MDB_WRITEMAP":
+					value |= MDB_WRITEMAP;
+					break;
+				case "MDB_MAPASYNC":
+					value |= MDB_MAPASYNC;
+					break;
+				case "MDB_NOTLS":
+					value |= MDB_NOTLS;
+					break;
+				case "MDB_NORDAHEAD":
+					value |= MDB_NORDAHEAD;
+					break;
+				default:
+					throw new IllegalArgumentException("Unsupported flag: " + flag);
+			}
+		}
+		return value;
+	}
+
+	@Benchmark
+	public long readRandom(Context context) {
+		try ( LMDBTxn txn = env.read() ) {
+			return txn.get(dbi, context.randomKey(entries), context.data) ? context.data.mv_size() : 0L;
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	public long readRandomConcurrent(Context context) {
+		return readRandom(context);
+	}
+
+	@Benchmark
+	public long readSequential(Context context) {
+		try ( LMDBTxn txn = env.read() ) {
+			return txn.get(dbi, context.nextKey(), context.data) ? context.data.mv_size() : 0L;
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SCAN)
+	public long cursorScan(Context context) {
+		long size = 0L;
+		try ( LMDBTxn txn = env.read(); LMDBCursor cursor = txn.cursor(dbi) ) {
+			boolean found = cursor.seek(context.randomKey(entries - SCAN));
+			for ( int i = 0; found && i < SCAN; i++ ) {
+				size += cursor.valueVal().mv_size();
+				found = cursor.next();
+			}
+		}
+		return size;
+	}
+
+	@Benchmark
+	public void writeSingle(Context context) {
+		try ( LMDBTxn txn = env.write() ) {
+			txn.put(dbi, context.randomKey(entries), context.value, 0);
+			txn.commit();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void writeBatch(Context context) {
+		try ( LMDBTxn txn = env.write() ) {
+			for ( int i = 0; i < BATCH; i++ )
+				txn.put(dbi, context.randomKey(entries), context.value, 0);
+			txn.commit();
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean writeGroupCommit(Context context) {
+		return writer.put(dbi, context.randomKey(entries), context.value, 0).join();
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.benchmark;
+
+import org.lwjgl.system.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.*;
+import java.util.concurrent.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Measures the explicit memory management API with each {@link Configuration#MEMORY_ALLOCATOR} option.
+ *
+ * <p>The allocator is selected when {@link MemoryUtil} is initialized. JMH runs each parameter combination in a separate fork, so the allocator is set
+ * before the first allocation of each fork.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryAllocBenchmark {
+
+	@Param({ "system", "jemalloc", "pooled" })
+	public String allocator;
+
+	@Param({ "16", "256", "4096", "65536" })
+	public int size;
+
+	@Setup
+	public void setup() {
+		Configuration.MEMORY_ALLOCATOR.set(allocator);
+	}
+
+	@Benchmark
+	public void mallocFree() {
+		nmemFree(nmemAlloc(size));
+	}
+
+	@Benchmark
+	public void callocFree() {
+		nmemFree(nmemCalloc(1, size));
+	}
+
+	@Benchmark
+	public void alignedAllocFree() {
+		nmemAlignedFree(nmemAlignedAlloc(64, size));
+	}
+
+	@Benchmark
+	public int memAllocFree() {
+		ByteBuffer buffer = memAlloc(size);
+		int capacity = buffer.capacity();
+		memFree(buffer);
+		return capacity;
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.benchmark;
+
+import org.lwjgl.system.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/** Compares building and releasing a batch of structs with {@link MemoryArena}, {@link MemoryStack} and {@link MemoryUtil#nmemAlloc}. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryArenaBenchmark {
+
+	@Param({ "16", "256" })
+	public int count;
+
+	private MemoryArena arena;
+	private MemoryArena shared;
+
+	private long[] addresses;
+
+	@Setup
+	public void setup() {
+		arena = MemoryArena.create();
+		shared = MemoryArena.createShared();
+
+		addresses = new long[count];
+	}
+
+	@TearDown
+	public void tearDown() {
+		shared.free();
+		arena.free();
+	}
+
+	@Benchmark
+	public float arena() {
+		float sum = 0.0f;
+		for ( int i = 0; i < count; i++ )
+			sum += Vec4.calloc(arena).x(i).x();
+		arena.reset();
+		return sum;
+	}
+
+	@Benchmark
+	public float arena_shared() {
+		float sum = 0.0f;
+		for ( int i = 0; i < count; i++ )
+			sum += Vec4.calloc(shared).x(i).x();
+		shared.reset();
+		return sum;
+	}
+
+	@Benchmark
+	public float stack() {
+		float sum = 0.0f;
+		try ( MemoryStack stack = MemoryStack.stackPush() ) {
+			for ( int i = 0; i < count; i++ )
+				sum += Vec4.create(stack.ncalloc(Vec4.ALIGNOF, 1, Vec4.SIZEOF)).x(i).x();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public float malloc() {
+		float sum = 0.0f;
+		for ( int i = 0; i < count; i++ ) {
+			Vec4 v = Vec4.calloc().x(i);
+			addresses[i] = v.address();
+			sum += v.x();
+		}
+		for ( int i = 0; i < count; i++ )
+			MemoryUtil.nmemFree(addresses[i]);
+		return sum;
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.*;
+import java.util.concurrent.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/** Measures the creation of NIO buffer instances that wrap native memory, and the retrieval of their addresses. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryBufferBenchmark {
+
+	private long address;
+
+	private ByteBuffer buffer;
+
+	@Setup
+	public void setup() {
+		address = nmemAlloc(1024);
+		buffer = memByteBuffer(address, 1024);
+		buffer.position(16);
+	}
+
+	@TearDown
+	public void tearDown() {
+		nmemFree(address);
+	}
+
+	@Benchmark
+	public ByteBuffer memByteBuffer_wrap() {
+		return memByteBuffer(address, 1024);
+	}
+
+	@Benchmark
+	public IntBuffer memIntBuffer_wrap() {
+		return memIntBuffer(address, 256);
+	}
+
+	@Benchmark
+	public ByteBuffer memByteBuffer_slice() {
+		return memSlice(buffer);
+	}
+
+	@Benchmark
+	public long memAddress_buffer() {
+		return memAddress(buffer);
+	}
+
+}
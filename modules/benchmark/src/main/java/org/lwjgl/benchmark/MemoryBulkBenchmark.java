@@ -0,0 +1,144 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.*;
+import java.util.concurrent.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.jni.JNINativeInterface.*;
+import static org.lwjgl.system.libc.LibCString.*;
+
+/**
+ * Measures the bulk memory operations in {@link org.lwjgl.system.MemoryUtil} against the pure Unsafe and pure native implementations they choose between.
+ *
+ * <p>The crossover thresholds in {@code MemoryAccessorUnsafe} (memSet: 192 bytes, memCopy: 64/384 bytes, memCompare: 256 bytes) and
+ * {@code MemoryUtil.memFill} (256 bytes) are where the {@code mem*} column should follow the faster of the other two.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryBulkBenchmark {
+
+	/** The pure Unsafe baseline. The only use of internal API in the benchmark suite. */
+	private static final class UnsafeBaseline {
+
+		private static final sun.misc.Unsafe UNSAFE;
+
+		static {
+			try {
+				Field field = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+				field.setAccessible(true);
+				UNSAFE = (sun.misc.Unsafe)field.get(null);
+			} catch (Exception e) {
+				throw new UnsupportedOperationException(e);
+			}
+		}
+
+		private UnsafeBaseline() {
+		}
+
+		static void setMemory(long dst, long bytes, byte value) {
+			UNSAFE.setMemory(dst, bytes, value);
+		}
+
+		static void copyMemory(long src, long dst, long bytes) {
+			UnsafeBaseline.copyMemory(src, dst, bytes);
+		}
+
+	}
+
+	@Param({ "8", "32", "64", "128", "192", "256", "384", "512", "1024", "4096", "65536", "4194304" })
+	public int bytes;
+
+	private long src;
+	private long dst;
+
+	private int[] array;
+
+	@Setup
+	public void setup() {
+		src = nmemAlloc(bytes);
+		dst = nmemAlloc(bytes);
+
+		memSet(src, 0x55, bytes);
+		memSet(dst, 0x55, bytes);
+
+		array = new int[bytes >> 2];
+	}
+
+	@TearDown
+	public void tearDown() {
+		nmemFree(dst);
+		nmemFree(src);
+	}
+
+	@Benchmark
+	public void memSet_adaptive() {
+		memSet(dst, 0, bytes);
+	}
+
+	@Benchmark
+	public void memSet_native() {
+		nmemset(dst, 0, bytes);
+	}
+
+	@Benchmark
+	public void memSet_unsafe() {
+		UnsafeBaseline.setMemory(dst, bytes, (byte)0);
+	}
+
+	@Benchmark
+	public void memCopy_adaptive() {
+		memCopy(src, dst, bytes);
+	}
+
+	@Benchmark
+	public void memCopy_native() {
+		nmemcpy(dst, src, bytes);
+	}
+
+	@Benchmark
+	public void memCopy_unsafe() {
+		UnsafeBaseline.copyMemory(src, dst, bytes);
+	}
+
+	@Benchmark
+	public int memCompare_adaptive() {
+		return memCompare(src, dst, bytes);
+	}
+
+	@Benchmark
+	public int memCompare_native() {
+		return nmemcmp(src, dst, bytes);
+	}
+
+	@Benchmark
+	public void memFillInt_adaptive() {
+		memFillInt(dst, 0xDEADBEEF, bytes >> 2);
+	}
+
+	@Benchmark
+	public void memFillInt_loop() {
+		for ( int i = 0; i < bytes; i += 4 )
+			memPutInt(dst + i, 0xDEADBEEF);
+	}
+
+	@Benchmark
+	public void memCopyArray_adaptive() {
+		memCopy(array, 0, dst, array.length);
+	}
+
+	@Benchmark
+	public void memCopyArray_native() {
+		nGetIntArrayRegion(array, 0, array.length, dst);
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.benchmark;
+
+import org.lwjgl.system.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.*;
+import java.util.concurrent.*;
+
+import static org.lwjgl.system.MemoryStack.*;
+
+/** Measures {@link MemoryStack} frame push/pop and allocation. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryStackBenchmark {
+
+	private MemoryStack stack;
+
+	@Setup
+	public void setup() {
+		stack = stackGet();
+	}
+
+	@Benchmark
+	public void pushPop() {
+		stack.push();
+		stack.pop();
+	}
+
+	@Benchmark
+	public void pushPop_threadLocal() {
+		stackPush();
+		stackPop();
+	}
+
+	@Benchmark
+	public int mallocInt() {
+		try ( MemoryStack stack = this.stack.push() ) {
+			IntBuffer ip = stack.mallocInt(4);
+			ip.put(0, 1);
+			return ip.get(0);
+		}
+	}
+
+	@Benchmark
+	public int callocInt() {
+		try ( MemoryStack stack = this.stack.push() ) {
+			IntBuffer ip = stack.callocInt(4);
+			return ip.get(0);
+		}
+	}
+
+	@Benchmark
+	public long nmalloc() {
+		try ( MemoryStack stack = this.stack.push() ) {
+			return stack.nmalloc(16, 64);
+		}
+	}
+
+	@Benchmark
+	public long nmalloc_threadLocal() {
+		try ( MemoryStack stack = stackPush() ) {
+			return stack.nmalloc(16, 64);
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.benchmark;
+
+import org.lwjgl.system.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Measures text encoding and decoding with the {@code MemoryUtil} codecs.
+ *
+ * <p>The {@code mixed} corpora are ASCII text with a non-ASCII character every 64 or 8 characters, on average. They measure how quickly the codecs fall
+ * back from the ASCII fast path.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryTextBenchmark {
+
+	@Param({ "8", "64", "1024" })
+	public int length;
+
+	@Param({ "ascii", "mixed64", "mixed8", "latin1", "cjk" })
+	public String charset;
+
+	private String text;
+
+	private ByteBuffer encodedUTF8;
+	private ByteBuffer encodedASCII;
+
+	private ByteBuffer target;
+
+	private MemoryStringCache cache;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(1);
+
+		char[] chars = new char[length];
+		for ( int i = 0; i < length; i++ ) {
+			switch ( charset ) {
+				case "ascii":
+					chars[i] = ascii(random);
+					break;
+				case "mixed64":
+					chars[i] = random.nextInt(64) == 0 ? latin1(random) : ascii(random);
+					break;
+				case "mixed8":
+					chars[i] = random.nextInt(8) == 0 ? latin1(random) : ascii(random);
+					break;
+				case "latin1":
+					chars[i] = latin1(random);
+					break;
+				default:
+					chars[i] = (char)(0x4E00 + random.nextInt(0x1000));
+			}
+		}
+		text = new String(chars);
+
+		encodedUTF8 = memUTF8(text, true);
+		encodedASCII = memASCII(text, true);
+
+		target = memAlloc(length * 3 + 1);
+
+		cache = MemoryStringCache.createUTF8(16);
+	}
+
+	private static char ascii(Random random) {
+		return (char)(0x20 + random.nextInt(0x5F));
+	}
+
+	private static char latin1(Random random) {
+		return (char)(0xA0 + random.nextInt(0x60));
+	}
+
+	@TearDown
+	public void tearDown() {
+		cache.free();
+		memFree(target);
+		memFree(encodedASCII);
+		memFree(encodedUTF8);
+	}
+
+	@Benchmark
+	public int memUTF8_encode() {
+		return memUTF8(text, true, target);
+	}
+
+	@Benchmark
+	public long memUTF8_stack() {
+		try ( MemoryStack stack = MemoryStack.stackPush() ) {
+			return memAddress(stack.UTF8(text));
+		}
+	}
+
+	@Benchmark
+	public long memUTF8_cached() {
+		try ( MemoryStringCache.Entry entry = cache.acquire(text) ) {
+			return entry.address();
+		}
+	}
+
+	@Benchmark
+	public String memUTF8_decode() {
+		return memUTF8(encodedUTF8, encodedUTF8.remaining() - 1);
+	}
+
+	@Benchmark
+	public String memUTF8_decodeNT() {
+		return memUTF8(memAddress(encodedUTF8));
+	}
+
+	@Benchmark
+	public int memLengthUTF8_text() {
+		return memLengthUTF8(text, true);
+	}
+
+	@Benchmark
+	public int memASCII_encode() {
+		return memASCII(text, true, target);
+	}
+
+	@Benchmark
+	public String memASCII_decode() {
+		return memASCII(encodedASCII, encodedASCII.remaining() - 1);
+	}
+
+	@Benchmark
+	public int memLengthNT1_buffer() {
+		return memLengthNT1(encodedUTF8);
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures struct field access and struct buffer iteration.
+ *
+ * <p>Run with {@code -prof gc} to compare allocation rates: the {@code get(int)} loop allocates a struct per element (unless escape analysis succeeds),
+ * the flyweight loops do not allocate in steady state.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StructBenchmark {
+
+	@Param({ "1000" })
+	public int capacity;
+
+	private Vec4 struct;
+
+	private Vec4.Buffer buffer;
+
+	/** A flyweight view over {@link #buffer}. */
+	private Vec4 view;
+
+	/** A column of {@link #buffer}, for the struct-of-arrays accessors. */
+	private float[] column;
+
+	@Setup
+	public void setup() {
+		struct = Vec4.calloc().set(1.0f, 2.0f, 3.0f, 4.0f);
+
+		buffer = Vec4.calloc(capacity);
+		for ( int i = 0; i < capacity; i++ )
+			buffer.get(i).set(i, i, i, 1.0f);
+
+		view = buffer.flyweight();
+		column = new float[capacity];
+	}
+
+	@TearDown
+	public void tearDown() {
+		buffer.free();
+		struct.free();
+	}
+
+	@Benchmark
+	public float fieldGet() {
+		return struct.x() + struct.y() + struct.z() + struct.w();
+	}
+
+	@Benchmark
+	public Vec4 fieldSet() {
+		return struct.set(1.0f, 2.0f, 3.0f, 4.0f);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(1000)
+	public float bufferGetIndex() {
+		float sum = 0.0f;
+		for ( int i = 0; i < buffer.limit(); i++ )
+			sum += buffer.get(i).x();
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(1000)
+	public float bufferRelative() {
+		float sum = 0.0f;
+		while ( buffer.hasRemaining() ) {
+			sum += buffer.x();
+			buffer.position(buffer.position() + 1);
+		}
+		buffer.rewind();
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(1000)
+	public float bufferFlyweight() {
+		float sum  = 0.0f;
+		Vec4  view = this.view;
+		for ( int i = 0; i < buffer.limit(); i++ )
+			sum += buffer.flyweight(i, view).x();
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(1000)
+	public float bufferIterator() {
+		float sum = 0.0f;
+		for ( Vec4 v : buffer )
+			sum += v.x();
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(1000)
+	public double bufferStream() {
+		return buffer.stream().mapToDouble(Vec4::x).sum();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(1000)
+	public float bufferGather() {
+		float[] column = this.column;
+		buffer.xGather(column);
+
+		float sum = 0.0f;
+		for ( float x : column )
+			sum += x;
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(1000)
+	public Vec4.Buffer bufferScatter() {
+		return buffer.xScatter(column);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(1000)
+	public float bufferAddress() {
+		float sum = 0.0f;
+		long address = buffer.address0();
+		for ( int i = 0; i < buffer.limit(); i++ )
+			sum += Vec4.nx(address + i * Vec4.SIZEOF);
+		return sum;
+	}
+
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.benchmark;
+
+import org.lwjgl.system.*;
+
+import java.nio.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * A {@code float[4]} vector struct, used by the struct benchmarks. It is written by hand in the same shape as the generated struct classes, so that the
+ * benchmarks do not depend on a particular binding being available.
+ *
+ * <code><pre>
+ * struct Vec4 {
+ *     float x;
+ *     float y;
+ *     float z;
+ *     float w;
+ * }</pre></code>
+ */
+public class Vec4 extends Struct implements NativeResource {
+
+	/** The struct size in bytes. */
+	public static final int SIZEOF;
+
+	/** The struct alignment in bytes. */
+	public static final int ALIGNOF;
+
+	/** The struct member offsets. */
+	public static final int
+		X,
+		Y,
+		Z,
+		W;
+
+	static {
+		Layout layout = __struct(
+			__member(4),
+			__member(4),
+			__member(4),
+			__member(4)
+		);
+
+		SIZEOF = layout.getSize();
+		ALIGNOF = layout.getAlignment();
+
+		X = layout.offsetof(0);
+		Y = layout.offsetof(1);
+		Z = layout.offsetof(2);
+		W = layout.offsetof(3);
+	}
+
+	Vec4(long address, ByteBuffer container) {
+		super(address, container);
+	}
+
+	/**
+	 * Creates a {@link Vec4} instance at the current position of the specified {@link ByteBuffer} container. Changes to the buffer's content will be
+	 * visible to the struct instance and vice versa.
+	 *
+	 * <p>The created instance holds a strong reference to the container object.</p>
+	 */
+	public Vec4(ByteBuffer container) {
+		this(memAddress(container), checkContainer(container, SIZEOF));
+	}
+
+	@Override
+	public int sizeof() { return SIZEOF; }
+
+	/** Returns the value of the {@code x} field. */
+	public float x() { return nx(address()); }
+	/** Returns the value of the {@code y} field. */
+	public float y() { return ny(address()); }
+	/** Returns the value of the {@code z} field. */
+	public float z() { return nz(address()); }
+	/** Returns the value of the {@code w} field. */
+	public float w() { return nw(address()); }
+
+	/** Sets the specified value to the {@code x} field. */
+	public Vec4 x(float value) { nx(address(), value); return this; }
+	/** Sets the specified value to the {@code y} field. */
+	public Vec4 y(float value) { ny(address(), value); return this; }
+	/** Sets the specified value to the {@code z} field. */
+	public Vec4 z(float value) { nz(address(), value); return this; }
+	/** Sets the specified value to the {@code w} field. */
+	public Vec4 w(float value) { nw(address(), value); return this; }
+
+	/** Initializes this struct with the specified values. */
+	public Vec4 set(float x, float y, float z, float w) {
+		x(x);
+		y(y);
+		z(z);
+		w(w);
+
+		return this;
+	}
+
+	// -----------------------------------
+
+	/** Returns a new {@link Vec4} instance allocated with {@link MemoryUtil#memAlloc memAlloc}. The instance must be explicitly freed. */
+	public static Vec4 malloc() {
+		return create(nmemAlloc(SIZEOF));
+	}
+
+	/** Returns a new {@link Vec4} instance allocated with {@link MemoryUtil#memCalloc memCalloc}. The instance must be explicitly freed. */
+	public static Vec4 calloc() {
+		return create(nmemCalloc(1, SIZEOF));
+	}
+
+	/** Returns a new {@link Vec4} instance for the specified memory address. */
+	public static Vec4 create(long address) {
+		return new Vec4(address, null);
+	}
+
+	/**
+	 * Returns a new {@link Vec4.Buffer} instance allocated with {@link MemoryUtil#memAlloc memAlloc}. The instance must be explicitly freed.
+	 *
+	 * @param capacity the buffer capacity
+	 */
+	public static Buffer malloc(int capacity) {
+		return create(nmemAlloc(capacity * SIZEOF), capacity);
+	}
+
+	/**
+	 * Returns a new {@link Vec4.Buffer} instance allocated with {@link MemoryUtil#memCalloc memCalloc}. The instance must be explicitly freed.
+	 *
+	 * @param capacity the buffer capacity
+	 */
+	public static Buffer calloc(int capacity) {
+		return create(nmemCalloc(capacity, SIZEOF), capacity);
+	}
+
+	/**
+	 * Create a {@link Vec4.Buffer} instance at the specified memory.
+	 *
+	 * @param address  the memory address
+	 * @param capacity the buffer capacity
+	 */
+	public static Buffer create(long address, int capacity) {
+		return new Buffer(address, null, -1, 0, capacity, capacity);
+	}
+
+	// -----------------------------------
+
+	/**
+	 * Returns a new {@link Vec4} instance allocated in the specified {@link MemoryArena}.
+	 *
+	 * @param arena the arena from which to allocate
+	 */
+	public static Vec4 malloc(MemoryArena arena) {
+		return create(arena.nmalloc(ALIGNOF, SIZEOF));
+	}
+
+	/**
+	 * Returns a new {@link Vec4} instance allocated in the specified {@link MemoryArena} and initializes all its bits to zero.
+	 *
+	 * @param arena the arena from which to allocate
+	 */
+	public static Vec4 calloc(MemoryArena arena) {
+		return create(arena.ncalloc(ALIGNOF, 1, SIZEOF));
+	}
+
+	/**
+	 * Returns a new {@link Vec4.Buffer} instance allocated in the specified {@link MemoryArena}.
+	 *
+	 * @param capacity the buffer capacity
+	 * @param arena    the arena from which to allocate
+	 */
+	public static Buffer malloc(int capacity, MemoryArena arena) {
+		return create(arena.nmalloc(ALIGNOF, (long)capacity * SIZEOF), capacity);
+	}
+
+	/**
+	 * Returns a new {@link Vec4.Buffer} instance allocated in the specified {@link MemoryArena} and initializes all its bits to zero.
+	 *
+	 * @param capacity the buffer capacity
+	 * @param arena    the arena from which to allocate
+	 */
+	public static Buffer calloc(int capacity, MemoryArena arena) {
+		return create(arena.ncalloc(ALIGNOF, capacity, SIZEOF), capacity);
+	}
+
+	// -----------------------------------
+
+	/** Unsafe version of {@link #x}. */
+	public static float nx(long struct) { return memGetFloat(struct + Vec4.X); }
+	/** Unsafe version of {@link #y}. */
+	public static float ny(long struct) { return memGetFloat(struct + Vec4.Y); }
+	/** Unsafe version of {@link #z}. */
+	public static float nz(long struct) { return memGetFloat(struct + Vec4.Z); }
+	/** Unsafe version of {@link #w}. */
+	public static float nw(long struct) { return memGetFloat(struct + Vec4.W); }
+
+	/** Unsafe version of {@link #x(float) x}. */
+	public static void nx(long struct, float value) { memPutFloat(struct + Vec4.X, value); }
+	/** Unsafe version of {@link #y(float) y}. */
+	public static void ny(long struct, float value) { memPutFloat(struct + Vec4.Y, value); }
+	/** Unsafe version of {@link #z(float) z}. */
+	public static void nz(long struct, float value) { memPutFloat(struct + Vec4.Z, value); }
+	/** Unsafe version of {@link #w(float) w}. */
+	public static void nw(long struct, float value) { memPutFloat(struct + Vec4.W, value); }
+
+	// -----------------------------------
+
+	/** An array of {@link Vec4} structs. */
+	public static class Buffer extends StructBuffer<Vec4, Buffer> implements NativeResource {
+
+		/**
+		 * Creates a new {@link Vec4.Buffer} instance backed by the specified container.
+		 *
+		 * <p>Changes to the container's content will be visible to the struct buffer instance and vice versa. The two buffers' position, limit, and mark
+		 * values will be independent. The new buffer's position will be zero, its capacity and its limit will be the number of remaining bytes of the
+		 * container buffer divided by {@link Vec4#SIZEOF}, and its mark will be undefined.</p>
+		 *
+		 * <p>The created buffer instance holds a strong reference to the container object.</p>
+		 */
+		public Buffer(ByteBuffer container) {
+			super(container, container.remaining() / SIZEOF);
+		}
+
+		Buffer(long address, ByteBuffer container, int mark, int pos, int lim, int cap) {
+			super(address, container, mark, pos, lim, cap);
+		}
+
+		@Override
+		protected Buffer self() {
+			return this;
+		}
+
+		@Override
+		protected Buffer newBufferInstance(long address, ByteBuffer container, int mark, int pos, int lim, int cap) {
+			return new Buffer(address, container, mark, pos, lim, cap);
+		}
+
+		@Override
+		protected Vec4 newInstance(long address) {
+			return new Vec4(address, container);
+		}
+
+		@Override
+		protected int sizeof() {
+			return SIZEOF;
+		}
+
+		/** Returns the value of the {@code x} field. */
+		public float x() { return Vec4.nx(address()); }
+		/** Returns the value of the {@code y} field. */
+		public float y() { return Vec4.ny(address()); }
+		/** Returns the value of the {@code z} field. */
+		public float z() { return Vec4.nz(address()); }
+		/** Returns the value of the {@code w} field. */
+		public float w() { return Vec4.nw(address()); }
+
+		/** Copies the {@code x} field of each struct between the current position and the limit to {@code dst}. */
+		public Vec4.Buffer xGather(float[] dst) { gather(Vec4.X, dst); return this; }
+		/** Copies the {@code x} field of each struct between the current position and the limit to {@code dst}. */
+		public Vec4.Buffer xGather(FloatBuffer dst) { gather(Vec4.X, dst); return this; }
+		/** Copies the {@code y} field of each struct between the current position and the limit to {@code dst}. */
+		public Vec4.Buffer yGather(float[] dst) { gather(Vec4.Y, dst); return this; }
+		/** Copies the {@code y} field of each struct between the current position and the limit to {@code dst}. */
+		public Vec4.Buffer yGather(FloatBuffer dst) { gather(Vec4.Y, dst); return this; }
+		/** Copies the {@code z} field of each struct between the current position and the limit to {@code dst}. */
+		public Vec4.Buffer zGather(float[] dst) { gather(Vec4.Z, dst); return this; }
+		/** Copies the {@code z} field of each struct between the current position and the limit to {@code dst}. */
+		public Vec4.Buffer zGather(FloatBuffer dst) { gather(Vec4.Z, dst); return this; }
+		/** Copies the {@code w} field of each struct between the current position and the limit to {@code dst}. */
+		public Vec4.Buffer wGather(float[] dst) { gather(Vec4.W, dst); return this; }
+		/** Copies the {@code w} field of each struct between the current position and the limit to {@code dst}. */
+		public Vec4.Buffer wGather(FloatBuffer dst) { gather(Vec4.W, dst); return this; }
+		/** Copies {@code src} to the {@code x} field of each struct between the current position and the limit. */
+		public Vec4.Buffer xScatter(float[] src) { scatter(Vec4.X, src); return this; }
+		/** Copies {@code src} to the {@code x} field of each struct between the current position and the limit. */
+		public Vec4.Buffer xScatter(FloatBuffer src) { scatter(Vec4.X, src); return this; }
+		/** Copies {@code src} to the {@code y} field of each struct between the current position and the limit. */
+		public Vec4.Buffer yScatter(float[] src) { scatter(Vec4.Y, src); return this; }
+		/** Copies {@code src} to the {@code y} field of each struct between the current position and the limit. */
+		public Vec4.Buffer yScatter(FloatBuffer src) { scatter(Vec4.Y, src); return this; }
+		/** Copies {@code src} to the {@code z} field of each struct between the current position and the limit. */
+		public Vec4.Buffer zScatter(float[] src) { scatter(Vec4.Z, src); return this; }
+		/** Copies {@code src} to the {@code z} field of each struct between the current position and the limit. */
+		public Vec4.Buffer zScatter(FloatBuffer src) { scatter(Vec4.Z, src); return this; }
+		/** Copies {@code src} to the {@code w} field of each struct between the current position and the limit. */
+		public Vec4.Buffer wScatter(float[] src) { scatter(Vec4.W, src); return this; }
+		/** Copies {@code src} to the {@code w} field of each struct between the current position and the limit. */
+		public Vec4.Buffer wScatter(FloatBuffer src) { scatter(Vec4.W, src); return this; }
+
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+#pragma once
+
+#include "dyncall_callback.h"
+
+// Must match Callback.MAX_TYPED_ARGS
+#define MAX_TYPED_ARGS 32
+
+typedef struct LWJGLCallbackQueue LWJGLCallbackQueue;
+
+// The callback userdata, created in Callback.create.
+typedef struct LWJGLCallback {
+	// A global reference to the Java callback instance
+	jobject instance;
+	// The typed Java method, or NULL if the arguments are decoded in Java
+	jmethodID invoke;
+	// The queue of a callback created by a CallbackDispatcher, or NULL if the callback is invoked synchronously
+	LWJGLCallbackQueue* queue;
+	// The null-terminated argument types of the typed method
+	char args[1];
+} LWJGLCallback;
+
+// Decodes the callback arguments to the typed method arguments.
+static inline void decodeArgs(DCArgs *args, const char* types, jvalue* values) {
+	char type;
+	while ( (type = *types++) != '\0' ) {
+		switch ( type ) {
+			case 'B': (values++)->z = (jboolean)dcbArgBool(args); break;
+			case 'Z': (values++)->z = (jboolean)(dcbArgInt(args) != 0); break; // int mapped to Java boolean
+			case 'c': (values++)->b = (jbyte)dcbArgChar(args); break;
+			case 's': (values++)->s = (jshort)dcbArgShort(args); break;
+			case 'i': (values++)->i = (jint)dcbArgInt(args); break;
+			case 'l': (values++)->j = (jlong)dcbArgLongLong(args); break;
+			case 'f': (values++)->f = (jfloat)dcbArgFloat(args); break;
+			case 'd': (values++)->d = (jdouble)dcbArgDouble(args); break;
+			default:  (values++)->j = (jlong)(intptr_t)dcbArgPointer(args); break;
+		}
+	}
+}
@@ -6,7 +6,7 @@
 	__pragma(warning(disable : 4710))
 #endif
 #include "common_tools.h"
-#include "dyncall_callback.h"
+#include "lwjgl_callback.h"
 
 static jmethodID
 	javaCallbackV,
@@ -19,11 +19,6 @@ static jmethodID
 	javaCallbackD,
 	javaCallbackP;
 
-typedef struct LWJGLCallback {
-	jweak reference;
-	const char* debug;
-} LWJGLCallback;
-
 #if LWJGL_WINDOWS
 	#define noinline __declspec(noinline)
 #else
@@ -47,7 +42,7 @@ static char cbHandlerV(DCCallback *cb, DCArgs *args, DCValue *result, void *user
 
 	// Invoke the Java callback
 	(*env)->CallVoidMethod(env,
-		(jobject)userdata,
+		((LWJGLCallback*)userdata)->instance,
 		javaCallbackV,
 		args
 	);
@@ -67,7 +62,7 @@ static char cbHandlerV(DCCallback *cb, DCArgs *args, DCValue *result, void *user
 		UNUSED_PARAM(cb) \
 \
 		*(Type*)result = (Type)(*env)->Call##JavaType##Method(env, \
-			(jobject)userdata, \
+			((LWJGLCallback*)userdata)->instance, \
 			javaCallback##Name, \
 			args \
 		); \
@@ -87,11 +82,69 @@ DEFINE_CB_HANDLER(F, jfloat,   'f', Float)
 DEFINE_CB_HANDLER(D, jdouble,  'd', Double)
 DEFINE_CB_HANDLER(P, intptr_t, 'p', Long)
 
+// Typed callbacks: the arguments are decoded here and the typed Java method is invoked with a single JNI call.
+
+static char cbHandlerTypedV(DCCallback *cb, DCArgs *args, DCValue *result, void *userdata) {
+	LWJGLCallback* callback = (LWJGLCallback*)userdata;
+	jvalue values[MAX_TYPED_ARGS];
+
+	jboolean async;
+	JNIEnv* env = getEnv(&async);
+
+	UNUSED_PARAM(cb)
+	UNUSED_PARAM(result)
+
+	decodeArgs(args, callback->args, values);
+	(*env)->CallVoidMethodA(env,
+		callback->instance,
+		callback->invoke,
+		values
+	);
+
+	if ( (*env)->ExceptionCheck(env) && async )
+		asyncCallbackException(env);
+
+	return 'v';
+}
+
+#define DEFINE_CB_HANDLER_TYPED(Name, Type, TypeSig, JavaType) \
+	static char cbHandlerTyped##Name(DCCallback *cb, DCArgs *args, DCValue *result, void *userdata) { \
+		LWJGLCallback* callback = (LWJGLCallback*)userdata; \
+		jvalue values[MAX_TYPED_ARGS]; \
+\
+		jboolean async; \
+		JNIEnv* env = getEnv(&async); \
+\
+		UNUSED_PARAM(cb) \
+\
+		decodeArgs(args, callback->args, values); \
+		*(Type*)result = (Type)(*env)->Call##JavaType##MethodA(env, \
+			callback->instance, \
+			callback->invoke, \
+			values \
+		); \
+\
+		if ( (*env)->ExceptionCheck(env) && async ) \
+			asyncCallbackException(env); \
+\
+		return TypeSig; \
+	}
+
+DEFINE_CB_HANDLER_TYPED(Z, jboolean, 'B', Boolean)
+DEFINE_CB_HANDLER_TYPED(B, jbyte,    'c', Byte)
+DEFINE_CB_HANDLER_TYPED(S, jshort,   's', Short)
+DEFINE_CB_HANDLER_TYPED(I, jint,     'i', Int)
+DEFINE_CB_HANDLER_TYPED(J, jlong,    'l', Long)
+DEFINE_CB_HANDLER_TYPED(F, jfloat,   'f', Float)
+DEFINE_CB_HANDLER_TYPED(D, jdouble,  'd', Double)
+DEFINE_CB_HANDLER_TYPED(P, intptr_t, 'p', Long)
+
 EXTERN_C_ENTER
 
 #define SETUP_CALLBACK(Index, Type) \
 	javaCallback##Type = (*env)->FromReflectedMethod(env, (*env)->GetObjectArrayElement(env, methods, Index)); \
-	callbacks[Index] = (uintptr_t)&cbHandler##Type;
+	callbacks[Index] = (uintptr_t)&cbHandler##Type; \
+	callbacks[Index + 9] = (uintptr_t)&cbHandlerTyped##Type;
 
 JNIEXPORT void JNICALL Java_org_lwjgl_system_Callback_getNativeCallbacks(JNIEnv *env, jclass clazz, jobjectArray methods, jlong callbacksAddress) {
 	uintptr_t* callbacks = (uintptr_t *)(intptr_t)callbacksAddress;
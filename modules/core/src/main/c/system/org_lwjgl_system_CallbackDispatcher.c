@@ -0,0 +1,229 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+#ifdef LWJGL_WINDOWS
+	__pragma(warning(disable : 4710))
+#endif
+#include "common_tools.h"
+#include "lwjgl_callback.h"
+#include <stdlib.h>
+#include <string.h>
+
+#ifdef LWJGL_WINDOWS
+	#include <WindowsLWJGL.h>
+	#ifdef _WIN64
+		// Volatile accesses have acquire/release semantics on x64 (/volatile:ms) and aligned 64-bit accesses are atomic
+		#define LOAD_ACQUIRE(ptr)         (*(ptr))
+		#define STORE_RELEASE(ptr, value) (*(ptr) = (value))
+	#else
+		// 64-bit loads and stores may tear on x86, use cmpxchg8b (a full barrier) instead
+		#define LOAD_ACQUIRE(ptr)         InterlockedCompareExchange64((ptr), 0, 0)
+		#define STORE_RELEASE(ptr, value) InterlockedExchange64((ptr), (value))
+	#endif
+	#define CAS(ptr, expected, value)     (InterlockedCompareExchange64((ptr), (value), (expected)) == (expected))
+	#define FETCH_INCREMENT(ptr)          InterlockedIncrement64(ptr)
+	#define YIELD()                       SwitchToThread()
+#else
+	#include <sched.h>
+	#define LOAD_ACQUIRE(ptr)             __atomic_load_n((ptr), __ATOMIC_ACQUIRE)
+	#define STORE_RELEASE(ptr, value)     __atomic_store_n((ptr), (value), __ATOMIC_RELEASE)
+	#define CAS(ptr, expected, value)     __sync_bool_compare_and_swap((ptr), (expected), (value))
+	#define FETCH_INCREMENT(ptr)          __sync_fetch_and_add((ptr), 1)
+	#define YIELD()                       sched_yield()
+#endif
+
+// Must match CallbackDispatcher.Backpressure
+#define BACKPRESSURE_BLOCK 0
+#define BACKPRESSURE_DROP  1
+#define BACKPRESSURE_SYNC  2
+
+// A slot of the queue. The slot size depends on the maximum number of arguments.
+typedef struct CallbackSlot {
+	volatile jlong sequence;
+	LWJGLCallback* callback;
+	jvalue values[1];
+} CallbackSlot;
+
+// A bounded, lock-free, multi-producer single-consumer queue of callback invocations. Each slot has a sequence number that tells producers and the
+// consumer if the slot is free or published, for the current lap of the ring buffer.
+struct LWJGLCallbackQueue {
+	// Written by producers
+	volatile jlong enqueuePos;
+	char padding0[64 - sizeof(jlong)];
+
+	// Written by the consumer
+	volatile jlong dequeuePos;
+	char padding1[64 - sizeof(jlong)];
+
+	volatile jlong dropped;
+
+	char* slots;
+	jlong mask;
+	jint  slotSize;
+	jint  maxArgs;
+	jint  backpressure;
+};
+
+static inline CallbackSlot* getSlot(LWJGLCallbackQueue* queue, jlong pos) {
+	return (CallbackSlot*)(queue->slots + (size_t)(pos & queue->mask) * (size_t)queue->slotSize);
+}
+
+static void invokeSync(LWJGLCallback* callback, DCArgs* args) {
+	jvalue values[MAX_TYPED_ARGS];
+
+	jboolean async;
+	JNIEnv* env = getEnv(&async);
+
+	decodeArgs(args, callback->args, values);
+	(*env)->CallVoidMethodA(env, callback->instance, callback->invoke, values);
+
+	if ( (*env)->ExceptionCheck(env) ) {
+		fprintf(stderr, "[LWJGL] Exception in dispatched callback that was invoked synchronously.\n");
+		fflush(stderr);
+
+		(*env)->ExceptionDescribe(env);
+		(*env)->ExceptionClear(env);
+	}
+}
+
+// Copies the callback arguments to the queue. Does not access JNI, unless the queue is full and the backpressure mode is SYNC.
+static char cbHandlerQueued(DCCallback *cb, DCArgs *args, DCValue *result, void *userdata) {
+	LWJGLCallback* callback = (LWJGLCallback*)userdata;
+	LWJGLCallbackQueue* queue = callback->queue;
+
+	CallbackSlot* slot;
+	jlong pos = LOAD_ACQUIRE(&queue->enqueuePos);
+
+	UNUSED_PARAM(cb)
+	UNUSED_PARAM(result)
+
+	while ( 1 ) {
+		jlong diff;
+
+		slot = getSlot(queue, pos);
+		diff = LOAD_ACQUIRE(&slot->sequence) - pos;
+		if ( diff == 0 ) {
+			// The slot is free, try to claim it
+			if ( CAS(&queue->enqueuePos, pos, pos + 1) )
+				break;
+		} else if ( diff < 0 ) {
+			// The queue is full
+			switch ( queue->backpressure ) {
+				case BACKPRESSURE_DROP:
+					FETCH_INCREMENT(&queue->dropped);
+					return 'v';
+				case BACKPRESSURE_SYNC:
+					invokeSync(callback, args);
+					return 'v';
+				default:
+					YIELD();
+			}
+		}
+		pos = LOAD_ACQUIRE(&queue->enqueuePos);
+	}
+
+	slot->callback = callback;
+	decodeArgs(args, callback->args, slot->values);
+
+	// Publish
+	STORE_RELEASE(&slot->sequence, pos + 1);
+
+	return 'v';
+}
+
+EXTERN_C_ENTER
+
+JNIEXPORT jlong JNICALL Java_org_lwjgl_system_CallbackDispatcher_ngetHandler(JNIEnv *env, jclass clazz) {
+	UNUSED_PARAMS(env, clazz)
+	return (jlong)(intptr_t)&cbHandlerQueued;
+}
+
+JNIEXPORT jlong JNICALL Java_org_lwjgl_system_CallbackDispatcher_ncreate(JNIEnv *env, jclass clazz, jint capacity, jint maxArgs, jint backpressure) {
+	LWJGLCallbackQueue* queue;
+	jint i;
+
+	UNUSED_PARAMS(env, clazz)
+
+	queue = (LWJGLCallbackQueue*)malloc(sizeof(LWJGLCallbackQueue));
+	if ( queue == NULL )
+		return (jlong)0;
+	memset(queue, 0, sizeof(LWJGLCallbackQueue));
+
+	queue->slotSize = (jint)(sizeof(CallbackSlot) + (size_t)(maxArgs - 1) * sizeof(jvalue));
+	queue->slots = (char*)malloc((size_t)capacity * (size_t)queue->slotSize);
+	if ( queue->slots == NULL ) {
+		free(queue);
+		return (jlong)0;
+	}
+
+	queue->mask = (jlong)(capacity - 1);
+	queue->maxArgs = maxArgs;
+	queue->backpressure = backpressure;
+
+	for ( i = 0; i < capacity; i++ )
+		getSlot(queue, i)->sequence = i;
+
+	return (jlong)(intptr_t)queue;
+}
+
+JNIEXPORT void JNICALL Java_org_lwjgl_system_CallbackDispatcher_nfree(JNIEnv *env, jclass clazz, jlong queueAddress) {
+	LWJGLCallbackQueue* queue = (LWJGLCallbackQueue*)(intptr_t)queueAddress;
+
+	UNUSED_PARAMS(env, clazz)
+
+	free(queue->slots);
+	free(queue);
+}
+
+JNIEXPORT jint JNICALL Java_org_lwjgl_system_CallbackDispatcher_ndispatch(JNIEnv *env, jclass clazz, jlong queueAddress, jint max) {
+	LWJGLCallbackQueue* queue = (LWJGLCallbackQueue*)(intptr_t)queueAddress;
+
+	jvalue values[MAX_TYPED_ARGS];
+	jint i;
+
+	UNUSED_PARAM(clazz)
+
+	for ( i = 0; i < max; i++ ) {
+		// Reloaded on each iteration, the invoked callback may dispatch recursively
+		jlong pos = LOAD_ACQUIRE(&queue->dequeuePos);
+
+		CallbackSlot* slot = getSlot(queue, pos);
+		LWJGLCallback* callback;
+
+		if ( LOAD_ACQUIRE(&slot->sequence) != pos + 1 )
+			break;
+
+		// Copy the arguments and release the slot before the invocation
+		callback = slot->callback;
+		memcpy(values, slot->values, (size_t)queue->maxArgs * sizeof(jvalue));
+
+		STORE_RELEASE(&slot->sequence, pos + queue->mask + 1);
+		STORE_RELEASE(&queue->dequeuePos, ++pos);
+
+		(*env)->CallVoidMethodA(env, callback->instance, callback->invoke, values);
+
+		// Let the exception propagate to the consumer thread
+		if ( (*env)->ExceptionCheck(env) )
+			return i + 1;
+	}
+
+	return i;
+}
+
+JNIEXPORT jlong JNICALL Java_org_lwjgl_system_CallbackDispatcher_nenqueued(JNIEnv *env, jclass clazz, jlong queueAddress) {
+	UNUSED_PARAMS(env, clazz)
+	return LOAD_ACQUIRE(&((LWJGLCallbackQueue*)(intptr_t)queueAddress)->enqueuePos);
+}
+
+JNIEXPORT jlong JNICALL Java_org_lwjgl_system_CallbackDispatcher_ndequeued(JNIEnv *env, jclass clazz, jlong queueAddress) {
+	UNUSED_PARAMS(env, clazz)
+	return LOAD_ACQUIRE(&((LWJGLCallbackQueue*)(intptr_t)queueAddress)->dequeuePos);
+}
+
+JNIEXPORT jlong JNICALL Java_org_lwjgl_system_CallbackDispatcher_ndropped(JNIEnv *env, jclass clazz, jlong queueAddress) {
+	UNUSED_PARAMS(env, clazz)
+	return LOAD_ACQUIRE(&((LWJGLCallbackQueue*)(intptr_t)queueAddress)->dropped);
+}
+
+EXTERN_C_EXIT
@@ -0,0 +1,361 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+#ifdef LWJGL_WINDOWS
+	__pragma(warning(disable : 4710))
+#endif
+#if defined(LWJGL_LINUX) && !defined(_GNU_SOURCE)
+	#define _GNU_SOURCE // dl_iterate_phdr
+#endif
+#include "common_tools.h"
+#include <string.h>
+
+#ifdef LWJGL_WINDOWS
+	#include <WindowsLWJGL.h>
+#endif
+#ifdef LWJGL_LINUX
+	DISABLE_WARNINGS()
+	#include <link.h>
+	ENABLE_WARNINGS()
+#endif
+#ifdef LWJGL_MACOSX
+	#include <dlfcn.h>
+	#include <mach-o/dyld.h>
+	#include <mach-o/loader.h>
+#endif
+
+// The module base is the address that module-relative offsets are computed from:
+// - Windows: the HMODULE (the address of the DOS header)
+// - Linux: the load bias (dlpi_addr)
+// - macOS: the address of the mach header
+
+#ifdef LWJGL_LINUX
+
+#ifndef NT_GNU_BUILD_ID
+	#define NT_GNU_BUILD_ID 3
+#endif
+
+typedef struct ModuleQuery {
+	ElfW(Addr)         address;
+	const char*        name;
+	ElfW(Addr)         base;
+
+	struct dl_phdr_info result;
+	int                 found;
+} ModuleQuery;
+
+static int findModule(struct dl_phdr_info* info, size_t size, void* data) {
+	ModuleQuery* query = (ModuleQuery*)data;
+	ElfW(Half) i;
+
+	UNUSED_PARAM(size)
+
+	if ( query->name != NULL ) {
+		if ( strcmp(info->dlpi_name, query->name) != 0 )
+			return 0;
+	} else if ( query->address != 0 ) {
+		int contains = 0;
+		for ( i = 0; i < info->dlpi_phnum; i++ ) {
+			const ElfW(Phdr)* phdr = &info->dlpi_phdr[i];
+			ElfW(Addr) begin = info->dlpi_addr + phdr->p_vaddr;
+			if ( phdr->p_type == PT_LOAD && begin <= query->address && query->address < begin + phdr->p_memsz ) {
+				contains = 1;
+				break;
+			}
+		}
+		if ( !contains )
+			return 0;
+	} else if ( info->dlpi_addr != query->base )
+		return 0;
+
+	query->result = *info;
+	query->found = 1;
+	return 1;
+}
+
+static int queryModule(ModuleQuery* query) {
+	query->found = 0;
+	dl_iterate_phdr(findModule, query);
+	return query->found;
+}
+
+#endif
+
+EXTERN_C_ENTER
+
+JNIEXPORT jstring JNICALL Java_org_lwjgl_system_CapabilitiesSnapshot_ngetModulePath(JNIEnv *env, jclass clazz, jlong address) {
+	UNUSED_PARAM(clazz)
+#ifdef LWJGL_WINDOWS
+	{
+		HMODULE module;
+		WCHAR   path[MAX_PATH];
+		DWORD   length;
+
+		if ( !GetModuleHandleExW(GET_MODULE_HANDLE_EX_FLAG_FROM_ADDRESS | GET_MODULE_HANDLE_EX_FLAG_UNCHANGED_REFCOUNT, (LPCWSTR)(intptr_t)address, &module) )
+			return NULL;
+
+		length = GetModuleFileNameW(module, path, MAX_PATH);
+		if ( length == 0 || length == MAX_PATH )
+			return NULL;
+
+		return (*env)->NewString(env, (const jchar*)path, (jsize)length);
+	}
+#elif defined(LWJGL_LINUX)
+	{
+		ModuleQuery query;
+		memset(&query, 0, sizeof(ModuleQuery));
+		query.address = (ElfW(Addr))(intptr_t)address;
+
+		// The main executable has an empty name and cannot be found by name later
+		if ( !queryModule(&query) || query.result.dlpi_name == NULL || query.result.dlpi_name[0] == '\0' )
+			return NULL;
+
+		return (*env)->NewStringUTF(env, query.result.dlpi_name);
+	}
+#else
+	{
+		Dl_info info;
+		if ( dladdr((const void*)(intptr_t)address, &info) == 0 || info.dli_fname == NULL )
+			return NULL;
+
+		return (*env)->NewStringUTF(env, info.dli_fname);
+	}
+#endif
+}
+
+JNIEXPORT jlong JNICALL Java_org_lwjgl_system_CapabilitiesSnapshot_ngetModuleBase(JNIEnv *env, jclass clazz, jstring path) {
+	jlong base = (jlong)0;
+
+	UNUSED_PARAM(clazz)
+#ifdef LWJGL_WINDOWS
+	{
+		const jchar* chars = (*env)->GetStringChars(env, path, NULL);
+		if ( chars == NULL )
+			return base;
+
+		base = (jlong)(intptr_t)GetModuleHandleW((LPCWSTR)chars);
+		(*env)->ReleaseStringChars(env, path, chars);
+	}
+#else
+	{
+		const char* chars = (*env)->GetStringUTFChars(env, path, NULL);
+		if ( chars == NULL )
+			return base;
+
+	#ifdef LWJGL_LINUX
+		{
+			ModuleQuery query;
+			memset(&query, 0, sizeof(ModuleQuery));
+			query.name = chars;
+
+			if ( queryModule(&query) )
+				base = (jlong)query.result.dlpi_addr;
+		}
+	#else
+		{
+			uint32_t i, count = _dyld_image_count();
+			for ( i = 0; i < count; i++ ) {
+				const char* name = _dyld_get_image_name(i);
+				if ( name != NULL && strcmp(name, chars) == 0 ) {
+					base = (jlong)(intptr_t)_dyld_get_image_header(i);
+					break;
+				}
+			}
+		}
+	#endif
+
+		(*env)->ReleaseStringUTFChars(env, path, chars);
+	}
+#endif
+	return base;
+}
+
+JNIEXPORT jlong JNICALL Java_org_lwjgl_system_CapabilitiesSnapshot_ngetModuleSize(JNIEnv *env, jclass clazz, jlong base) {
+	jlong size = (jlong)0;
+
+	UNUSED_PARAM(env)
+	UNUSED_PARAM(clazz)
+#ifdef LWJGL_WINDOWS
+	// The PE header image size
+	{
+		const IMAGE_DOS_HEADER* dos = (const IMAGE_DOS_HEADER*)(intptr_t)base;
+		const IMAGE_NT_HEADERS* nt;
+		if ( dos->e_magic != IMAGE_DOS_SIGNATURE )
+			return size;
+
+		nt = (const IMAGE_NT_HEADERS*)((const char*)dos + dos->e_lfanew);
+		if ( nt->Signature != IMAGE_NT_SIGNATURE )
+			return size;
+
+		size = (jlong)nt->OptionalHeader.SizeOfImage;
+	}
+#elif defined(LWJGL_LINUX)
+	// The end of the last PT_LOAD segment
+	{
+		ModuleQuery query;
+		ElfW(Half)  i;
+
+		memset(&query, 0, sizeof(ModuleQuery));
+		query.base = (ElfW(Addr))base;
+		if ( !queryModule(&query) )
+			return size;
+
+		for ( i = 0; i < query.result.dlpi_phnum; i++ ) {
+			const ElfW(Phdr)* phdr = &query.result.dlpi_phdr[i];
+			if ( phdr->p_type == PT_LOAD && size < (jlong)(phdr->p_vaddr + phdr->p_memsz) )
+				size = (jlong)(phdr->p_vaddr + phdr->p_memsz);
+		}
+	}
+#else
+	// The end of the last segment, relative to the __TEXT segment (which contains the mach header)
+	{
+		const struct mach_header* header = (const struct mach_header*)(intptr_t)base;
+		const char* command;
+		uint64_t    text = 0, end = 0;
+		uint32_t    i;
+
+		if ( header->magic == MH_MAGIC_64 )
+			command = (const char*)header + sizeof(struct mach_header_64);
+		else if ( header->magic == MH_MAGIC )
+			command = (const char*)header + sizeof(struct mach_header);
+		else
+			return size;
+
+		for ( i = 0; i < header->ncmds; i++ ) {
+			const struct load_command* lc = (const struct load_command*)command;
+			uint64_t vmaddr, vmsize;
+			const char* segname;
+
+			if ( lc->cmd == LC_SEGMENT_64 ) {
+				vmaddr = ((const struct segment_command_64*)lc)->vmaddr;
+				vmsize = ((const struct segment_command_64*)lc)->vmsize;
+				segname = ((const struct segment_command_64*)lc)->segname;
+			} else if ( lc->cmd == LC_SEGMENT ) {
+				vmaddr = ((const struct segment_command*)lc)->vmaddr;
+				vmsize = ((const struct segment_command*)lc)->vmsize;
+				segname = ((const struct segment_command*)lc)->segname;
+			} else {
+				command += lc->cmdsize;
+				continue;
+			}
+
+			if ( strncmp(segname, SEG_TEXT, 16) == 0 )
+				text = vmaddr;
+			if ( strncmp(segname, SEG_PAGEZERO, 16) != 0 && end < vmaddr + vmsize )
+				end = vmaddr + vmsize;
+
+			command += lc->cmdsize;
+		}
+
+		if ( text < end )
+			size = (jlong)(end - text);
+	}
+#endif
+	return size;
+}
+
+JNIEXPORT jbyteArray JNICALL Java_org_lwjgl_system_CapabilitiesSnapshot_ngetModuleBuildID(JNIEnv *env, jclass clazz, jlong base) {
+	const void* id = NULL;
+	jsize       idSize = 0;
+#ifdef LWJGL_WINDOWS
+	jint        values[3];
+#endif
+
+	UNUSED_PARAM(clazz)
+#ifdef LWJGL_WINDOWS
+	// The PE header timestamp, image size and checksum
+	{
+		const IMAGE_DOS_HEADER* dos = (const IMAGE_DOS_HEADER*)(intptr_t)base;
+		const IMAGE_NT_HEADERS* nt;
+		if ( dos->e_magic != IMAGE_DOS_SIGNATURE )
+			return NULL;
+
+		nt = (const IMAGE_NT_HEADERS*)((const char*)dos + dos->e_lfanew);
+		if ( nt->Signature != IMAGE_NT_SIGNATURE )
+			return NULL;
+
+		values[0] = (jint)nt->FileHeader.TimeDateStamp;
+		values[1] = (jint)nt->OptionalHeader.SizeOfImage;
+		values[2] = (jint)nt->OptionalHeader.CheckSum;
+
+		id = values;
+		idSize = (jsize)sizeof(values);
+	}
+#elif defined(LWJGL_LINUX)
+	// The GNU build ID note
+	{
+		ModuleQuery query;
+		ElfW(Half)  i;
+
+		memset(&query, 0, sizeof(ModuleQuery));
+		query.base = (ElfW(Addr))base;
+		if ( !queryModule(&query) )
+			return NULL;
+
+		for ( i = 0; i < query.result.dlpi_phnum && id == NULL; i++ ) {
+			const ElfW(Phdr)* phdr = &query.result.dlpi_phdr[i];
+			const char* note;
+			const char* end;
+
+			if ( phdr->p_type != PT_NOTE )
+				continue;
+
+			note = (const char*)(query.result.dlpi_addr + phdr->p_vaddr);
+			end = note + phdr->p_memsz;
+			while ( note + sizeof(ElfW(Nhdr)) <= end ) {
+				const ElfW(Nhdr)* nhdr = (const ElfW(Nhdr)*)note;
+				const char* name = note + sizeof(ElfW(Nhdr));
+				const char* desc = name + ((nhdr->n_namesz + 3) & ~3U);
+
+				if ( desc + nhdr->n_descsz > end )
+					break;
+
+				if ( nhdr->n_type == NT_GNU_BUILD_ID && nhdr->n_namesz == 4 && memcmp(name, "GNU", 4) == 0 ) {
+					id = desc;
+					idSize = (jsize)nhdr->n_descsz;
+					break;
+				}
+
+				note = desc + ((nhdr->n_descsz + 3) & ~3U);
+			}
+		}
+	}
+#else
+	// The LC_UUID load command
+	{
+		const struct mach_header* header = (const struct mach_header*)(intptr_t)base;
+		const char* command;
+		uint32_t    i;
+
+		if ( header->magic == MH_MAGIC_64 )
+			command = (const char*)header + sizeof(struct mach_header_64);
+		else if ( header->magic == MH_MAGIC )
+			command = (const char*)header + sizeof(struct mach_header);
+		else
+			return NULL;
+
+		for ( i = 0; i < header->ncmds; i++ ) {
+			const struct load_command* lc = (const struct load_command*)command;
+			if ( lc->cmd == LC_UUID ) {
+				id = ((const struct uuid_command*)lc)->uuid;
+				idSize = (jsize)sizeof(((const struct uuid_command*)lc)->uuid);
+				break;
+			}
+			command += lc->cmdsize;
+		}
+	}
+#endif
+
+	if ( id == NULL )
+		return NULL;
+
+	{
+		jbyteArray array = (*env)->NewByteArray(env, idSize);
+		if ( array != NULL )
+			(*env)->SetByteArrayRegion(env, array, 0, idSize, (const jbyte*)id);
+		return array;
+	}
+}
+
+EXTERN_C_EXIT
@@ -0,0 +1,126 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+#include "common_tools.h"
+#include "dyncall.h"
+
+// Must match CommandBuffer
+#define TYPE_VOID    0
+#define TYPE_BOOL    1
+#define TYPE_BYTE    2
+#define TYPE_SHORT   3
+#define TYPE_INT     4
+#define TYPE_LONG    5
+#define TYPE_POINTER 6
+#define TYPE_FLOAT   7
+#define TYPE_DOUBLE  8
+
+#define COMMAND_FUNCTION   0
+#define COMMAND_RESULT     8
+#define COMMAND_TYPES      16
+#define COMMAND_DESCRIPTOR 24
+#define COMMAND_SIZE       28
+#define COMMAND_ARGUMENTS  32
+
+#if defined(LWJGL_WINDOWS) && !defined(_WIN64)
+	#define STDCALL_MODE DC_CALL_C_X86_WIN32_STD
+#else
+	#define STDCALL_MODE DC_CALL_C_DEFAULT
+#endif
+
+EXTERN_C_ENTER
+
+JNIEXPORT void JNICALL Java_org_lwjgl_system_CommandBuffer_nexecute(JNIEnv *env, jclass clazz, jlong vmAddress, jlong address, jint size) {
+	DCCallVM* vm = (DCCallVM*)(intptr_t)vmAddress;
+
+	char* command = (char*)(intptr_t)address;
+	char* end = command + size;
+
+	DCint mode = DC_CALL_C_DEFAULT;
+
+	UNUSED_PARAMS(env, clazz)
+
+	dcMode(vm, mode);
+	while ( command < end ) {
+		DCpointer function   = (DCpointer)(intptr_t)*(jlong*)(command + COMMAND_FUNCTION);
+		char*     result     = command + COMMAND_RESULT;
+		jlong     types      = *(jlong*)(command + COMMAND_TYPES);
+		jint      descriptor = *(jint*)(command + COMMAND_DESCRIPTOR);
+		char*     arg        = command + COMMAND_ARGUMENTS;
+
+		jint argCount   = descriptor & 0xFF;
+		jint returnType = (descriptor >> 8) & 0xFF;
+
+		DCint commandMode = ((descriptor >> 16) & 1) ? STDCALL_MODE : DC_CALL_C_DEFAULT;
+		jint  i;
+
+		if ( commandMode != mode ) {
+			mode = commandMode;
+			dcMode(vm, mode);
+		}
+
+		dcReset(vm);
+		for ( i = 0; i < argCount; i++, arg += 8 ) {
+			switch ( (jint)(types >> (i << 2)) & 0xF ) {
+				case TYPE_BOOL:
+					dcArgBool(vm, (DCbool)*(jboolean*)arg);
+					break;
+				case TYPE_BYTE:
+					dcArgChar(vm, (DCchar)*(jbyte*)arg);
+					break;
+				case TYPE_SHORT:
+					dcArgShort(vm, (DCshort)*(jshort*)arg);
+					break;
+				case TYPE_INT:
+					dcArgInt(vm, (DCint)*(jint*)arg);
+					break;
+				case TYPE_LONG:
+					dcArgLongLong(vm, (DClonglong)*(jlong*)arg);
+					break;
+				case TYPE_POINTER:
+					dcArgPointer(vm, (DCpointer)(intptr_t)*(jlong*)arg);
+					break;
+				case TYPE_FLOAT:
+					dcArgFloat(vm, (DCfloat)*(jfloat*)arg);
+					break;
+				case TYPE_DOUBLE:
+					dcArgDouble(vm, (DCdouble)*(jdouble*)arg);
+					break;
+			}
+		}
+
+		switch ( returnType ) {
+			case TYPE_BOOL:
+				*(jboolean*)result = (jboolean)(dcCallBool(vm, function) != 0);
+				break;
+			case TYPE_BYTE:
+				*(jbyte*)result = (jbyte)dcCallChar(vm, function);
+				break;
+			case TYPE_SHORT:
+				*(jshort*)result = (jshort)dcCallShort(vm, function);
+				break;
+			case TYPE_INT:
+				*(jint*)result = (jint)dcCallInt(vm, function);
+				break;
+			case TYPE_LONG:
+				*(jlong*)result = (jlong)dcCallLongLong(vm, function);
+				break;
+			case TYPE_POINTER:
+				*(jlong*)result = (jlong)(intptr_t)dcCallPointer(vm, function);
+				break;
+			case TYPE_FLOAT:
+				*(jfloat*)result = (jfloat)dcCallFloat(vm, function);
+				break;
+			case TYPE_DOUBLE:
+				*(jdouble*)result = (jdouble)dcCallDouble(vm, function);
+				break;
+			default:
+				dcCallVoid(vm, function);
+		}
+
+		command += *(jint*)(command + COMMAND_SIZE);
+	}
+}
+
+EXTERN_C_EXIT
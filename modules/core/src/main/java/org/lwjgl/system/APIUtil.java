@@ -11,6 +11,7 @@ import org.lwjgl.system.windows.WindowsLibrary;
 
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.net.URL;
@@ -22,6 +23,7 @@ import java.util.jar.*;
 import java.util.regex.*;
 
 import static org.lwjgl.system.Checks.*;
+import static org.lwjgl.system.MemoryStack.*;
 import static org.lwjgl.system.MemoryUtil.*;
 import static org.lwjgl.system.Pointer.*;
 
@@ -115,12 +117,96 @@ public final class APIUtil {
 		return check(provider.getFunctionAddress(functionName));
 	}
 
+	/** The offset added to function ordinals when encoded as characters. Avoids control and escape characters in generated string literals. */
+	public static final int APICAPS_ORDINAL_OFFSET = 0x100;
+
+	/**
+	 * Retrieves the function pointers of a capabilities class.
+	 *
+	 * <p>The ordinals of the functions of each feature (core version or extension) are encoded as a string, one character per function, with the value
+	 * {@code ordinal + }{@link #APICAPS_ORDINAL_OFFSET}. If {@link Configuration#LAZY_CAPABILITIES} is enabled, only the functions of the features in
+	 * {@code ext} are retrieved.</p>
+	 *
+	 * <p>If {@link Configuration#CAPABILITIES_SNAPSHOT_PATH} is set, the function pointers are restored from a matching snapshot, if one exists, or a new
+	 * snapshot is stored after they have been retrieved.</p>
+	 *
+	 * @param provider  the function provider
+	 * @param functions the function names, in ordinal order
+	 * @param features  the feature names and the ordinals of their functions, in pairs
+	 * @param ext       the supported features
+	 * @param exclude   the ordinals of functions that must not be retrieved, or null
+	 *
+	 * @return the function pointers, in ordinal order. Functions that were not retrieved are {@code NULL}.
+	 */
+	public static long[] apiGetFunctionAddresses(FunctionProvider provider, String[] functions, String[] features, Set<String> ext, String exclude) {
+		boolean[] resolve = new boolean[functions.length];
+		if ( Configuration.LAZY_CAPABILITIES.get(false) ) {
+			for ( int i = 0; i < features.length; i += 2 ) {
+				if ( ext.contains(features[i]) )
+					apiSetOrdinals(resolve, features[i + 1], true);
+			}
+		} else
+			Arrays.fill(resolve, true);
+
+		if ( exclude != null )
+			apiSetOrdinals(resolve, exclude, false);
+
+		String snapshot = Configuration.CAPABILITIES_SNAPSHOT_PATH.get();
+
+		long[] addresses;
+		if ( snapshot != null ) {
+			addresses = CapabilitiesSnapshot.load(snapshot, provider, functions, ext, resolve);
+			if ( addresses != null )
+				return addresses;
+		}
+
+		addresses = new long[functions.length];
+		try ( MemoryStack stack = stackPush() ) {
+			int frame = stack.getPointer();
+			for ( int i = 0; i < functions.length; i++ ) {
+				if ( resolve[i] ) {
+					addresses[i] = provider.getFunctionAddress(stack.ASCII(functions[i]));
+					stack.setPointer(frame);
+				}
+			}
+		}
+
+		if ( snapshot != null )
+			CapabilitiesSnapshot.save(snapshot, functions, ext, resolve, addresses);
+
+		return addresses;
+	}
+
+	private static void apiSetOrdinals(boolean[] flags, String ordinals, boolean value) {
+		for ( int i = 0; i < ordinals.length(); i++ )
+			flags[ordinals.charAt(i) - APICAPS_ORDINAL_OFFSET] = value;
+	}
+
 	public static ByteBuffer apiGetMappedBuffer(ByteBuffer buffer, long mappedAddress, int capacity) {
 		return buffer == null || memAddress(buffer) != mappedAddress || buffer.capacity() != capacity
 			? memByteBuffer(mappedAddress, capacity)
 			: buffer;
 	}
 
+	/**
+	 * Returns a method handle that calls the {@code JavaCritical_} entry point of a native method, or {@code null} if the JVM does not support calling it.
+	 *
+	 * <p>The method handle calls the native function without a thread state transition and Java arrays are passed without copying or pinning. It is only
+	 * available on Java 22 or newer, when native access is enabled for LWJGL.</p>
+	 *
+	 * @param name      the entry point name
+	 * @param signature the method signature, e.g. {@code "JF[F)V"}. Contains the JNI type signature of each parameter and of the return type, separated by
+	 *                  {@code ')'}.
+	 */
+	public static MethodHandle apiCriticalNative(String name, String signature) {
+		return Foreign.criticalNative(name, signature);
+	}
+
+	/** Rethrows a {@code Throwable} thrown by a method handle returned from {@link #apiCriticalNative}. */
+	public static RuntimeException apiRethrow(Throwable t) {
+		return Foreign.rethrow(t);
+	}
+
 	/** A data class for API versioning information. */
 	public static class APIVersion {
 
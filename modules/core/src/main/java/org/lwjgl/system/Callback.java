@@ -6,7 +6,7 @@ package org.lwjgl.system;
 
 import org.lwjgl.PointerBuffer;
 
-import java.lang.reflect.Method;
+import java.lang.reflect.*;
 
 import static org.lwjgl.system.MemoryStack.*;
 import static org.lwjgl.system.MemoryUtil.*;
@@ -17,21 +17,30 @@ import static org.lwjgl.system.jni.JNINativeInterface.*;
  * Base class for dynamically created native functions that call into Java code.
  *
  * <p>Callback instances use native resources and must be explicitly freed when no longer used by calling the {@link #free} method.</p>
+ *
+ * <p>Callbacks that provide a typed method with {@link CallbackI#getInvokeInterface} are invoked with a single JNI call; their arguments are decoded
+ * natively. Other callbacks are invoked through their {@code callback(long args)} method, which must decode each argument in Java.</p>
  */
 public abstract class Callback implements Pointer, NativeResource {
 
 	private static final boolean DEBUG_ALLOCATOR = Configuration.DEBUG_MEMORY_ALLOCATOR.get(false);
 
-	private static final long
-		VOID,
-		BOOLEAN,
-		BYTE,
-		SHORT,
-		INT,
-		LONG,
-		FLOAT,
-		DOUBLE,
-		PTR;
+	/** Callbacks with more arguments are not typed. Must match {@code MAX_TYPED_ARGS} in the native code. */
+	private static final int MAX_TYPED_ARGS = 32;
+
+	/** The native callback handlers. The first 9 decode arguments in Java, the last 9 invoke the typed method. */
+	private static final long[] HANDLERS;
+
+	private static final ClassValue<Method> INVOKE_METHODS = new ClassValue<Method>() {
+		@Override
+		protected Method computeValue(Class<?> type) {
+			for ( Method method : type.getDeclaredMethods() ) {
+				if ( "invoke".equals(method.getName()) && Modifier.isAbstract(method.getModifiers()) )
+					return method;
+			}
+			throw new IllegalStateException("The callback interface does not declare a typed invoke method: " + type.getName());
+		}
+	};
 
 	static {
 		// Setup native callbacks
@@ -50,19 +59,12 @@ public abstract class Callback implements Pointer, NativeResource {
 				CallbackI.P.class.getDeclaredMethod("callback", params)
 			};
 
-			PointerBuffer callbacks = stack.mallocPointer(methods.length);
+			PointerBuffer callbacks = stack.mallocPointer(methods.length * 2);
 
 			getNativeCallbacks(methods, memAddress(callbacks));
 
-			VOID = callbacks.get();
-			BOOLEAN = callbacks.get();
-			BYTE = callbacks.get();
-			SHORT = callbacks.get();
-			INT = callbacks.get();
-			LONG = callbacks.get();
-			FLOAT = callbacks.get();
-			DOUBLE = callbacks.get();
-			PTR = callbacks.get();
+			HANDLERS = new long[callbacks.remaining()];
+			callbacks.get(HANDLERS);
 		} catch (Exception e) {
 			throw new IllegalStateException("Failed to initialize native callbacks.", e);
 		}
@@ -117,11 +119,52 @@ public abstract class Callback implements Pointer, NativeResource {
 	 * @return the dynamically generated native function
 	 */
 	static long create(String signature, Object instance) {
-		long funcptr = Callback.getNativeFunction(signature.charAt(signature.length() - 1));
+		Method invoke = null;
+		if ( instance instanceof CallbackI ) {
+			Class<? extends CallbackI> invokeInterface = ((CallbackI)instance).getInvokeInterface();
+			if ( invokeInterface != null )
+				invoke = INVOKE_METHODS.get(invokeInterface);
+		}
 
-		long handle = dcbNewCallback(signature, funcptr, NewGlobalRef(instance));
-		if ( handle == NULL )
+		int handler = getHandlerIndex(signature.charAt(signature.length() - 1));
+
+		long userdata = createUserData(signature, instance, invoke, NULL);
+		if ( memGetAddress(userdata + POINTER_SIZE) != NULL )
+			handler += 9;
+
+		return create(signature, HANDLERS[handler], userdata);
+	}
+
+	/**
+	 * Creates a native function that queues its invocations to the specified {@link CallbackDispatcher} queue.
+	 *
+	 * @param signature the {@code dyncall} function signature
+	 * @param instance  the callback instance
+	 * @param queue     the native queue
+	 * @param handler   the native handler that queues the invocations
+	 *
+	 * @return the dynamically generated native function
+	 */
+	static long create(String signature, CallbackI.V instance, long queue, long handler) {
+		Class<? extends CallbackI> invokeInterface = instance.getInvokeInterface();
+		if ( invokeInterface == null )
+			throw new IllegalArgumentException("Only callbacks with a typed invoke method can be dispatched.");
+
+		long userdata = createUserData(signature, instance, INVOKE_METHODS.get(invokeInterface), queue);
+		if ( memGetAddress(userdata + POINTER_SIZE) == NULL ) {
+			freeUserData(userdata);
+			throw new IllegalArgumentException("The callback signature is not supported by the dispatcher: " + signature);
+		}
+
+		return create(signature, handler, userdata);
+	}
+
+	private static long create(String signature, long funcptr, long userdata) {
+		long handle = dcbNewCallback(signature, funcptr, userdata);
+		if ( handle == NULL ) {
+			freeUserData(userdata);
 			throw new IllegalStateException("Failed to create the DCCallback object");
+		}
 
 		if ( DEBUG_ALLOCATOR )
 			MemoryManage.DebugAllocator.track(handle, 2 * POINTER_SIZE);
@@ -129,26 +172,69 @@ public abstract class Callback implements Pointer, NativeResource {
 		return handle;
 	}
 
-	private static long getNativeFunction(char type) {
+	/**
+	 * Creates the native {@code LWJGLCallback} struct: a global reference to the instance, the {@code jmethodID} of the typed method (or {@code NULL}), the
+	 * dispatcher queue (or {@code NULL}) and the null-terminated argument types of the typed method.
+	 */
+	private static long createUserData(String signature, Object instance, Method invoke, long queue) {
+		int argsBegin = signature.indexOf('(') + 1;
+		int argc = signature.indexOf(')', argsBegin) - argsBegin;
+
+		if ( invoke != null && (argc < 0 || MAX_TYPED_ARGS < argc || invoke.getParameterCount() != argc) )
+			invoke = null;
+
+		long userdata = nmemAlloc(3 * POINTER_SIZE + (invoke == null ? 0 : argc) + 1);
+		if ( userdata == NULL )
+			throw new OutOfMemoryError();
+
+		memPutAddress(userdata + 2 * POINTER_SIZE, queue);
+
+		long args = userdata + 3 * POINTER_SIZE;
+		if ( invoke == null ) {
+			memPutAddress(userdata + POINTER_SIZE, NULL);
+			memPutByte(args, (byte)0);
+		} else {
+			Class<?>[] types = invoke.getParameterTypes();
+			for ( int i = 0; i < argc; i++ ) {
+				char type = signature.charAt(argsBegin + i);
+				if ( types[i] == boolean.class && type != 'B' )
+					type = 'Z'; // an int mapped to a Java boolean
+				memPutByte(args + i, (byte)type);
+			}
+			memPutByte(args + argc, (byte)0);
+
+			memPutAddress(userdata + POINTER_SIZE, FromReflectedMethod(invoke));
+		}
+		memPutAddress(userdata, NewGlobalRef(instance));
+
+		return userdata;
+	}
+
+	private static void freeUserData(long userdata) {
+		DeleteGlobalRef(memGetAddress(userdata));
+		nmemFree(userdata);
+	}
+
+	private static int getHandlerIndex(char type) {
 		switch ( type ) {
 			case 'v':
-				return VOID;
+				return 0;
 			case 'B':
-				return BOOLEAN;
+				return 1;
 			case 'c':
-				return BYTE;
+				return 2;
 			case 's':
-				return SHORT;
+				return 3;
 			case 'i':
-				return INT;
+				return 4;
 			case 'l':
-				return LONG;
-			case 'p':
-				return PTR;
+				return 5;
 			case 'f':
-				return FLOAT;
+				return 6;
 			case 'd':
-				return DOUBLE;
+				return 7;
+			case 'p':
+				return 8;
 			default:
 				throw new IllegalArgumentException();
 		}
@@ -166,17 +252,32 @@ public abstract class Callback implements Pointer, NativeResource {
 		if ( functionPointer == NULL )
 			return null;
 
-		return memGlobalRefToObject(dcbGetUserData(functionPointer));
+		return memGlobalRefToObject(memGetAddress(dcbGetUserData(functionPointer)));
 	}
 
 	/**
 	 * Frees any resources held by the specified function pointer.
 	 *
+	 * <p>If the function was created by a {@link CallbackDispatcher}, pending invocations are delivered first.</p>
+	 *
 	 * @param functionPointer the function pointer
 	 */
 	public static void free(long functionPointer) {
-		DeleteGlobalRef(dcbGetUserData(functionPointer));
+		long userdata = dcbGetUserData(functionPointer);
+
+		long queue = memGetAddress(userdata + 2 * POINTER_SIZE);
+		if ( queue != NULL ) {
+			CallbackDispatcher.release(queue, functionPointer);
+			return;
+		}
+
+		freeImpl(functionPointer);
+	}
+
+	static void freeImpl(long functionPointer) {
+		long userdata = dcbGetUserData(functionPointer);
 		dcbFreeCallback(functionPointer);
+		freeUserData(userdata);
 
 		if ( DEBUG_ALLOCATOR )
 			MemoryManage.DebugAllocator.untrack(functionPointer);
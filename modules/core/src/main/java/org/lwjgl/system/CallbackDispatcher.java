@@ -0,0 +1,326 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+import static org.lwjgl.system.APIUtil.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Delivers callback invocations from native threads to a Java thread, in batches.
+ *
+ * <p>A callback function is normally invoked synchronously, on the thread that calls it. When that is a native thread, it must be attached to the JVM and
+ * does Java work, which is a problem for latency-critical threads (audio mixing, decoding, etc) that fire callbacks at a high rate. Callback functions
+ * created by a dispatcher instead copy their arguments to a bounded, lock-free, native queue and return immediately, without touching JNI. A dedicated Java
+ * thread drains the queue in batches and invokes the Java callbacks.</p>
+ *
+ * <p>Only callbacks that return {@code void} and have a typed {@code invoke} method (i.e. all generated callback interfaces) can be dispatched. Pointer
+ * arguments are delivered as-is, the memory they point to may not be valid anymore when the callback is invoked. Invocations from the same native thread are
+ * delivered in order.</p>
+ *
+ * <p>Callback functions created by a dispatcher are owned by it: {@link Callback#free} delivers the pending invocations before freeing the function and
+ * {@link #free} frees all functions that are still alive. Native code must not call them after they have been freed.</p>
+ */
+public final class CallbackDispatcher implements NativeResource {
+
+	/** The behavior of a callback function when the dispatcher queue is full. */
+	public enum Backpressure {
+		/** The native thread yields until there is space in the queue. */
+		BLOCK,
+		/** The invocation is discarded. Discarded invocations are counted, see {@link #getDropped}. */
+		DROP,
+		/** The callback is invoked synchronously, on the native thread. */
+		SYNC
+	}
+
+	/** The maximum number of invocations delivered per native call. */
+	private static final int BATCH_SIZE = 64;
+
+	/** The time the dispatcher thread sleeps when the queue is empty, after spinning. */
+	private static final long IDLE_PARK_NANOS = 100_000L;
+	private static final int  IDLE_SPINS      = 100;
+
+	private static final long HANDLER;
+
+	private static final Map<Long, CallbackDispatcher> DISPATCHERS = new ConcurrentHashMap<>();
+
+	private static final AtomicInteger THREAD_ID = new AtomicInteger();
+
+	static {
+		Library.initialize();
+		HANDLER = ngetHandler();
+	}
+
+	private final long queue;
+
+	private final int capacity;
+	private final int maxArgs;
+
+	private final Backpressure backpressure;
+
+	private final Set<Long> callbacks = ConcurrentHashMap.newKeySet();
+
+	private final Thread thread;
+
+	private volatile boolean running = true;
+
+	/** Guards the queue memory. Held shared while the queue is accessed outside of {@code this}, exclusively while it is freed. */
+	private final ReadWriteLock queueLock = new ReentrantReadWriteLock();
+
+	/** True if the queue has been freed. Written while holding {@code this} and the {@code queueLock} write lock. */
+	private boolean freed;
+	/** The final {@link #getDelivered} and {@link #getDropped} values, set when the queue is freed. Guarded by {@code this}. */
+	private long delivered, dropped;
+
+	private CallbackDispatcher(int capacity, int maxArgs, Backpressure backpressure) {
+		this.capacity = capacity;
+		this.maxArgs = maxArgs;
+		this.backpressure = backpressure;
+
+		this.queue = ncreate(capacity, maxArgs, backpressure.ordinal());
+		if ( queue == NULL )
+			throw new OutOfMemoryError("Failed to allocate the callback dispatcher queue.");
+
+		DISPATCHERS.put(queue, this);
+
+		this.thread = new Thread(this::run, "LWJGL Callback Dispatcher " + THREAD_ID.incrementAndGet());
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Creates a new {@link CallbackDispatcher} and starts its dispatcher thread.
+	 *
+	 * @param capacity     the queue capacity. Must be a power-of-two value.
+	 * @param maxArgs      the maximum number of arguments of the callbacks that will be dispatched. Must be between 1 and 32.
+	 * @param backpressure the behavior of callback functions when the queue is full
+	 */
+	public static CallbackDispatcher create(int capacity, int maxArgs, Backpressure backpressure) {
+		if ( capacity <= 0 || !MathUtil.mathIsPoT(capacity) )
+			throw new IllegalArgumentException("The queue capacity must be a positive power-of-two value.");
+		if ( maxArgs < 1 || 32 < maxArgs )
+			throw new IllegalArgumentException("Invalid maximum number of arguments: " + maxArgs);
+
+		return new CallbackDispatcher(capacity, maxArgs, backpressure);
+	}
+
+	/**
+	 * Creates a native function that queues its invocations to this dispatcher.
+	 *
+	 * <p>The returned function pointer can be wrapped with the {@code create(long)} method of the generated callback class, to be passed to the binding
+	 * function that registers the callback.</p>
+	 *
+	 * @param instance the callback instance
+	 *
+	 * @return the native function pointer
+	 */
+	public long newCallback(CallbackI.V instance) {
+		if ( !running )
+			throw new IllegalStateException("The callback dispatcher has been freed.");
+
+		String signature = instance.getSignature();
+
+		int argsBegin = signature.indexOf('(') + 1;
+		int argc = signature.indexOf(')', argsBegin) - argsBegin;
+		if ( maxArgs < argc )
+			throw new IllegalArgumentException("The callback has more than " + maxArgs + " arguments: " + signature);
+
+		long functionPointer = Callback.create(signature, instance, queue, HANDLER);
+		callbacks.add(functionPointer);
+		return functionPointer;
+	}
+
+	/** Called by {@link Callback#free} for functions created by a dispatcher. Does nothing if the dispatcher has been freed. */
+	static void release(long queue, long functionPointer) {
+		CallbackDispatcher dispatcher = DISPATCHERS.get(queue);
+		if ( dispatcher != null )
+			dispatcher.release(functionPointer);
+	}
+
+	private void release(long functionPointer) {
+		Lock lock = queueLock.readLock();
+		lock.lock();
+		try {
+			// The function has been freed with the dispatcher
+			if ( freed )
+				return;
+
+			flushQueue();
+			if ( callbacks.remove(functionPointer) )
+				Callback.freeImpl(functionPointer);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Blocks until all invocations that were queued before this method was called have been delivered. Does nothing if the dispatcher has been freed.
+	 *
+	 * <p>When called from a callback that is being dispatched, the pending invocations are delivered on the current thread.</p>
+	 */
+	public void flush() {
+		Lock lock = queueLock.readLock();
+		lock.lock();
+		try {
+			if ( !freed )
+				flushQueue();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Must be called while holding the queueLock read lock
+	private void flushQueue() {
+		long target = nenqueued(queue);
+		if ( Thread.currentThread() == thread ) {
+			while ( ndequeued(queue) < target )
+				dispatch();
+		} else {
+			while ( running && ndequeued(queue) < target ) {
+				LockSupport.unpark(thread);
+				Thread.yield();
+			}
+		}
+	}
+
+	private int dispatch() {
+		try {
+			return ndispatch(queue, BATCH_SIZE);
+		} catch (Throwable t) {
+			DEBUG_STREAM.println("[LWJGL] Exception in dispatched callback.");
+			t.printStackTrace(DEBUG_STREAM);
+			return 1;
+		}
+	}
+
+	private void run() {
+		int idle = 0;
+		while ( true ) {
+			if ( dispatch() != 0 ) {
+				idle = 0;
+				continue;
+			}
+
+			if ( !running )
+				break;
+
+			if ( idle < IDLE_SPINS ) {
+				idle++;
+				Thread.yield();
+			} else
+				LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+		}
+	}
+
+	/** Returns the queue capacity. */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/** Returns the maximum number of arguments of the callbacks that can be dispatched. */
+	public int getMaxArgs() {
+		return maxArgs;
+	}
+
+	/** Returns the backpressure mode. */
+	public Backpressure getBackpressure() {
+		return backpressure;
+	}
+
+	/** Returns the number of invocations that have been delivered. */
+	public synchronized long getDelivered() {
+		return freed ? delivered : ndequeued(queue);
+	}
+
+	/** Returns the number of invocations that are currently queued. */
+	public synchronized long getPending() {
+		return freed ? 0L : Math.max(nenqueued(queue) - ndequeued(queue), 0L);
+	}
+
+	/** Returns the number of invocations discarded because the queue was full, when the backpressure mode is {@link Backpressure#DROP}. */
+	public synchronized long getDropped() {
+		return freed ? dropped : ndropped(queue);
+	}
+
+	/**
+	 * Stops the dispatcher thread, after delivering the pending invocations, and frees the queue and all callback functions created by this dispatcher that
+	 * have not been freed yet.
+	 *
+	 * <p>Native code must not call the callback functions of this dispatcher after this method has been called.</p>
+	 */
+	@Override
+	public void free() {
+		if ( Thread.currentThread() == thread )
+			throw new IllegalStateException("A callback dispatcher cannot be freed from a dispatched callback.");
+
+		synchronized (this) {
+			if ( !running )
+				return;
+			running = false;
+		}
+
+		LockSupport.unpark(thread);
+
+		boolean interrupted = false;
+		while ( thread.isAlive() ) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+
+		DISPATCHERS.remove(queue);
+
+		// Waits for concurrent flush and release calls, they return early now that running is false
+		Lock lock = queueLock.writeLock();
+		lock.lock();
+		try {
+			for ( Long functionPointer : callbacks )
+				Callback.freeImpl(functionPointer);
+			callbacks.clear();
+
+			synchronized (this) {
+				delivered = ndequeued(queue);
+				dropped = ndropped(queue);
+
+				freed = true;
+				nfree(queue);
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		if ( interrupted )
+			Thread.currentThread().interrupt();
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+			"CallbackDispatcher[capacity=%d, backpressure=%s, delivered=%d, pending=%d, dropped=%d]",
+			capacity, backpressure, getDelivered(), getPending(), getDropped()
+		);
+	}
+
+	private static native long ngetHandler();
+
+	private static native long ncreate(int capacity, int maxArgs, int backpressure);
+
+	private static native void nfree(long queue);
+
+	private static native int ndispatch(long queue, int max);
+
+	private static native long nenqueued(long queue);
+
+	private static native long ndequeued(long queue);
+
+	private static native long ndropped(long queue);
+
+}
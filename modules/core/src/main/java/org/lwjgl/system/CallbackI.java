@@ -29,6 +29,19 @@ public interface CallbackI extends Pointer {
 	 */
 	String getSignature();
 
+	/**
+	 * Returns the interface that declares the typed {@code invoke} method of this callback, or null if the callback arguments must be decoded in Java, by
+	 * the {@code callback(long args)} method. [INTERNAL API]
+	 *
+	 * <p>The typed method is invoked with a single JNI call, the arguments are decoded natively. Its parameters must match the dyncall signature of the
+	 * callback; C ints may be mapped to Java booleans.</p>
+	 *
+	 * @return the interface that declares the typed method, or null
+	 */
+	default Class<? extends CallbackI> getInvokeInterface() {
+		return null;
+	}
+
 	@Override
 	default long address() {
 		return Callback.create(getSignature(), this);
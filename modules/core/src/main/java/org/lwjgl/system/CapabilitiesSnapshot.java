@@ -0,0 +1,267 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+import static org.lwjgl.system.APIUtil.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Persists the function pointers retrieved by {@link APIUtil#apiGetFunctionAddresses}, so that they can be restored without symbol lookups.
+ *
+ * <p>Function pointers are stored as offsets relative to the base address of the shared library that contains them. A snapshot is used only if the function
+ * names, the set of supported features and the functions to retrieve are the same. Also, each shared library referenced by the snapshot must be loaded at
+ * the same path and have the same size and build ID (the GNU build ID on Linux, the {@code LC_UUID} on macOS and the PE header timestamp, size and checksum
+ * on Windows).</p>
+ *
+ * <p>Each function offset is validated against the size of its shared library and the snapshot file ends with a CRC-32 of its contents. A snapshot that
+ * fails validation is ignored and the function pointers are looked up again.</p>
+ *
+ * <p>Functions that are not in a shared library (e.g. stubs generated at runtime by the function provider) are retrieved again when the snapshot is
+ * restored.</p>
+ *
+ * @see Configuration#CAPABILITIES_SNAPSHOT_PATH
+ */
+final class CapabilitiesSnapshot {
+
+	private static final int MAGIC   = 0x4C57_4346; // LWCF
+	private static final int VERSION = 2;
+
+	/** The function was not retrieved. */
+	private static final byte FUNCTION_SKIPPED = 0;
+	/** The function provider returned {@code NULL}. */
+	private static final byte FUNCTION_MISSING = 1;
+	/** The function is in a shared library, at a known offset. */
+	private static final byte FUNCTION_MODULE  = 2;
+	/** The function is not in a shared library and must be retrieved again. */
+	private static final byte FUNCTION_LOOKUP  = 3;
+
+	static {
+		Library.initialize();
+	}
+
+	private CapabilitiesSnapshot() {
+	}
+
+	private static Path getFile(String directory, String[] functions) {
+		// FNV-1a over the function names
+		long hash = 0xCBF29CE484222325L;
+		for ( String function : functions ) {
+			for ( int i = 0; i < function.length(); i++ )
+				hash = (hash ^ function.charAt(i)) * 0x100000001B3L;
+			hash = (hash ^ ';') * 0x100000001B3L;
+		}
+		return Paths.get(directory, String.format("lwjgl-caps-%016x.bin", hash));
+	}
+
+	/**
+	 * Restores the function pointers from a snapshot.
+	 *
+	 * @return the function pointers, or null if a matching snapshot was not found
+	 */
+	static long[] load(String directory, FunctionProvider provider, String[] functions, Set<String> ext, boolean[] resolve) {
+		Path file = getFile(directory, functions);
+		if ( !Files.isRegularFile(file) )
+			return null;
+
+		CRC32 crc = new CRC32();
+		try ( DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file)), crc)) ) {
+			if ( in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != functions.length )
+				return null;
+
+			int extCount = in.readInt();
+			if ( extCount != ext.size() )
+				return null;
+			for ( int i = 0; i < extCount; i++ ) {
+				if ( !ext.contains(in.readUTF()) )
+					return null;
+			}
+
+			int    moduleCount = in.readInt();
+			long[] bases       = new long[moduleCount];
+			long[] imageSizes  = new long[moduleCount];
+			for ( int i = 0; i < moduleCount; i++ ) {
+				String path = in.readUTF();
+				long   size = in.readLong();
+
+				byte[] buildID = new byte[in.readUnsignedShort()];
+				in.readFully(buildID);
+
+				imageSizes[i] = in.readLong();
+
+				bases[i] = getModuleBase(path, size, buildID, imageSizes[i]);
+				if ( bases[i] == NULL ) {
+					apiLog("Capabilities snapshot is stale, " + path + " has changed or is not loaded.");
+					return null;
+				}
+			}
+
+			byte[] types     = new byte[functions.length];
+			long[] addresses = new long[functions.length];
+			for ( int i = 0; i < functions.length; i++ ) {
+				types[i] = in.readByte();
+				if ( (types[i] == FUNCTION_SKIPPED) == resolve[i] )
+					return null;
+
+				switch ( types[i] ) {
+					case FUNCTION_SKIPPED:
+					case FUNCTION_MISSING:
+					case FUNCTION_LOOKUP:
+						break;
+					case FUNCTION_MODULE:
+						int module = in.readUnsignedShort();
+						long offset = in.readLong();
+						if ( moduleCount <= module || offset < 0L || imageSizes[module] <= offset ) {
+							apiLog("Capabilities snapshot is invalid, " + functions[i] + " is outside its shared library.");
+							return null;
+						}
+						addresses[i] = bases[module] + offset;
+						break;
+					default:
+						apiLog("Capabilities snapshot is invalid, unknown type for " + functions[i] + ".");
+						return null;
+				}
+			}
+
+			int checksum = (int)crc.getValue();
+			if ( in.readInt() != checksum || in.read() != -1 ) {
+				apiLog("Capabilities snapshot is invalid, checksum mismatch.");
+				return null;
+			}
+
+			for ( int i = 0; i < functions.length; i++ ) {
+				if ( types[i] == FUNCTION_LOOKUP )
+					addresses[i] = provider.getFunctionAddress(functions[i]);
+			}
+
+			return addresses;
+		} catch (Exception e) {
+			apiLog("Failed to read capabilities snapshot: " + e.getMessage());
+			return null;
+		}
+	}
+
+	private static long getModuleBase(String path, long size, byte[] buildID, long imageSize) throws IOException {
+		Path module = Paths.get(path);
+		if ( !Files.isRegularFile(module) || Files.size(module) != size )
+			return NULL;
+
+		long base = ngetModuleBase(path);
+		if ( base == NULL || !Arrays.equals(buildID, getBuildID(base)) || ngetModuleSize(base) != imageSize )
+			return NULL;
+
+		return base;
+	}
+
+	private static byte[] getBuildID(long base) {
+		byte[] buildID = ngetModuleBuildID(base);
+		return buildID == null ? new byte[0] : buildID;
+	}
+
+	/** Stores the function pointers to a snapshot. */
+	static void save(String directory, String[] functions, Set<String> ext, boolean[] resolve, long[] addresses) {
+		Path file = getFile(directory, functions);
+
+		Map<String, Integer> moduleIndices = new LinkedHashMap<>();
+		List<Long>           moduleBases   = new ArrayList<>();
+		List<Long>           moduleSizes   = new ArrayList<>();
+
+		byte[] types   = new byte[functions.length];
+		int[]  modules = new int[functions.length];
+
+		for ( int i = 0; i < functions.length; i++ ) {
+			if ( !resolve[i] )
+				types[i] = FUNCTION_SKIPPED;
+			else if ( addresses[i] == NULL )
+				types[i] = FUNCTION_MISSING;
+			else {
+				String path = ngetModulePath(addresses[i]);
+				long   base = path == null ? NULL : ngetModuleBase(path);
+				long   size = base == NULL ? 0L : ngetModuleSize(base);
+				if ( base == NULL || addresses[i] < base || size <= addresses[i] - base || 0xFFFF < moduleIndices.size() )
+					types[i] = FUNCTION_LOOKUP;
+				else {
+					Integer index = moduleIndices.get(path);
+					if ( index == null ) {
+						index = moduleIndices.size();
+						moduleIndices.put(path, index);
+						moduleBases.add(base);
+						moduleSizes.add(size);
+					}
+
+					types[i] = FUNCTION_MODULE;
+					modules[i] = index;
+				}
+			}
+		}
+
+		try {
+			Files.createDirectories(file.getParent());
+
+			Path tempFile = file.resolveSibling(file.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 1) + ".tmp");
+			try {
+				CRC32 crc = new CRC32();
+				try ( DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile, StandardOpenOption.CREATE_NEW)), crc)) ) {
+					out.writeInt(MAGIC);
+					out.writeInt(VERSION);
+					out.writeInt(functions.length);
+
+					out.writeInt(ext.size());
+					for ( String e : new TreeSet<>(ext) )
+						out.writeUTF(e);
+
+					out.writeInt(moduleIndices.size());
+					for ( Map.Entry<String, Integer> module : moduleIndices.entrySet() ) {
+						byte[] buildID = getBuildID(moduleBases.get(module.getValue()));
+
+						out.writeUTF(module.getKey());
+						out.writeLong(Files.size(Paths.get(module.getKey())));
+						out.writeShort(buildID.length);
+						out.write(buildID);
+						out.writeLong(moduleSizes.get(module.getValue()));
+					}
+
+					for ( int i = 0; i < functions.length; i++ ) {
+						out.writeByte(types[i]);
+						if ( types[i] == FUNCTION_MODULE ) {
+							out.writeShort(modules[i]);
+							out.writeLong(addresses[i] - moduleBases.get(modules[i]));
+						}
+					}
+
+					out.writeInt((int)crc.getValue());
+				}
+
+				try {
+					Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(tempFile);
+			}
+		} catch (IOException e) {
+			apiLog("Failed to write capabilities snapshot: " + e.getMessage());
+		}
+	}
+
+	/** Returns the path of the shared library that contains the specified address, or null if the address is not in a shared library. */
+	private static native String ngetModulePath(long address);
+
+	/** Returns the base address of the loaded shared library with the specified path, or {@code NULL} if it is not loaded. */
+	private static native long ngetModuleBase(String path);
+
+	/** Returns the size of the address range spanned by the shared library at the specified base address, or 0 if it cannot be determined. */
+	private static native long ngetModuleSize(long base);
+
+	/** Returns the build ID of the shared library at the specified base address, or null if it does not have one. */
+	private static native byte[] ngetModuleBuildID(long base);
+
+}
@@ -19,6 +19,7 @@ import static org.lwjgl.system.MemoryUtil.*;
  * @see Configuration#DISABLE_CHECKS
  * @see Configuration#DEBUG
  * @see Configuration#DEBUG_FUNCTIONS
+ * @see Configuration#PROFILE_FUNCTIONS
  */
 public final class Checks {
 
@@ -53,6 +54,15 @@ public final class Checks {
 	 */
 	public static final boolean DEBUG_FUNCTIONS = Configuration.DEBUG_FUNCTIONS.get(false);
 
+	/**
+	 * Profile functions flag.
+	 *
+	 * <p>When enabled, the bindings record the number of calls and the time spent in each native function. See {@link FunctionProfiler}.</p>
+	 *
+	 * <p>Can be enabled by setting {@link Configuration#PROFILE_FUNCTIONS} to true.</p>
+	 */
+	public static final boolean PROFILE_FUNCTIONS = Configuration.PROFILE_FUNCTIONS.get(false);
+
 	static {
 		if ( DEBUG_FUNCTIONS && !DEBUG )
 			APIUtil.DEBUG_STREAM.println("[LWJGL] The DEBUG_FUNCTIONS option requires DEBUG to produce output.");
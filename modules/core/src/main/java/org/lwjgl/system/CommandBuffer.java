@@ -0,0 +1,318 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import static org.lwjgl.system.Checks.*;
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.dyncall.DynCall.*;
+
+/**
+ * An off-heap stream of native function calls that are executed in a single JNI call.
+ *
+ * <p>Every call to a native function through LWJGL is a JNI transition. For small functions that are called many times per frame (uniform updates, texture
+ * binds, draw calls), the transition cost can dominate the work done by the native function. With a command buffer, calls are recorded as commands in
+ * native memory and then {@link #execute executed} by a native loop, without going back to Java between calls.</p>
+ *
+ * <p>Bindings generate command buffer overloads for functions that have been opted in. These take a {@code CommandBuffer} as the first parameter and
+ * otherwise have the same parameters as the unsafe ({@code n}-prefixed) version of the function. Functions with a return value return a handle that can be
+ * used to retrieve the value after the command buffer has been executed.</p>
+ *
+ * <pre><code>
+ * try ( CommandBuffer cb = CommandBuffer.create() ) {
+ *     glUniform1f(cb, timeLocation, time);
+ *     glBindTexture(cb, GL_TEXTURE_2D, texture);
+ *     glDrawArrays(cb, GL_TRIANGLES, 0, 3);
+ *     cb.execute();
+ * }</code></pre>
+ *
+ * <p>Pointer arguments are recorded as raw addresses; the memory they point to must stay valid and unchanged until the commands have been executed. The
+ * function addresses are also resolved when a command is recorded, so commands must be executed in a context where these addresses are valid (e.g. with
+ * the same OpenGL context current). A command buffer must be used by a single thread at a time. The recorded commands are kept after execution, so the same
+ * buffer may be executed repeatedly until {@link #clear} is called.</p>
+ *
+ * <p>A command has the following layout:</p>
+ * <pre><code>
+ * 0: function address (8 bytes)
+ * 8: return value (8 bytes)
+ * 16: argument types, 4 bits per argument (8 bytes)
+ * 24: argument count | return type &lt;&lt; 8 | stdcall &lt;&lt; 16 (4 bytes)
+ * 28: command size in bytes (4 bytes)
+ * 32: arguments (8 bytes each)</code></pre>
+ */
+public final class CommandBuffer implements NativeResource {
+
+	/** Argument and return types. */
+	public static final int
+		TYPE_VOID    = 0,
+		TYPE_BOOL    = 1,
+		TYPE_BYTE    = 2,
+		TYPE_SHORT   = 3,
+		TYPE_INT     = 4,
+		TYPE_LONG    = 5,
+		TYPE_POINTER = 6,
+		TYPE_FLOAT   = 7,
+		TYPE_DOUBLE  = 8;
+
+	/** The maximum number of arguments of a command. */
+	public static final int MAX_ARGUMENTS = 16;
+
+	private static final int
+		FUNCTION   = 0,
+		RESULT     = 8,
+		TYPES      = 16,
+		DESCRIPTOR = 24,
+		SIZE       = 28,
+		ARGUMENTS  = 32;
+
+	private static final int DEFAULT_CAPACITY = 4096;
+
+	static {
+		Library.initialize();
+	}
+
+	private long vm;
+
+	private long address;
+	private int  capacity;
+
+	/** The end of the recorded commands. */
+	private int size;
+	/** The number of recorded commands. */
+	private int commands;
+
+	/** The offset of the last recorded command. */
+	private int command;
+	/** The offset of the next argument of the last recorded command. */
+	private int position;
+
+	private CommandBuffer(int capacity) {
+		if ( capacity < ARGUMENTS )
+			throw new IllegalArgumentException("Invalid command buffer capacity: " + capacity);
+
+		this.address = nmemAlloc(capacity);
+		if ( address == NULL )
+			throw new OutOfMemoryError("Failed to allocate command buffer of size: " + capacity);
+		this.capacity = capacity;
+
+		this.vm = dcNewCallVM(MAX_ARGUMENTS * 8);
+		if ( vm == NULL ) {
+			nmemFree(address);
+			throw new OutOfMemoryError("Failed to create the dyncall VM.");
+		}
+	}
+
+	/** Creates a new command buffer with the default initial capacity. */
+	public static CommandBuffer create() {
+		return new CommandBuffer(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new command buffer.
+	 *
+	 * @param capacity the initial capacity, in bytes. The buffer grows as necessary.
+	 */
+	public static CommandBuffer create(int capacity) {
+		return new CommandBuffer(capacity);
+	}
+
+	/** Returns the address of the command stream. The address changes when the command buffer grows. */
+	public long address() {
+		return address;
+	}
+
+	/** Returns the size of the recorded commands, in bytes. */
+	public int size() {
+		return size;
+	}
+
+	/** Returns the number of recorded commands. */
+	public int commands() {
+		return commands;
+	}
+
+	/**
+	 * Begins recording a new command. This is a low-level method used by the generated bindings, it must be followed by exactly one {@code put} call per
+	 * argument.
+	 *
+	 * @param function   the address of the function to call
+	 * @param argCount   the number of arguments, at most {@link #MAX_ARGUMENTS}
+	 * @param argTypes   the argument types, 4 bits per argument, starting at the least significant bits
+	 * @param returnType the return type
+	 * @param stdcall    true if the function uses the {@code __stdcall} calling convention on Windows
+	 *
+	 * @return this command buffer
+	 */
+	public CommandBuffer command(long function, int argCount, long argTypes, int returnType, boolean stdcall) {
+		checkOpen();
+		if ( CHECKS ) {
+			check(function);
+			if ( argCount < 0 || MAX_ARGUMENTS < argCount )
+				throw new IllegalArgumentException("Invalid argument count: " + argCount);
+		}
+
+		int commandSize = ARGUMENTS + (argCount << 3);
+		if ( capacity - size < commandSize )
+			grow(commandSize);
+
+		long command = address + size;
+		memPutLong(command + FUNCTION, function);
+		memPutLong(command + RESULT, 0L);
+		memPutLong(command + TYPES, argTypes);
+		memPutInt(command + DESCRIPTOR, argCount | (returnType << 8) | ((stdcall ? 1 : 0) << 16));
+		memPutInt(command + SIZE, commandSize);
+
+		this.command = size;
+		this.position = size + ARGUMENTS;
+
+		this.size += commandSize;
+		this.commands++;
+
+		return this;
+	}
+
+	private void grow(int commandSize) {
+		int newCapacity = capacity;
+		do {
+			newCapacity = newCapacity + (newCapacity >> 1);
+			if ( newCapacity < 0 )
+				throw new OutOfMemoryError("Command buffer too large.");
+		} while ( newCapacity - size < commandSize );
+
+		long newAddress = nmemRealloc(address, newCapacity);
+		if ( newAddress == NULL )
+			throw new OutOfMemoryError("Failed to grow command buffer to size: " + newCapacity);
+
+		address = newAddress;
+		capacity = newCapacity;
+	}
+
+	private long next() {
+		long arg = address + position;
+		position += 8;
+		return arg;
+	}
+
+	/** Records a {@link #TYPE_BOOL} argument of the current command. */
+	public CommandBuffer putBool(boolean value) {
+		memPutByte(next(), value ? (byte)1 : (byte)0);
+		return this;
+	}
+
+	/** Records a {@link #TYPE_BYTE} argument of the current command. */
+	public CommandBuffer putByte(byte value) {
+		memPutByte(next(), value);
+		return this;
+	}
+
+	/** Records a {@link #TYPE_SHORT} argument of the current command. */
+	public CommandBuffer putShort(short value) {
+		memPutShort(next(), value);
+		return this;
+	}
+
+	/** Records a {@link #TYPE_INT} argument of the current command. */
+	public CommandBuffer putInt(int value) {
+		memPutInt(next(), value);
+		return this;
+	}
+
+	/** Records a {@link #TYPE_LONG} argument of the current command. */
+	public CommandBuffer putLong(long value) {
+		memPutLong(next(), value);
+		return this;
+	}
+
+	/** Records a {@link #TYPE_POINTER} argument of the current command. */
+	public CommandBuffer putAddress(long value) {
+		memPutLong(next(), value);
+		return this;
+	}
+
+	/** Records a {@link #TYPE_FLOAT} argument of the current command. */
+	public CommandBuffer putFloat(float value) {
+		memPutFloat(next(), value);
+		return this;
+	}
+
+	/** Records a {@link #TYPE_DOUBLE} argument of the current command. */
+	public CommandBuffer putDouble(double value) {
+		memPutDouble(next(), value);
+		return this;
+	}
+
+	/** Returns a handle to the return value of the current command. */
+	public int handle() {
+		return command;
+	}
+
+	/** Executes the recorded commands, in order, with a single JNI call. */
+	public void execute() {
+		checkOpen();
+		if ( size != 0 )
+			nexecute(vm, address, size);
+	}
+
+	/** Discards the recorded commands. Previously returned handles become invalid. */
+	public void clear() {
+		size = 0;
+		commands = 0;
+		command = 0;
+		position = 0;
+	}
+
+	private long result(int handle) {
+		if ( CHECKS && (handle < 0 || size - ARGUMENTS < handle) )
+			throw new IndexOutOfBoundsException("Invalid command handle: " + handle);
+
+		return address + handle + RESULT;
+	}
+
+	/** Returns the {@link #TYPE_BOOL} return value of the command with the specified handle. */
+	public boolean getBool(int handle) { return memGetByte(result(handle)) != 0; }
+
+	/** Returns the {@link #TYPE_BYTE} return value of the command with the specified handle. */
+	public byte getByte(int handle) { return memGetByte(result(handle)); }
+
+	/** Returns the {@link #TYPE_SHORT} return value of the command with the specified handle. */
+	public short getShort(int handle) { return memGetShort(result(handle)); }
+
+	/** Returns the {@link #TYPE_INT} return value of the command with the specified handle. */
+	public int getInt(int handle) { return memGetInt(result(handle)); }
+
+	/** Returns the {@link #TYPE_LONG} return value of the command with the specified handle. */
+	public long getLong(int handle) { return memGetLong(result(handle)); }
+
+	/** Returns the {@link #TYPE_POINTER} return value of the command with the specified handle. */
+	public long getAddress(int handle) { return memGetLong(result(handle)); }
+
+	/** Returns the {@link #TYPE_FLOAT} return value of the command with the specified handle. */
+	public float getFloat(int handle) { return memGetFloat(result(handle)); }
+
+	/** Returns the {@link #TYPE_DOUBLE} return value of the command with the specified handle. */
+	public double getDouble(int handle) { return memGetDouble(result(handle)); }
+
+	private void checkOpen() {
+		if ( vm == NULL )
+			throw new IllegalStateException("The command buffer has been freed.");
+	}
+
+	/** Frees the command buffer. Calling this method more than once has no effect. */
+	@Override
+	public void free() {
+		if ( vm == NULL )
+			return;
+
+		dcFree(vm);
+		nmemFree(address);
+
+		vm = NULL;
+		address = NULL;
+		capacity = 0;
+		clear();
+	}
+
+	private static native void nexecute(long vm, long address, int size);
+
+}
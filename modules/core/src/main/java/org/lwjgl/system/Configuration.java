@@ -67,6 +67,36 @@ public class Configuration<T> {
 		StateInit.STRING
 	);
 
+	/**
+	 * Enables the shared library extraction cache.
+	 *
+	 * <p>When enabled, the SharedLibraryLoader persists a manifest in the extraction directory, with the SHA-1 hash of each extracted shared library, keyed by
+	 * the modification time and size of the JAR file it was extracted from. If neither the JAR file nor the extracted file have changed since, the library is
+	 * used as-is, without comparing it to the classpath resource. The hash in the manifest is also used by the library hash check, instead of hashing the
+	 * loaded file.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.SharedLibraryExtractCache</b><br>
+	 * &nbsp; &nbsp;Usage: Static</p>
+	 */
+	public static final Configuration<Boolean> SHARED_LIBRARY_EXTRACT_CACHE = new Configuration<>(
+		"org.lwjgl.system.SharedLibraryExtractCache",
+		StateInit.BOOLEAN
+	);
+
+	/**
+	 * A comma-separated list of shared library names (e.g. {@code "lwjgl,glfw,jemalloc"}) that the SharedLibraryLoader extracts in parallel, the first time
+	 * it is used. The libraries are then loaded from the extraction directory as usual. Names that cannot be found in the classpath are ignored.
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.SharedLibraryExtractAll</b><br>
+	 * &nbsp; &nbsp;Usage: Static</p>
+	 */
+	public static final Configuration<String> SHARED_LIBRARY_EXTRACT_ALL = new Configuration<>(
+		"org.lwjgl.system.SharedLibraryExtractAll",
+		StateInit.STRING
+	);
+
 	/**
 	 * EXPERIMENTAL: Emulates {@link System#loadLibrary} behavior in {@link Library#loadNative(String)}.
 	 *
@@ -79,6 +109,46 @@ public class Configuration<T> {
 		StateInit.BOOLEAN
 	);
 
+	/**
+	 * When enabled, capabilities classes resolve only the function pointers of the core versions and extensions that are reported as available.
+	 *
+	 * <p>By default, the function pointers of all functions known to LWJGL are retrieved when a capabilities instance is created, regardless of what the
+	 * implementation supports. This option reduces the number of symbol lookups, which is significant for APIs like OpenGL with thousands of functions. The
+	 * version and extension flags are not affected, but the functions of unsupported extensions will be {@code NULL}, even if the implementation exports
+	 * them.</p>
+	 *
+	 * <p>Supported by the OpenGL, OpenGL ES and OpenAL capabilities classes. Vulkan capabilities always resolve the functions of enabled extensions only.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.LazyCapabilities</b><br>
+	 * &nbsp; &nbsp;Usage: Dynamic</p>
+	 */
+	public static final Configuration<Boolean> LAZY_CAPABILITIES = new Configuration<>(
+		"org.lwjgl.system.LazyCapabilities",
+		StateInit.BOOLEAN
+	);
+
+	/**
+	 * A directory where capabilities classes store snapshots of their function pointers.
+	 *
+	 * <p>A snapshot records the offset of each function pointer relative to the shared library that contains it, together with the set of supported
+	 * features. When a capabilities instance is created with the same features and the shared libraries have not changed (same path, size and build ID),
+	 * the function pointers are restored from the snapshot instead of looked up. This is useful for short-lived processes that create the same capabilities
+	 * on every start.</p>
+	 *
+	 * <p>The snapshot contents are trusted, the directory must not be writable by other users.</p>
+	 *
+	 * <p>Supported by the capabilities classes that support {@link #LAZY_CAPABILITIES}.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.CapabilitiesSnapshotPath</b><br>
+	 * &nbsp; &nbsp;Usage: Dynamic</p>
+	 */
+	public static final Configuration<String> CAPABILITIES_SNAPSHOT_PATH = new Configuration<>(
+		"org.lwjgl.system.CapabilitiesSnapshotPath",
+		StateInit.STRING
+	);
+
 	/**
 	 * Can be used to override the LWJGL library name. It can be an absolute path.
 	 *
@@ -88,6 +158,23 @@ public class Configuration<T> {
 	 */
 	public static final Configuration<String> LIBRARY_NAME = new Configuration<>("org.lwjgl.libname", StateInit.STRING);
 
+	/**
+	 * Sets the backend used by the {@link JNI} methods to call native functions. Supported values:
+	 *
+	 * <ul>
+	 * <li><em>JNI</em> - Native functions are called with JNI. (default)</li>
+	 * <li><em>FFM</em> - Native functions are called with downcall method handles of the Foreign Function &amp; Memory API. Requires Java 22 or newer and
+	 * {@code --enable-native-access} for the LWJGL module. LWJGL falls back to JNI if the API is not available.</li>
+	 * </ul>
+	 *
+	 * <p>Bindings that are implemented with custom JNI functions (e.g. OpenGL and statically linked libraries) and the array overloads always use JNI.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.nativeBackend</b><br>
+	 * &nbsp; &nbsp;Usage: Static</p>
+	 */
+	public static final Configuration<String> NATIVE_BACKEND = new Configuration<>("org.lwjgl.system.nativeBackend", StateInit.STRING);
+
 	/**
 	 * Sets the allocator used for the {@link MemoryUtil} explicit memory management API
 	 * ({@link MemoryUtil#memAlloc memAlloc}/{@link MemoryUtil#memFree memFree}/etc). Supported values:
@@ -95,6 +182,7 @@ public class Configuration<T> {
 	 * <ul>
 	 * <li><em>jemalloc</em> - The allocator provided by the jemalloc library</li>
 	 * <li><em>system</em> - The default system memory allocator</li>
+	 * <li><em>pooled</em> - A {@link PooledAllocator}, with thread-local caches of small blocks, on top of <em>jemalloc</em> or <em>system</em></li>
 	 * <li><em>&lt;classpath&gt;</em> - A class that implements the {@link MemoryAllocator} interface. It will be instantiated using reflection.</li>
 	 * </ul>
 	 *
@@ -107,6 +195,16 @@ public class Configuration<T> {
 	 */
 	public static final Configuration<Object> MEMORY_ALLOCATOR = new Configuration<>("org.lwjgl.system.allocator", StateInit.STRING);
 
+	/**
+	 * Set to true to wrap the {@link #MEMORY_ALLOCATOR memory allocator} with a {@link MetricsAllocator}. Native memory usage can then be monitored with
+	 * {@link MemoryUtil#memMetrics} or via JMX, using the {@link MemoryMetricsMXBean} registered with the platform MBean server.
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.allocatorMetrics</b><br>
+	 * &nbsp; &nbsp;Usage: Static</p>
+	 */
+	public static final Configuration<Boolean> MEMORY_ALLOCATOR_METRICS = new Configuration<>("org.lwjgl.system.allocatorMetrics", StateInit.BOOLEAN);
+
 	/**
 	 * Sets the stack size, in kilobytes, that will be used in the default {@link MemoryStack} constructor. This value is also used for the LWJGL-managed,
 	 * thread-local, {@link MemoryStack} instances.
@@ -119,6 +217,64 @@ public class Configuration<T> {
 	 */
 	public static final Configuration<Integer> STACK_SIZE = new Configuration<>("org.lwjgl.system.stackSize", StateInit.INT);
 
+	/**
+	 * Set to true to make {@link MemoryStack} instances segmented by default. A segmented stack does not overflow, it chains additional off-heap segments on
+	 * demand. {@link #STACK_SIZE} becomes the size of the first segment.
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.stackSegmented</b><br>
+	 * &nbsp; &nbsp;Usage: Static</p>
+	 */
+	public static final Configuration<Boolean> STACK_SEGMENTED = new Configuration<>("org.lwjgl.system.stackSegmented", StateInit.BOOLEAN);
+
+	/**
+	 * Sets the high-water mark, in kilobytes, of unused segments that a segmented {@link MemoryStack} retains when frames are popped. Retained segments are
+	 * reused by later overflows, segments beyond this amount are freed.
+	 *
+	 * <p>If this option is not set, it defaults to the value of {@link #STACK_SIZE}.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.stackSegmentRetain</b><br>
+	 * &nbsp; &nbsp;Usage: Static</p>
+	 */
+	public static final Configuration<Integer> STACK_SEGMENT_RETAIN = new Configuration<>("org.lwjgl.system.stackSegmentRetain", StateInit.INT);
+
+	/**
+	 * Set to true to pool the thread-local {@link MemoryStack} instances. A thread borrows a stack from the {@link MemoryStackPool} when it pushes a frame and
+	 * returns it when the outermost frame is popped, so that stacks are reused across threads. Recommended for applications that use many virtual threads or
+	 * short-lived threads.
+	 *
+	 * <p>In this mode, a reference to the thread-local stack must not be kept after its outermost frame has been popped. Use {@link MemoryStack#stackGet}
+	 * or {@link MemoryStack#stackPush} again instead.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.stackPooled</b><br>
+	 * &nbsp; &nbsp;Usage: Static</p>
+	 */
+	public static final Configuration<Boolean> STACK_POOLED = new Configuration<>("org.lwjgl.system.stackPooled", StateInit.BOOLEAN);
+
+	/**
+	 * Sets the maximum number of idle {@link MemoryStack} instances kept in the {@link MemoryStackPool}.
+	 *
+	 * <p>If this option is not set, it defaults to 4 times the number of available processors.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.stackPoolCapacity</b><br>
+	 * &nbsp; &nbsp;Usage: Static</p>
+	 */
+	public static final Configuration<Integer> STACK_POOL_CAPACITY = new Configuration<>("org.lwjgl.system.stackPoolCapacity", StateInit.INT);
+
+	/**
+	 * Sets the chunk size, in kilobytes, that will be used in the default {@link MemoryArena} factory methods.
+	 *
+	 * <p>If this option is not set, it defaults to 64.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.arenaChunkSize</b><br>
+	 * &nbsp; &nbsp;Usage: Static</p>
+	 */
+	public static final Configuration<Integer> ARENA_CHUNK_SIZE = new Configuration<>("org.lwjgl.system.arenaChunkSize", StateInit.INT);
+
 	/**
 	 * Set to true to disable LWJGL's basic checks. These are trivial checks that LWJGL performs to avoid JVM crashes, very useful during development.
 	 * Their performance impact is usually minimal, but may they be disabled for release builds.
@@ -178,6 +334,39 @@ public class Configuration<T> {
 	 */
 	public static final Configuration<Boolean> DEBUG_MEMORY_ALLOCATOR = new Configuration<>("org.lwjgl.util.DebugAllocator", StateInit.BOOLEAN);
 
+	/**
+	 * Enables the sampling mode of {@link #DEBUG_MEMORY_ALLOCATOR}, where one in N allocations (chosen randomly) is tracked.
+	 *
+	 * <p>In sampling mode, a stacktrace is generated only for sampled allocations. Other allocations simply update a few counters, which makes it practical
+	 * to leave the debug allocator enabled under real load. The amounts reported by {@code memReport} and on JVM exit are extrapolated from the sampled
+	 * allocations.</p>
+	 *
+	 * <p>If this option is not set, or is less than 2, all allocations are tracked.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.util.DebugAllocator.sampleRate</b><br>
+	 * &nbsp; &nbsp;Usage: Static</p>
+	 */
+	public static final Configuration<Integer> DEBUG_MEMORY_ALLOCATOR_SAMPLE_RATE = new Configuration<>(
+		"org.lwjgl.util.DebugAllocator.sampleRate",
+		StateInit.INT
+	);
+
+	/**
+	 * Enables the sampling mode of {@link #DEBUG_MEMORY_ALLOCATOR}, where one allocation is tracked per N allocated bytes, on average.
+	 *
+	 * <p>Unlike {@link #DEBUG_MEMORY_ALLOCATOR_SAMPLE_RATE}, larger allocations are more likely to be sampled than smaller ones. If both options are set, this
+	 * one takes precedence.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.util.DebugAllocator.sampleBytes</b><br>
+	 * &nbsp; &nbsp;Usage: Static</p>
+	 */
+	public static final Configuration<Integer> DEBUG_MEMORY_ALLOCATOR_SAMPLE_BYTES = new Configuration<>(
+		"org.lwjgl.util.DebugAllocator.sampleBytes",
+		StateInit.INT
+	);
+
 	/**
 	 * Set to true to enable LWJGL's debug mode for the {@link MemoryStack}. When using the stack, each frame should be popped in the same method that pushed
 	 * it. If this symmetry is broken, this mode will report it immediately.
@@ -204,6 +393,34 @@ public class Configuration<T> {
 	 */
 	public static final Configuration<Boolean> DEBUG_FUNCTIONS = new Configuration<>("org.lwjgl.util.DebugFunctions", StateInit.BOOLEAN);
 
+	/**
+	 * When enabled, the bindings record the number of calls and the time spent in each native function, see {@link FunctionProfiler}.
+	 *
+	 * <p>This option requires bindings that have been generated with the {@code binding.PROFILE_FUNCTIONS} build property. The official builds are
+	 * generated without the profiling code.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.util.ProfileFunctions</b><br>
+	 * &nbsp; &nbsp;Usage: Static</p>
+	 */
+	public static final Configuration<Boolean> PROFILE_FUNCTIONS = new Configuration<>("org.lwjgl.util.ProfileFunctions", StateInit.BOOLEAN);
+
+	/**
+	 * Enables the sampling mode of {@link #PROFILE_FUNCTIONS}, where one in N calls (chosen randomly) is timed.
+	 *
+	 * <p>All calls are counted. The time spent in each function is extrapolated from the timed calls.</p>
+	 *
+	 * <p>If this option is not set, or is less than 2, all calls are timed.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.util.ProfileFunctions.sampleRate</b><br>
+	 * &nbsp; &nbsp;Usage: Static</p>
+	 */
+	public static final Configuration<Integer> PROFILE_FUNCTIONS_SAMPLE_RATE = new Configuration<>(
+		"org.lwjgl.util.ProfileFunctions.sampleRate",
+		StateInit.INT
+	);
+
 	// -- ASSIMP
 
 	/** Similar to {@link #LIBRARY_NAME} for the AssImp library (<b>org.lwjgl.assimp.libname</b>). */
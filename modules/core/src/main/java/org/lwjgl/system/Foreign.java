@@ -0,0 +1,66 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import java.lang.invoke.*;
+
+import static org.lwjgl.system.APIUtil.*;
+
+// Multi-release version: Java 8
+
+/**
+ * Downcall method handles for the {@link JNI} methods, used when {@link Configuration#NATIVE_BACKEND} is set to <em>FFM</em>.
+ *
+ * <p>The Foreign Function &amp; Memory API is not available on this Java version, the JNI backend is always used.</p>
+ */
+final class Foreign {
+
+	/** True if the {@link JNI} methods call native functions with downcall method handles. Always false on this Java version. */
+	static final boolean ENABLED;
+
+	static {
+		if ( "FFM".equalsIgnoreCase(Configuration.NATIVE_BACKEND.get("JNI")) )
+			apiLog("The FFM backend requires Java 22 or newer, falling back to JNI.");
+
+		ENABLED = false;
+	}
+
+	private Foreign() {
+	}
+
+	/**
+	 * Returns a method handle that calls a native function with the specified signature.
+	 *
+	 * <p>Not supported on this Java version. The {@link JNI} methods only call this method if {@link #ENABLED} is true.</p>
+	 *
+	 * @param signature the function signature, e.g. {@code "PI)V"}
+	 * @param critical  if true, the function is short-running, does not call back into Java and does not block
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	static MethodHandle downcall(String signature, boolean critical) {
+		throw new UnsupportedOperationException("The FFM backend requires Java 22 or newer.");
+	}
+
+	/**
+	 * Returns a method handle that calls the {@code JavaCritical_} entry point of a native method, or {@code null} if critical natives are not available.
+	 *
+	 * @param name      the entry point name
+	 * @param signature the method signature, e.g. {@code "JF[F)V"}
+	 */
+	static MethodHandle criticalNative(String name, String signature) {
+		return null;
+	}
+
+	/** Rethrows a {@code Throwable} thrown by a downcall method handle. */
+	static RuntimeException rethrow(Throwable t) {
+		if ( t instanceof RuntimeException )
+			throw (RuntimeException)t;
+		if ( t instanceof Error )
+			throw (Error)t;
+		throw new IllegalStateException(t);
+	}
+
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.system.MemoryUtil.MemoryAllocator;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static java.lang.Math.*;
+import static org.lwjgl.system.APIUtil.*;
+import static org.lwjgl.system.Checks.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Records the number of calls and the wall time spent in native functions called through the generated bindings.
+ *
+ * <p>Only functions that are called through function pointers are profiled, i.e. bindings to dynamically loaded libraries (OpenGL, Vulkan, OpenAL, etc).
+ * Statically linked libraries are not profiled.</p>
+ *
+ * <p>The profiling code is generated only when the bindings are built with the {@code binding.PROFILE_FUNCTIONS} property, so that it does not count
+ * towards the inlining budgets of the JIT compiler in normal builds. In such builds, profiling is enabled at runtime with
+ * {@link Configuration#PROFILE_FUNCTIONS}. The generated methods guard the profiling code with {@link Checks#PROFILE_FUNCTIONS}, a {@code static final}
+ * field, so that it is removed by the JIT compiler when profiling is disabled.</p>
+ *
+ * <p>Each thread updates its own off-heap counters, without synchronization. The counters are read racily by {@link #snapshot}, which may miss the most
+ * recent calls of concurrently running threads. With {@link Configuration#PROFILE_FUNCTIONS_SAMPLE_RATE}, only one in N calls (chosen randomly) is timed;
+ * every call is counted and the total time is extrapolated from the timed calls.</p>
+ *
+ * <p>When profiling is enabled, a report is printed to the {@link APIUtil#DEBUG_STREAM} on JVM exit. On Java 22 or newer, the counters are also recorded
+ * as {@code org.lwjgl.FunctionProfile} JFR events, at the end of each recording chunk.</p>
+ *
+ * <p>The {@code register}, {@code begin} and {@code end} methods are used by the generated bindings. [INTERNAL USE ONLY]</p>
+ */
+public final class FunctionProfiler {
+
+	/** The value returned by {@link #begin} for calls that are not timed. {@link System#nanoTime} may return any other value, including 0. */
+	public static final long NOT_TIMED = Long.MIN_VALUE;
+
+	/** The number of counters of each function: calls, timed calls and total time of the timed calls. */
+	private static final int COUNTERS = 3;
+
+	private static final int SAMPLE_RATE = max(Configuration.PROFILE_FUNCTIONS_SAMPLE_RATE.get(1), 1);
+
+	private static final MemoryAllocator ALLOCATOR = getAllocator();
+
+	/** The registered function names, indexed by function id. */
+	private static final List<String> FUNCTIONS = new ArrayList<>(1024);
+
+	private static final List<Counters> THREADS = new ArrayList<>();
+	private static       int            threadsPruneLimit = 16;
+
+	private static final ThreadLocal<Counters> COUNTERS_TLS = ThreadLocal.withInitial(FunctionProfiler::registerCounters);
+
+	/** The totals of terminated threads, indexed by {@code id * COUNTERS}. */
+	private static long[] retired = new long[0];
+
+	static {
+		if ( PROFILE_FUNCTIONS ) {
+			apiLog("Function profiling enabled" + (1 < SAMPLE_RATE ? ", timing one in " + SAMPLE_RATE + " calls." : "."));
+
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				List<Entry> entries = snapshot();
+				if ( !entries.isEmpty() )
+					report(DEBUG_STREAM, entries);
+			}));
+
+			FunctionProfilerEvents.register();
+		}
+	}
+
+	private FunctionProfiler() {
+	}
+
+	/**
+	 * Registers the functions of a binding class.
+	 *
+	 * @param className the binding class name
+	 * @param functions the function names
+	 *
+	 * @return the id of the first function. The remaining functions have consecutive ids.
+	 */
+	public static int register(String className, String... functions) {
+		synchronized ( THREADS ) {
+			int base = FUNCTIONS.size();
+			for ( String function : functions )
+				FUNCTIONS.add(className + "." + function);
+			return base;
+		}
+	}
+
+	/**
+	 * Called before a native function call.
+	 *
+	 * @return the start time if this call is timed, {@link #NOT_TIMED} otherwise
+	 */
+	public static long begin() {
+		if ( 1 < SAMPLE_RATE && ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0 )
+			return NOT_TIMED;
+
+		long time = System.nanoTime();
+		return time == NOT_TIMED ? time + 1L : time;
+	}
+
+	/**
+	 * Called after a native function call.
+	 *
+	 * @param id    the function id
+	 * @param start the value returned by {@link #begin}
+	 */
+	public static void end(int id, long start) {
+		if ( PROFILE_FUNCTIONS )
+			update(id, start);
+	}
+
+	/** Records a call of the specified function, independently of {@link Checks#PROFILE_FUNCTIONS}. */
+	static void update(int id, long start) {
+		boolean timed = start != NOT_TIMED;
+		COUNTERS_TLS.get().update(id, timed, timed ? System.nanoTime() - start : 0L);
+	}
+
+	/** Called after a native function call. Returns {@code result}. */
+	public static boolean end(int id, long start, boolean result) {
+		end(id, start);
+		return result;
+	}
+
+	/** Called after a native function call. Returns {@code result}. */
+	public static byte end(int id, long start, byte result) {
+		end(id, start);
+		return result;
+	}
+
+	/** Called after a native function call. Returns {@code result}. */
+	public static short end(int id, long start, short result) {
+		end(id, start);
+		return result;
+	}
+
+	/** Called after a native function call. Returns {@code result}. */
+	public static char end(int id, long start, char result) {
+		end(id, start);
+		return result;
+	}
+
+	/** Called after a native function call. Returns {@code result}. */
+	public static int end(int id, long start, int result) {
+		end(id, start);
+		return result;
+	}
+
+	/** Called after a native function call. Returns {@code result}. */
+	public static long end(int id, long start, long result) {
+		end(id, start);
+		return result;
+	}
+
+	/** Called after a native function call. Returns {@code result}. */
+	public static float end(int id, long start, float result) {
+		end(id, start);
+		return result;
+	}
+
+	/** Called after a native function call. Returns {@code result}. */
+	public static double end(int id, long start, double result) {
+		end(id, start);
+		return result;
+	}
+
+	private static Counters registerCounters() {
+		Counters counters = new Counters(Thread.currentThread());
+		synchronized ( THREADS ) {
+			if ( threadsPruneLimit <= THREADS.size() ) {
+				prune();
+				threadsPruneLimit = max(16, THREADS.size() * 2);
+			}
+			THREADS.add(counters);
+		}
+		return counters;
+	}
+
+	/** Folds the counters of terminated threads into {@link #retired}. Must be called while synchronized on {@link #THREADS}. */
+	private static void prune() {
+		for ( Iterator<Counters> it = THREADS.iterator(); it.hasNext(); ) {
+			Counters counters = it.next();
+			// Thread termination happens-before isAlive() returning false, no more updates can happen and they're all visible.
+			if ( !counters.owner.isAlive() ) {
+				retired = counters.addTo(retired);
+				counters.free();
+				it.remove();
+			}
+		}
+	}
+
+	/** Returns the profiled functions that have been called at least once, sorted by descending total time and then by descending number of calls. */
+	public static List<Entry> snapshot() {
+		long[]       totals;
+		List<String> functions;
+		synchronized ( THREADS ) {
+			prune();
+
+			totals = Arrays.copyOf(retired, FUNCTIONS.size() * COUNTERS);
+			for ( Counters counters : THREADS )
+				totals = counters.addTo(totals);
+
+			functions = new ArrayList<>(FUNCTIONS);
+		}
+
+		List<Entry> entries = new ArrayList<>();
+		for ( int i = 0; i < functions.size(); i++ ) {
+			int offset = i * COUNTERS;
+			if ( totals[offset] != 0L )
+				entries.add(new Entry(functions.get(i), totals[offset], totals[offset + 1], totals[offset + 2]));
+		}
+
+		entries.sort((a, b) -> {
+			int cmp = Long.compare(b.getTime(), a.getTime());
+			return cmp != 0 ? cmp : Long.compare(b.calls, a.calls);
+		});
+		return entries;
+	}
+
+	/** Resets the counters of all threads. Calls made concurrently with this method may or may not be counted. */
+	public static void reset() {
+		synchronized ( THREADS ) {
+			prune();
+
+			retired = new long[0];
+			for ( Counters counters : THREADS )
+				counters.clear();
+		}
+	}
+
+	/**
+	 * Prints a report of the profiled functions.
+	 *
+	 * @param out     the stream to print to
+	 * @param entries the entries to report, as returned by {@link #snapshot}
+	 */
+	public static void report(PrintStream out, List<Entry> entries) {
+		long total = 0L;
+		for ( Entry entry : entries )
+			total += entry.getTime();
+
+		out.format("[LWJGL] Native function profile%s:\n", 1 < SAMPLE_RATE ? " (times extrapolated from one in " + SAMPLE_RATE + " calls)" : "");
+		out.format("\t%-48s %14s %14s %12s %7s\n", "Function", "Calls", "Total (ms)", "Avg (ns)", "%");
+		for ( Entry entry : entries )
+			out.format(
+				"\t%-48s %14d %14.3f %12.1f %6.2f%%\n",
+				entry.function,
+				entry.calls,
+				entry.getTime() / 1e6,
+				entry.getAverageTime(),
+				total == 0L ? 0.0 : entry.getTime() * 100.0 / total
+			);
+	}
+
+	/** The counters of a single thread. Updated by that thread only, read racily by {@link #snapshot}. */
+	private static final class Counters {
+
+		final Thread owner;
+
+		/** Off-heap array of {@code COUNTERS} longs per function. */
+		long address;
+		/** The number of functions that fit in {@link #address}. */
+		int  capacity;
+
+		Counters(Thread owner) {
+			this.owner = owner;
+		}
+
+		void update(int id, boolean timed, long time) {
+			if ( capacity <= id )
+				grow(id);
+
+			long counters = address + (long)id * (COUNTERS * 8);
+			memPutLong(counters, memGetLong(counters) + 1L);
+			if ( timed ) {
+				memPutLong(counters + 8, memGetLong(counters + 8) + 1L);
+				memPutLong(counters + 16, memGetLong(counters + 16) + time);
+			}
+		}
+
+		private void grow(int id) {
+			// Synchronized with snapshot, which reads the counters of all threads
+			synchronized ( THREADS ) {
+				int  capacity = max(FUNCTIONS.size(), id + 1);
+				long address  = ALLOCATOR.calloc(capacity, COUNTERS * 8);
+				if ( address == NULL )
+					throw new OutOfMemoryError("Failed to allocate function profiler counters.");
+
+				if ( this.address != NULL ) {
+					memCopy(this.address, address, (long)this.capacity * (COUNTERS * 8));
+					ALLOCATOR.free(this.address);
+				}
+
+				this.address = address;
+				this.capacity = capacity;
+			}
+		}
+
+		/** Adds the counters to the specified totals. Must be called while synchronized on {@link #THREADS}. */
+		long[] addTo(long[] totals) {
+			int size = capacity * COUNTERS;
+			if ( totals.length < size )
+				totals = Arrays.copyOf(totals, size);
+
+			for ( int i = 0; i < size; i++ )
+				totals[i] += memGetLong(address + i * 8L);
+
+			return totals;
+		}
+
+		void clear() {
+			if ( address != NULL )
+				memSet(address, 0, (long)capacity * (COUNTERS * 8));
+		}
+
+		void free() {
+			if ( address != NULL ) {
+				ALLOCATOR.free(address);
+				address = NULL;
+				capacity = 0;
+			}
+		}
+
+	}
+
+	/** The profile of a single function. */
+	public static final class Entry {
+
+		private final String function;
+
+		private final long calls;
+		private final long timedCalls;
+		private final long timedTime;
+
+		Entry(String function, long calls, long timedCalls, long timedTime) {
+			this.function = function;
+			this.calls = calls;
+			this.timedCalls = timedCalls;
+			this.timedTime = timedTime;
+		}
+
+		/** Returns the function name, qualified with the binding class name. */
+		public String getFunction() { return function; }
+
+		/** Returns the number of calls. */
+		public long getCalls() { return calls; }
+
+		/** Returns the number of timed calls. Equal to {@link #getCalls} when sampling is disabled. */
+		public long getTimedCalls() { return timedCalls; }
+
+		/** Returns the total time spent in the function, in nanoseconds. Extrapolated from the timed calls when sampling is enabled. */
+		public long getTime() {
+			return timedCalls == calls || timedCalls == 0L
+				? timedTime
+				: (long)(timedTime * ((double)calls / timedCalls));
+		}
+
+		/** Returns the average time spent in the function per call, in nanoseconds. */
+		public double getAverageTime() {
+			return timedCalls == 0L ? 0.0 : (double)timedTime / timedCalls;
+		}
+
+	}
+
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+// Multi-release version: Java 8
+
+/**
+ * Records the {@link FunctionProfiler} counters as JFR events.
+ *
+ * <p>JFR events are only recorded on Java 22 or newer.</p>
+ */
+final class FunctionProfilerEvents {
+
+	private FunctionProfilerEvents() {
+	}
+
+	/** Registers the periodic JFR event. */
+	static void register() {
+	}
+
+}
@@ -114,7 +114,7 @@ public final class Library {
 				if ( debugLoader )
 					apiLog("\tUsing SharedLibraryLoader...");
 				// Extract from classpath and try org.lwjgl.librarypath
-				try ( FileChannel ignored = SharedLibraryLoader.load(name, libName, libURL) ) {
+				try ( FileChannel ignored = SharedLibraryLoader.load(context, name, libName, libURL) ) {
 					if ( loadSystem(load, context, libName, Configuration.LIBRARY_PATH) )
 						return;
 				}
@@ -228,7 +228,7 @@ public final class Library {
 				if ( debugLoader )
 					apiLog("\tUsing SharedLibraryLoader...");
 				// Extract from classpath and try org.lwjgl.librarypath
-				try ( FileChannel ignored = SharedLibraryLoader.load(name, libName, libURL) ) {
+				try ( FileChannel ignored = SharedLibraryLoader.load(context, name, libName, libURL) ) {
 					return loadNative(context, libName, Configuration.LIBRARY_PATH);
 				}
 			} catch (Exception e) {
@@ -387,6 +387,9 @@ public final class Library {
 	 *
 	 * <p>This check prints a simple warning when there's a hash mismatch, to help diagnose installation/classpath issues. It is not a security feature.</p>
 	 *
+	 * <p>If the library was extracted by the SharedLibraryLoader and {@link Configuration#SHARED_LIBRARY_EXTRACT_CACHE} is enabled, the hash stored in the
+	 * extraction cache manifest is used instead of hashing the library file.</p>
+	 *
 	 * @param context the class to use to discover the shared library hash in the classpath
 	 * @param libFile the library file loaded
 	 */
@@ -410,9 +413,13 @@ public final class Library {
 				return;
 
 			byte[] expected = getSHA1(classesURL);
-			byte[] actual = DEBUG || nativesURL == null
-				? getSHA1(libFile)
-				: getSHA1(nativesURL);
+			byte[] actual;
+			if ( DEBUG || nativesURL == null ) {
+				actual = SharedLibraryLoader.getCachedSHA1(libFile);
+				if ( actual == null )
+					actual = getSHA1(libFile);
+			} else
+				actual = getSHA1(nativesURL);
 
 			if ( !Arrays.equals(expected, actual) )
 				DEBUG_STREAM.println("[LWJGL] [WARNING] Mismatch detected between the Java and native libraries.");
@@ -7,7 +7,9 @@ package org.lwjgl.system;
 import java.nio.*;
 
 import static java.lang.Character.*;
+import static java.lang.Math.*;
 import static org.lwjgl.system.APIUtil.*;
+import static org.lwjgl.system.Checks.*;
 import static org.lwjgl.system.MemoryAccessJNI.*;
 import static org.lwjgl.system.MemoryUtil.*;
 import static org.lwjgl.system.Pointer.*;
@@ -70,14 +72,58 @@ final class MemoryAccess {
 
 		default DoubleBuffer memDoubleBuffer(long address, int capacity) { return memByteBuffer(address, capacity << 3).asDoubleBuffer(); }
 
-		default void memSet(long dst, int value, int bytes) {
+		default void memSet(long dst, int value, long bytes) {
 			nmemset(dst, value, bytes);
 		}
 
-		default void memCopy(long src, long dst, int bytes) {
+		default void memCopy(long src, long dst, long bytes) {
 			nmemcpy(dst, src, bytes); // Note the swapped src & dst
 		}
 
+		/** Copies {@code length} elements from the {@code src} primitive array, starting at {@code srcIndex}, to {@code dst}. */
+		default void memCopy(Object src, int srcIndex, long dst, int length) {
+			if ( src instanceof byte[] )
+				nGetByteArrayRegion((byte[])src, srcIndex, length, dst);
+			else if ( src instanceof short[] )
+				nGetShortArrayRegion((short[])src, srcIndex, length, dst);
+			else if ( src instanceof char[] )
+				nGetCharArrayRegion((char[])src, srcIndex, length, dst);
+			else if ( src instanceof int[] )
+				nGetIntArrayRegion((int[])src, srcIndex, length, dst);
+			else if ( src instanceof long[] )
+				nGetLongArrayRegion((long[])src, srcIndex, length, dst);
+			else if ( src instanceof float[] )
+				nGetFloatArrayRegion((float[])src, srcIndex, length, dst);
+			else if ( src instanceof double[] )
+				nGetDoubleArrayRegion((double[])src, srcIndex, length, dst);
+			else
+				throw new IllegalArgumentException("Unsupported array type: " + src.getClass());
+		}
+
+		/** Copies {@code length} elements from {@code src} to the {@code dst} primitive array, starting at {@code dstIndex}. */
+		default void memCopy(long src, Object dst, int dstIndex, int length) {
+			if ( dst instanceof byte[] )
+				nSetByteArrayRegion((byte[])dst, dstIndex, length, src);
+			else if ( dst instanceof short[] )
+				nSetShortArrayRegion((short[])dst, dstIndex, length, src);
+			else if ( dst instanceof char[] )
+				nSetCharArrayRegion((char[])dst, dstIndex, length, src);
+			else if ( dst instanceof int[] )
+				nSetIntArrayRegion((int[])dst, dstIndex, length, src);
+			else if ( dst instanceof long[] )
+				nSetLongArrayRegion((long[])dst, dstIndex, length, src);
+			else if ( dst instanceof float[] )
+				nSetFloatArrayRegion((float[])dst, dstIndex, length, src);
+			else if ( dst instanceof double[] )
+				nSetDoubleArrayRegion((double[])dst, dstIndex, length, src);
+			else
+				throw new IllegalArgumentException("Unsupported array type: " + dst.getClass());
+		}
+
+		default int memCompare(long a, long b, long bytes) {
+			return nmemcmp(a, b, bytes);
+		}
+
 		default byte memGetByte(long ptr)                 { return getByte(ptr); }
 
 		default short memGetShort(long ptr)               { return getShort(ptr); }
@@ -282,7 +328,7 @@ final class MemoryAccess {
 		}
 
 		@Override
-		public void memSet(long dst, int value, int bytes) {
+		public void memSet(long dst, int value, long bytes) {
 			/*
 			- Unsafe.setMemory is very slow.
 			- A custom Java loop is fastest at small sizes, approximately up to 192 bytes.
@@ -291,7 +337,7 @@ final class MemoryAccess {
 
 			//UNSAFE.setMemory(dst, bytes, (byte)(value & 0xFF));
 			if ( bytes < 192 )
-				memSetLoop(dst, (byte)(value & 0xFF), bytes);
+				memSetLoop(dst, (byte)(value & 0xFF), (int)bytes);
 			else
 				nmemset(dst, value, bytes);
 		}
@@ -334,7 +380,7 @@ final class MemoryAccess {
 		}
 
 		@Override
-		public void memCopy(long src, long dst, int bytes) {
+		public void memCopy(long src, long dst, long bytes) {
 			/*
 			- A custom Java loop is fastest at small sizes, approximately up to 64 bytes.
 			- Unsafe.copyMemory is fastest at moderate sizes, approximately up to 384 bytes.
@@ -342,7 +388,7 @@ final class MemoryAccess {
 			 */
 
 			if ( bytes < 64 && ((int)src & 7) == 0 && ((int)dst & 7) == 0 ) // both src and dst must be aligned to 8 bytes
-				memCopyAligned(src, dst, bytes);
+				memCopyAligned(src, dst, (int)bytes);
 			else if ( bytes < 384 )
 				UNSAFE.copyMemory(src, dst, bytes);
 			else
@@ -365,6 +411,113 @@ final class MemoryAccess {
 				));
 		}
 
+		// Unsafe.copyMemory does not poll for safepoints, large array copies are split into chunks.
+		private static final long UNSAFE_COPY_THRESHOLD = 1024L * 1024L;
+
+		private static long arrayBaseOffset(Object array) {
+			if ( array instanceof byte[] )
+				return sun.misc.Unsafe.ARRAY_BYTE_BASE_OFFSET;
+			if ( array instanceof short[] )
+				return sun.misc.Unsafe.ARRAY_SHORT_BASE_OFFSET;
+			if ( array instanceof char[] )
+				return sun.misc.Unsafe.ARRAY_CHAR_BASE_OFFSET;
+			if ( array instanceof int[] )
+				return sun.misc.Unsafe.ARRAY_INT_BASE_OFFSET;
+			if ( array instanceof long[] )
+				return sun.misc.Unsafe.ARRAY_LONG_BASE_OFFSET;
+			if ( array instanceof float[] )
+				return sun.misc.Unsafe.ARRAY_FLOAT_BASE_OFFSET;
+			if ( array instanceof double[] )
+				return sun.misc.Unsafe.ARRAY_DOUBLE_BASE_OFFSET;
+
+			throw new IllegalArgumentException("Unsupported array type: " + array.getClass());
+		}
+
+		private static int arrayIndexShift(Object array) {
+			if ( array instanceof byte[] )
+				return 0;
+			if ( array instanceof short[] || array instanceof char[] )
+				return 1;
+			if ( array instanceof int[] || array instanceof float[] )
+				return 2;
+
+			return 3;
+		}
+
+		@Override
+		public void memCopy(Object src, int srcIndex, long dst, int length) {
+			int shift = arrayIndexShift(src);
+			copyMemory(src, arrayBaseOffset(src) + ((long)srcIndex << shift), null, dst, (long)length << shift);
+		}
+
+		@Override
+		public void memCopy(long src, Object dst, int dstIndex, int length) {
+			int shift = arrayIndexShift(dst);
+			copyMemory(null, src, dst, arrayBaseOffset(dst) + ((long)dstIndex << shift), (long)length << shift);
+		}
+
+		private static void copyMemory(Object srcBase, long srcOffset, Object dstBase, long dstOffset, long bytes) {
+			while ( UNSAFE_COPY_THRESHOLD < bytes ) {
+				UNSAFE.copyMemory(srcBase, srcOffset, dstBase, dstOffset, UNSAFE_COPY_THRESHOLD);
+
+				srcOffset += UNSAFE_COPY_THRESHOLD;
+				dstOffset += UNSAFE_COPY_THRESHOLD;
+				bytes -= UNSAFE_COPY_THRESHOLD;
+			}
+			UNSAFE.copyMemory(srcBase, srcOffset, dstBase, dstOffset, bytes);
+		}
+
+		@Override
+		public int memCompare(long a, long b, long bytes) {
+			/*
+			- A custom Java loop is fastest at small sizes, approximately up to 256 bytes. It compares aligned longs, which requires a and b to have the same
+			  misalignment.
+			- The native memcmp becomes fastest at bigger sizes, when the JNI overhead becomes negligible.
+			 */
+
+			if ( bytes < 256 && (((int)a ^ (int)b) & 7) == 0 )
+				return memCompareLoop(a, b, (int)bytes);
+			else
+				return nmemcmp(a, b, bytes);
+		}
+
+		private int memCompareLoop(long a, long b, int bytes) {
+			int i = 0;
+
+			// Unaligned head
+			for ( int head = min(-(int)a & 7, bytes); i < head; i++ ) {
+				int diff = (memGetByte(a + i) & 0xFF) - (memGetByte(b + i) & 0xFF);
+				if ( diff != 0 )
+					return diff;
+			}
+
+			// Aligned longs for performance
+			for ( ; i <= bytes - 8; i += 8 ) {
+				long va = memGetLong(a + i);
+				long vb = memGetLong(b + i);
+				if ( va != vb )
+					return compareMismatch(va, vb);
+			}
+
+			// Tail
+			for ( ; i < bytes; i++ ) {
+				int diff = (memGetByte(a + i) & 0xFF) - (memGetByte(b + i) & 0xFF);
+				if ( diff != 0 )
+					return diff;
+			}
+
+			return 0;
+		}
+
+		// Compares the first byte, in memory order, that differs between a and b.
+		private static int compareMismatch(long a, long b) {
+			int shift = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN
+				? 56 - (Long.numberOfLeadingZeros(a ^ b) & ~7)
+				: Long.numberOfTrailingZeros(a ^ b) & ~7;
+
+			return (int)((a >>> shift) & 0xFF) - (int)((b >>> shift) & 0xFF);
+		}
+
 		@Override
 		public byte memGetByte(long ptr) {
 			return UNSAFE.getByte(ptr);
@@ -461,12 +614,17 @@ final class MemoryAccess {
 					}
 
 					// Aligned longs for performance
-					do {
+					while ( i <= maxLength - 8 ) {
 						long v = UNSAFE.getLong(address + i);
-						if ( ((v - 0x0101010101010101L) & ~v & 0x8080808080808080L) != 0 )
+						long zeroes = (v - 0x0101010101010101L) & ~v & 0x8080808080808080L;
+						if ( zeroes != 0 ) {
+							// The lowest flagged byte is always a zero byte, higher ones may be false positives.
+							if ( ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN )
+								return i + (Long.numberOfTrailingZeros(zeroes) >>> 3);
 							break;
+						}
 						i += 8;
-					} while ( i <= maxLength - 8 );
+					}
 				}
 
 				// Tail
@@ -493,12 +651,12 @@ final class MemoryAccess {
 					}
 
 					// Aligned longs for performance
-					do {
+					while ( i <= maxLength - 8 ) {
 						long v = UNSAFE.getLong(address + i);
 						if ( ((v - 0x0001000100010001L) & ~v & 0x8000800080008000L) != 0 )
 							break;
 						i += 8;
-					} while ( i <= maxLength - 8 );
+					}
 				}
 
 				// Tail
@@ -525,12 +683,12 @@ final class MemoryAccess {
 					}
 
 					// Aligned ints for performance
-					do {
+					while ( i <= maxLength - 4 ) {
 						int v = UNSAFE.getInt(address + i);
 						if ( ((v - 0x01010101) & ~v & 0x80808080) != 0 )
 							break;
 						i += 4;
-					} while ( i <= maxLength - 4 );
+					}
 				}
 
 				// Tail
@@ -557,12 +715,12 @@ final class MemoryAccess {
 					}
 
 					// Aligned longs for performance
-					do {
+					while ( i <= maxLength - 4 ) {
 						int v = UNSAFE.getInt(address + i);
 						if ( ((v - 0x00010001) & ~v & 0x80008000) != 0 )
 							break;
 						i += 4;
-					} while ( i <= maxLength - 4 );
+					}
 				}
 
 				// Tail
@@ -582,6 +740,17 @@ final class MemoryAccess {
 			private static int encodeASCII(CharSequence text, boolean nullTerminated, long target) {
 				int p = 0, len = text.length();
 
+				if ( 8 <= len ) {
+					// Align to 8 bytes
+					for ( ; ((int)target + p & 7) != 0; p++ )
+						UNSAFE.putByte(target + p, (byte)text.charAt(p));
+
+					// Aligned longs for performance
+					for ( ; p <= len - 8; p += 8 )
+						UNSAFE.putLong(target + p, pack(text, p));
+				}
+
+				// Tail
 				for ( ; p < len; p++ )
 					UNSAFE.putByte(target + p, (byte)text.charAt(p));
 
@@ -601,6 +770,25 @@ final class MemoryAccess {
 
 				char c;
 
+				if ( 8 <= len ) {
+					// Align to 8 bytes
+					while ( ((int)target + i & 7) != 0 && (c = text.charAt(i)) < 0x80 ) {
+						UNSAFE.putByte(target + i, (byte)c);
+						i++;
+					}
+
+					// ASCII fast path, aligned longs for performance
+					if ( ((int)target + i & 7) == 0 ) {
+						for ( ; i <= len - 8; i += 8 ) {
+							long v = packASCII(text, i);
+							if ( v == -1L )
+								break;
+							UNSAFE.putLong(target + i, v);
+						}
+					}
+					p = i;
+				}
+
 				// ASCII fast path
 				while ( i < len && (c = text.charAt(i)) < 0x80 ) {
 					UNSAFE.putByte(target + p++, (byte)c);
@@ -637,6 +825,123 @@ final class MemoryAccess {
 				return p;
 			}
 
+			// Returns the low bytes of 8 characters, packed in native byte order.
+			private static long pack(CharSequence text, int i) {
+				long v = 0L;
+				for ( int j = 7; 0 <= j; j-- )
+					v = (v << 8) | (text.charAt(i + j) & 0xFF);
+
+				return ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? Long.reverseBytes(v) : v;
+			}
+
+			// Returns 8 ASCII characters, packed in native byte order, or -1L if any character is not ASCII.
+			private static long packASCII(CharSequence text, int i) {
+				long v = 0L;
+				int mask = 0;
+				for ( int j = 7; 0 <= j; j-- ) {
+					char c = text.charAt(i + j);
+					mask |= c;
+					v = (v << 8) | c;
+				}
+
+				if ( 0x80 <= mask )
+					return -1L;
+
+				return ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? Long.reverseBytes(v) : v;
+			}
+
+			// Reads 8 bytes, with the byte at the lowest address in the least significant position.
+			private static long getLongLE(long address) {
+				long v = UNSAFE.getLong(address);
+				return ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? Long.reverseBytes(v) : v;
+			}
+
+			/** Checks that {@code [offset, offset+length)} is within the buffer limit, as the unsafe reads below are not bounds checked. */
+			private static void checkRange(ByteBuffer buffer, int length, int offset) {
+				if ( offset < 0 || buffer.limit() - offset < length )
+					throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length + ") out of bounds for limit " + buffer.limit());
+			}
+
+			@Override
+			String decodeASCII(ByteBuffer buffer, int length, int offset) {
+				if ( length <= 0 || !buffer.isDirect() )
+					return super.decodeASCII(buffer, length, offset);
+
+				if ( CHECKS )
+					checkRange(buffer, length, offset);
+
+				return decodeASCII(UNSAFE.getLong(buffer, ADDRESS) + offset, length);
+			}
+
+			private static String decodeASCII(long address, int length) {
+				char[] chars = new char[length];
+
+				int i = 0;
+				if ( 8 <= length ) {
+					// Align to 8 bytes
+					for ( ; ((int)address + i & 7) != 0; i++ )
+						chars[i] = (char)UNSAFE.getByte(address + i);
+
+					// Aligned longs for performance
+					for ( ; i <= length - 8; i += 8 ) {
+						long v = getLongLE(address + i);
+						for ( int j = 0; j < 8; j++ )
+							chars[i + j] = (char)(byte)(v >>> (j << 3));
+					}
+				}
+
+				// Tail
+				for ( ; i < length; i++ )
+					chars[i] = (char)UNSAFE.getByte(address + i);
+
+				return new String(chars);
+			}
+
+			@Override
+			String decodeUTF8(ByteBuffer buffer, int length, int offset) {
+				if ( length <= 0 || !buffer.isDirect() )
+					return super.decodeUTF8(buffer, length, offset);
+
+				if ( CHECKS )
+					checkRange(buffer, length, offset);
+
+				long address = UNSAFE.getLong(buffer, ADDRESS) + offset;
+
+				char[] string = new char[length];
+
+				int i = 0;
+				decode:
+				if ( 8 <= length ) {
+					// Align to 8 bytes
+					for ( ; ((int)address + i & 7) != 0; i++ ) {
+						byte c = UNSAFE.getByte(address + i);
+						if ( c < 0 )
+							break decode;
+						string[i] = (char)c;
+					}
+
+					// ASCII fast path, aligned longs for performance
+					for ( ; i <= length - 8; i += 8 ) {
+						long v = getLongLE(address + i);
+						if ( (v & 0x8080808080808080L) != 0L )
+							break;
+
+						for ( int j = 0; j < 8; j++ )
+							string[i + j] = (char)(v >>> (j << 3) & 0x7F);
+					}
+				}
+
+				// ASCII fast path
+				for ( ; i < length; i++ ) {
+					byte c = UNSAFE.getByte(address + i);
+					if ( c < 0 )
+						break;
+					string[i] = (char)c;
+				}
+
+				return decodeUTF8Slow(buffer, offset + i, offset + length, string, i);
+			}
+
 			@Override
 			int encodeUTF16(CharSequence text, boolean nullTerminated, ByteBuffer target, int offset) {
 				return encodeUTF16(text, nullTerminated, memAddress(target) + offset);
@@ -0,0 +1,518 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.PointerBuffer;
+
+import java.nio.*;
+import java.util.concurrent.atomic.*;
+
+import static org.lwjgl.system.Checks.*;
+import static org.lwjgl.system.MathUtil.*;
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.Pointer.*;
+
+/**
+ * An off-heap memory arena.
+ *
+ * <p>An arena allocates memory by bumping a pointer in chunks of native memory. Individual allocations are never freed, instead all memory allocated from
+ * the arena is released at once, with {@link #reset} or {@link #free}. Both operations run in time proportional to the number of chunks, not the number of
+ * allocations. This makes arenas a good fit for per-frame or per-request workloads that build many native objects (struct graphs, vertex batches, string
+ * tables, etc) with the same lifetime.</p>
+ *
+ * <p>Unlike {@link MemoryStack}, allocations are not scoped to frames and an arena does not overflow; it chains additional chunks on demand. Allocations
+ * larger than a quarter of the chunk size are placed in dedicated chunks. Addresses returned by the arena never move.</p>
+ *
+ * <p>An arena created with {@link #create} must be used by a single thread at a time. An arena created with {@link #createShared} may be used for
+ * allocations by multiple threads concurrently; it bumps the pointer with a compare-and-swap and only synchronizes when a new chunk is needed. In both
+ * cases, {@link #reset}, {@link #trim} and {@link #free} must not be called concurrently with allocations.</p>
+ *
+ * <pre><code>
+ * try ( MemoryArena arena = MemoryArena.create() ) {
+ *     while ( running ) {
+ *         VkSubmitInfo.Buffer submits = VkSubmitInfo.calloc(count, arena);
+ *         // ...
+ *         arena.reset();
+ *     }
+ * }</code></pre>
+ *
+ * @see Configuration#ARENA_CHUNK_SIZE
+ */
+public final class MemoryArena implements NativeResource {
+
+	private static final int DEFAULT_CHUNK_SIZE = Configuration.ARENA_CHUNK_SIZE.get(64) * 1024;
+
+	private static final AtomicLongFieldUpdater<Chunk> POINTER = AtomicLongFieldUpdater.newUpdater(Chunk.class, "pointer");
+
+	/** The current chunk of an arena that has been freed. Allocations from this chunk always fail. */
+	private static final Chunk FREED = new Chunk(NULL, 0L, false);
+
+	private final long chunkSize;
+
+	private final boolean shared;
+
+	/** The chunks in use, most recent first. Guarded by {@code this} in shared arenas. */
+	private Chunk chunks;
+	private int   chunkCount;
+
+	/** The unused chunks retained by {@link #reset}. Guarded by {@code this} in shared arenas. */
+	private Chunk spare;
+
+	/** The total size of the chunks in use and the spare chunks. Guarded by {@code this} in shared arenas. */
+	private long reserved;
+
+	/** The chunk that allocations are bumped from. */
+	private volatile Chunk current;
+
+	/** The next free address in the current chunk of an unshared arena. */
+	private long pointer;
+	/** The end address of the current chunk of an unshared arena. */
+	private long end;
+
+	private MemoryArena(long chunkSize, boolean shared) {
+		if ( chunkSize <= 0L )
+			throw new IllegalArgumentException("Invalid arena chunk size: " + chunkSize);
+
+		this.chunkSize = chunkSize;
+		this.shared = shared;
+
+		setCurrent(newChunk(chunkSize, false));
+	}
+
+	/** Creates a new single-threaded {@link MemoryArena} with the default chunk size. */
+	public static MemoryArena create() {
+		return create(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a new single-threaded {@link MemoryArena} with the specified chunk size.
+	 *
+	 * @param chunkSize the size of each chunk, in bytes
+	 */
+	public static MemoryArena create(long chunkSize) {
+		return new MemoryArena(chunkSize, false);
+	}
+
+	/** Creates a new {@link MemoryArena} with the default chunk size, that can be used for allocations by multiple threads concurrently. */
+	public static MemoryArena createShared() {
+		return createShared(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a new {@link MemoryArena} with the specified chunk size, that can be used for allocations by multiple threads concurrently.
+	 *
+	 * @param chunkSize the size of each chunk, in bytes
+	 */
+	public static MemoryArena createShared(long chunkSize) {
+		return new MemoryArena(chunkSize, true);
+	}
+
+	/** Returns true if this arena can be used for allocations by multiple threads concurrently. */
+	public boolean isShared() {
+		return shared;
+	}
+
+	/** Returns the size of the chunks allocated by this arena, in bytes. */
+	public long getChunkSize() {
+		return chunkSize;
+	}
+
+	/** Returns the number of chunks currently in use, including dedicated chunks. */
+	public int getChunkCount() {
+		return chunkCount;
+	}
+
+	/** Returns the native memory, in bytes, currently reserved by this arena, including the spare chunks retained by {@link #reset}. */
+	public long getReservedBytes() {
+		return reserved;
+	}
+
+	private static void checkAlignment(int alignment) {
+		if ( !mathIsPoT(alignment) )
+			throw new IllegalArgumentException("Alignment must be a power-of-two value.");
+	}
+
+	private static long align(long address, int alignment) {
+		return (address + alignment - 1) & -alignment;
+	}
+
+	/**
+	 * Calls {@link #nmalloc(int, long)} with {@code alignment} equal to 1.
+	 *
+	 * @param size the allocation size
+	 *
+	 * @return the memory address in the arena for the requested allocation
+	 */
+	public long nmalloc(long size) {
+		return nmalloc(1, size);
+	}
+
+	/**
+	 * Allocates a block of {@code size} bytes of memory in the arena. The content of the newly allocated block of memory is not initialized, remaining with
+	 * indeterminate values.
+	 *
+	 * @param alignment the required alignment
+	 * @param size      the allocation size
+	 *
+	 * @return the memory address in the arena for the requested allocation
+	 */
+	public long nmalloc(int alignment, long size) {
+		if ( DEBUG ) {
+			checkAlignment(alignment);
+			if ( size < 0L )
+				throw new IllegalArgumentException("Invalid allocation size: " + size);
+		}
+
+		if ( shared )
+			return nmallocShared(alignment, size);
+
+		long address = align(pointer, alignment);
+		if ( end - address < size )
+			return nmallocSlow(alignment, size);
+
+		pointer = address + size;
+		return address;
+	}
+
+	private long nmallocShared(int alignment, long size) {
+		while ( true ) {
+			Chunk chunk = current;
+
+			long pointer = chunk.pointer;
+			long address = align(pointer, alignment);
+			if ( chunk.end - address < size ) {
+				synchronized (this) {
+					// Retry if another thread has installed a new chunk in the meantime
+					if ( current == chunk )
+						return nmallocSlow(alignment, size);
+				}
+				continue;
+			}
+
+			if ( POINTER.compareAndSet(chunk, pointer, address + size) )
+				return address;
+		}
+	}
+
+	// Must be called while holding the lock in shared arenas
+	private long nmallocSlow(int alignment, long size) {
+		if ( current == FREED )
+			throw new IllegalStateException("The arena has been freed.");
+
+		long padded = size + alignment - 1;
+		if ( chunkSize >> 2 < padded ) {
+			// The current chunk remains usable for subsequent allocations
+			return align(newChunk(padded, true).address, alignment);
+		}
+
+		Chunk chunk = newChunk(chunkSize, false);
+
+		long address = align(chunk.address, alignment);
+		chunk.pointer = address + size;
+
+		setCurrent(chunk);
+		return address;
+	}
+
+	/**
+	 * Allocates a block of memory in the arena for an array of {@code num} elements, each of them {@code size} bytes long, and initializes all its bits to
+	 * zero.
+	 *
+	 * @param alignment the required element alignment
+	 * @param num       the number of elements to allocate
+	 * @param size      the size of each element
+	 *
+	 * @return the memory address in the arena for the requested allocation
+	 */
+	public long ncalloc(int alignment, int num, int size) {
+		long bytes = (long)num * size;
+		long address = nmalloc(alignment, bytes);
+		memSet(address, 0, bytes);
+		return address;
+	}
+
+	// Must be called while holding the lock in shared arenas
+	private Chunk newChunk(long size, boolean dedicated) {
+		Chunk chunk;
+		if ( !dedicated && spare != null ) {
+			chunk = spare;
+			spare = chunk.next;
+		} else {
+			long address = nmemAlloc(size);
+			if ( address == NULL )
+				throw new OutOfMemoryError("Failed to allocate arena chunk of size: " + size);
+
+			chunk = new Chunk(address, size, dedicated);
+			reserved += size;
+		}
+
+		chunk.next = chunks;
+		chunks = chunk;
+		chunkCount++;
+
+		return chunk;
+	}
+
+	private void setCurrent(Chunk chunk) {
+		if ( !shared ) {
+			// Unshared arenas bump their own fields, the chunk pointer is not maintained
+			this.pointer = chunk.pointer;
+			this.end = chunk.end;
+		}
+		this.current = chunk;
+	}
+
+	/**
+	 * Releases all allocations made from this arena. Memory previously allocated from the arena must not be accessed after this method has been called.
+	 *
+	 * <p>Dedicated chunks are freed. Regular chunks are retained and reused by subsequent allocations, use {@link #trim} to free them.</p>
+	 */
+	public void reset() {
+		if ( shared ) {
+			synchronized (this) {
+				resetImpl();
+			}
+		} else
+			resetImpl();
+	}
+
+	private void resetImpl() {
+		if ( current == FREED )
+			throw new IllegalStateException("The arena has been freed.");
+
+		Chunk chunk = chunks;
+		while ( chunk != null ) {
+			Chunk next = chunk.next;
+			if ( chunk.dedicated ) {
+				nmemFree(chunk.address);
+				reserved -= chunk.size;
+			} else {
+				chunk.pointer = chunk.address;
+				chunk.next = spare;
+				spare = chunk;
+			}
+			chunk = next;
+		}
+		chunks = null;
+		chunkCount = 0;
+
+		setCurrent(newChunk(chunkSize, false));
+	}
+
+	/** Frees the spare chunks retained by {@link #reset}. */
+	public void trim() {
+		if ( shared ) {
+			synchronized (this) {
+				trimImpl();
+			}
+		} else
+			trimImpl();
+	}
+
+	private void trimImpl() {
+		Chunk chunk = spare;
+		while ( chunk != null ) {
+			nmemFree(chunk.address);
+			reserved -= chunk.size;
+			chunk = chunk.next;
+		}
+		spare = null;
+	}
+
+	/**
+	 * Frees all memory reserved by this arena. Memory previously allocated from the arena must not be accessed after this method has been called.
+	 *
+	 * <p>The arena cannot be used after this method has been called.</p>
+	 */
+	@Override
+	public void free() {
+		if ( shared ) {
+			synchronized (this) {
+				freeImpl();
+			}
+		} else
+			freeImpl();
+	}
+
+	private void freeImpl() {
+		if ( current == FREED )
+			return;
+
+		Chunk chunk = chunks;
+		while ( chunk != null ) {
+			nmemFree(chunk.address);
+			reserved -= chunk.size;
+			chunk = chunk.next;
+		}
+		chunks = null;
+		chunkCount = 0;
+
+		trimImpl();
+
+		setCurrent(FREED);
+	}
+
+	// -------------------------------------------------
+
+	/**
+	 * Allocates an aligned {@link ByteBuffer} in the arena.
+	 *
+	 * @param alignment the required buffer alignment
+	 * @param size      the number of elements in the buffer
+	 *
+	 * @return the allocated buffer
+	 */
+	public ByteBuffer malloc(int alignment, int size) { return memByteBuffer(nmalloc(alignment, size), size); }
+	/** Calloc version of {@link #malloc(int, int)}. */
+	public ByteBuffer calloc(int alignment, int size) { return memByteBuffer(ncalloc(alignment, size, 1), size); }
+
+	/**
+	 * Allocates a {@link ByteBuffer} in the arena.
+	 *
+	 * @param size the number of elements in the buffer
+	 *
+	 * @return the allocated buffer
+	 */
+	public ByteBuffer malloc(int size) { return malloc(1, size); }
+	/** Calloc version of {@link #malloc(int)}. */
+	public ByteBuffer calloc(int size) { return calloc(1, size); }
+
+	/** Short version of {@link #malloc(int)}. */
+	public ShortBuffer mallocShort(int size) { return memShortBuffer(nmalloc(2, (long)size << 1), size); }
+	/** Short version of {@link #calloc(int)}. */
+	public ShortBuffer callocShort(int size) { return memShortBuffer(ncalloc(2, size, 2), size); }
+
+	/** Int version of {@link #malloc(int)}. */
+	public IntBuffer mallocInt(int size) { return memIntBuffer(nmalloc(4, (long)size << 2), size); }
+	/** Int version of {@link #calloc(int)}. */
+	public IntBuffer callocInt(int size) { return memIntBuffer(ncalloc(4, size, 4), size); }
+
+	/** Long version of {@link #malloc(int)}. */
+	public LongBuffer mallocLong(int size) { return memLongBuffer(nmalloc(8, (long)size << 3), size); }
+	/** Long version of {@link #calloc(int)}. */
+	public LongBuffer callocLong(int size) { return memLongBuffer(ncalloc(8, size, 8), size); }
+
+	/** Float version of {@link #malloc(int)}. */
+	public FloatBuffer mallocFloat(int size) { return memFloatBuffer(nmalloc(4, (long)size << 2), size); }
+	/** Float version of {@link #calloc(int)}. */
+	public FloatBuffer callocFloat(int size) { return memFloatBuffer(ncalloc(4, size, 4), size); }
+
+	/** Double version of {@link #malloc(int)}. */
+	public DoubleBuffer mallocDouble(int size) { return memDoubleBuffer(nmalloc(8, (long)size << 3), size); }
+	/** Double version of {@link #calloc(int)}. */
+	public DoubleBuffer callocDouble(int size) { return memDoubleBuffer(ncalloc(8, size, 8), size); }
+
+	/** Pointer version of {@link #malloc(int)}. */
+	public PointerBuffer mallocPointer(int size) { return memPointerBuffer(nmalloc(POINTER_SIZE, (long)size << POINTER_SHIFT), size); }
+	/** Pointer version of {@link #calloc(int)}. */
+	public PointerBuffer callocPointer(int size) { return memPointerBuffer(ncalloc(POINTER_SIZE, size, POINTER_SIZE), size); }
+
+	// -------------------------------------------------
+
+	/**
+	 * Encodes the specified text in the arena using ASCII encoding and returns a ByteBuffer that points to the encoded text, including a null-terminator.
+	 *
+	 * @param text the text to encode. If {@code text} is null, null is returned.
+	 */
+	public ByteBuffer ASCII(CharSequence text) {
+		return ASCII(text, true);
+	}
+
+	/**
+	 * Encodes the specified text in the arena using ASCII encoding and returns a ByteBuffer that points to the encoded text.
+	 *
+	 * @param text           the text to encode. If {@code text} is null, null is returned.
+	 * @param nullTerminated if true, a null-terminator is included at the end of the encoded text
+	 */
+	public ByteBuffer ASCII(CharSequence text, boolean nullTerminated) {
+		if ( text == null )
+			return null;
+
+		ByteBuffer encoded = malloc(memLengthASCII(text, nullTerminated));
+		memASCII(text, nullTerminated, encoded);
+		return encoded;
+	}
+
+	/**
+	 * Encodes the specified text in the arena using UTF8 encoding and returns a ByteBuffer that points to the encoded text, including a null-terminator.
+	 *
+	 * @param text the text to encode. If {@code text} is null, null is returned.
+	 */
+	public ByteBuffer UTF8(CharSequence text) {
+		return UTF8(text, true);
+	}
+
+	/**
+	 * Encodes the specified text in the arena using UTF8 encoding and returns a ByteBuffer that points to the encoded text.
+	 *
+	 * @param text           the text to encode. If {@code text} is null, null is returned.
+	 * @param nullTerminated if true, a null-terminator is included at the end of the encoded text
+	 */
+	public ByteBuffer UTF8(CharSequence text, boolean nullTerminated) {
+		if ( text == null )
+			return null;
+
+		ByteBuffer encoded = malloc(memLengthUTF8(text, nullTerminated));
+		memUTF8(text, nullTerminated, encoded);
+		return encoded;
+	}
+
+	/**
+	 * Encodes the specified text in the arena using UTF16 encoding and returns a ByteBuffer that points to the encoded text, including a null-terminator.
+	 *
+	 * @param text the text to encode. If {@code text} is null, null is returned.
+	 */
+	public ByteBuffer UTF16(CharSequence text) {
+		return UTF16(text, true);
+	}
+
+	/**
+	 * Encodes the specified text in the arena using UTF16 encoding and returns a ByteBuffer that points to the encoded text.
+	 *
+	 * @param text           the text to encode. If {@code text} is null, null is returned.
+	 * @param nullTerminated if true, a null-terminator is included at the end of the encoded text
+	 */
+	public ByteBuffer UTF16(CharSequence text, boolean nullTerminated) {
+		if ( text == null )
+			return null;
+
+		ByteBuffer encoded = malloc(2, memLengthUTF16(text, nullTerminated));
+		memUTF16(text, nullTerminated, encoded);
+		return encoded;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+			"MemoryArena[%s, chunkSize=%d, chunks=%d, reserved=%d]",
+			shared ? "shared" : "unshared", chunkSize, chunkCount, reserved
+		);
+	}
+
+	private static final class Chunk {
+
+		final long address;
+		final long size;
+		final long end;
+
+		final boolean dedicated;
+
+		/** The next free address. Only maintained in shared arenas, or while the chunk is not current. */
+		volatile long pointer;
+
+		/** The next chunk in the in-use or spare list. */
+		Chunk next;
+
+		Chunk(long address, long size, boolean dedicated) {
+			this.address = address;
+			this.size = size;
+			this.end = address + size;
+			this.dedicated = dedicated;
+			this.pointer = address;
+		}
+
+	}
+
+}
@@ -25,6 +25,18 @@ final class MemoryManage {
 		if ( allocator instanceof MemoryAllocator )
 			return (MemoryAllocator)allocator;
 
+		if ( "pooled".equals(allocator) )
+			return new PooledAllocator(getDefaultInstance());
+
+		return getInstance(allocator);
+	}
+
+	/** Returns the jemalloc allocator, if available, or the system default. */
+	static MemoryAllocator getDefaultInstance() {
+		return getInstance(null);
+	}
+
+	private static MemoryAllocator getInstance(Object allocator) {
 		if ( !"system".equals(allocator) ) {
 			String className = allocator == null || "jemalloc".equals(allocator)
 				? "org.lwjgl.system.jemalloc.JEmallocAllocator"
@@ -102,6 +114,18 @@ final class MemoryManage {
 		private static final ConcurrentMap<Long, Allocation> ALLOCATIONS = new ConcurrentHashMap<>();
 		private static final ConcurrentMap<Long, String>     THREADS     = new ConcurrentHashMap<>();
 
+		/** If greater than 1, one in {@code SAMPLE_RATE} allocations is tracked. */
+		private static final int SAMPLE_RATE  = Configuration.DEBUG_MEMORY_ALLOCATOR_SAMPLE_RATE.get(1);
+		/** If greater than 0, one allocation is tracked per {@code SAMPLE_BYTES} allocated bytes, on average. */
+		private static final int SAMPLE_BYTES = Configuration.DEBUG_MEMORY_ALLOCATOR_SAMPLE_BYTES.get(0);
+
+		static final boolean SAMPLING = 1 < SAMPLE_RATE || 0 < SAMPLE_BYTES;
+
+		// Striped counters, cheap to update from any thread
+		private static final LongAdder ALLOCATED_COUNT = new LongAdder();
+		private static final LongAdder ALLOCATED_BYTES = new LongAdder();
+		private static final LongAdder FREED_COUNT     = new LongAdder();
+
 		private final MemoryAllocator allocator;
 
 		DebugAllocator(MemoryAllocator allocator) {
@@ -111,6 +135,15 @@ final class MemoryManage {
 				if ( ALLOCATIONS.isEmpty() )
 					return;
 
+				if ( SAMPLING )
+					DEBUG_STREAM.format(
+						"[LWJGL] Sampling mode: %d allocations (%d bytes), %d frees. %d sampled allocations leaked, the leaked amounts are estimates.\n",
+						ALLOCATED_COUNT.sum(),
+						ALLOCATED_BYTES.sum(),
+						FREED_COUNT.sum(),
+						ALLOCATIONS.size()
+					);
+
 				for ( Entry<Long, Allocation> entry : ALLOCATIONS.entrySet() ) {
 					Long address = entry.getKey();
 					Allocation allocation = entry.getValue();
@@ -191,12 +224,22 @@ final class MemoryManage {
 
 		static long track(long address, long size) {
 			if ( address != NULL ) {
+				long estimate = size;
+				if ( SAMPLING ) {
+					ALLOCATED_COUNT.increment();
+					ALLOCATED_BYTES.add(size);
+
+					estimate = sample(ThreadLocalRandom.current(), size, SAMPLE_RATE, SAMPLE_BYTES);
+					if ( estimate < 0L )
+						return address;
+				}
+
 				Thread t = Thread.currentThread();
 				Long threadId = t.getId();
 				if ( !THREADS.containsKey(threadId) )
 					THREADS.put(threadId, t.getName());
 
-				Allocation allocation = ALLOCATIONS.put(address, new Allocation(stackWalkGetTrace(4, MemoryUtil.class), size));
+				Allocation allocation = ALLOCATIONS.put(address, new Allocation(stackWalkGetTrace(4, MemoryUtil.class), estimate));
 				if ( allocation != null )
 					throw new IllegalStateException("The memory address specified is already being tracked");
 			}
@@ -204,12 +247,38 @@ final class MemoryManage {
 			return address;
 		}
 
+		/**
+		 * Decides if an allocation should be sampled.
+		 *
+		 * <p>The returned estimate is the allocation size divided by its sampling probability, which makes the sum of estimates over the sampled allocations
+		 * an unbiased estimate of the total allocation size.</p>
+		 *
+		 * @param random      the random number generator
+		 * @param size        the allocation size
+		 * @param sampleRate  if {@code sampleBytes} is 0, one in {@code sampleRate} allocations is sampled
+		 * @param sampleBytes if greater than 0, each allocated byte is sampled with a probability of {@code 1 / sampleBytes}
+		 *
+		 * @return the estimated amount of memory the allocation stands for, or -1 if the allocation should not be sampled
+		 */
+		static long sample(Random random, long size, int sampleRate, int sampleBytes) {
+			if ( 0 < sampleBytes ) {
+				// The probability that at least one of size bytes is sampled
+				double p = -Math.expm1(-size / (double)sampleBytes);
+				return random.nextDouble() < p ? Math.round(size / p) : -1L;
+			}
+
+			return random.nextInt(sampleRate) == 0 ? size * sampleRate : -1L;
+		}
+
 		static void untrack(long address) {
 			if ( address == NULL )
 				return;
 
 			Allocation allocation = ALLOCATIONS.remove(address);
-			if ( allocation == null )
+			if ( SAMPLING )
+				// Unsampled allocations are not tracked, nothing can be validated here.
+				FREED_COUNT.increment();
+			else if ( allocation == null )
 				throw new IllegalStateException("The memory address specified is not being tracked");
 		}
 
@@ -219,6 +288,7 @@ final class MemoryManage {
 
 			private StackTraceElement[] elements; // lazy init
 
+			/** The allocation size, extrapolated if sampling is enabled. */
 			final long size;
 			final long threadId;
 
@@ -0,0 +1,49 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+/**
+ * The management interface of {@link MetricsAllocator}.
+ *
+ * <p>When {@link Configuration#MEMORY_ALLOCATOR_METRICS} is enabled, the allocator used by the explicit memory management API is registered with the
+ * platform MBean server, under the name {@link #OBJECT_NAME}.</p>
+ */
+public interface MemoryMetricsMXBean {
+
+	/** The {@code ObjectName} of the registered MBean. */
+	String OBJECT_NAME = "org.lwjgl:type=MemoryMetrics";
+
+	/** Returns the number of bytes currently allocated. */
+	long getBytesInUse();
+
+	/** Returns the number of blocks currently allocated. */
+	long getBlocksInUse();
+
+	/** Returns the maximum value of {@link #getBytesInUse} observed so far. */
+	long getPeakBytesInUse();
+
+	/** Returns the total number of bytes allocated. */
+	long getBytesAllocated();
+
+	/** Returns the total number of blocks allocated. */
+	long getBlocksAllocated();
+
+	/** Returns the total number of bytes freed. */
+	long getBytesFreed();
+
+	/** Returns the total number of blocks freed. */
+	long getBlocksFreed();
+
+	/**
+	 * Returns the allocation-size histogram.
+	 *
+	 * @see MetricsAllocator.Snapshot#getHistogram
+	 */
+	long[] getHistogram();
+
+	/** Resets the peak to the number of bytes currently allocated. */
+	void resetPeak();
+
+}
@@ -7,9 +7,12 @@ package org.lwjgl.system;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.PointerBuffer;
 
+import java.lang.ref.*;
 import java.nio.*;
 import java.util.*;
+import java.util.concurrent.*;
 
+import static java.lang.Math.*;
 import static org.lwjgl.system.APIUtil.*;
 import static org.lwjgl.system.Checks.*;
 import static org.lwjgl.system.MathUtil.*;
@@ -22,7 +25,17 @@ import static org.lwjgl.system.StackWalkUtil.*;
  *
  * <p>This class should be used in a thread-local manner for stack allocations.</p>
  *
+ * <p>A stack may optionally be segmented. When an allocation does not fit in the current segment, a segmented stack chains a new off-heap segment instead
+ * of throwing an {@link OutOfMemoryError}. Addresses returned by the stack never move. Additional segments are allocated with {@link MemoryUtil#nmemAlloc}.
+ * When the frame that created them is popped, they are retained for later overflows, up to {@link Configuration#STACK_SEGMENT_RETAIN}, and freed beyond
+ * that. The retained segments of a stack are also freed when the stack is discarded by the {@link MemoryStackPool} or becomes unreachable.</p>
+ *
+ * <p>The thread-local stacks returned by {@link #stackGet} may optionally be pooled, see {@link MemoryStackPool}. A pooled stack returns to the pool when its
+ * outermost frame is popped and no allocations remain, or when {@link #stackRelease} is called.</p>
+ *
  * @see Configuration#STACK_SIZE
+ * @see Configuration#STACK_SEGMENTED
+ * @see Configuration#STACK_POOLED
  * @see Configuration#DEBUG_STACK
  */
 public class MemoryStack implements AutoCloseable {
@@ -30,9 +43,25 @@ public class MemoryStack implements AutoCloseable {
 	private static final int DEFAULT_STACK_SIZE   = Configuration.STACK_SIZE.get(64) * 1024;
 	private static final int DEFAULT_STACK_FRAMES = 8;
 
+	private static final boolean SEGMENTED = Configuration.STACK_SEGMENTED.get(false);
+
+	/** The alignment of segment pointer ranges and of segment sizes. */
+	private static final int SEGMENT_ALIGNMENT = 4096;
+	/** The pointer value of an empty segmented stack, the first segment ends just below it. */
+	private static final int SEGMENT_POINTER_TOP = Integer.MAX_VALUE & ~(SEGMENT_ALIGNMENT - 1);
+	/** The maximum size of the unused segments that a stack retains. */
+	private static final long SEGMENT_RETAIN = Configuration.STACK_SEGMENT_RETAIN.get(DEFAULT_STACK_SIZE >> 10) * 1024L;
+
+	/** The segments allocated by all stacks and not freed yet. */
+	private static final Set<Segment>                SEGMENTS           = ConcurrentHashMap.newKeySet();
+	/** The segments of stacks that have become unreachable. */
+	private static final ReferenceQueue<MemoryStack> SEGMENTS_COLLECTED = new ReferenceQueue<>();
+
 	private static final boolean DEBUG_STACK = Configuration.DEBUG_STACK.get(false);
 
-	private static final ThreadLocal<MemoryStack> TLS = ThreadLocal.withInitial(MemoryStack::create);
+	private static final boolean POOLED = Configuration.STACK_POOLED.get(false);
+
+	private static final ThreadLocal<MemoryStack> TLS = ThreadLocal.withInitial(POOLED ? MemoryStackPool::borrow : MemoryStack::create);
 
 	static {
 		if ( DEFAULT_STACK_SIZE < 0 )
@@ -41,28 +70,73 @@ public class MemoryStack implements AutoCloseable {
 
 	@SuppressWarnings("FieldCanBeLocal")
 	private final ByteBuffer buffer;
-	private final long       address;
+	/** The base address of the current segment. {@code address + pointer} is the address of the last allocation. */
+	private       long       address;
 
 	private final int size;
 
 	private int pointer;
+	/** An allocation that would move the pointer below this value does not fit in the current segment. */
+	private int limit;
+	/** The pointer value of the current segment, when empty. */
+	private int top;
 
 	private   int[] frames;
 	protected int   frameIndex;
 
+	/** The stack segments, or null if the stack is not segmented. Segments occupy disjoint, descending, ranges of pointer values. */
+	private Segment[] segments;
+	private int       segmentIndex;
+	private int       segmentCount;
+
+	/** True if the stack belongs to the {@link MemoryStackPool}. */
+	boolean pooled;
+	/** The thread that has borrowed the stack from the pool, or null if the stack is idle. */
+	Thread  owner;
+	/** The pool slot the stack was last returned to. */
+	int     slot = -1;
+
 	/**
 	 * Creates a new {@link MemoryStack} with the specified size.
 	 *
 	 * @param size the maximum number of bytes that may be allocated on the stack
 	 */
 	protected MemoryStack(int size) {
+		this(size, false);
+	}
+
+	/**
+	 * Creates a new {@link MemoryStack} with the specified size.
+	 *
+	 * @param size      the maximum number of bytes that may be allocated on the stack. If {@code segmented} is true, the size of the first segment.
+	 * @param segmented if true, the stack will grow by chaining additional segments on demand
+	 */
+	protected MemoryStack(int size, boolean segmented) {
 		this.buffer = BufferUtils.createByteBuffer(size);
-		this.address = memAddress(buffer);
 
 		this.size = size;
-		this.pointer = size;
 
 		this.frames = new int[DEFAULT_STACK_FRAMES];
+
+		if ( segmented ) {
+			// The first segment is placed near the top of the int range, the pointer of a segmented stack can never underflow.
+			int limit = (SEGMENT_POINTER_TOP - size) & ~(SEGMENT_ALIGNMENT - 1);
+
+			this.segments = new Segment[4];
+			this.segments[0] = new Segment(null, memAddress(buffer), limit, limit + size);
+			this.segmentCount = 1;
+
+			setSegment(0);
+			this.pointer = top;
+		} else {
+			this.address = memAddress(buffer);
+
+			// Without checks, overflow is not detected in non-segmented stacks.
+			this.limit = CHECKS ? 0 : Integer.MIN_VALUE;
+			this.top = size;
+
+			this.pointer = size;
+		}
 	}
 
 	/** Creates a new {@link MemoryStack} with the default size. */
@@ -76,9 +150,19 @@ public class MemoryStack implements AutoCloseable {
 	 * @param size the maximum number of bytes that may be allocated on the stack
 	 */
 	public static MemoryStack create(int size) {
+		return create(size, SEGMENTED);
+	}
+
+	/**
+	 * Creates a new {@link MemoryStack} with the specified size.
+	 *
+	 * @param size      the maximum number of bytes that may be allocated on the stack. If {@code segmented} is true, the size of the first segment.
+	 * @param segmented if true, the stack will grow by chaining additional segments on demand
+	 */
+	public static MemoryStack create(int size, boolean segmented) {
 		return DEBUG_STACK
-			? new DebugMemoryStack(size)
-			: new MemoryStack(size);
+			? new DebugMemoryStack(size, segmented)
+			: new MemoryStack(size, segmented);
 	}
 
 	/**
@@ -97,6 +181,8 @@ public class MemoryStack implements AutoCloseable {
 	 * @return this stack
 	 */
 	public MemoryStack push() {
+		if ( frameIndex == 0 && pooled && owner != Thread.currentThread() )
+			reacquire();
 		if ( frameIndex == frames.length )
 			frameOverflow();
 
@@ -117,9 +203,32 @@ public class MemoryStack implements AutoCloseable {
 	 */
 	public MemoryStack pop() {
 		pointer = frames[--frameIndex];
+		if ( top < pointer )
+			popSegment();
+		if ( frameIndex == 0 && pooled && pointer == getBasePointer() )
+			MemoryStackPool.release(this);
 		return this;
 	}
 
+	/** Takes a pooled stack back from the pool, when a reference to it is used after its outermost frame was popped. */
+	private void reacquire() {
+		if ( !MemoryStackPool.take(this) )
+			throw new IllegalStateException(
+				"The stack was returned to the pool when its outermost frame was popped and it is now used by another thread. Use stackGet() or " +
+				"stackPush() instead of keeping a reference to the stack."
+			);
+	}
+
+	private int getBasePointer() {
+		return segments == null ? size : segments[0].top;
+	}
+
+	/** Discards all frames and allocations. */
+	void reset() {
+		frameIndex = 0;
+		setPointer(getBasePointer());
+	}
+
 	/**
 	 * Calls {@link #pop} on this {@link MemoryStack}.
 	 *
@@ -137,11 +246,17 @@ public class MemoryStack implements AutoCloseable {
 
 		private Object[] debugFrames;
 
-		DebugMemoryStack(int size) {
-			super(size);
+		DebugMemoryStack(int size, boolean segmented) {
+			super(size, segmented);
 			debugFrames = new Object[DEFAULT_STACK_FRAMES];
 		}
 
+		@Override
+		void reset() {
+			Arrays.fill(debugFrames, null);
+			super.reset();
+		}
+
 		@Override
 		public MemoryStack push() {
 			if ( frameIndex == debugFrames.length )
@@ -184,6 +299,9 @@ public class MemoryStack implements AutoCloseable {
 	 * Returns the address of the backing off-heap memory.
 	 *
 	 * <p>The stack grows "downwards", so the bottom of the stack is at {@code address + size}, while the top is at {@code address}.</p>
+	 *
+	 * <p>For segmented stacks, this is the base address of the current segment, such that {@code address + pointer} is the address of the last allocation.
+	 * It changes when the current segment changes.</p>
 	 */
 	public long getAddress() {
 		return address;
@@ -192,7 +310,7 @@ public class MemoryStack implements AutoCloseable {
 	/**
 	 * Returns the size of the backing off-heap memory.
 	 *
-	 * <p>This is the maximum number of bytes that may be allocated on the stack.</p>
+	 * <p>This is the maximum number of bytes that may be allocated on the stack. For segmented stacks, this is the size of the first segment.</p>
 	 */
 	public int getSize() {
 		return size;
@@ -213,7 +331,8 @@ public class MemoryStack implements AutoCloseable {
 	 * <p>The stack grows "downwards", so when the stack is empty {@code pointer} is equal to {@code size}. On every allocation {@code pointer} is reduced by
 	 * the allocated size (after alignment) and {@code address + pointers} points to the last byte of the last allocation.</p>
 	 *
-	 * <p>Effectively, this methods returns how many more bytes may be allocated on the stack.</p>
+	 * <p>Effectively, this methods returns how many more bytes may be allocated on the stack. This is not true for segmented stacks, their pointer values
+	 * should only be used with {@link #setPointer}.</p>
 	 */
 	public int getPointer() {
 		return pointer;
@@ -230,10 +349,12 @@ public class MemoryStack implements AutoCloseable {
 			checkPointer(pointer);
 
 		this.pointer = pointer;
+		if ( top < pointer )
+			popSegment();
 	}
 
 	private void checkPointer(int pointer) {
-		if ( pointer < 0 || size < pointer )
+		if ( pointer < limit || (segments == null ? size : segments[0].top) < pointer )
 			throw new IndexOutOfBoundsException("Invalid stack pointer");
 	}
 
@@ -242,9 +363,128 @@ public class MemoryStack implements AutoCloseable {
 			throw new IllegalArgumentException("Alignment must be a power-of-two value.");
 	}
 
-	private static void checkPush(int pointer) {
-		if ( pointer < 0 )
+	private void setSegment(int index) {
+		Segment segment = segments[index];
+
+		this.segmentIndex = index;
+		this.address = segment.address;
+		this.limit = segment.limit;
+		this.top = segment.top;
+	}
+
+	/** Moves to a new segment, large enough for the specified allocation. */
+	private long nmallocOverflow(int alignment, int size) {
+		// Room for the allocation, after aligning the new segment's top pointer
+		int required = size + alignment - 1;
+		if ( segments == null || required < 0 )
+			throw new OutOfMemoryError("Out of stack space.");
+
+		// Reuse the next segment, if it has been retained and is large enough
+		int next = segmentIndex + 1;
+		if ( next == segmentCount || segments[next].top - segments[next].limit < required ) {
+			freeSegments(next);
+			allocateSegment(required);
+		}
+		setSegment(next);
+
+		int newPointer = (top - size) & ~(alignment - 1);
+
+		pointer = newPointer;
+
+		return this.address + newPointer;
+	}
+
+	private void allocateSegment(int required) {
+		Segment last = segments[segmentCount - 1];
+
+		int segmentSize = (max(required, last.top - last.limit) + SEGMENT_ALIGNMENT - 1) & ~(SEGMENT_ALIGNMENT - 1);
+		if ( segmentSize < 0 || last.limit < segmentSize )
 			throw new OutOfMemoryError("Out of stack space.");
+
+		if ( segmentCount == segments.length )
+			segments = Arrays.copyOf(segments, segmentCount * 2);
+
+		freeCollectedSegments();
+
+		long base = nmemAlloc(segmentSize);
+		if ( base == NULL )
+			throw new OutOfMemoryError("Failed to allocate stack segment of size: " + segmentSize);
+
+		Segment segment = new Segment(this, base, last.limit - segmentSize, last.limit);
+		SEGMENTS.add(segment);
+		segments[segmentCount++] = segment;
+	}
+
+	/** Frees the segments starting at the specified index. The first segment is the stack buffer, it is never freed. */
+	private void freeSegments(int index) {
+		for ( int i = index; i < segmentCount; i++ ) {
+			segments[i].free();
+			segments[i] = null;
+		}
+		segmentCount = index;
+	}
+
+	/** Frees the segments retained after the current one. Called when the stack is discarded. */
+	void freeRetainedSegments() {
+		if ( segments != null )
+			freeSegments(segmentIndex + 1);
+	}
+
+	private static void freeCollectedSegments() {
+		Reference<? extends MemoryStack> ref;
+		while ( (ref = SEGMENTS_COLLECTED.poll()) != null )
+			((Segment)ref).free();
+	}
+
+	/** Called when the stack pointer moves past the current segment, to a previous segment. */
+	private void popSegment() {
+		if ( segments == null )
+			return;
+
+		int index = segmentIndex;
+		do {
+			index--;
+		} while ( segments[index].top < pointer );
+
+		setSegment(index);
+
+		// Retain the following segments, up to the high-water mark
+		long retained = 0L;
+		for ( int i = index + 1; i < segmentCount; i++ ) {
+			retained += segments[i].top - segments[i].limit;
+			if ( SEGMENT_RETAIN < retained ) {
+				freeSegments(i);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * A block of stack memory, with the range of pointer values that it serves.
+	 *
+	 * <p>Segments allocated with {@link MemoryUtil#nmemAlloc} refer to their stack, so that they can be freed if the stack becomes unreachable.</p>
+	 */
+	private static final class Segment extends PhantomReference<MemoryStack> {
+
+		/** The base address of the segment memory, minus {@link #limit}. */
+		final long address;
+		final int  limit;
+		final int  top;
+
+		Segment(MemoryStack stack, long base, int limit, int top) {
+			super(stack, stack == null ? null : SEGMENTS_COLLECTED);
+			this.address = base - limit;
+			this.limit = limit;
+			this.top = top;
+		}
+
+		/** Frees the segment memory, if it has not been freed already. */
+		void free() {
+			if ( SEGMENTS.remove(this) )
+				nmemFree(address + limit);
+			clear();
+		}
+
 	}
 
 	/**
@@ -268,15 +508,14 @@ public class MemoryStack implements AutoCloseable {
 	 * @return the memory address on the stack for the requested allocation
 	 */
 	public long nmalloc(int alignment, int size) {
-		int newPointer = pointer - size;
-
 		if ( DEBUG )
 			checkAlignment(alignment);
-		if ( CHECKS )
-			checkPush(newPointer);
 
 		// Align pointer to the specified alignment
-		newPointer &= ~(alignment - 1);
+		int newPointer = (pointer - size) & ~(alignment - 1);
+
+		if ( newPointer < limit )
+			return nmallocOverflow(alignment, size);
 
 		pointer = newPointer;
 
@@ -587,7 +826,20 @@ public class MemoryStack implements AutoCloseable {
 
 	/** Returns the stack of the current thread. */
 	public static MemoryStack stackGet() {
-		return TLS.get();
+		MemoryStack stack = TLS.get();
+		if ( POOLED && stack.owner != Thread.currentThread() )
+			stack = stackBorrow(stack);
+		return stack;
+	}
+
+	/** Borrows a stack for the current thread, preferably the stack it returned to the pool last. */
+	private static MemoryStack stackBorrow(MemoryStack previous) {
+		if ( MemoryStackPool.take(previous) )
+			return previous;
+
+		MemoryStack stack = MemoryStackPool.borrow();
+		TLS.set(stack);
+		return stack;
 	}
 
 	/**
@@ -608,6 +860,29 @@ public class MemoryStack implements AutoCloseable {
 		return stackGet().pop();
 	}
 
+	/**
+	 * Returns the stack of the current thread to the {@link MemoryStackPool}, when stacks are pooled. Does nothing otherwise.
+	 *
+	 * <p>A stack is also returned to the pool when its outermost frame is popped, unless allocations were made outside of any frame (e.g. with
+	 * {@link #setPointer}). This method releases the stack in that case too, discarding those allocations. The next {@link #stackGet} or {@link #stackPush}
+	 * call borrows a stack again.</p>
+	 *
+	 * @throws IllegalStateException if the stack has frames that have not been popped
+	 */
+	public static void stackRelease() {
+		if ( !POOLED )
+			return;
+
+		MemoryStack stack = TLS.get();
+		if ( stack.owner != Thread.currentThread() )
+			return;
+		if ( stack.frameIndex != 0 )
+			throw new IllegalStateException("The stack has " + stack.frameIndex + " frames that have not been popped.");
+
+		TLS.remove();
+		MemoryStackPool.release(stack);
+	}
+
 	/** Thread-local version of {@link #nmalloc(int)}. */
 	public static long nstackMalloc(int size) { return stackGet().nmalloc(size); }
 	/** Thread-local version of {@link #nmalloc(int, int)}. */
@@ -0,0 +1,142 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * The pool of thread-local {@link MemoryStack} instances, used when {@link Configuration#STACK_POOLED} is enabled.
+ *
+ * <p>In pooled mode, a thread borrows a stack from the pool on its first {@link MemoryStack#stackGet stackGet()} or
+ * {@link MemoryStack#stackPush stackPush()} call, and returns it when its outermost frame is popped and no allocations remain, or when it calls
+ * {@link MemoryStack#stackRelease stackRelease()}. The next call borrows a stack again, preferably the same one, if no other thread has taken it in the
+ * meantime. This keeps native memory proportional to the number of threads that are using a stack at the same time, instead of the number of threads that
+ * have ever used one, which matters for virtual threads and short-lived executor threads. The stack of a thread that terminates while it still holds
+ * allocations is reclaimed by the garbage collector.</p>
+ *
+ * <p>Idle stacks are kept in a lock-free array, bounded by {@link Configuration#STACK_POOL_CAPACITY}. A stack returned to a full pool is discarded, its
+ * retained segments are freed and its buffer is reclaimed by the garbage collector.</p>
+ */
+public final class MemoryStackPool {
+
+	private static final AtomicReferenceArray<MemoryStack> SLOTS = new AtomicReferenceArray<>(
+		Math.max(Configuration.STACK_POOL_CAPACITY.get(4 * Runtime.getRuntime().availableProcessors()), 0)
+	);
+
+	private static final LongAdder HITS     = new LongAdder();
+	private static final LongAdder MISSES   = new LongAdder();
+	private static final LongAdder DISCARDS = new LongAdder();
+
+	private MemoryStackPool() {
+	}
+
+	/** Returns a stack from the pool, or a new stack if the pool is empty. The stack is owned by the current thread until it is released. */
+	static MemoryStack borrow() {
+		MemoryStack stack = poll();
+		if ( stack == null ) {
+			MISSES.increment();
+			stack = MemoryStack.create();
+			stack.pooled = true;
+		} else
+			HITS.increment();
+
+		stack.owner = Thread.currentThread();
+		return stack;
+	}
+
+	/** Takes the specified stack back from the pool, if it is still idle. On success, the stack is owned by the current thread. */
+	static boolean take(MemoryStack stack) {
+		int slot = stack.slot;
+		if ( slot < 0 || !SLOTS.compareAndSet(slot, stack, null) )
+			return false;
+
+		HITS.increment();
+		stack.owner = Thread.currentThread();
+		return true;
+	}
+
+	private static MemoryStack poll() {
+		int capacity = SLOTS.length();
+		if ( capacity != 0 ) {
+			// Start at a random slot to spread contention
+			int i = ThreadLocalRandom.current().nextInt(capacity);
+			for ( int n = 0; n < capacity; n++ ) {
+				MemoryStack stack = SLOTS.get(i);
+				if ( stack != null && SLOTS.compareAndSet(i, stack, null) )
+					return stack;
+				if ( ++i == capacity )
+					i = 0;
+			}
+		}
+		return null;
+	}
+
+	/** Returns the specified stack to the pool. The stack must not be used by its owner thread after this call, unless it takes it back. */
+	static void release(MemoryStack stack) {
+		stack.owner = null;
+		stack.reset();
+		offer(stack);
+	}
+
+	private static void offer(MemoryStack stack) {
+		int capacity = SLOTS.length();
+		if ( capacity != 0 ) {
+			int i = ThreadLocalRandom.current().nextInt(capacity);
+			for ( int n = 0; n < capacity; n++ ) {
+				if ( SLOTS.get(i) == null ) {
+					// Written before the stack is published, only read by a thread that takes it back
+					stack.slot = i;
+					if ( SLOTS.compareAndSet(i, null, stack) )
+						return;
+				}
+				if ( ++i == capacity )
+					i = 0;
+			}
+		}
+
+		stack.slot = -1;
+		stack.freeRetainedSegments();
+		DISCARDS.increment();
+	}
+
+	/** Returns the maximum number of idle stacks that the pool may hold. */
+	public static int getCapacity() {
+		return SLOTS.length();
+	}
+
+	/** Returns the number of idle stacks currently in the pool. */
+	public static int getIdleCount() {
+		int count = 0;
+		for ( int i = 0; i < SLOTS.length(); i++ ) {
+			if ( SLOTS.get(i) != null )
+				count++;
+		}
+		return count;
+	}
+
+	/** Returns the number of times a stack was borrowed from the pool. */
+	public static long getHits() {
+		return HITS.sum();
+	}
+
+	/** Returns the number of times the pool was empty and a new stack had to be created. */
+	public static long getMisses() {
+		return MISSES.sum();
+	}
+
+	/** Returns the number of stacks discarded because the pool was full. */
+	public static long getDiscards() {
+		return DISCARDS.sum();
+	}
+
+	/** Returns the ratio of hits to the total number of borrowed stacks, or 0.0 if no stack has been borrowed yet. */
+	public static double getHitRate() {
+		long hits = HITS.sum();
+		long total = hits + MISSES.sum();
+		return total == 0L ? 0.0 : hits / (double)total;
+	}
+
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import java.nio.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.lwjgl.system.Checks.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * A bounded cache of null-terminated, native encodings of strings.
+ *
+ * <p>Binding calls that receive the same string arguments repeatedly (uniform names, function names, database keys, UI labels, etc) normally encode them
+ * into a fresh buffer on each call. With a string cache, each distinct string is encoded once and the same native copy is reused until it is evicted.</p>
+ *
+ * <p>Cached strings are accessed through {@link Entry} instances. An entry must be acquired before its memory is accessed and released when the memory is
+ * no longer used. Entries are reference counted, an entry that is evicted while acquired is freed when the last reference is released. This makes it safe
+ * to use the cache from multiple threads concurrently:</p>
+ *
+ * <pre><code>
+ * try ( MemoryStringCache.Entry name = cache.acquire("u_transform") ) {
+ *     int location = glGetUniformLocation(program, name.buffer());
+ * }</code></pre>
+ *
+ * <p>The cache holds at most {@code capacity} unpinned entries and evicts the least recently used entries with the clock (second-chance) algorithm. A
+ * {@link #pin pinned} entry is never evicted and does not count against the capacity, which is useful for strings that are used throughout the
+ * application's lifetime.</p>
+ *
+ * <p>Lookups of cached strings are lock-free. A miss encodes the string outside of any lock and then synchronizes on the cache to insert it.</p>
+ */
+public final class MemoryStringCache implements NativeResource {
+
+	private final boolean utf8;
+
+	private final int capacity;
+
+	private final ConcurrentHashMap<String, Entry> map;
+
+	/** The unpinned entries. Guarded by {@code this}. */
+	private final Entry[] clock;
+	/** The number of entries in {@code clock}. Guarded by {@code this}. */
+	private int clockSize;
+	/** The next entry to be considered for eviction. Guarded by {@code this}. */
+	private int clockHand;
+
+	private final LongAdder hits      = new LongAdder();
+	private final LongAdder misses    = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	private final AtomicLong bytes = new AtomicLong();
+
+	private volatile boolean freed;
+
+	private MemoryStringCache(boolean utf8, int capacity) {
+		if ( capacity <= 0 )
+			throw new IllegalArgumentException("Invalid string cache capacity: " + capacity);
+
+		this.utf8 = utf8;
+		this.capacity = capacity;
+
+		this.map = new ConcurrentHashMap<>(capacity);
+		this.clock = new Entry[capacity];
+	}
+
+	/**
+	 * Creates a new string cache that uses the UTF-8 encoding.
+	 *
+	 * @param capacity the maximum number of unpinned strings in the cache
+	 */
+	public static MemoryStringCache createUTF8(int capacity) {
+		return new MemoryStringCache(true, capacity);
+	}
+
+	/**
+	 * Creates a new string cache that uses the ASCII encoding.
+	 *
+	 * @param capacity the maximum number of unpinned strings in the cache
+	 */
+	public static MemoryStringCache createASCII(int capacity) {
+		return new MemoryStringCache(false, capacity);
+	}
+
+	/**
+	 * Returns the cache entry of the specified text, encoding it if necessary, and increments its reference count.
+	 *
+	 * <p>The returned entry must be {@link Entry#close closed} when its memory is no longer used.</p>
+	 *
+	 * @param text the text to encode
+	 *
+	 * @return the acquired entry
+	 */
+	public Entry acquire(CharSequence text) {
+		String key = text.toString();
+
+		Entry entry = map.get(key);
+		if ( entry != null && entry.acquire() ) {
+			entry.referenced = true;
+			hits.increment();
+			return entry;
+		}
+
+		misses.increment();
+		return insert(key);
+	}
+
+	/**
+	 * Returns the cache entry of the specified text, encoding it if necessary, and pins it. A pinned entry is never evicted and remains valid until it is
+	 * {@link #unpin unpinned}.
+	 *
+	 * <p>An entry may be pinned multiple times and must be unpinned an equal number of times.</p>
+	 *
+	 * @param text the text to encode
+	 *
+	 * @return the pinned entry
+	 */
+	public Entry pin(CharSequence text) {
+		while ( true ) {
+			Entry entry = acquire(text);
+			synchronized (this) {
+				// The entry may have been evicted after it was acquired, it can only be pinned while it is in the cache
+				if ( map.get(entry.text) == entry ) {
+					if ( entry.pins++ == 0 )
+						removeFromClock(entry);
+					return entry;
+				}
+			}
+			entry.close();
+		}
+	}
+
+	/**
+	 * Unpins an entry returned by {@link #pin}. When the entry has been unpinned as many times as it was pinned, it becomes eligible for eviction again.
+	 *
+	 * @param entry the entry to unpin
+	 */
+	public void unpin(Entry entry) {
+		synchronized (this) {
+			if ( entry.pins <= 0 )
+				throw new IllegalStateException("The entry is not pinned: " + entry.text);
+
+			if ( --entry.pins == 0 && map.get(entry.text) == entry ) {
+				if ( clockSize == capacity )
+					evict();
+				clock[clockSize++] = entry;
+			}
+		}
+		entry.close();
+	}
+
+	private Entry insert(String key) {
+		Entry entry = encode(key);
+
+		synchronized (this) {
+			if ( freed ) {
+				entry.close();
+				throw new IllegalStateException("The string cache has been freed.");
+			}
+
+			Entry existing = map.get(key);
+			if ( existing != null && existing.acquire() ) {
+				// Another thread inserted the same string
+				entry.close();
+				return existing;
+			}
+
+			if ( clockSize == capacity )
+				evict();
+
+			// The cache owns a reference to each entry it contains
+			entry.acquire();
+
+			map.put(key, entry);
+			clock[clockSize++] = entry;
+			bytes.addAndGet(entry.length + 1);
+		}
+
+		return entry;
+	}
+
+	private Entry encode(String text) {
+		int length = utf8 ? memLengthUTF8(text, false) : memLengthASCII(text, false);
+
+		long address = nmemAlloc(length + 1);
+		if ( CHECKS && address == NULL )
+			throw new OutOfMemoryError();
+
+		ByteBuffer target = memByteBuffer(address, length + 1);
+		if ( utf8 )
+			memUTF8(text, true, target);
+		else
+			memASCII(text, true, target);
+
+		return new Entry(this, text, address, length, target.asReadOnlyBuffer());
+	}
+
+	// Must be called while holding the lock
+	private void evict() {
+		while ( true ) {
+			if ( clockSize <= clockHand )
+				clockHand = 0;
+
+			Entry entry = clock[clockHand];
+			if ( entry.referenced ) {
+				// Second chance
+				entry.referenced = false;
+				clockHand++;
+				continue;
+			}
+
+			clock[clockHand] = clock[--clockSize];
+			clock[clockSize] = null;
+
+			map.remove(entry.text);
+			bytes.addAndGet(-(entry.length + 1));
+			evictions.increment();
+
+			entry.close();
+			return;
+		}
+	}
+
+	// Must be called while holding the lock
+	private void removeFromClock(Entry entry) {
+		for ( int i = 0; i < clockSize; i++ ) {
+			if ( clock[i] == entry ) {
+				clock[i] = clock[--clockSize];
+				clock[clockSize] = null;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Removes all unpinned entries from the cache. Entries that are currently acquired are freed when they are released.
+	 *
+	 * <p>Pinned entries are not affected.</p>
+	 */
+	public void clear() {
+		synchronized (this) {
+			for ( int i = 0; i < clockSize; i++ ) {
+				Entry entry = clock[i];
+				clock[i] = null;
+
+				map.remove(entry.text);
+				bytes.addAndGet(-(entry.length + 1));
+
+				entry.close();
+			}
+			clockSize = 0;
+			clockHand = 0;
+		}
+	}
+
+	/**
+	 * Removes all entries from the cache, including pinned entries, and frees their memory. Entries that are currently acquired or pinned are freed when
+	 * they are released or unpinned.
+	 *
+	 * <p>The cache cannot be used after this method has been called.</p>
+	 */
+	@Override
+	public void free() {
+		synchronized (this) {
+			if ( freed )
+				return;
+			freed = true;
+
+			clear();
+			for ( Entry entry : map.values() )
+				entry.close();
+			map.clear();
+			bytes.set(0L);
+		}
+	}
+
+	/** Returns true if this cache uses the UTF-8 encoding, false if it uses the ASCII encoding. */
+	public boolean isUTF8() {
+		return utf8;
+	}
+
+	/** Returns the maximum number of unpinned entries in this cache. */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/** Returns the current number of entries in this cache, including pinned entries. */
+	public int size() {
+		return map.size();
+	}
+
+	/** Returns the native memory, in bytes, used by the entries currently in the cache. */
+	public long getBytes() {
+		return bytes.get();
+	}
+
+	/** Returns the number of {@link #acquire} and {@link #pin} calls that found the string in the cache. */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/** Returns the number of {@link #acquire} and {@link #pin} calls that had to encode the string. */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/** Returns the number of entries evicted from the cache. */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/** Returns the ratio of hits to the total number of lookups, or 0.0 if no lookup has been performed yet. */
+	public double getHitRate() {
+		long hits = this.hits.sum();
+		long total = hits + misses.sum();
+		return total == 0L ? 0.0 : hits / (double)total;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+			"MemoryStringCache[%s, size=%d, capacity=%d, bytes=%d, hits=%d, misses=%d, evictions=%d]",
+			utf8 ? "UTF-8" : "ASCII", size(), capacity, getBytes(), getHits(), getMisses(), getEvictions()
+		);
+	}
+
+	/**
+	 * A reference counted, immutable, null-terminated native string.
+	 *
+	 * <p>The memory of an entry must not be modified. It is valid from the moment the entry is acquired until it is closed.</p>
+	 */
+	public static final class Entry implements AutoCloseable {
+
+		private final MemoryStringCache cache;
+
+		private final String text;
+
+		private final long address;
+		private final int  length;
+
+		/** The number of references. The entry is freed when this reaches 0 and can never be acquired again. */
+		private final AtomicInteger refs;
+
+		/** The number of pins. Guarded by the cache. */
+		private int pins;
+
+		/** The clock reference bit. Races are benign. */
+		private volatile boolean referenced;
+
+		private final ByteBuffer buffer;
+
+		Entry(MemoryStringCache cache, String text, long address, int length, ByteBuffer buffer) {
+			this.cache = cache;
+			this.text = text;
+			this.address = address;
+			this.length = length;
+			this.buffer = buffer;
+			this.refs = new AtomicInteger(1);
+		}
+
+		boolean acquire() {
+			while ( true ) {
+				int r = refs.get();
+				if ( r == 0 )
+					return false;
+
+				if ( refs.compareAndSet(r, r + 1) )
+					return true;
+			}
+		}
+
+		/** Returns the cached text. */
+		public String text() {
+			return text;
+		}
+
+		/** Returns the address of the encoded, null-terminated string. */
+		public long address() {
+			if ( DEBUG && refs.get() == 0 )
+				throw new IllegalStateException("The string cache entry has been freed: " + text);
+
+			return address;
+		}
+
+		/** Returns the length, in bytes, of the encoded string, excluding the null-terminator. */
+		public int length() {
+			return length;
+		}
+
+		/**
+		 * Returns a read-only {@link ByteBuffer} view of the encoded string, including the null-terminator.
+		 *
+		 * <p>The buffer is created with the entry and shared by all threads. Its position and limit must not be modified.</p>
+		 */
+		public ByteBuffer buffer() {
+			if ( DEBUG && refs.get() == 0 )
+				throw new IllegalStateException("The string cache entry has been freed: " + text);
+
+			return buffer;
+		}
+
+		/** Returns the cache that owns this entry. */
+		public MemoryStringCache getCache() {
+			return cache;
+		}
+
+		/** Releases a reference to this entry. The entry memory is freed if the entry has been evicted and this was the last reference. */
+		@Override
+		public void close() {
+			int r = refs.decrementAndGet();
+			if ( r == 0 )
+				nmemFree(address);
+			else if ( r < 0 )
+				throw new IllegalStateException("The string cache entry has been released too many times: " + text);
+		}
+
+		@Override
+		public String toString() {
+			return text;
+		}
+
+	}
+
+}
@@ -42,12 +42,12 @@ class MemoryTextUtil {
 			}
 
 			// Aligned longs for performance
-			do {
+			while ( i <= maxLength - 8 ) {
 				long v = buffer.getLong(i);
 				if ( ((v - 0x0101010101010101L) & ~v & 0x8080808080808080L) != 0 )
 					break;
 				i += 8;
-			} while ( i <= maxLength - 8 );
+			}
 		}
 
 		// Tail
@@ -80,12 +80,12 @@ class MemoryTextUtil {
 			}
 
 			// Aligned longs for performance
-			do {
+			while ( i <= maxLength - 8 ) {
 				long v = buffer.getLong(i);
 				if ( ((v - 0x0001000100010001L) & ~v & 0x8000800080008000L) != 0 )
 					break;
 				i += 8;
-			} while ( i <= maxLength - 8 );
+			}
 		}
 
 		// Tail
@@ -118,12 +118,12 @@ class MemoryTextUtil {
 			}
 
 			// Aligned ints for performance
-			do {
+			while ( i <= maxLength - 4 ) {
 				int v = buffer.getInt(i);
 				if ( ((v - 0x01010101) & ~v & 0x80808080) != 0 )
 					break;
 				i += 4;
-			} while ( i <= maxLength - 4 );
+			}
 		}
 
 		// Tail
@@ -156,12 +156,12 @@ class MemoryTextUtil {
 			}
 
 			// Aligned ints for performance
-			do {
+			while ( i <= maxLength - 4 ) {
 				int v = buffer.getInt(i);
 				if ( ((v - 0x00010001) & ~v & 0x80008000) != 0 )
 					break;
 				i += 4;
-			} while ( i <= maxLength - 4 );
+			}
 		}
 
 		// Tail
@@ -189,7 +189,7 @@ class MemoryTextUtil {
 	}
 
 	/** @see MemoryUtil#memASCII(ByteBuffer, int, int) */
-	static String decodeASCII(ByteBuffer buffer, int length, int offset) {
+	String decodeASCII(ByteBuffer buffer, int length, int offset) {
 		if ( length <= 0 )
 			return "";
 
@@ -249,8 +249,16 @@ class MemoryTextUtil {
 	static int encodeUTF8Length(CharSequence value) {
 		int i, len = value.length(), bytes = len; // start with 1:1
 
-		// ASCII fast path
-		for ( i = 0; i < len; i++ ) {
+		// ASCII fast path, 8 chars at a time
+		for ( i = 0; i <= len - 8; i += 8 ) {
+			if ( 0x80 <= (
+				value.charAt(i) | value.charAt(i + 1) | value.charAt(i + 2) | value.charAt(i + 3) |
+				value.charAt(i + 4) | value.charAt(i + 5) | value.charAt(i + 6) | value.charAt(i + 7)
+			) )
+				break;
+		}
+
+		for ( ; i < len; i++ ) {
 			if ( 0x80 <= value.charAt(i) )
 				break;
 		}
@@ -305,7 +313,7 @@ class MemoryTextUtil {
 	}
 
 	/** @see MemoryUtil#memUTF8(ByteBuffer, int, int) */
-	static String decodeUTF8(ByteBuffer buffer, int length, int offset) {
+	String decodeUTF8(ByteBuffer buffer, int length, int offset) {
 		if ( length <= 0 )
 			return "";
 
@@ -323,7 +331,15 @@ class MemoryTextUtil {
 			position++;
 		}
 
-		// slow path
+		return decodeUTF8Slow(buffer, position, limit, string, i);
+	}
+
+	/**
+	 * Decodes the bytes with index {@code [position, limit)} in {@code buffer} to {@code string}, starting at index {@code i}.
+	 *
+	 * @return the decoded {@link String}
+	 */
+	static String decodeUTF8Slow(ByteBuffer buffer, int position, int limit, char[] string, int i) {
 		while ( position < limit ) {
 			int b0 = buffer.get(position++);
 			if ( 0 <= b0 ) {
@@ -76,7 +76,14 @@ public final class MemoryUtil {
 		static final MemoryAllocator ALLOCATOR;
 
 		static {
-			ALLOCATOR_IMPL = MemoryManage.getInstance();
+			MemoryAllocator allocator = MemoryManage.getInstance();
+			if ( Configuration.MEMORY_ALLOCATOR_METRICS.get(false) ) {
+				MetricsAllocator metrics = new MetricsAllocator(allocator);
+				MetricsAllocator.registerMBean(metrics);
+				allocator = metrics;
+			}
+
+			ALLOCATOR_IMPL = allocator;
 			ALLOCATOR = Configuration.DEBUG_MEMORY_ALLOCATOR.get(false)
 				? new DebugAllocator(ALLOCATOR_IMPL)
 				: ALLOCATOR_IMPL;
@@ -141,6 +148,20 @@ public final class MemoryUtil {
 		return ALLOCATOR_IMPL;
 	}
 
+	/**
+	 * Returns a snapshot of the native memory usage of the explicit memory management API.
+	 *
+	 * <p>This method can only be used if {@link Configuration#MEMORY_ALLOCATOR_METRICS} has been set to true, or if the allocator is a
+	 * {@link MetricsAllocator}.</p>
+	 *
+	 * @return the memory metrics snapshot, or {@code null} if metrics are not available
+	 */
+	public static MetricsAllocator.Snapshot memMetrics() {
+		return ALLOCATOR_IMPL instanceof MetricsAllocator
+			? ((MetricsAllocator)ALLOCATOR_IMPL).snapshot()
+			: null;
+	}
+
 	// --- [ memAlloc ] ---
 
 	/** Unsafe version of {@link #memAlloc}. */
@@ -494,7 +515,8 @@ public final class MemoryUtil {
 	/**
 	 * Reports all live allocations.
 	 *
-	 * <p>This method can only be used if the {@link Configuration#DEBUG_MEMORY_ALLOCATOR} option has been set to true.</p>
+	 * <p>This method can only be used if the {@link Configuration#DEBUG_MEMORY_ALLOCATOR} option has been set to true. In sampling mode (see
+	 * {@link Configuration#DEBUG_MEMORY_ALLOCATOR_SAMPLE_RATE}), only sampled allocations are reported and their sizes are extrapolated.</p>
 	 *
 	 * @param report the report callback
 	 */
@@ -505,7 +527,9 @@ public final class MemoryUtil {
 	/**
 	 * Reports aggregates for the live allocations.
 	 *
-	 * <p>This method can only be used if the {@link Configuration#DEBUG_MEMORY_ALLOCATOR} option has been set to true.</p>
+	 * <p>This method can only be used if the {@link Configuration#DEBUG_MEMORY_ALLOCATOR} option has been set to true. In sampling mode (see
+	 * {@link Configuration#DEBUG_MEMORY_ALLOCATOR_SAMPLE_RATE}), the reported aggregates are estimates of the live memory per call site, extrapolated from
+	 * the sampled allocations.</p>
 	 *
 	 * @param report            the report callback
 	 * @param groupByStackTrace how to aggregate the reported allocations
@@ -1024,13 +1048,18 @@ public final class MemoryUtil {
 	 * @param value the value to set (memSet will convert it to unsigned byte)
 	 * @param bytes the number of bytes to set
 	 */
-	public static void memSet(long ptr, int value, int bytes) {
+	public static void memSet(long ptr, int value, long bytes) {
 		if ( Checks.DEBUG && (ptr == NULL || bytes < 0) )
 			throw new IllegalArgumentException();
 
 		ACCESSOR.memSet(ptr, value, bytes);
 	}
 
+	/** {@code int} overload of {@link #memSet(long, int, long)}, kept for binary compatibility. */
+	public static void memSet(long ptr, int value, int bytes) {
+		memSet(ptr, value, (long)bytes);
+	}
+
 	/**
 	 * Sets all bytes in a specified block of memory to a copy of another block.
 	 *
@@ -1038,13 +1067,493 @@ public final class MemoryUtil {
 	 * @param dst   the destination memory address
 	 * @param bytes the number of bytes to copy
 	 */
-	public static void memCopy(long src, long dst, int bytes) {
+	public static void memCopy(long src, long dst, long bytes) {
 		if ( Checks.DEBUG && (src == NULL || dst == NULL || bytes < 0) )
 			throw new IllegalArgumentException();
 
 		ACCESSOR.memCopy(src, dst, bytes);
 	}
 
+	/** {@code int} overload of {@link #memCopy(long, long, long)}, kept for binary compatibility. */
+	public static void memCopy(long src, long dst, int bytes) {
+		memCopy(src, dst, (long)bytes);
+	}
+
+	// Below this size, fills are done with aligned long writes. Above it, the filled prefix is replicated with memCopy.
+	private static final int FILL_LOOP_THRESHOLD = 256;
+
+	/**
+	 * Fills a block of memory with a 2-byte value.
+	 *
+	 * <p>For best performance, {@code ptr} should be aligned to 2 bytes.</p>
+	 *
+	 * @param ptr   the starting memory address
+	 * @param value the value to set
+	 * @param count the number of values to set
+	 */
+	public static void memFillShort(long ptr, short value, long count) {
+		long fill = value & 0xFFFFL;
+		fill |= fill << 16;
+		fill |= fill << 32;
+
+		memFill(ptr, fill, 1, count);
+	}
+
+	/**
+	 * Fills a block of memory with a 4-byte value.
+	 *
+	 * <p>For best performance, {@code ptr} should be aligned to 4 bytes.</p>
+	 *
+	 * @param ptr   the starting memory address
+	 * @param value the value to set
+	 * @param count the number of values to set
+	 */
+	public static void memFillInt(long ptr, int value, long count) {
+		long fill = value & 0xFFFF_FFFFL;
+		fill |= fill << 32;
+
+		memFill(ptr, fill, 2, count);
+	}
+
+	/**
+	 * Fills a block of memory with an 8-byte value.
+	 *
+	 * <p>For best performance, {@code ptr} should be aligned to 8 bytes.</p>
+	 *
+	 * @param ptr   the starting memory address
+	 * @param value the value to set
+	 * @param count the number of values to set
+	 */
+	public static void memFillLong(long ptr, long value, long count) {
+		memFill(ptr, value, 3, count);
+	}
+
+	private static void memFill(long ptr, long fill, int shift, long count) {
+		if ( Checks.DEBUG && (ptr == NULL || count < 0) )
+			throw new IllegalArgumentException();
+
+		long bytes = count << shift;
+		long size = 1L << shift;
+
+		// Unaligned head
+		long i = 0L;
+		for ( ; i < bytes && ((ptr + i) & 7L) != 0L; i += size )
+			memFillElement(ptr + i, fill, shift);
+
+		// Aligned longs
+		long aligned = i;
+		for ( long loopEnd = min(bytes, aligned + FILL_LOOP_THRESHOLD); i <= loopEnd - 8L; i += 8L )
+			ACCESSOR.memPutLong(ptr + i, fill);
+
+		// Replicate the aligned prefix, doubling its size each time
+		for ( long n; 0L < (n = min(i - aligned, (bytes - i) & ~7L)); i += n )
+			ACCESSOR.memCopy(ptr + aligned, ptr + i, n);
+
+		// Tail
+		for ( ; i < bytes; i += size )
+			memFillElement(ptr + i, fill, shift);
+	}
+
+	private static void memFillElement(long ptr, long fill, int shift) {
+		switch ( shift ) {
+			case 1:
+				ACCESSOR.memPutShort(ptr, (short)fill);
+				break;
+			case 2:
+				ACCESSOR.memPutInt(ptr, (int)fill);
+				break;
+			default:
+				ACCESSOR.memPutLong(ptr, fill);
+		}
+	}
+
+	/**
+	 * Compares two blocks of memory, byte by byte.
+	 *
+	 * @param a     the first memory address
+	 * @param b     the second memory address
+	 * @param bytes the number of bytes to compare
+	 *
+	 * @return a negative value if the first differing byte (interpreted as unsigned) in {@code a} is less than the corresponding byte in {@code b}, 0 if the
+	 * two blocks are equal, a positive value otherwise
+	 */
+	public static int memCompare(long a, long b, long bytes) {
+		if ( Checks.DEBUG && (a == NULL || b == NULL || bytes < 0) )
+			throw new IllegalArgumentException();
+
+		return ACCESSOR.memCompare(a, b, bytes);
+	}
+
+	/**
+	 * Returns true if two blocks of memory are equal.
+	 *
+	 * @param a     the first memory address
+	 * @param b     the second memory address
+	 * @param bytes the number of bytes to compare
+	 */
+	public static boolean memEquals(long a, long b, long bytes) {
+		return a == b || memCompare(a, b, bytes) == 0;
+	}
+
+	/**
+	 * Returns true if the remaining bytes of two buffers are equal. The buffer positions are not modified.
+	 *
+	 * @param a the first buffer
+	 * @param b the second buffer
+	 */
+	public static boolean memEquals(ByteBuffer a, ByteBuffer b) {
+		int bytes = a.remaining();
+		return bytes == b.remaining() && memEquals(memAddress(a), memAddress(b), bytes);
+	}
+
+	private static void checkRange(int arrayLength, int index, int length) {
+		if ( index < 0 || length < 0 || arrayLength - index < length )
+			throw new IndexOutOfBoundsException("Array length: " + arrayLength + ", index: " + index + ", length: " + length);
+	}
+
+	/**
+	 * Copies {@code length} values from the specified array, starting at {@code srcIndex}, to native memory.
+	 *
+	 * @param src      the source array
+	 * @param srcIndex the index of the first array element to copy
+	 * @param dst      the destination memory address
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(byte[] src, int srcIndex, long dst, int length) {
+		if ( Checks.CHECKS )
+			checkRange(src.length, srcIndex, length);
+		if ( Checks.DEBUG && dst == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, srcIndex, dst, length);
+	}
+
+	/**
+	 * Copies {@code length} values from native memory to the specified array, starting at {@code dstIndex}.
+	 *
+	 * @param src      the source memory address
+	 * @param dst      the destination array
+	 * @param dstIndex the index of the first array element to write
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(long src, byte[] dst, int dstIndex, int length) {
+		if ( Checks.CHECKS )
+			checkRange(dst.length, dstIndex, length);
+		if ( Checks.DEBUG && src == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, dst, dstIndex, length);
+	}
+
+	/**
+	 * Copies {@code length} values from the specified array, starting at {@code srcIndex}, to native memory.
+	 *
+	 * @param src      the source array
+	 * @param srcIndex the index of the first array element to copy
+	 * @param dst      the destination memory address
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(short[] src, int srcIndex, long dst, int length) {
+		if ( Checks.CHECKS )
+			checkRange(src.length, srcIndex, length);
+		if ( Checks.DEBUG && dst == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, srcIndex, dst, length);
+	}
+
+	/**
+	 * Copies {@code length} values from native memory to the specified array, starting at {@code dstIndex}.
+	 *
+	 * @param src      the source memory address
+	 * @param dst      the destination array
+	 * @param dstIndex the index of the first array element to write
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(long src, short[] dst, int dstIndex, int length) {
+		if ( Checks.CHECKS )
+			checkRange(dst.length, dstIndex, length);
+		if ( Checks.DEBUG && src == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, dst, dstIndex, length);
+	}
+
+	/**
+	 * Copies {@code length} values from the specified array, starting at {@code srcIndex}, to native memory.
+	 *
+	 * @param src      the source array
+	 * @param srcIndex the index of the first array element to copy
+	 * @param dst      the destination memory address
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(char[] src, int srcIndex, long dst, int length) {
+		if ( Checks.CHECKS )
+			checkRange(src.length, srcIndex, length);
+		if ( Checks.DEBUG && dst == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, srcIndex, dst, length);
+	}
+
+	/**
+	 * Copies {@code length} values from native memory to the specified array, starting at {@code dstIndex}.
+	 *
+	 * @param src      the source memory address
+	 * @param dst      the destination array
+	 * @param dstIndex the index of the first array element to write
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(long src, char[] dst, int dstIndex, int length) {
+		if ( Checks.CHECKS )
+			checkRange(dst.length, dstIndex, length);
+		if ( Checks.DEBUG && src == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, dst, dstIndex, length);
+	}
+
+	/**
+	 * Copies {@code length} values from the specified array, starting at {@code srcIndex}, to native memory.
+	 *
+	 * @param src      the source array
+	 * @param srcIndex the index of the first array element to copy
+	 * @param dst      the destination memory address
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(int[] src, int srcIndex, long dst, int length) {
+		if ( Checks.CHECKS )
+			checkRange(src.length, srcIndex, length);
+		if ( Checks.DEBUG && dst == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, srcIndex, dst, length);
+	}
+
+	/**
+	 * Copies {@code length} values from native memory to the specified array, starting at {@code dstIndex}.
+	 *
+	 * @param src      the source memory address
+	 * @param dst      the destination array
+	 * @param dstIndex the index of the first array element to write
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(long src, int[] dst, int dstIndex, int length) {
+		if ( Checks.CHECKS )
+			checkRange(dst.length, dstIndex, length);
+		if ( Checks.DEBUG && src == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, dst, dstIndex, length);
+	}
+
+	/**
+	 * Copies {@code length} values from the specified array, starting at {@code srcIndex}, to native memory.
+	 *
+	 * @param src      the source array
+	 * @param srcIndex the index of the first array element to copy
+	 * @param dst      the destination memory address
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(long[] src, int srcIndex, long dst, int length) {
+		if ( Checks.CHECKS )
+			checkRange(src.length, srcIndex, length);
+		if ( Checks.DEBUG && dst == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, srcIndex, dst, length);
+	}
+
+	/**
+	 * Copies {@code length} values from native memory to the specified array, starting at {@code dstIndex}.
+	 *
+	 * @param src      the source memory address
+	 * @param dst      the destination array
+	 * @param dstIndex the index of the first array element to write
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(long src, long[] dst, int dstIndex, int length) {
+		if ( Checks.CHECKS )
+			checkRange(dst.length, dstIndex, length);
+		if ( Checks.DEBUG && src == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, dst, dstIndex, length);
+	}
+
+	/**
+	 * Copies {@code length} values from the specified array, starting at {@code srcIndex}, to native memory.
+	 *
+	 * @param src      the source array
+	 * @param srcIndex the index of the first array element to copy
+	 * @param dst      the destination memory address
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(float[] src, int srcIndex, long dst, int length) {
+		if ( Checks.CHECKS )
+			checkRange(src.length, srcIndex, length);
+		if ( Checks.DEBUG && dst == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, srcIndex, dst, length);
+	}
+
+	/**
+	 * Copies {@code length} values from native memory to the specified array, starting at {@code dstIndex}.
+	 *
+	 * @param src      the source memory address
+	 * @param dst      the destination array
+	 * @param dstIndex the index of the first array element to write
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(long src, float[] dst, int dstIndex, int length) {
+		if ( Checks.CHECKS )
+			checkRange(dst.length, dstIndex, length);
+		if ( Checks.DEBUG && src == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, dst, dstIndex, length);
+	}
+
+	/**
+	 * Copies {@code length} values from the specified array, starting at {@code srcIndex}, to native memory.
+	 *
+	 * @param src      the source array
+	 * @param srcIndex the index of the first array element to copy
+	 * @param dst      the destination memory address
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(double[] src, int srcIndex, long dst, int length) {
+		if ( Checks.CHECKS )
+			checkRange(src.length, srcIndex, length);
+		if ( Checks.DEBUG && dst == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, srcIndex, dst, length);
+	}
+
+	/**
+	 * Copies {@code length} values from native memory to the specified array, starting at {@code dstIndex}.
+	 *
+	 * @param src      the source memory address
+	 * @param dst      the destination array
+	 * @param dstIndex the index of the first array element to write
+	 * @param length   the number of values to copy
+	 */
+	public static void memCopy(long src, double[] dst, int dstIndex, int length) {
+		if ( Checks.CHECKS )
+			checkRange(dst.length, dstIndex, length);
+		if ( Checks.DEBUG && src == NULL )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopy(src, dst, dstIndex, length);
+	}
+
+	/**
+	 * Copies the remaining elements of {@code src} to {@code dst}, starting at the current position of each buffer. The buffer positions are not modified.
+	 *
+	 * <p>Both buffers must be direct buffers and their remaining elements must not overlap.</p>
+	 *
+	 * @param src the source buffer
+	 * @param dst the destination buffer, it must have at least {@code src.remaining()} elements remaining
+	 */
+	public static void memCopy(ByteBuffer src, ByteBuffer dst) {
+		if ( Checks.CHECKS )
+			Checks.check(dst, src.remaining());
+
+		ACCESSOR.memCopy(memAddress(src), memAddress(dst), (long)src.remaining());
+	}
+
+	/**
+	 * Copies the remaining elements of {@code src} to {@code dst}, starting at the current position of each buffer. The buffer positions are not modified.
+	 *
+	 * <p>Both buffers must be direct buffers and their remaining elements must not overlap.</p>
+	 *
+	 * @param src the source buffer
+	 * @param dst the destination buffer, it must have at least {@code src.remaining()} elements remaining
+	 */
+	public static void memCopy(ShortBuffer src, ShortBuffer dst) {
+		if ( Checks.CHECKS )
+			Checks.check(dst, src.remaining());
+
+		ACCESSOR.memCopy(memAddress(src), memAddress(dst), ((long)src.remaining() << 1));
+	}
+
+	/**
+	 * Copies the remaining elements of {@code src} to {@code dst}, starting at the current position of each buffer. The buffer positions are not modified.
+	 *
+	 * <p>Both buffers must be direct buffers and their remaining elements must not overlap.</p>
+	 *
+	 * @param src the source buffer
+	 * @param dst the destination buffer, it must have at least {@code src.remaining()} elements remaining
+	 */
+	public static void memCopy(CharBuffer src, CharBuffer dst) {
+		if ( Checks.CHECKS )
+			Checks.check((Buffer)dst, src.remaining());
+
+		ACCESSOR.memCopy(memAddress(src), memAddress(dst), ((long)src.remaining() << 1));
+	}
+
+	/**
+	 * Copies the remaining elements of {@code src} to {@code dst}, starting at the current position of each buffer. The buffer positions are not modified.
+	 *
+	 * <p>Both buffers must be direct buffers and their remaining elements must not overlap.</p>
+	 *
+	 * @param src the source buffer
+	 * @param dst the destination buffer, it must have at least {@code src.remaining()} elements remaining
+	 */
+	public static void memCopy(IntBuffer src, IntBuffer dst) {
+		if ( Checks.CHECKS )
+			Checks.check(dst, src.remaining());
+
+		ACCESSOR.memCopy(memAddress(src), memAddress(dst), ((long)src.remaining() << 2));
+	}
+
+	/**
+	 * Copies the remaining elements of {@code src} to {@code dst}, starting at the current position of each buffer. The buffer positions are not modified.
+	 *
+	 * <p>Both buffers must be direct buffers and their remaining elements must not overlap.</p>
+	 *
+	 * @param src the source buffer
+	 * @param dst the destination buffer, it must have at least {@code src.remaining()} elements remaining
+	 */
+	public static void memCopy(LongBuffer src, LongBuffer dst) {
+		if ( Checks.CHECKS )
+			Checks.check(dst, src.remaining());
+
+		ACCESSOR.memCopy(memAddress(src), memAddress(dst), ((long)src.remaining() << 3));
+	}
+
+	/**
+	 * Copies the remaining elements of {@code src} to {@code dst}, starting at the current position of each buffer. The buffer positions are not modified.
+	 *
+	 * <p>Both buffers must be direct buffers and their remaining elements must not overlap.</p>
+	 *
+	 * @param src the source buffer
+	 * @param dst the destination buffer, it must have at least {@code src.remaining()} elements remaining
+	 */
+	public static void memCopy(FloatBuffer src, FloatBuffer dst) {
+		if ( Checks.CHECKS )
+			Checks.check(dst, src.remaining());
+
+		ACCESSOR.memCopy(memAddress(src), memAddress(dst), ((long)src.remaining() << 2));
+	}
+
+	/**
+	 * Copies the remaining elements of {@code src} to {@code dst}, starting at the current position of each buffer. The buffer positions are not modified.
+	 *
+	 * <p>Both buffers must be direct buffers and their remaining elements must not overlap.</p>
+	 *
+	 * @param src the source buffer
+	 * @param dst the destination buffer, it must have at least {@code src.remaining()} elements remaining
+	 */
+	public static void memCopy(DoubleBuffer src, DoubleBuffer dst) {
+		if ( Checks.CHECKS )
+			Checks.check(dst, src.remaining());
+
+		ACCESSOR.memCopy(memAddress(src), memAddress(dst), ((long)src.remaining() << 3));
+	}
+
 	public static boolean memGetBoolean(long ptr) {
 		return ACCESSOR.memGetByte(ptr) != 0;
 	}
@@ -1521,7 +2030,7 @@ public final class MemoryUtil {
 	 * @return the decoded {@link String}
 	 */
 	public static String memASCII(ByteBuffer buffer, int length) {
-		return MemoryTextUtil.decodeASCII(buffer, length, buffer.position());
+		return TEXT_UTIL.decodeASCII(buffer, length, buffer.position());
 	}
 
 	/**
@@ -1537,7 +2046,7 @@ public final class MemoryUtil {
 	 */
 	public static String memASCII(ByteBuffer buffer, int length, int offset) {
 		Objects.requireNonNull(buffer);
-		return MemoryTextUtil.decodeASCII(buffer, length, offset);
+		return TEXT_UTIL.decodeASCII(buffer, length, offset);
 	}
 
 	/**
@@ -1582,7 +2091,7 @@ public final class MemoryUtil {
 	 * @return the decoded {@link String}
 	 */
 	public static String memUTF8(ByteBuffer buffer, int length) {
-		return MemoryTextUtil.decodeUTF8(buffer, length, buffer.position());
+		return TEXT_UTIL.decodeUTF8(buffer, length, buffer.position());
 	}
 
 	/**
@@ -1598,7 +2107,7 @@ public final class MemoryUtil {
 	 */
 	public static String memUTF8(ByteBuffer buffer, int length, int offset) {
 		Objects.requireNonNull(buffer);
-		return MemoryTextUtil.decodeUTF8(buffer, length, offset);
+		return TEXT_UTIL.decodeUTF8(buffer, length, offset);
 	}
 
 	/**
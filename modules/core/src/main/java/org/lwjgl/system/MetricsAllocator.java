@@ -0,0 +1,568 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.system.MemoryUtil.MemoryAllocator;
+
+import javax.management.*;
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import static java.lang.Math.*;
+import static org.lwjgl.system.APIUtil.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * A {@link MemoryAllocator} that wraps another allocator and keeps track of its native memory usage.
+ *
+ * <p>The number of bytes and blocks in use, the peak usage, an allocation-size histogram and per-thread totals are available at any time, via
+ * {@link #snapshot} or the {@link MemoryMetricsMXBean} interface. Unlike {@link Configuration#DEBUG_MEMORY_ALLOCATOR}, this allocator is cheap enough to be
+ * used in production: it does not capture stack traces, does not allocate on the Java heap and each thread updates its own counters. The size of each live
+ * allocation is stored in a striped hash table of primitive arrays, keyed by address, so the memory blocks are exactly those of the wrapped allocator.</p>
+ *
+ * <p>A snapshot may miss the most recent updates of concurrently running threads. The peak usage is tracked with a granularity of {@code 64KB} per
+ * thread.</p>
+ *
+ * <p>The function pointers returned by {@code getMalloc}, {@code getFree}, etc, are those of the wrapped allocator. Memory allocated or freed by native code
+ * through these pointers is not tracked. Freeing such memory with this allocator is safe, it is simply not counted.</p>
+ *
+ * @see Configuration#MEMORY_ALLOCATOR_METRICS
+ */
+public class MetricsAllocator implements MemoryAllocator, MemoryMetricsMXBean {
+
+	/** The number of buckets in the allocation-size histogram. */
+	public static final int HISTOGRAM_BUCKETS = 32;
+
+	/** The amount of memory a thread may allocate or free before the shared in-use counter, used to track the peak, is updated. */
+	private static final long PUBLISH_THRESHOLD = 64 * 1024;
+
+	private final MemoryAllocator allocator;
+
+	/** The sizes of the live allocations. */
+	private final SizeTable sizes = new SizeTable();
+
+	private final List<Counters> threads = new ArrayList<>();
+	private int threadsPruneLimit = 16;
+
+	private final ThreadLocal<Counters> counters = ThreadLocal.withInitial(this::registerCounters);
+
+	/** The totals of terminated threads. */
+	private final Counters retired = new Counters(null);
+
+	private final AtomicLong inUse = new AtomicLong();
+	private final AtomicLong peak  = new AtomicLong();
+
+	/** Creates a new {@link MetricsAllocator} that wraps the default allocator. */
+	public MetricsAllocator() {
+		this(MemoryManage.getDefaultInstance());
+	}
+
+	/**
+	 * Creates a new {@link MetricsAllocator}.
+	 *
+	 * @param allocator the allocator to track
+	 */
+	public MetricsAllocator(MemoryAllocator allocator) {
+		this.allocator = allocator;
+	}
+
+	/** Returns the wrapped allocator. */
+	public MemoryAllocator getAllocator() {
+		return allocator;
+	}
+
+	@Override
+	public long getMalloc() { return allocator.getMalloc(); }
+
+	@Override
+	public long getCalloc() { return allocator.getCalloc(); }
+
+	@Override
+	public long getRealloc() { return allocator.getRealloc(); }
+
+	@Override
+	public long getFree() { return allocator.getFree(); }
+
+	@Override
+	public long getAlignedAlloc() { return allocator.getAlignedAlloc(); }
+
+	@Override
+	public long getAlignedFree() { return allocator.getAlignedFree(); }
+
+	private long track(long address, long size) {
+		if ( address != NULL ) {
+			sizes.put(address, size);
+			counters.get().allocated(size);
+		}
+		return address;
+	}
+
+	private void untrack(long address) {
+		long size = sizes.remove(address);
+		if ( size != SizeTable.UNTRACKED )
+			counters.get().freed(size);
+	}
+
+	@Override
+	public long malloc(long size) {
+		return track(allocator.malloc(size), size);
+	}
+
+	@Override
+	public long calloc(long num, long size) {
+		return track(allocator.calloc(num, size), num * size);
+	}
+
+	@Override
+	public long realloc(long ptr, long size) {
+		if ( ptr == NULL )
+			return malloc(size);
+
+		if ( size == 0L ) {
+			free(ptr);
+			return NULL;
+		}
+
+		// Removed first, the old address may be reused by another thread as soon as it is freed
+		long oldSize = sizes.remove(ptr);
+
+		long address = allocator.realloc(ptr, size);
+		if ( address == NULL ) {
+			if ( oldSize != SizeTable.UNTRACKED )
+				sizes.put(ptr, oldSize);
+			return NULL;
+		}
+
+		sizes.put(address, size);
+		if ( oldSize == SizeTable.UNTRACKED )
+			counters.get().allocated(size);
+		else
+			counters.get().reallocated(oldSize, size);
+		return address;
+	}
+
+	@Override
+	public void free(long ptr) {
+		if ( ptr == NULL )
+			return;
+
+		untrack(ptr);
+		allocator.free(ptr);
+	}
+
+	@Override
+	public long aligned_alloc(long alignment, long size) {
+		return track(allocator.aligned_alloc(alignment, size), size);
+	}
+
+	@Override
+	public void aligned_free(long ptr) {
+		if ( ptr == NULL )
+			return;
+
+		untrack(ptr);
+		allocator.aligned_free(ptr);
+	}
+
+	// --- [ Metrics ] ---
+
+	/**
+	 * Returns the histogram bucket of the specified allocation size.
+	 *
+	 * <p>Bucket 0 contains allocations up to 16 bytes. Bucket {@code i} contains allocations larger than {@code 8 << i} bytes and up to {@code 16 << i} bytes.
+	 * The last bucket contains all larger allocations.</p>
+	 */
+	static int getHistogramBucket(long size) {
+		return min(max(60 - Long.numberOfLeadingZeros(max(size, 1L) - 1L), 0), HISTOGRAM_BUCKETS - 1);
+	}
+
+	private Counters registerCounters() {
+		Counters counters = new Counters(Thread.currentThread());
+		synchronized ( threads ) {
+			if ( threadsPruneLimit <= threads.size() ) {
+				prune();
+				threadsPruneLimit = max(16, threads.size() * 2);
+			}
+			threads.add(counters);
+		}
+		return counters;
+	}
+
+	/** Folds the counters of terminated threads into {@link #retired}. Must be called while synchronized on {@link #threads}. */
+	private void prune() {
+		for ( Iterator<Counters> it = threads.iterator(); it.hasNext(); ) {
+			Counters counters = it.next();
+			// Thread termination happens-before isAlive() returning false, no more updates can happen and they're all visible.
+			if ( !counters.owner.isAlive() ) {
+				retired.add(counters);
+				publish(counters.pending);
+				it.remove();
+			}
+		}
+	}
+
+	private void publish(long delta) {
+		long value = inUse.addAndGet(delta);
+		if ( 0L < delta )
+			updatePeak(value);
+	}
+
+	private void updatePeak(long value) {
+		long current;
+		do {
+			current = peak.get();
+			if ( value <= current )
+				return;
+		} while ( !peak.compareAndSet(current, value) );
+	}
+
+	/** Returns a snapshot of the current metrics. */
+	public Snapshot snapshot() {
+		Counters totals = new Counters(null);
+		List<ThreadTotals> threadTotals;
+
+		synchronized ( threads ) {
+			prune();
+
+			totals.add(retired);
+
+			threadTotals = new ArrayList<>(threads.size());
+			for ( Counters counters : threads ) {
+				totals.add(counters);
+				threadTotals.add(new ThreadTotals(counters));
+			}
+		}
+
+		long bytesInUse = totals.bytesAllocated - totals.bytesFreed;
+		updatePeak(bytesInUse);
+
+		return new Snapshot(totals, bytesInUse, peak.get(), Collections.unmodifiableList(threadTotals));
+	}
+
+	@Override
+	public long getBytesInUse() { return snapshot().getBytesInUse(); }
+
+	@Override
+	public long getBlocksInUse() { return snapshot().getBlocksInUse(); }
+
+	@Override
+	public long getPeakBytesInUse() { return snapshot().getPeakBytesInUse(); }
+
+	@Override
+	public long getBytesAllocated() { return snapshot().getBytesAllocated(); }
+
+	@Override
+	public long getBlocksAllocated() { return snapshot().getBlocksAllocated(); }
+
+	@Override
+	public long getBytesFreed() { return snapshot().getBytesFreed(); }
+
+	@Override
+	public long getBlocksFreed() { return snapshot().getBlocksFreed(); }
+
+	@Override
+	public long[] getHistogram() { return snapshot().getHistogram(); }
+
+	@Override
+	public void resetPeak() {
+		peak.set(0L);
+		snapshot();
+	}
+
+	/** Registers the specified allocator with the platform MBean server. Failures are logged and otherwise ignored. */
+	static void registerMBean(MetricsAllocator allocator) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(allocator, new ObjectName(OBJECT_NAME));
+		} catch (Throwable t) {
+			apiLog("Warning: Failed to register the memory metrics MBean: " + t);
+		}
+	}
+
+	/**
+	 * A hash table from block addresses to sizes, split into independently locked stripes. Each stripe is an open-addressed table with linear probing, backed
+	 * by primitive arrays, so that updates do not allocate (except when a stripe grows).
+	 */
+	private static final class SizeTable {
+
+		/** Returned by {@link #remove} if the address is not in the table. */
+		static final long UNTRACKED = -1L;
+
+		private static final int STRIPE_SHIFT = 6;
+
+		private final Stripe[] stripes = new Stripe[1 << STRIPE_SHIFT];
+
+		SizeTable() {
+			for ( int i = 0; i < stripes.length; i++ )
+				stripes[i] = new Stripe();
+		}
+
+		private static long hash(long address) {
+			return address * 0x9E3779B97F4A7C15L;
+		}
+
+		private Stripe stripe(long hash) {
+			return stripes[(int)(hash >>> (64 - STRIPE_SHIFT))];
+		}
+
+		void put(long address, long size) {
+			long hash = hash(address);
+			stripe(hash).put(address, (int)(hash >>> 20), size);
+		}
+
+		long remove(long address) {
+			long hash = hash(address);
+			return stripe(hash).remove(address, (int)(hash >>> 20));
+		}
+
+		private static final class Stripe {
+
+			/** The block addresses. Zero marks an empty entry. */
+			private long[] keys   = new long[16];
+			private long[] values = new long[16];
+
+			private int size;
+
+			synchronized void put(long key, int hash, long value) {
+				if ( keys.length >>> 1 <= size )
+					grow();
+
+				int mask = keys.length - 1;
+				int i    = hash & mask;
+				while ( keys[i] != 0L && keys[i] != key )
+					i = (i + 1) & mask;
+
+				if ( keys[i] == 0L )
+					size++;
+				keys[i] = key;
+				values[i] = value;
+			}
+
+			synchronized long remove(long key, int hash) {
+				int mask = keys.length - 1;
+				int i    = hash & mask;
+				while ( keys[i] != key ) {
+					if ( keys[i] == 0L )
+						return UNTRACKED;
+					i = (i + 1) & mask;
+				}
+
+				long value = values[i];
+				size--;
+
+				// Backward shift deletion, moves the following entries of the probe sequence into the gap
+				for ( int gap = i; ; ) {
+					i = (i + 1) & mask;
+
+					long k = keys[i];
+					if ( k == 0L ) {
+						keys[gap] = 0L;
+						return value;
+					}
+
+					int home = (int)(hash(k) >>> 20) & mask;
+					if ( ((i - home) & mask) >= ((i - gap) & mask) ) {
+						keys[gap] = k;
+						values[gap] = values[i];
+						gap = i;
+					}
+				}
+			}
+
+			private void grow() {
+				long[] keys   = this.keys;
+				long[] values = this.values;
+
+				this.keys = new long[keys.length << 1];
+				this.values = new long[keys.length << 1];
+
+				int mask = this.keys.length - 1;
+				for ( int j = 0; j < keys.length; j++ ) {
+					long k = keys[j];
+					if ( k != 0L ) {
+						int i = (int)(hash(k) >>> 20) & mask;
+						while ( this.keys[i] != 0L )
+							i = (i + 1) & mask;
+						this.keys[i] = k;
+						this.values[i] = values[j];
+					}
+				}
+			}
+
+		}
+
+	}
+
+	/**
+	 * The counters of a single thread. Updated by that thread only and read by {@link #snapshot}, from any thread.
+	 *
+	 * <p>With a single writer, the volatile fields can be incremented without atomic read-modify-write operations.</p>
+	 */
+	private final class Counters {
+
+		final Thread owner;
+
+		volatile long bytesAllocated;
+		volatile long blocksAllocated;
+		volatile long bytesFreed;
+		volatile long blocksFreed;
+
+		/** The net amount of memory allocated that has not been added to {@link #inUse} yet. Accessed by the owner thread only. */
+		long pending;
+
+		final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+
+		Counters(Thread owner) {
+			this.owner = owner;
+		}
+
+		void allocated(long size) {
+			bytesAllocated += size;
+			blocksAllocated++;
+			int bucket = getHistogramBucket(size);
+			histogram.lazySet(bucket, histogram.get(bucket) + 1L);
+			update(size);
+		}
+
+		void reallocated(long oldSize, long size) {
+			bytesFreed += oldSize;
+			blocksFreed++;
+			allocated(size);
+			update(-oldSize);
+		}
+
+		void freed(long size) {
+			bytesFreed += size;
+			blocksFreed++;
+			update(-size);
+		}
+
+		private void update(long delta) {
+			long pending = this.pending + delta;
+			if ( pending < -PUBLISH_THRESHOLD || PUBLISH_THRESHOLD < pending ) {
+				publish(pending);
+				pending = 0L;
+			}
+			this.pending = pending;
+		}
+
+		void add(Counters other) {
+			bytesAllocated += other.bytesAllocated;
+			blocksAllocated += other.blocksAllocated;
+			bytesFreed += other.bytesFreed;
+			blocksFreed += other.blocksFreed;
+			for ( int i = 0; i < HISTOGRAM_BUCKETS; i++ )
+				histogram.lazySet(i, histogram.get(i) + other.histogram.get(i));
+		}
+
+	}
+
+	/** The allocation totals of a single thread. Blocks allocated by one thread may be freed by another, so these values do not reflect memory in use. */
+	public static final class ThreadTotals {
+
+		private final long   threadId;
+		private final String threadName;
+
+		private final long bytesAllocated;
+		private final long blocksAllocated;
+		private final long bytesFreed;
+		private final long blocksFreed;
+
+		ThreadTotals(Counters counters) {
+			this.threadId = counters.owner.getId();
+			this.threadName = counters.owner.getName();
+
+			this.bytesAllocated = counters.bytesAllocated;
+			this.blocksAllocated = counters.blocksAllocated;
+			this.bytesFreed = counters.bytesFreed;
+			this.blocksFreed = counters.blocksFreed;
+		}
+
+		/** Returns the thread id. */
+		public long getThreadId() { return threadId; }
+
+		/** Returns the thread name. */
+		public String getThreadName() { return threadName; }
+
+		/** Returns the number of bytes allocated by the thread. */
+		public long getBytesAllocated() { return bytesAllocated; }
+
+		/** Returns the number of blocks allocated by the thread. */
+		public long getBlocksAllocated() { return blocksAllocated; }
+
+		/** Returns the number of bytes freed by the thread. */
+		public long getBytesFreed() { return bytesFreed; }
+
+		/** Returns the number of blocks freed by the thread. */
+		public long getBlocksFreed() { return blocksFreed; }
+
+	}
+
+	/** An immutable snapshot of the metrics of a {@link MetricsAllocator}. */
+	public static final class Snapshot {
+
+		private final long bytesInUse;
+		private final long peakBytesInUse;
+
+		private final long bytesAllocated;
+		private final long blocksAllocated;
+		private final long bytesFreed;
+		private final long blocksFreed;
+
+		private final long[] histogram;
+
+		private final List<ThreadTotals> threads;
+
+		Snapshot(Counters totals, long bytesInUse, long peakBytesInUse, List<ThreadTotals> threads) {
+			this.bytesInUse = bytesInUse;
+			this.peakBytesInUse = peakBytesInUse;
+
+			this.bytesAllocated = totals.bytesAllocated;
+			this.blocksAllocated = totals.blocksAllocated;
+			this.bytesFreed = totals.bytesFreed;
+			this.blocksFreed = totals.blocksFreed;
+
+			this.histogram = new long[HISTOGRAM_BUCKETS];
+			for ( int i = 0; i < HISTOGRAM_BUCKETS; i++ )
+				this.histogram[i] = totals.histogram.get(i);
+
+			this.threads = threads;
+		}
+
+		/** Returns the number of bytes in use. */
+		public long getBytesInUse() { return bytesInUse; }
+
+		/** Returns the number of blocks in use. */
+		public long getBlocksInUse() { return blocksAllocated - blocksFreed; }
+
+		/** Returns the maximum number of bytes in use observed so far. */
+		public long getPeakBytesInUse() { return peakBytesInUse; }
+
+		/** Returns the total number of bytes allocated. */
+		public long getBytesAllocated() { return bytesAllocated; }
+
+		/** Returns the total number of blocks allocated. */
+		public long getBlocksAllocated() { return blocksAllocated; }
+
+		/** Returns the total number of bytes freed. */
+		public long getBytesFreed() { return bytesFreed; }
+
+		/** Returns the total number of blocks freed. */
+		public long getBlocksFreed() { return blocksFreed; }
+
+		/**
+		 * Returns the allocation-size histogram. A reallocation counts as a new allocation.
+		 *
+		 * <p>Element 0 is the number of allocations up to 16 bytes. Element {@code i} is the number of allocations larger than {@code 8 << i} bytes and up
+		 * to {@code 16 << i} bytes. The last element also includes all larger allocations.</p>
+		 */
+		public long[] getHistogram() { return histogram.clone(); }
+
+		/** Returns the allocation totals of the live threads that have used the allocator. */
+		public List<ThreadTotals> getThreads() { return threads; }
+
+	}
+
+}
@@ -52,6 +52,11 @@ public interface Pointer {
 			return address;
 		}
 
+		/** Moves this pointer to the specified address. Used by {@link StructBuffer} to reposition flyweight struct views. */
+		void setAddress(long address) {
+			this.address = address;
+		}
+
 		public boolean equals(Object o) {
 			if ( this == o ) return true;
 			if ( !(o instanceof Pointer) ) return false;
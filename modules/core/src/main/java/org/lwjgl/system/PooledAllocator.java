@@ -0,0 +1,431 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.system.MemoryUtil.MemoryAllocator;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import static java.lang.Math.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * A {@link MemoryAllocator} implementation that serves small allocations from thread-local caches of size-class blocks.
+ *
+ * <p>Blocks up to {@link #MAX_POOLED_SIZE} bytes are carved from large slabs obtained from the wrapped allocator. Each thread keeps a free list per size
+ * class, so the vast majority of malloc/free pairs are plain Java code that never crosses the JNI boundary. Blocks may be freed by any thread; a block freed
+ * by a thread other than the one that allocated it is simply cached by the freeing thread. Thread caches are bounded and excess blocks are returned in
+ * batches to a shared, per size class, central cache. The caches of terminated threads are reclaimed the next time a slab would have to be allocated.</p>
+ *
+ * <p>Allocations larger than {@link #MAX_POOLED_SIZE} bytes and all aligned allocations are forwarded to the wrapped allocator. Slab memory is never
+ * returned to the wrapped allocator.</p>
+ *
+ * <p>Blocks do not have headers. Slabs are aligned to their size and the size class of a block is found by looking up its slab, so any address that does
+ * not belong to a slab is forwarded to the wrapped allocator. This means that memory allocated by native code through the function pointers returned by
+ * {@code getMalloc}, {@code getFree}, etc, which are those of the wrapped allocator, may be freed with this allocator. The opposite is not true: memory
+ * allocated by this allocator, up to {@link #MAX_POOLED_SIZE} bytes, must not be freed by native code.</p>
+ *
+ * @see Configuration#MEMORY_ALLOCATOR
+ */
+public class PooledAllocator implements MemoryAllocator {
+
+	/** The maximum allocation size, in bytes, that will be served from the pool. */
+	public static final int MAX_POOLED_SIZE;
+
+	private static final int SLAB_SHIFT = 16;
+	private static final int SLAB_SIZE  = 1 << SLAB_SHIFT;
+
+	/** The block size of each size class. All values are multiples of 16. */
+	private static final int[] CLASS_STRIDE;
+
+	/** The number of blocks transferred between a thread cache and the central cache, per size class. */
+	private static final int[] CLASS_BATCH;
+
+	/** Maps {@code (size + 15) >>> 4} to the smallest size class that can hold {@code size} bytes. */
+	private static final byte[] CLASS_LOOKUP;
+
+	static {
+		List<Integer> strides = new ArrayList<>();
+		for ( int stride = 16; stride <= 128; stride += 16 )
+			strides.add(stride);
+		for ( int pot = 128; pot < 4096; pot <<= 1 ) {
+			for ( int i = 1; i <= 4; i++ )
+				strides.add(pot + i * (pot >> 2));
+		}
+
+		int classes = strides.size();
+
+		CLASS_STRIDE = new int[classes];
+		CLASS_BATCH = new int[classes];
+		for ( int i = 0; i < classes; i++ ) {
+			CLASS_STRIDE[i] = strides.get(i);
+			CLASS_BATCH[i] = max(4, min(64, 8192 / CLASS_STRIDE[i]));
+		}
+
+		MAX_POOLED_SIZE = CLASS_STRIDE[classes - 1];
+
+		CLASS_LOOKUP = new byte[(MAX_POOLED_SIZE >>> 4) + 1];
+		for ( int i = 0, index = 0; i < CLASS_LOOKUP.length; i++ ) {
+			while ( CLASS_STRIDE[index] < (i << 4) )
+				index++;
+			CLASS_LOOKUP[i] = (byte)index;
+		}
+	}
+
+	private final MemoryAllocator allocator;
+
+	private final Central[] central;
+
+	private final SlabTable slabs = new SlabTable();
+
+	private final List<ThreadCache> caches = new ArrayList<>();
+
+	private final ThreadLocal<ThreadCache> cache = ThreadLocal.withInitial(this::registerCache);
+
+	/** Creates a new {@link PooledAllocator} using the default allocator for slabs and large allocations. */
+	public PooledAllocator() {
+		this(MemoryManage.getDefaultInstance());
+	}
+
+	/**
+	 * Creates a new {@link PooledAllocator}.
+	 *
+	 * @param allocator the allocator that will be used for slabs and large allocations
+	 */
+	public PooledAllocator(MemoryAllocator allocator) {
+		this.allocator = allocator;
+
+		this.central = new Central[CLASS_STRIDE.length];
+		for ( int i = 0; i < central.length; i++ )
+			central[i] = new Central();
+	}
+
+	/** Returns the allocator used for slabs and large allocations. */
+	public MemoryAllocator getAllocator() {
+		return allocator;
+	}
+
+	@Override
+	public long getMalloc() { return allocator.getMalloc(); }
+
+	@Override
+	public long getCalloc() { return allocator.getCalloc(); }
+
+	@Override
+	public long getRealloc() { return allocator.getRealloc(); }
+
+	@Override
+	public long getFree() { return allocator.getFree(); }
+
+	@Override
+	public long getAlignedAlloc() { return allocator.getAlignedAlloc(); }
+
+	@Override
+	public long getAlignedFree() { return allocator.getAlignedFree(); }
+
+	private static int getSizeClass(long size) {
+		return CLASS_LOOKUP[(int)((size + 15) >>> 4)];
+	}
+
+	@Override
+	public long malloc(long size) {
+		if ( 0L <= size && size <= MAX_POOLED_SIZE )
+			return cache.get().malloc(getSizeClass(size));
+
+		return allocator.malloc(size);
+	}
+
+	@Override
+	public long calloc(long num, long size) {
+		if ( num < 0L || size < 0L || (num != 0L && Long.MAX_VALUE / num < size) )
+			return allocator.calloc(num, size);
+
+		long bytes = num * size;
+		if ( MAX_POOLED_SIZE < bytes )
+			return allocator.calloc(num, size);
+
+		long ptr = cache.get().malloc(getSizeClass(bytes));
+		if ( ptr != NULL )
+			memSet(ptr, 0, bytes);
+		return ptr;
+	}
+
+	@Override
+	public long realloc(long ptr, long size) {
+		if ( ptr == NULL )
+			return malloc(size);
+
+		if ( size == 0L ) {
+			free(ptr);
+			return NULL;
+		}
+
+		int sizeClass = slabs.get(ptr);
+		if ( sizeClass < 0 )
+			return allocator.realloc(ptr, size);
+
+		if ( 0L <= size && size <= MAX_POOLED_SIZE && getSizeClass(size) == sizeClass )
+			return ptr;
+
+		long address = malloc(size);
+		if ( address != NULL ) {
+			memCopy(ptr, address, min(CLASS_STRIDE[sizeClass], size));
+			cache.get().free(ptr, sizeClass);
+		}
+		return address;
+	}
+
+	@Override
+	public void free(long ptr) {
+		if ( ptr == NULL )
+			return;
+
+		int sizeClass = slabs.get(ptr);
+		if ( sizeClass < 0 )
+			allocator.free(ptr);
+		else
+			cache.get().free(ptr, sizeClass);
+	}
+
+	@Override
+	public long aligned_alloc(long alignment, long size) {
+		return allocator.aligned_alloc(alignment, size);
+	}
+
+	@Override
+	public void aligned_free(long ptr) {
+		allocator.aligned_free(ptr);
+	}
+
+	private ThreadCache registerCache() {
+		ThreadCache cache = new ThreadCache(Thread.currentThread());
+		synchronized ( caches ) {
+			caches.add(cache);
+		}
+		return cache;
+	}
+
+	/** Moves the cached blocks of terminated threads to the central cache. */
+	private void reclaimCaches() {
+		synchronized ( caches ) {
+			for ( Iterator<ThreadCache> it = caches.iterator(); it.hasNext(); ) {
+				ThreadCache cache = it.next();
+				// Thread.isAlive() returning false synchronizes-with the final action of the terminated thread.
+				if ( !cache.owner.isAlive() ) {
+					it.remove();
+					cache.flush();
+				}
+			}
+		}
+	}
+
+	/** Allocates a new slab and carves it into batches of free blocks. */
+	private void allocateSlab(int sizeClass) {
+		long slab = allocator.aligned_alloc(SLAB_SIZE, SLAB_SIZE);
+		if ( slab == NULL )
+			return;
+
+		// Registered before any block is published to the central cache
+		slabs.put(slab, sizeClass);
+
+		int stride = CLASS_STRIDE[sizeClass];
+		int batch = CLASS_BATCH[sizeClass];
+
+		int blocks = SLAB_SIZE / stride;
+
+		Central central = this.central[sizeClass];
+		for ( int i = 0; i < blocks; i += batch ) {
+			int count = min(batch, blocks - i);
+
+			long head = slab + (long)i * stride;
+			long block = head;
+			for ( int j = 0; j < count; j++, block += stride )
+				memPutAddress(block, j == count - 1 ? NULL : block + stride);
+
+			central.push(head, count);
+		}
+	}
+
+	/**
+	 * Maps slab addresses to size classes.
+	 *
+	 * <p>An insert-only open-addressing hash table. Lookups do not lock: a block address reaches another thread only after its slab has been inserted, through
+	 * the central cache or the application's own synchronization.</p>
+	 */
+	private static final class SlabTable {
+
+		private volatile Table table = new Table(64);
+
+		private int size;
+
+		/** Returns the size class of the slab that contains the specified address, or -1 if the address does not belong to a slab. */
+		int get(long address) {
+			return table.get(address >>> SLAB_SHIFT);
+		}
+
+		synchronized void put(long slab, int sizeClass) {
+			Table table = this.table;
+			if ( table.keys.length() >>> 1 < ++size ) {
+				Table grown = new Table(table.keys.length() << 1);
+				for ( int i = 0; i < table.keys.length(); i++ ) {
+					long key = table.keys.get(i);
+					if ( key != 0L )
+						grown.put(key, table.classes[i]);
+				}
+				this.table = table = grown;
+			}
+			table.put(slab >>> SLAB_SHIFT, sizeClass);
+		}
+
+		private static final class Table {
+
+			/** The slab addresses, shifted right by {@link #SLAB_SHIFT}. Zero marks an empty entry. */
+			final AtomicLongArray keys;
+			final int[]           classes;
+
+			Table(int capacity) {
+				this.keys = new AtomicLongArray(capacity);
+				this.classes = new int[capacity];
+			}
+
+			private int index(long key) {
+				return (int)((key * 0x9E3779B97F4A7C15L) >>> 32) & (keys.length() - 1);
+			}
+
+			int get(long key) {
+				for ( int i = index(key); ; i = (i + 1) & (keys.length() - 1) ) {
+					long k = keys.get(i);
+					if ( k == key )
+						return classes[i];
+					if ( k == 0L )
+						return -1;
+				}
+			}
+
+			void put(long key, int sizeClass) {
+				int i = index(key);
+				while ( keys.get(i) != 0L )
+					i = (i + 1) & (keys.length() - 1);
+
+				// The volatile key write publishes the size class
+				classes[i] = sizeClass;
+				keys.set(i, key);
+			}
+
+		}
+
+	}
+
+	/** A stack of block chains shared by all threads, for a single size class. */
+	private static final class Central {
+
+		private long[] heads  = new long[8];
+		private int[]  counts = new int[8];
+
+		private int size;
+
+		synchronized void push(long head, int count) {
+			if ( size == heads.length ) {
+				heads = Arrays.copyOf(heads, size * 2);
+				counts = Arrays.copyOf(counts, size * 2);
+			}
+
+			heads[size] = head;
+			counts[size] = count;
+			size++;
+		}
+
+		/** Moves a chain of free blocks to the specified thread cache. Returns false if there are no free blocks available. */
+		synchronized boolean pop(ThreadCache cache, int sizeClass) {
+			if ( size == 0 )
+				return false;
+
+			size--;
+			cache.heads[sizeClass] = heads[size];
+			cache.counts[sizeClass] = counts[size];
+			return true;
+		}
+
+	}
+
+	/** The per-thread block cache. It is only accessed by its owner thread, or after the owner thread has terminated. */
+	private final class ThreadCache {
+
+		final Thread owner;
+
+		final long[] heads;
+		final int[]  counts;
+
+		ThreadCache(Thread owner) {
+			this.owner = owner;
+
+			this.heads = new long[CLASS_STRIDE.length];
+			this.counts = new int[CLASS_STRIDE.length];
+		}
+
+		long malloc(int sizeClass) {
+			long block = heads[sizeClass];
+			if ( block == NULL ) {
+				block = refill(sizeClass);
+				if ( block == NULL )
+					return NULL;
+			}
+
+			heads[sizeClass] = memGetAddress(block);
+			counts[sizeClass]--;
+			return block;
+		}
+
+		private long refill(int sizeClass) {
+			Central central = PooledAllocator.this.central[sizeClass];
+			if ( !central.pop(this, sizeClass) ) {
+				reclaimCaches();
+				if ( !central.pop(this, sizeClass) ) {
+					allocateSlab(sizeClass);
+					if ( !central.pop(this, sizeClass) )
+						return NULL;
+				}
+			}
+			return heads[sizeClass];
+		}
+
+		void free(long block, int sizeClass) {
+			memPutAddress(block, heads[sizeClass]);
+			heads[sizeClass] = block;
+
+			int batch = CLASS_BATCH[sizeClass];
+			if ( (batch << 1) < ++counts[sizeClass] )
+				release(sizeClass, batch);
+		}
+
+		/** Returns a chain of {@code batch} blocks to the central cache. */
+		private void release(int sizeClass, int batch) {
+			long head = heads[sizeClass];
+
+			long tail = head;
+			for ( int i = 1; i < batch; i++ )
+				tail = memGetAddress(tail);
+
+			heads[sizeClass] = memGetAddress(tail);
+			counts[sizeClass] -= batch;
+
+			memPutAddress(tail, NULL);
+			central[sizeClass].push(head, batch);
+		}
+
+		void flush() {
+			for ( int i = 0; i < heads.length; i++ ) {
+				if ( heads[i] != NULL ) {
+					central[i].push(heads[i], counts[i]);
+					heads[i] = NULL;
+					counts[i] = 0;
+				}
+			}
+		}
+
+	}
+
+}
@@ -6,14 +6,23 @@ package org.lwjgl.system;
 
 import org.lwjgl.Version;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
+import java.net.JarURLConnection;
 import java.net.URL;
-import java.nio.channels.FileChannel;
+import java.net.URLConnection;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.*;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
 import java.util.zip.CRC32;
 
+import static java.nio.file.StandardOpenOption.*;
 import static org.lwjgl.system.APIUtil.*;
 
 /**
@@ -24,18 +33,30 @@ import static org.lwjgl.system.APIUtil.*;
  * @author Nathan Sweet (https://github.com/NathanSweet)
  * @see Configuration#SHARED_LIBRARY_EXTRACT_DIRECTORY
  * @see Configuration#SHARED_LIBRARY_EXTRACT_PATH
+ * @see Configuration#SHARED_LIBRARY_EXTRACT_CACHE
+ * @see Configuration#SHARED_LIBRARY_EXTRACT_ALL
  */
 final class SharedLibraryLoader {
 
+	private static final String MANIFEST_NAME = ".lwjgl.manifest";
+
+	private static final Pattern LIST_SEPARATOR = Pattern.compile("\\s*,\\s*");
+
 	private static Path extractPath;
 
+	/** The extraction cache manifest, null if {@link Configuration#SHARED_LIBRARY_EXTRACT_CACHE} is disabled. */
+	private static Manifest manifest;
+
+	/** The files that have been extracted or verified by this process. */
+	private static final Set<Path> EXTRACTED = ConcurrentHashMap.newKeySet();
+
 	private SharedLibraryLoader() {
 	}
 
 	/** Extracts the specified shared library from the classpath to a temporary directory. */
-	static FileChannel load(String name, String libName, URL libURL) {
+	static synchronized FileChannel load(Class<?> context, String name, String libName, URL libURL) {
 		try {
-			Path extractedFile = extractFile(libName, libURL);
+			Path extractedFile = extractFile(context, libName, libURL);
 
 			// Wait for other processes (usually antivirus software) to unlock the extracted file
 			// before attempting to load it.
@@ -68,12 +89,15 @@ final class SharedLibraryLoader {
 	 *
 	 * @return The extracted file.
 	 */
-	private static Path extractFile(String libraryFile, URL libURL) throws IOException {
+	private static Path extractFile(Class<?> context, String libraryFile, URL libURL) throws IOException {
 		Path extractedFile = getExtractedFile(extractPath, libraryFile);
 
 		if ( extractPath == null ) {
 			extractPath = extractedFile.getParent();
 
+			if ( Configuration.SHARED_LIBRARY_EXTRACT_CACHE.get(false) )
+				manifest = new Manifest(extractPath.resolve(MANIFEST_NAME));
+
 			// Prepend the path in which the libraries were extracted to org.lwjgl.librarypath
 			String libPath = Configuration.LIBRARY_PATH.get();
 			if ( libPath == null || libPath.isEmpty() )
@@ -83,13 +107,81 @@ final class SharedLibraryLoader {
 
 			System.setProperty(Configuration.LIBRARY_PATH.getProperty(), libPath);
 			Configuration.LIBRARY_PATH.set(libPath);
+
+			String extractAll = Configuration.SHARED_LIBRARY_EXTRACT_ALL.get();
+			if ( extractAll != null && !extractAll.isEmpty() )
+				extractAll(context, LIST_SEPARATOR.split(extractAll.trim()));
 		}
 
 		extractFile(libURL, extractedFile);
+		if ( manifest != null )
+			manifest.save();
 
 		return extractedFile;
 	}
 
+	/**
+	 * Extracts the specified shared libraries in parallel. Errors are ignored, the libraries will be extracted again when loaded.
+	 *
+	 * @param context the class to use to discover the shared libraries in the classpath
+	 * @param names   the library names
+	 */
+	private static void extractAll(Class<?> context, String[] names) {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(names.length, Runtime.getRuntime().availableProcessors()), r -> {
+			Thread t = new Thread(r, "LWJGL SharedLibraryLoader");
+			t.setDaemon(true);
+			return t;
+		});
+		try {
+			List<Future<?>> futures = new ArrayList<>(names.length);
+			for ( String name : names ) {
+				String libName = Platform.get().mapLibraryName(name);
+				URL    libURL  = context.getResource("/" + libName);
+				if ( libURL == null ) {
+					apiLog(String.format("\t%s not found in the classpath, skipped", libName));
+					continue;
+				}
+
+				futures.add(executor.submit(() -> {
+					extractFile(libURL, extractPath.resolve(libName));
+					return null;
+				}));
+			}
+
+			for ( Future<?> future : futures ) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					if ( Configuration.DEBUG_LOADER.get(false) )
+						e.getCause().printStackTrace(DEBUG_STREAM);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the SHA-1 hash of the specified extracted shared library, if it is known by the extraction cache and the file has not been modified since.
+	 *
+	 * @param libFile the shared library file
+	 *
+	 * @return the hash, or null if it is not available
+	 */
+	static synchronized byte[] getCachedSHA1(Path libFile) {
+		if ( manifest == null || !extractPath.toAbsolutePath().equals(libFile.toAbsolutePath().getParent()) )
+			return null;
+
+		try {
+			Manifest.Entry entry = manifest.get(libFile.getFileName().toString());
+			return entry != null && entry.matchesFile(Files.readAttributes(libFile, BasicFileAttributes.class)) ? entry.sha1 : null;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
 	/**
 	 * Returns a path to a file that can be written. Tries multiple locations and verifies writing succeeds.
 	 *
@@ -143,25 +235,161 @@ final class SharedLibraryLoader {
 	 * @throws IOException if an IO error occurs
 	 */
 	private static void extractFile(URL libURL, Path extractedFile) throws IOException {
+		if ( EXTRACTED.contains(extractedFile) ) {
+			apiLog(String.format("\tFound at: %s", extractedFile));
+			return;
+		}
+
+		if ( manifest != null )
+			extractFileCached(libURL, extractedFile);
+		else {
+			if ( Files.exists(extractedFile) ) {
+				try (
+					InputStream input = libURL.openStream();
+					InputStream target = Files.newInputStream(extractedFile);
+				) {
+					if ( crc(input) == crc(target) ) {
+						apiLog(String.format("\tFound at: %s", extractedFile));
+						EXTRACTED.add(extractedFile);
+						return;
+					}
+				}
+			}
+
+			// If file doesn't exist or the CRC doesn't match, extract it to the temp dir.
+			copy(libURL, extractedFile, null);
+		}
+
+		EXTRACTED.add(extractedFile);
+	}
+
+	/**
+	 * Extracts a native library, using the extraction cache manifest to skip verification if neither the JAR file nor the extracted file have been modified.
+	 *
+	 * @param libURL        the library resource
+	 * @param extractedFile the extracted file
+	 *
+	 * @throws IOException if an IO error occurs
+	 */
+	private static void extractFileCached(URL libURL, Path extractedFile) throws IOException {
+		String key = extractedFile.getFileName().toString();
+
+		Path                source           = getSource(libURL);
+		BasicFileAttributes sourceAttributes = source == null ? null : Files.readAttributes(source, BasicFileAttributes.class);
+
+		if ( source != null && Files.exists(extractedFile) ) {
+			Manifest.Entry entry = manifest.get(key);
+			if ( entry != null && entry.matchesSource(source, sourceAttributes) && entry.matchesFile(Files.readAttributes(extractedFile, BasicFileAttributes.class)) ) {
+				apiLog(String.format("\tFound at: %s (cached)", extractedFile));
+				return;
+			}
+		}
+
+		byte[] hash = null;
 		if ( Files.exists(extractedFile) ) {
 			try (
 				InputStream input = libURL.openStream();
 				InputStream target = Files.newInputStream(extractedFile);
 			) {
-				if ( crc(input) == crc(target) ) {
+				byte[] expected = sha1(input);
+				if ( Arrays.equals(expected, sha1(target)) ) {
 					apiLog(String.format("\tFound at: %s", extractedFile));
-					return;
+					hash = expected;
 				}
 			}
 		}
 
-		// If file doesn't exist or the CRC doesn't match, extract it to the temp dir.
+		if ( hash == null ) {
+			MessageDigest digest = newSHA1();
+			copy(libURL, extractedFile, digest);
+			hash = digest.digest();
+		}
+
+		if ( source != null )
+			manifest.put(key, new Manifest.Entry(source, sourceAttributes, Files.readAttributes(extractedFile, BasicFileAttributes.class), hash));
+	}
+
+	/**
+	 * Copies a native library to the specified file.
+	 *
+	 * <p>The library is written to a temporary file first and then moved to the target file, so that other processes never see a partially written library.
+	 * If the resource size is known, the temporary file is memory-mapped and the resource is decompressed directly into it.</p>
+	 *
+	 * @param libURL        the library resource
+	 * @param extractedFile the extracted file
+	 * @param digest        if not null, the digest to update with the library contents
+	 *
+	 * @throws IOException if an IO error occurs
+	 */
+	private static void copy(URL libURL, Path extractedFile, MessageDigest digest) throws IOException {
 		apiLog(String.format("\tExtracting: %s", libURL.getPath()));
 
 		Files.createDirectories(extractedFile.getParent());
-		try ( InputStream input = libURL.openStream() ) {
-			Files.copy(input, extractedFile, StandardCopyOption.REPLACE_EXISTING);
+
+		Path tempFile = getTempFile(extractedFile);
+		try {
+			URLConnection connection = libURL.openConnection();
+
+			long size = connection.getContentLengthLong();
+			try ( InputStream input = digest == null ? connection.getInputStream() : new DigestInputStream(connection.getInputStream(), digest) ) {
+				// Mapped files cannot be unmapped explicitly and cannot be moved while mapped on Windows.
+				if ( size <= 0L || Integer.MAX_VALUE < size || Platform.get() == Platform.WINDOWS )
+					Files.copy(input, tempFile);
+				else {
+					try ( FileChannel fc = FileChannel.open(tempFile, READ, WRITE, CREATE_NEW) ) {
+						MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+
+						ReadableByteChannel src = Channels.newChannel(input);
+						while ( buffer.hasRemaining() ) {
+							if ( src.read(buffer) == -1 )
+								throw new EOFException("Unexpected end of shared library resource: " + libURL);
+						}
+						if ( input.read() != -1 )
+							throw new IOException("The shared library resource is larger than reported: " + libURL);
+					}
+				}
+			}
+
+			try {
+				Files.move(tempFile, extractedFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, extractedFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Returns a unique path in the same directory as the specified file. Unlike {@link Files#createTempFile}, the file is created later with the default
+	 * permissions.
+	 *
+	 * @param file the target file
+	 *
+	 * @return the temporary file path
+	 */
+	private static Path getTempFile(Path file) {
+		return file.resolveSibling(file.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 1) + ".tmp");
+	}
+
+	/**
+	 * Returns the local file that contains the specified resource, i.e. the JAR file or the file itself.
+	 *
+	 * @param libURL the library resource
+	 *
+	 * @return the file, or null if the resource is not in a local file
+	 */
+	private static Path getSource(URL libURL) {
+		try {
+			if ( "jar".equals(libURL.getProtocol()) ) {
+				URL jarURL = ((JarURLConnection)libURL.openConnection()).getJarFileURL();
+				if ( "file".equals(jarURL.getProtocol()) )
+					return Paths.get(jarURL.toURI());
+			} else if ( "file".equals(libURL.getProtocol()) )
+				return Paths.get(libURL.toURI());
+		} catch (Exception ignored) {
 		}
+		return null;
 	}
 
 	/**
@@ -181,6 +409,31 @@ final class SharedLibraryLoader {
 		return crc.getValue();
 	}
 
+	/**
+	 * Returns the SHA-1 hash of the remaining bytes in a stream.
+	 *
+	 * @param input the stream
+	 *
+	 * @return the hash
+	 */
+	private static byte[] sha1(InputStream input) throws IOException {
+		MessageDigest digest = newSHA1();
+
+		byte[] buffer = new byte[8 * 1024];
+		for ( int n; (n = input.read(buffer)) != -1; )
+			digest.update(buffer, 0, n);
+
+		return digest.digest();
+	}
+
+	private static MessageDigest newSHA1() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	/**
 	 * Returns true if the parent directories of the file can be created and the file can be written.
 	 *
@@ -216,4 +469,160 @@ final class SharedLibraryLoader {
 		}
 	}
 
+	/**
+	 * The extraction cache manifest. Stored as a properties file in the extraction directory, with one entry per extracted shared library.
+	 *
+	 * <p>Multiple processes may use the same extraction directory concurrently. The manifest is replaced atomically and entries are always validated against
+	 * the extracted file, so a stale or lost entry only causes the library to be verified again.</p>
+	 */
+	private static final class Manifest {
+
+		private static final Pattern SEPARATOR = Pattern.compile(";");
+
+		private final Path file;
+
+		private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+		private volatile boolean dirty;
+
+		Manifest(Path file) {
+			this.file = file;
+
+			if ( !Files.isRegularFile(file) )
+				return;
+
+			Properties properties = new Properties();
+			try ( InputStream input = Files.newInputStream(file) ) {
+				properties.load(input);
+			} catch (Exception e) {
+				apiLog("\tFailed to read the extraction cache manifest, ignored.");
+				return;
+			}
+
+			for ( String key : properties.stringPropertyNames() ) {
+				Entry entry = Entry.parse(properties.getProperty(key));
+				if ( entry != null )
+					entries.put(key, entry);
+			}
+		}
+
+		Entry get(String key) {
+			return entries.get(key);
+		}
+
+		void put(String key, Entry entry) {
+			entries.put(key, entry);
+			dirty = true;
+		}
+
+		void save() {
+			if ( !dirty )
+				return;
+			dirty = false;
+
+			Properties properties = new Properties();
+			for ( Map.Entry<String, Entry> entry : entries.entrySet() )
+				properties.setProperty(entry.getKey(), entry.getValue().toString());
+
+			try {
+				Path tempFile = getTempFile(file);
+				try {
+					try ( OutputStream output = Files.newOutputStream(tempFile, CREATE_NEW, WRITE) ) {
+						properties.store(output, "LWJGL shared library extraction cache");
+					}
+					try {
+						Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+					} catch (AtomicMoveNotSupportedException e) {
+						Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+					}
+				} finally {
+					Files.deleteIfExists(tempFile);
+				}
+			} catch (IOException e) {
+				apiLog("\tFailed to write the extraction cache manifest: " + e.getMessage());
+			}
+		}
+
+		static final class Entry {
+
+			final String source;
+			final long   sourceTime;
+			final long   sourceSize;
+
+			final long fileTime;
+			final long fileSize;
+
+			final byte[] sha1;
+
+			private Entry(String source, long sourceTime, long sourceSize, long fileTime, long fileSize, byte[] sha1) {
+				this.source = source;
+				this.sourceTime = sourceTime;
+				this.sourceSize = sourceSize;
+				this.fileTime = fileTime;
+				this.fileSize = fileSize;
+				this.sha1 = sha1;
+			}
+
+			Entry(Path source, BasicFileAttributes sourceAttributes, BasicFileAttributes fileAttributes, byte[] sha1) {
+				this(
+					source.toAbsolutePath().toString(),
+					sourceAttributes.lastModifiedTime().toMillis(),
+					sourceAttributes.size(),
+					fileAttributes.lastModifiedTime().toMillis(),
+					fileAttributes.size(),
+					sha1
+				);
+			}
+
+			static Entry parse(String value) {
+				// sourceTime;sourceSize;fileTime;fileSize;sha1;source
+				String[] fields = SEPARATOR.split(value, 6);
+				if ( fields.length != 6 || fields[4].length() != 40 )
+					return null;
+
+				try {
+					byte[] sha1 = new byte[20];
+					for ( int i = 0; i < sha1.length; i++ )
+						sha1[i] = (byte)Integer.parseInt(fields[4].substring(i * 2, i * 2 + 2), 16);
+
+					return new Entry(
+						fields[5],
+						Long.parseLong(fields[0]),
+						Long.parseLong(fields[1]),
+						Long.parseLong(fields[2]),
+						Long.parseLong(fields[3]),
+						sha1
+					);
+				} catch (NumberFormatException e) {
+					return null;
+				}
+			}
+
+			boolean matchesSource(Path source, BasicFileAttributes attributes) {
+				return this.source.equals(source.toAbsolutePath().toString())
+					&& sourceTime == attributes.lastModifiedTime().toMillis()
+					&& sourceSize == attributes.size();
+			}
+
+			boolean matchesFile(BasicFileAttributes attributes) {
+				return fileTime == attributes.lastModifiedTime().toMillis() && fileSize == attributes.size();
+			}
+
+			@Override
+			public String toString() {
+				StringBuilder sb = new StringBuilder(128);
+				sb
+					.append(sourceTime).append(';')
+					.append(sourceSize).append(';')
+					.append(fileTime).append(';')
+					.append(fileSize).append(';');
+				for ( byte b : sha1 )
+					sb.append(Character.forDigit((b >>> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+				return sb.append(';').append(source).toString();
+			}
+
+		}
+
+	}
+
 }
\ No newline at end of file
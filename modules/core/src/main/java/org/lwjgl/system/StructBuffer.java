@@ -4,12 +4,23 @@
  */
 package org.lwjgl.system;
 
-import java.nio.ByteBuffer;
+import java.nio.*;
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
 
+import static org.lwjgl.system.Checks.*;
 import static org.lwjgl.system.MemoryUtil.*;
 
-/** Base class of struct custom buffers. */
-public abstract class StructBuffer<T extends Struct, SELF extends StructBuffer<T, SELF>> extends CustomBuffer<SELF> {
+/**
+ * Base class of struct custom buffers.
+ *
+ * <p>The {@link #get()} and {@link #get(int)} methods return a new struct instance for each element. To iterate over a buffer without allocating, a single
+ * flyweight struct view can be repositioned over each element with {@link #flyweight(int, Struct)}. The {@link #iterator}, {@link #forEach},
+ * {@link #spliterator} and {@link #stream} methods use flyweight views too: they pass the same struct instance for each element, which must not be retained
+ * after the next element has been visited. Use {@link #get(int)} to obtain an independent struct instance.</p>
+ */
+public abstract class StructBuffer<T extends Struct, SELF extends StructBuffer<T, SELF>> extends CustomBuffer<SELF> implements Iterable<T> {
 
 	protected StructBuffer(ByteBuffer container, int remaining) {
 		this(memAddress(container), container, -1, 0, remaining, remaining);
@@ -110,8 +121,507 @@ public abstract class StructBuffer<T extends Struct, SELF extends StructBuffer<T
 		return self();
 	}
 
+	/**
+	 * Returns a new flyweight struct view at this buffer's current position. The buffer's position is not modified.
+	 *
+	 * <p>The view can be moved to any element of this buffer with {@link #flyweight(int, Struct)}.</p>
+	 *
+	 * @return the struct view
+	 */
+	public T flyweight() {
+		return newInstance(address + position * sizeof());
+	}
+
+	/**
+	 * Repositions a flyweight struct view over the struct at the specified index.
+	 *
+	 * <p>The view must have been returned by {@link #flyweight()}, {@link #get()} or {@link #get(int)} of a struct buffer of the same type. It must not be a
+	 * struct instance that owns its memory, i.e. one allocated with {@code malloc}/{@code calloc}/{@code create}.</p>
+	 *
+	 * @param index     the index of the struct
+	 * @param flyweight the struct view to reposition
+	 *
+	 * @return {@code flyweight}
+	 *
+	 * @throws IndexOutOfBoundsException If <tt>index</tt> is negative or not smaller than the buffer's limit
+	 */
+	public T flyweight(int index, T flyweight) {
+		flyweight.setAddress(address + checkIndex(index) * sizeof());
+		return flyweight;
+	}
+
+	/**
+	 * Returns an iterator over the structs between this buffer's current position and its limit. The buffer's position is not modified.
+	 *
+	 * <p>The iterator returns the same flyweight struct view for each element.</p>
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new StructIterator<>(this, position, limit);
+	}
+
+	/**
+	 * Performs the specified action on each struct between this buffer's current position and its limit. The buffer's position is not modified.
+	 *
+	 * <p>The action receives the same flyweight struct view for each element.</p>
+	 */
+	@Override
+	public void forEach(Consumer<? super T> action) {
+		Objects.requireNonNull(action);
+
+		int sizeof = sizeof();
+		int limit  = this.limit;
+
+		T flyweight = flyweight();
+		for ( int i = position; i < limit; i++ ) {
+			flyweight.setAddress(address + i * sizeof);
+			action.accept(flyweight);
+		}
+	}
+
+	/**
+	 * Returns a spliterator over the structs between this buffer's current position and its limit. The buffer's position is not modified.
+	 *
+	 * <p>The spliterator splits by index range. Each split uses its own flyweight struct view, which is passed to the action for each element.</p>
+	 */
+	@Override
+	public Spliterator<T> spliterator() {
+		return new StructSpliterator<>(this, position, limit);
+	}
+
+	/**
+	 * Returns a sequential stream over the structs between this buffer's current position and its limit.
+	 *
+	 * <p>The stream passes flyweight struct views down the pipeline. Operations that retain elements (e.g. {@code collect}, {@code sorted}) must copy them
+	 * first.</p>
+	 */
+	public Stream<T> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Returns a parallel stream over the structs between this buffer's current position and its limit.
+	 *
+	 * <p>The stream passes flyweight struct views down the pipeline, one view per split. Operations that retain elements (e.g. {@code collect},
+	 * {@code sorted}) must copy them first.</p>
+	 */
+	public Stream<T> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	// --------------------------------------
+	// Column accessors, used by the generated struct buffers.
+	//
+	// Each method copies a primitive member of every struct between the buffer's current position and its limit, from/to consecutive elements of an
+	// array or NIO buffer. The member is read/written with a strided loop over the struct memory. The positions of both buffers are not modified.
+	// --------------------------------------
+
+	/** Copies the {@code byte} member at the specified offset of each struct to {@code dst}. */
+	protected void gather(int offset, byte[] dst) {
+		int count = remaining();
+		if ( CHECKS )
+			check(dst, count);
+
+		int  stride = sizeof();
+		long src    = address + position * stride + offset;
+		for ( int i = 0; i < count; i++, src += stride )
+			dst[i] = memGetByte(src);
+	}
+
+	/** Copies the {@code byte} member at the specified offset of each struct to {@code dst}. */
+	protected void gather(int offset, ByteBuffer dst) {
+		int count = remaining();
+		if ( CHECKS )
+			check(dst, count);
+
+		int  stride     = sizeof();
+		long src        = address + position * stride + offset;
+		long dstAddress = memAddress(dst);
+		for ( int i = 0; i < count; i++, src += stride )
+			memPutByte(dstAddress + i, memGetByte(src));
+	}
+
+	/** Copies {@code src} to the {@code byte} member at the specified offset of each struct. */
+	protected void scatter(int offset, byte[] src) {
+		int count = remaining();
+		if ( CHECKS )
+			check(src, count);
+
+		int  stride = sizeof();
+		long dst    = address + position * stride + offset;
+		for ( int i = 0; i < count; i++, dst += stride )
+			memPutByte(dst, src[i]);
+	}
+
+	/** Copies {@code src} to the {@code byte} member at the specified offset of each struct. */
+	protected void scatter(int offset, ByteBuffer src) {
+		int count = remaining();
+		if ( CHECKS )
+			check(src, count);
+
+		int  stride     = sizeof();
+		long dst        = address + position * stride + offset;
+		long srcAddress = memAddress(src);
+		for ( int i = 0; i < count; i++, dst += stride )
+			memPutByte(dst, memGetByte(srcAddress + i));
+	}
+
+	/** Copies the {@code short} member at the specified offset of each struct to {@code dst}. */
+	protected void gather(int offset, short[] dst) {
+		int count = remaining();
+		if ( CHECKS )
+			check(dst, count);
+
+		int  stride = sizeof();
+		long src    = address + position * stride + offset;
+		for ( int i = 0; i < count; i++, src += stride )
+			dst[i] = memGetShort(src);
+	}
+
+	/** Copies the {@code short} member at the specified offset of each struct to {@code dst}. */
+	protected void gather(int offset, ShortBuffer dst) {
+		int count = remaining();
+		if ( CHECKS )
+			check(dst, count);
+
+		int  stride     = sizeof();
+		long src        = address + position * stride + offset;
+		long dstAddress = memAddress(dst);
+		for ( int i = 0; i < count; i++, src += stride )
+			memPutShort(dstAddress + i * 2L, memGetShort(src));
+	}
+
+	/** Copies {@code src} to the {@code short} member at the specified offset of each struct. */
+	protected void scatter(int offset, short[] src) {
+		int count = remaining();
+		if ( CHECKS )
+			check(src, count);
+
+		int  stride = sizeof();
+		long dst    = address + position * stride + offset;
+		for ( int i = 0; i < count; i++, dst += stride )
+			memPutShort(dst, src[i]);
+	}
+
+	/** Copies {@code src} to the {@code short} member at the specified offset of each struct. */
+	protected void scatter(int offset, ShortBuffer src) {
+		int count = remaining();
+		if ( CHECKS )
+			check(src, count);
+
+		int  stride     = sizeof();
+		long dst        = address + position * stride + offset;
+		long srcAddress = memAddress(src);
+		for ( int i = 0; i < count; i++, dst += stride )
+			memPutShort(dst, memGetShort(srcAddress + i * 2L));
+	}
+
+	/** Copies the {@code int} member at the specified offset of each struct to {@code dst}. */
+	protected void gather(int offset, int[] dst) {
+		int count = remaining();
+		if ( CHECKS )
+			check(dst, count);
+
+		int  stride = sizeof();
+		long src    = address + position * stride + offset;
+		for ( int i = 0; i < count; i++, src += stride )
+			dst[i] = memGetInt(src);
+	}
+
+	/** Copies the {@code int} member at the specified offset of each struct to {@code dst}. */
+	protected void gather(int offset, IntBuffer dst) {
+		int count = remaining();
+		if ( CHECKS )
+			check(dst, count);
+
+		int  stride     = sizeof();
+		long src        = address + position * stride + offset;
+		long dstAddress = memAddress(dst);
+		for ( int i = 0; i < count; i++, src += stride )
+			memPutInt(dstAddress + i * 4L, memGetInt(src));
+	}
+
+	/** Copies {@code src} to the {@code int} member at the specified offset of each struct. */
+	protected void scatter(int offset, int[] src) {
+		int count = remaining();
+		if ( CHECKS )
+			check(src, count);
+
+		int  stride = sizeof();
+		long dst    = address + position * stride + offset;
+		for ( int i = 0; i < count; i++, dst += stride )
+			memPutInt(dst, src[i]);
+	}
+
+	/** Copies {@code src} to the {@code int} member at the specified offset of each struct. */
+	protected void scatter(int offset, IntBuffer src) {
+		int count = remaining();
+		if ( CHECKS )
+			check(src, count);
+
+		int  stride     = sizeof();
+		long dst        = address + position * stride + offset;
+		long srcAddress = memAddress(src);
+		for ( int i = 0; i < count; i++, dst += stride )
+			memPutInt(dst, memGetInt(srcAddress + i * 4L));
+	}
+
+	/** Copies the {@code long} member at the specified offset of each struct to {@code dst}. */
+	protected void gather(int offset, long[] dst) {
+		int count = remaining();
+		if ( CHECKS )
+			check(dst, count);
+
+		int  stride = sizeof();
+		long src    = address + position * stride + offset;
+		for ( int i = 0; i < count; i++, src += stride )
+			dst[i] = memGetLong(src);
+	}
+
+	/** Copies the {@code long} member at the specified offset of each struct to {@code dst}. */
+	protected void gather(int offset, LongBuffer dst) {
+		int count = remaining();
+		if ( CHECKS )
+			check(dst, count);
+
+		int  stride     = sizeof();
+		long src        = address + position * stride + offset;
+		long dstAddress = memAddress(dst);
+		for ( int i = 0; i < count; i++, src += stride )
+			memPutLong(dstAddress + i * 8L, memGetLong(src));
+	}
+
+	/** Copies {@code src} to the {@code long} member at the specified offset of each struct. */
+	protected void scatter(int offset, long[] src) {
+		int count = remaining();
+		if ( CHECKS )
+			check(src, count);
+
+		int  stride = sizeof();
+		long dst    = address + position * stride + offset;
+		for ( int i = 0; i < count; i++, dst += stride )
+			memPutLong(dst, src[i]);
+	}
+
+	/** Copies {@code src} to the {@code long} member at the specified offset of each struct. */
+	protected void scatter(int offset, LongBuffer src) {
+		int count = remaining();
+		if ( CHECKS )
+			check(src, count);
+
+		int  stride     = sizeof();
+		long dst        = address + position * stride + offset;
+		long srcAddress = memAddress(src);
+		for ( int i = 0; i < count; i++, dst += stride )
+			memPutLong(dst, memGetLong(srcAddress + i * 8L));
+	}
+
+	/** Copies the {@code float} member at the specified offset of each struct to {@code dst}. */
+	protected void gather(int offset, float[] dst) {
+		int count = remaining();
+		if ( CHECKS )
+			check(dst, count);
+
+		int  stride = sizeof();
+		long src    = address + position * stride + offset;
+		for ( int i = 0; i < count; i++, src += stride )
+			dst[i] = memGetFloat(src);
+	}
+
+	/** Copies the {@code float} member at the specified offset of each struct to {@code dst}. */
+	protected void gather(int offset, FloatBuffer dst) {
+		int count = remaining();
+		if ( CHECKS )
+			check(dst, count);
+
+		int  stride     = sizeof();
+		long src        = address + position * stride + offset;
+		long dstAddress = memAddress(dst);
+		for ( int i = 0; i < count; i++, src += stride )
+			memPutFloat(dstAddress + i * 4L, memGetFloat(src));
+	}
+
+	/** Copies {@code src} to the {@code float} member at the specified offset of each struct. */
+	protected void scatter(int offset, float[] src) {
+		int count = remaining();
+		if ( CHECKS )
+			check(src, count);
+
+		int  stride = sizeof();
+		long dst    = address + position * stride + offset;
+		for ( int i = 0; i < count; i++, dst += stride )
+			memPutFloat(dst, src[i]);
+	}
+
+	/** Copies {@code src} to the {@code float} member at the specified offset of each struct. */
+	protected void scatter(int offset, FloatBuffer src) {
+		int count = remaining();
+		if ( CHECKS )
+			check(src, count);
+
+		int  stride     = sizeof();
+		long dst        = address + position * stride + offset;
+		long srcAddress = memAddress(src);
+		for ( int i = 0; i < count; i++, dst += stride )
+			memPutFloat(dst, memGetFloat(srcAddress + i * 4L));
+	}
+
+	/** Copies the {@code double} member at the specified offset of each struct to {@code dst}. */
+	protected void gather(int offset, double[] dst) {
+		int count = remaining();
+		if ( CHECKS )
+			check(dst, count);
+
+		int  stride = sizeof();
+		long src    = address + position * stride + offset;
+		for ( int i = 0; i < count; i++, src += stride )
+			dst[i] = memGetDouble(src);
+	}
+
+	/** Copies the {@code double} member at the specified offset of each struct to {@code dst}. */
+	protected void gather(int offset, DoubleBuffer dst) {
+		int count = remaining();
+		if ( CHECKS )
+			check(dst, count);
+
+		int  stride     = sizeof();
+		long src        = address + position * stride + offset;
+		long dstAddress = memAddress(dst);
+		for ( int i = 0; i < count; i++, src += stride )
+			memPutDouble(dstAddress + i * 8L, memGetDouble(src));
+	}
+
+	/** Copies {@code src} to the {@code double} member at the specified offset of each struct. */
+	protected void scatter(int offset, double[] src) {
+		int count = remaining();
+		if ( CHECKS )
+			check(src, count);
+
+		int  stride = sizeof();
+		long dst    = address + position * stride + offset;
+		for ( int i = 0; i < count; i++, dst += stride )
+			memPutDouble(dst, src[i]);
+	}
+
+	/** Copies {@code src} to the {@code double} member at the specified offset of each struct. */
+	protected void scatter(int offset, DoubleBuffer src) {
+		int count = remaining();
+		if ( CHECKS )
+			check(src, count);
+
+		int  stride     = sizeof();
+		long dst        = address + position * stride + offset;
+		long srcAddress = memAddress(src);
+		for ( int i = 0; i < count; i++, dst += stride )
+			memPutDouble(dst, memGetDouble(srcAddress + i * 8L));
+	}
+
 	// --------------------------------------
 
 	protected abstract T newInstance(long address);
 
+	private static final class StructIterator<T extends Struct> implements Iterator<T> {
+
+		private final StructBuffer<T, ?> buffer;
+
+		private final int fence;
+		private       int index;
+
+		private T flyweight;
+
+		StructIterator(StructBuffer<T, ?> buffer, int index, int fence) {
+			this.buffer = buffer;
+			this.index = index;
+			this.fence = fence;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return index < fence;
+		}
+
+		@Override
+		public T next() {
+			if ( fence <= index )
+				throw new NoSuchElementException();
+
+			long address = buffer.address + index++ * buffer.sizeof();
+			if ( flyweight == null )
+				flyweight = buffer.newInstance(address);
+			else
+				flyweight.setAddress(address);
+			return flyweight;
+		}
+
+	}
+
+	private static final class StructSpliterator<T extends Struct> implements Spliterator<T> {
+
+		private final StructBuffer<T, ?> buffer;
+
+		private int index;
+		private int fence;
+
+		private T flyweight;
+
+		StructSpliterator(StructBuffer<T, ?> buffer, int index, int fence) {
+			this.buffer = buffer;
+			this.index = index;
+			this.fence = fence;
+		}
+
+		private T flyweight(int index) {
+			long address = buffer.address + index * buffer.sizeof();
+			if ( flyweight == null )
+				flyweight = buffer.newInstance(address);
+			else
+				flyweight.setAddress(address);
+			return flyweight;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			Objects.requireNonNull(action);
+			if ( fence <= index )
+				return false;
+
+			action.accept(flyweight(index++));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super T> action) {
+			Objects.requireNonNull(action);
+
+			int i     = index;
+			int fence = this.fence;
+
+			index = fence;
+			for ( ; i < fence; i++ )
+				action.accept(flyweight(i));
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			int lo  = index;
+			int mid = (lo + fence) >>> 1;
+			if ( mid <= lo )
+				return null;
+
+			index = mid;
+			return new StructSpliterator<>(buffer, lo, mid);
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL;
+		}
+
+	}
+
 }
\ No newline at end of file
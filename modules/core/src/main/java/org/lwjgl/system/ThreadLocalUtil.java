@@ -6,10 +6,6 @@ package org.lwjgl.system;
 
 import org.lwjgl.*;
 
-import java.lang.reflect.*;
-import java.util.*;
-import java.util.stream.*;
-
 import static org.lwjgl.system.Checks.*;
 import static org.lwjgl.system.MemoryUtil.*;
 import static org.lwjgl.system.Pointer.*;
@@ -127,31 +123,33 @@ public final class ThreadLocalUtil {
 		}
 	}
 
-	public static PointerBuffer getAddressesFromCapabilities(Object caps) {
-		List<Field> functions = Stream.of(caps.getClass().getFields())
-			.filter(f -> f.getType() == long.class)
-			.collect(Collectors.toList());
-
-		PointerBuffer addresses = BufferUtils.createPointerBuffer(functions.size());
-
-		try {
-			for ( int i = 0; i < functions.size(); i++ ) {
-				long a = functions.get(i).getLong(caps);
-				addresses.put(i, a != NULL ? a : FUNCTION_MISSING_ABORT);
-			}
-		} catch (IllegalAccessException e) {
-			throw new RuntimeException(e);
+	/**
+	 * Creates the off-heap function pointer array of a capabilities instance.
+	 *
+	 * <p>The addresses are in the order of the function ordinals of the capabilities class. Missing functions are replaced with a function that aborts the
+	 * process, so that their pointers are never {@code NULL}.</p>
+	 *
+	 * @param functions the function addresses returned by {@link APIUtil#apiGetFunctionAddresses}
+	 */
+	public static PointerBuffer getAddressesFromCapabilities(long[] functions) {
+		PointerBuffer addresses = BufferUtils.createPointerBuffer(functions.length);
+
+		for ( int i = 0; i < functions.length; i++ ) {
+			long a = functions[i];
+			addresses.put(i, a != NULL ? a : FUNCTION_MISSING_ABORT);
 		}
 
 		return addresses;
 	}
 
+	/**
+	 * Returns true if two function pointer arrays, created with {@link #getAddressesFromCapabilities}, contain the same addresses.
+	 *
+	 * <p>The arrays are compared with {@link MemoryUtil#memEquals}, this method does not allocate.</p>
+	 */
 	public static boolean compareCapabilities(PointerBuffer ref, PointerBuffer caps) {
-		for ( int i = 0; i < ref.remaining(); i++ ) {
-			if ( ref.get(i) != caps.get(i) && caps.get(i) != NULL )
-				return false;
-		}
-		return true;
+		int size = ref.remaining();
+		return size == caps.remaining() && memEquals(memAddress(ref), memAddress(caps), (long)size << POINTER_SHIFT);
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,231 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.util.lmdb;
+
+import java.nio.*;
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.util.lmdb.LMDB.*;
+import static org.lwjgl.util.lmdb.LMDBException.*;
+
+/**
+ * An LMDB cursor, obtained from {@link LMDBTxn#cursor}.
+ *
+ * <p>The positioning methods return false when there is no item at the requested position. The current item is available with {@link #key()} and
+ * {@link #value()}, as views of the memory map, or without allocating with {@link #keyVal()} and {@link #valueVal()}.</p>
+ */
+public final class LMDBCursor implements AutoCloseable {
+
+	private final LMDBTxn txn;
+
+	private final MDBVal.Buffer vals;
+
+	private final MDBVal key;
+	private final MDBVal data;
+
+	private long handle;
+
+	LMDBCursor(LMDBTxn txn, long handle) {
+		this.txn = txn;
+		this.handle = handle;
+
+		this.vals = MDBVal.calloc(2);
+		this.key = vals.get(0);
+		this.data = vals.get(1);
+	}
+
+	private long handle() {
+		if ( handle == NULL )
+			throw new IllegalStateException("The cursor has been closed.");
+		return handle;
+	}
+
+	/** Returns the {@code MDB_cursor} handle. */
+	public long address() {
+		return handle();
+	}
+
+	private boolean get(int op) {
+		int rc = mdb_cursor_get(handle(), key, data, op);
+		if ( rc == MDB_NOTFOUND )
+			return false;
+
+		check(rc);
+		return true;
+	}
+
+	/** Moves to the first item. */
+	public boolean first() {
+		return get(MDB_FIRST);
+	}
+
+	/** Moves to the last item. */
+	public boolean last() {
+		return get(MDB_LAST);
+	}
+
+	/** Moves to the next item. */
+	public boolean next() {
+		return get(MDB_NEXT);
+	}
+
+	/** Moves to the previous item. */
+	public boolean prev() {
+		return get(MDB_PREV);
+	}
+
+	/** Moves to the item with the specified key. */
+	public boolean get(ByteBuffer key) {
+		this.key.mv_data(key);
+		return get(MDB_SET_KEY);
+	}
+
+	/** Moves to the first item with a key greater than or equal to the specified key. */
+	public boolean seek(ByteBuffer key) {
+		this.key.mv_data(key);
+		return get(MDB_SET_RANGE);
+	}
+
+	/** Returns a view of the key of the current item. */
+	public ByteBuffer key() {
+		return key.mv_data();
+	}
+
+	/** Returns a view of the value of the current item. */
+	public ByteBuffer value() {
+		return data.mv_data();
+	}
+
+	/** Returns the {@code MDB_val} of the key of the current item. It is overwritten when the cursor moves. */
+	public MDBVal keyVal() {
+		return key;
+	}
+
+	/** Returns the {@code MDB_val} of the value of the current item. It is overwritten when the cursor moves. */
+	public MDBVal valueVal() {
+		return data;
+	}
+
+	/**
+	 * Stores a key/value pair and moves the cursor to it.
+	 *
+	 * @param flags the {@link LMDB#mdb_cursor_put cursor_put} flags
+	 *
+	 * @return false if the key already exists and {@link LMDB#MDB_NOOVERWRITE} or {@link LMDB#MDB_NODUPDATA} was specified
+	 */
+	public boolean put(ByteBuffer key, ByteBuffer value, int flags) {
+		int rc = mdb_cursor_put(handle(), this.key.mv_data(key), data.mv_data(value), flags);
+		if ( rc == MDB_KEYEXIST )
+			return false;
+
+		check(rc);
+		return true;
+	}
+
+	/**
+	 * Reserves space for the value of the specified key, using {@link LMDB#MDB_RESERVE}, and moves the cursor to it. The value must be written to the returned
+	 * buffer before the transaction ends.
+	 *
+	 * @return a view of the reserved space in the memory map, or null if the key already exists and {@link LMDB#MDB_NOOVERWRITE} was specified
+	 */
+	public ByteBuffer reserve(ByteBuffer key, int size, int flags) {
+		int rc = mdb_cursor_put(handle(), this.key.mv_data(key), data.mv_size(size), flags | MDB_RESERVE);
+		if ( rc == MDB_KEYEXIST )
+			return null;
+
+		check(rc);
+		return data.mv_data();
+	}
+
+	/** Deletes the current item. */
+	public void delete() {
+		check(mdb_cursor_del(handle(), 0));
+	}
+
+	/**
+	 * Returns a spliterator over the items of the database, in key order.
+	 *
+	 * <p>The spliterator moves this cursor and passes it to the action for each item. The cursor must not be retained, its key and value are only valid until
+	 * the next item is visited.</p>
+	 *
+	 * @param from the key to start from, inclusive, or null to start from the first item
+	 */
+	public Spliterator<LMDBCursor> spliterator(ByteBuffer from) {
+		return new CursorSpliterator(this, from);
+	}
+
+	/**
+	 * Returns a sequential stream over the items of the database, in key order. See {@link #spliterator} for restrictions.
+	 *
+	 * @param from the key to start from, inclusive, or null to start from the first item
+	 */
+	public Stream<LMDBCursor> stream(ByteBuffer from) {
+		return StreamSupport.stream(spliterator(from), false);
+	}
+
+	/** Closes the cursor, if not already closed. */
+	@Override
+	public void close() {
+		if ( handle == NULL )
+			return;
+
+		mdb_cursor_close(handle);
+		handle = NULL;
+
+		txn.remove(this);
+		vals.free();
+	}
+
+	private static final class CursorSpliterator implements Spliterator<LMDBCursor> {
+
+		private final LMDBCursor cursor;
+
+		private ByteBuffer from;
+		private boolean    started;
+
+		CursorSpliterator(LMDBCursor cursor, ByteBuffer from) {
+			this.cursor = cursor;
+			this.from = from;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super LMDBCursor> action) {
+			Objects.requireNonNull(action);
+
+			boolean found;
+			if ( started )
+				found = cursor.next();
+			else {
+				started = true;
+				found = from == null ? cursor.first() : cursor.seek(from);
+				from = null;
+			}
+
+			if ( found )
+				action.accept(cursor);
+			return found;
+		}
+
+		@Override
+		public Spliterator<LMDBCursor> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | NONNULL;
+		}
+
+	}
+
+}
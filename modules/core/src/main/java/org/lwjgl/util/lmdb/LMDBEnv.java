@@ -0,0 +1,197 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.util.lmdb;
+
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+
+import java.util.*;
+
+import static org.lwjgl.system.MemoryStack.*;
+import static org.lwjgl.util.lmdb.LMDB.*;
+import static org.lwjgl.util.lmdb.LMDBException.*;
+
+/**
+ * A high-level wrapper of an LMDB environment.
+ *
+ * <p>This API is designed for low overhead on hot paths:</p>
+ *
+ * <ul>
+ * <li>Transactions are pooled per thread. Each thread reuses a single read-only transaction, which is reset with {@link LMDB#mdb_txn_reset txn_reset}
+ * when closed and renewed with {@link LMDB#mdb_txn_renew txn_renew} when reused, and a single {@link LMDBTxn} instance for write transactions.</li>
+ * <li>Each transaction owns the {@link MDBVal} structs it passes to LMDB, no structs are allocated per operation.</li>
+ * <li>Data is returned as {@link java.nio.ByteBuffer} views of the memory map, without copying. Values can be written with {@link LMDB#MDB_RESERVE}, by
+ * encoding directly to the database page.</li>
+ * <li>Cursors can stream range scans, see {@link LMDBCursor#stream}.</li>
+ * </ul>
+ *
+ * <p>Unless the environment is opened with {@link LMDB#MDB_NOTLS}, a thread can have a single active transaction at a time.</p>
+ *
+ * <p>The transactions of a thread are kept until the environment is closed, {@link #releaseThread} is called by that thread, or the thread terminates.
+ * The transactions of terminated threads are freed the next time a thread begins its first transaction.</p>
+ */
+public final class LMDBEnv implements AutoCloseable {
+
+	private final long env;
+
+	/** All transaction instances, so that they can be freed when the environment is closed. */
+	private final List<LMDBTxn> txns = new ArrayList<>();
+
+	private final ThreadLocal<LMDBTxn> readers = ThreadLocal.withInitial(() -> register(true));
+	private final ThreadLocal<LMDBTxn> writers = ThreadLocal.withInitial(() -> register(false));
+
+	private volatile boolean closed;
+
+	/**
+	 * Creates and opens an LMDB environment.
+	 *
+	 * @param path       the directory in which the database files reside. The directory must already exist.
+	 * @param flags      the {@link LMDB#mdb_env_open env_open} flags
+	 * @param mapSize    the size of the memory map, or 0 for the LMDB default
+	 * @param maxReaders the maximum number of threads/reader slots, or 0 for the LMDB default
+	 * @param maxDBs     the maximum number of named databases, or 0 if only the unnamed database is used
+	 */
+	public LMDBEnv(String path, int flags, long mapSize, int maxReaders, int maxDBs) {
+		try ( MemoryStack stack = stackPush() ) {
+			PointerBuffer pp = stack.mallocPointer(1);
+			check(mdb_env_create(pp));
+			env = pp.get(0);
+		}
+
+		try {
+			if ( mapSize != 0L )
+				check(mdb_env_set_mapsize(env, mapSize));
+			if ( maxReaders != 0 )
+				check(mdb_env_set_maxreaders(env, maxReaders));
+			if ( maxDBs != 0 )
+				check(mdb_env_set_maxdbs(env, maxDBs));
+
+			check(mdb_env_open(env, path, flags, 0664));
+		} catch (RuntimeException e) {
+			mdb_env_close(env);
+			throw e;
+		}
+	}
+
+	/** Returns the {@code MDB_env} handle. */
+	public long address() {
+		return env;
+	}
+
+	private LMDBTxn register(boolean readOnly) {
+		LMDBTxn txn = new LMDBTxn(env, readOnly, Thread.currentThread());
+		synchronized ( txns ) {
+			if ( closed ) {
+				txn.free();
+				throw new IllegalStateException("The environment has been closed.");
+			}
+
+			// Reap the transactions of terminated threads. Also releases the reader slot of a reset read-only transaction.
+			for ( Iterator<LMDBTxn> it = txns.iterator(); it.hasNext(); ) {
+				LMDBTxn t = it.next();
+				if ( !t.owner.isAlive() ) {
+					t.free();
+					it.remove();
+				}
+			}
+
+			txns.add(txn);
+		}
+		return txn;
+	}
+
+	private void checkOpen() {
+		if ( closed )
+			throw new IllegalStateException("The environment has been closed.");
+	}
+
+	/**
+	 * Opens a database in a new write transaction.
+	 *
+	 * @param name  the database name, or null for the unnamed database
+	 * @param flags the {@link LMDB#mdb_dbi_open dbi_open} flags
+	 *
+	 * @return the database handle
+	 */
+	public int openDatabase(String name, int flags) {
+		try ( LMDBTxn txn = write() ) {
+			int dbi = txn.openDatabase(name, flags);
+			txn.commit();
+			return dbi;
+		}
+	}
+
+	/**
+	 * Begins a read-only transaction, reusing the transaction handle of the current thread.
+	 *
+	 * <p>The transaction must be closed by the thread that began it. Closing it resets the handle and keeps it for the next {@code read()} call.</p>
+	 */
+	public LMDBTxn read() {
+		checkOpen();
+		LMDBTxn txn = readers.get();
+		txn.begin();
+		return txn;
+	}
+
+	/**
+	 * Begins a write transaction. Blocks while another write transaction is active.
+	 *
+	 * <p>The transaction is aborted when closed, unless {@link LMDBTxn#commit} has been called.</p>
+	 */
+	public LMDBTxn write() {
+		checkOpen();
+		LMDBTxn txn = writers.get();
+		txn.begin();
+		return txn;
+	}
+
+	/**
+	 * Frees the transactions of the current thread. Any active transaction of the current thread is aborted.
+	 *
+	 * <p>This method should be called by threads that no longer use the environment, but keep running. Subsequent {@link #read} and {@link #write} calls
+	 * begin new transactions.</p>
+	 */
+	public void releaseThread() {
+		Thread thread = Thread.currentThread();
+		synchronized ( txns ) {
+			for ( Iterator<LMDBTxn> it = txns.iterator(); it.hasNext(); ) {
+				LMDBTxn t = it.next();
+				if ( t.owner == thread ) {
+					t.free();
+					it.remove();
+				}
+			}
+		}
+
+		readers.remove();
+		writers.remove();
+	}
+
+	/**
+	 * Frees the pooled transactions and closes the environment.
+	 *
+	 * <p>All transactions must have been closed before calling this method. Subsequent {@link #read} and {@link #write} calls throw
+	 * {@link IllegalStateException}.</p>
+	 */
+	@Override
+	public void close() {
+		synchronized ( txns ) {
+			if ( closed )
+				return;
+			closed = true;
+
+			// Invalidates the instances cached by other threads
+			for ( LMDBTxn txn : txns )
+				txn.free();
+			txns.clear();
+		}
+
+		readers.remove();
+		writers.remove();
+
+		mdb_env_close(env);
+	}
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.util.lmdb;
+
+import static org.lwjgl.util.lmdb.LMDB.*;
+
+/** Thrown by the {@link LMDBEnv} API when an LMDB function returns an error code. */
+public class LMDBException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int errorCode;
+
+	public LMDBException(int errorCode) {
+		super(mdb_strerror(errorCode));
+		this.errorCode = errorCode;
+	}
+
+	/** Returns the LMDB error code, e.g. {@link LMDB#MDB_MAP_FULL}. */
+	public int getErrorCode() {
+		return errorCode;
+	}
+
+	/** Throws an {@code LMDBException} if {@code rc} is not {@link LMDB#MDB_SUCCESS}. */
+	static void check(int rc) {
+		if ( rc != MDB_SUCCESS )
+			throw new LMDBException(rc);
+	}
+
+}
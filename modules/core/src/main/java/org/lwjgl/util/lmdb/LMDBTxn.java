@@ -0,0 +1,240 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.util.lmdb;
+
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.*;
+import java.util.*;
+
+import static org.lwjgl.system.MemoryStack.*;
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.util.lmdb.LMDB.*;
+import static org.lwjgl.util.lmdb.LMDBException.*;
+
+/**
+ * An LMDB transaction, obtained from {@link LMDBEnv#read} or {@link LMDBEnv#write}.
+ *
+ * <p>Instances are pooled per thread and reused by subsequent transactions of the same thread. A closed instance must not be used. The {@code ByteBuffer}
+ * views returned by this class point to the memory map and are only valid until the next update operation or the end of the transaction.</p>
+ */
+public final class LMDBTxn implements AutoCloseable {
+
+	private final long    env;
+	private final boolean readOnly;
+
+	/** The thread that uses this instance. */
+	final Thread owner;
+
+	private final MDBVal key;
+	private final MDBVal data;
+
+	/** The cursors opened in this transaction, which are closed when it ends. */
+	private final List<LMDBCursor> cursors = new ArrayList<>();
+
+	/** The {@code MDB_txn} handle. Kept after a read-only transaction ends, to be renewed. */
+	private long handle;
+
+	private boolean active;
+
+	/** Set when the instance is freed. Written by the freeing thread, read by the owner thread. */
+	private volatile boolean freed;
+
+	LMDBTxn(long env, boolean readOnly, Thread owner) {
+		this.env = env;
+		this.readOnly = readOnly;
+		this.owner = owner;
+
+		this.key = MDBVal.calloc();
+		this.data = MDBVal.calloc();
+	}
+
+	void begin() {
+		if ( freed )
+			throw new IllegalStateException("The transaction has been freed.");
+		if ( active )
+			throw new IllegalStateException("A transaction is already active in the current thread.");
+
+		if ( handle == NULL ) {
+			try ( MemoryStack stack = stackPush() ) {
+				PointerBuffer pp = stack.mallocPointer(1);
+				check(mdb_txn_begin(env, NULL, readOnly ? MDB_RDONLY : 0, pp));
+				handle = pp.get(0);
+			}
+		} else
+			check(mdb_txn_renew(handle));
+
+		active = true;
+	}
+
+	private long handle() {
+		if ( !active )
+			throw new IllegalStateException("The transaction has ended.");
+		return handle;
+	}
+
+	/** Returns the {@code MDB_txn} handle. */
+	public long address() {
+		return handle();
+	}
+
+	/** Returns true if this is a read-only transaction. */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	int openDatabase(String name, int flags) {
+		try ( MemoryStack stack = stackPush() ) {
+			IntBuffer ip = stack.mallocInt(1);
+			check(mdb_dbi_open(handle(), name, flags, ip));
+			return ip.get(0);
+		}
+	}
+
+	/**
+	 * Retrieves the value of the specified key.
+	 *
+	 * @return a view of the value in the memory map, or null if the key does not exist
+	 */
+	public ByteBuffer get(int dbi, ByteBuffer key) {
+		return get(dbi, key, data) ? data.mv_data() : null;
+	}
+
+	/**
+	 * Retrieves the value of the specified key into {@code data}, without allocating.
+	 *
+	 * @return false if the key does not exist
+	 */
+	public boolean get(int dbi, ByteBuffer key, MDBVal data) {
+		int rc = mdb_get(handle(), dbi, this.key.mv_data(key), data);
+		if ( rc == MDB_NOTFOUND )
+			return false;
+
+		check(rc);
+		return true;
+	}
+
+	/**
+	 * Stores a key/value pair.
+	 *
+	 * @param flags the {@link LMDB#mdb_put put} flags
+	 *
+	 * @return false if the key already exists and {@link LMDB#MDB_NOOVERWRITE} or {@link LMDB#MDB_NODUPDATA} was specified
+	 */
+	public boolean put(int dbi, ByteBuffer key, ByteBuffer value, int flags) {
+		int rc = mdb_put(handle(), dbi, this.key.mv_data(key), data.mv_data(value), flags);
+		if ( rc == MDB_KEYEXIST )
+			return false;
+
+		check(rc);
+		return true;
+	}
+
+	/**
+	 * Reserves space for the value of the specified key, using {@link LMDB#MDB_RESERVE}. The value must be written to the returned buffer before the
+	 * transaction ends.
+	 *
+	 * @param size  the value size, in bytes
+	 * @param flags the {@link LMDB#mdb_put put} flags, {@code MDB_RESERVE} is added implicitly
+	 *
+	 * @return a view of the reserved space in the memory map, or null if the key already exists and {@link LMDB#MDB_NOOVERWRITE} was specified
+	 */
+	public ByteBuffer reserve(int dbi, ByteBuffer key, int size, int flags) {
+		int rc = mdb_put(handle(), dbi, this.key.mv_data(key), data.mv_size(size), flags | MDB_RESERVE);
+		if ( rc == MDB_KEYEXIST )
+			return null;
+
+		check(rc);
+		return data.mv_data();
+	}
+
+	/**
+	 * Deletes the specified key and all its values.
+	 *
+	 * @return false if the key does not exist
+	 */
+	public boolean delete(int dbi, ByteBuffer key) {
+		int rc = mdb_del(handle(), dbi, this.key.mv_data(key), null);
+		if ( rc == MDB_NOTFOUND )
+			return false;
+
+		check(rc);
+		return true;
+	}
+
+	/** Opens a cursor on the specified database. The cursor is closed automatically when the transaction ends. */
+	public LMDBCursor cursor(int dbi) {
+		long cursor;
+		try ( MemoryStack stack = stackPush() ) {
+			PointerBuffer pp = stack.mallocPointer(1);
+			check(mdb_cursor_open(handle(), dbi, pp));
+			cursor = pp.get(0);
+		}
+
+		LMDBCursor c = new LMDBCursor(this, cursor);
+		cursors.add(c);
+		return c;
+	}
+
+	void remove(LMDBCursor cursor) {
+		cursors.remove(cursor);
+	}
+
+	private void closeCursors() {
+		for ( int i = cursors.size() - 1; 0 <= i; i-- )
+			cursors.get(i).close();
+	}
+
+	/** Commits the transaction. A read-only transaction is reset, as if closed. */
+	public void commit() {
+		long handle = handle();
+		closeCursors();
+
+		if ( readOnly ) {
+			mdb_txn_reset(handle);
+			active = false;
+			return;
+		}
+
+		// The handle is freed even if the commit fails
+		this.handle = NULL;
+		active = false;
+		check(mdb_txn_commit(handle));
+	}
+
+	/** Ends the transaction, if still active. A write transaction is aborted, a read-only transaction is reset and kept for reuse. */
+	@Override
+	public void close() {
+		if ( !active )
+			return;
+
+		closeCursors();
+		if ( readOnly )
+			mdb_txn_reset(handle);
+		else {
+			mdb_txn_abort(handle);
+			handle = NULL;
+		}
+		active = false;
+	}
+
+	void free() {
+		if ( freed )
+			return;
+		freed = true;
+
+		if ( handle != NULL ) {
+			closeCursors();
+			mdb_txn_abort(handle);
+			handle = NULL;
+		}
+		active = false;
+
+		data.free();
+		key.free();
+	}
+
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.util.lmdb;
+
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+import static org.lwjgl.util.lmdb.LMDB.*;
+
+/**
+ * Combines writes from many threads into group-committed LMDB write transactions.
+ *
+ * <p>LMDB allows a single write transaction at a time, and each commit syncs the data to disk. Instead of paying for one transaction per write, producer
+ * threads enqueue puts and deletes to a lock-free queue and a single writer thread applies them in batches. A batch is committed when it reaches the
+ * maximum size, when the maximum delay since its first operation has elapsed, or when {@link #flush} is called.</p>
+ *
+ * <p>Each operation returns a future that completes after the batch containing it has been committed, with {@code false} if the operation had no effect
+ * (e.g. the key already existed with {@link LMDB#MDB_NOOVERWRITE}, or the deleted key did not exist). If the operation or the commit fails, the future
+ * completes exceptionally with an {@link LMDBException}. Futures are completed on the writer thread, dependent actions should be asynchronous or
+ * short.</p>
+ *
+ * <p>Puts with keys that are greater than the last key of the database are written through a cursor with {@link LMDB#MDB_APPEND}, which skips the B-tree
+ * search. Producers that write sorted keys (e.g. sequential ids) benefit from this automatically.</p>
+ *
+ * <p>The key and value buffers are not copied. Their contents must not be modified until the operation's future has completed.</p>
+ */
+public final class LMDBWriter implements AutoCloseable {
+
+	private static final int
+		PUT    = 0,
+		DELETE = 1,
+		FLUSH  = 2;
+
+	private final LMDBEnv env;
+
+	private final int  maxBatchSize;
+	private final long maxDelay;
+
+	private final Queue<Op>     queue   = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pending = new AtomicInteger();
+
+	private final Thread writer;
+
+	private volatile boolean closed;
+
+	/** The tails of the databases written in the current batch. Accessed by the writer thread only. */
+	private final Map<Integer, Tail> tails = new HashMap<>();
+
+	/** The key of the current operation, for comparisons. */
+	private final MDBVal cmp = MDBVal.calloc();
+
+	private final long startTime = System.nanoTime();
+
+	// Guarded by this
+	private long operations;
+	private long failures;
+	private long batches;
+	private long commitTime;
+	private long latencyTotal;
+	private long latencyMax;
+
+	/**
+	 * Creates an {@code LMDBWriter} and starts its writer thread.
+	 *
+	 * @param env          the environment to write to
+	 * @param maxBatchSize the maximum number of operations per transaction
+	 * @param maxDelay     the maximum time an operation may wait for its batch to be committed, in nanoseconds
+	 */
+	public LMDBWriter(LMDBEnv env, int maxBatchSize, long maxDelay) {
+		if ( maxBatchSize < 1 )
+			throw new IllegalArgumentException("Invalid maximum batch size: " + maxBatchSize);
+
+		this.env = env;
+		this.maxBatchSize = maxBatchSize;
+		this.maxDelay = maxDelay;
+
+		this.writer = new Thread(this::run, "LWJGL LMDB writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Enqueues a put operation.
+	 *
+	 * @param flags the {@link LMDB#mdb_put put} flags. {@link LMDB#MDB_RESERVE} is not supported.
+	 *
+	 * @return a future that completes with true if the key/value pair was stored
+	 */
+	public CompletableFuture<Boolean> put(int dbi, ByteBuffer key, ByteBuffer value, int flags) {
+		if ( (flags & MDB_RESERVE) != 0 )
+			throw new IllegalArgumentException("MDB_RESERVE is not supported.");
+
+		return submit(new Op(PUT, dbi, key, value, flags));
+	}
+
+	/**
+	 * Enqueues a delete operation.
+	 *
+	 * @return a future that completes with true if the key was deleted
+	 */
+	public CompletableFuture<Boolean> delete(int dbi, ByteBuffer key) {
+		return submit(new Op(DELETE, dbi, key, null, 0));
+	}
+
+	/** Commits the pending operations without waiting for the batch to fill up. The returned future completes after the commit. */
+	public CompletableFuture<Boolean> flush() {
+		return submit(new Op(FLUSH, 0, null, null, 0));
+	}
+
+	private CompletableFuture<Boolean> submit(Op op) {
+		if ( closed )
+			throw new IllegalStateException("The writer has been closed.");
+
+		queue.offer(op);
+		if ( closed && queue.remove(op) ) {
+			// Raced with close(), the writer thread may have exited
+			op.future.completeExceptionally(new IllegalStateException("The writer has been closed."));
+			return op.future;
+		}
+
+		if ( pending.incrementAndGet() == 1 || op.kind == FLUSH )
+			LockSupport.unpark(writer);
+
+		return op.future;
+	}
+
+	/**
+	 * Commits the pending operations and stops the writer thread.
+	 *
+	 * <p>The environment is not closed.</p>
+	 */
+	@Override
+	public void close() {
+		if ( closed )
+			return;
+
+		closed = true;
+		LockSupport.unpark(writer);
+
+		boolean interrupted = false;
+		while ( writer.isAlive() ) {
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if ( interrupted )
+			Thread.currentThread().interrupt();
+	}
+
+	private void run() {
+		List<Op> batch = new ArrayList<>(Math.min(maxBatchSize, 1024));
+		try {
+			Op op;
+			while ( (op = next()) != null ) {
+				long deadline = System.nanoTime() + maxDelay;
+				do {
+					pending.decrementAndGet();
+					batch.add(op);
+					if ( op.kind == FLUSH || batch.size() == maxBatchSize )
+						break;
+				} while ( (op = next(deadline)) != null );
+
+				commit(batch);
+				batch.clear();
+			}
+		} finally {
+			cmp.free();
+		}
+	}
+
+	/** Returns the next operation, waiting until one is enqueued. Returns null when the writer has been closed and the queue is empty. */
+	private Op next() {
+		while ( true ) {
+			Op op = queue.poll();
+			if ( op != null || closed )
+				return op;
+
+			LockSupport.park(this);
+		}
+	}
+
+	/** Returns the next operation, waiting until one is enqueued or the deadline expires. */
+	private Op next(long deadline) {
+		while ( true ) {
+			Op op = queue.poll();
+			if ( op != null || closed )
+				return op;
+
+			long remaining = deadline - System.nanoTime();
+			if ( remaining <= 0L )
+				return null;
+
+			LockSupport.parkNanos(this, remaining);
+		}
+	}
+
+	private void commit(List<Op> batch) {
+		long start = System.nanoTime();
+
+		RuntimeException error = null;
+		try ( LMDBTxn txn = env.write() ) {
+			for ( Op op : batch ) {
+				try {
+					apply(txn, op);
+				} catch (LMDBException e) {
+					op.error = e;
+				}
+			}
+
+			txn.commit();
+		} catch (RuntimeException e) {
+			error = e;
+		} finally {
+			tails.clear();
+		}
+
+		long end = System.nanoTime();
+
+		long failures     = 0L;
+		long latencyTotal = 0L;
+		long latencyMax   = 0L;
+		for ( Op op : batch ) {
+			long latency = end - op.time;
+			latencyTotal += latency;
+			latencyMax = Math.max(latencyMax, latency);
+
+			if ( op.error == null )
+				op.error = error;
+
+			if ( op.error == null )
+				op.future.complete(op.result);
+			else {
+				failures++;
+				op.future.completeExceptionally(op.error);
+			}
+		}
+
+		synchronized ( this ) {
+			this.operations += batch.size();
+			this.failures += failures;
+			this.batches++;
+			this.commitTime += end - start;
+			this.latencyTotal += latencyTotal;
+			this.latencyMax = Math.max(this.latencyMax, latencyMax);
+		}
+	}
+
+	private void apply(LMDBTxn txn, Op op) {
+		switch ( op.kind ) {
+			case PUT:
+				Tail tail = tails.get(op.dbi);
+				if ( tail == null )
+					tails.put(op.dbi, tail = new Tail(txn.cursor(op.dbi)));
+
+				if ( tail.append && (tail.empty || mdb_cmp(txn.address(), op.dbi, cmp.mv_data(op.key), tail.cursor.keyVal()) > 0) ) {
+					// The cursor's key is now the appended key
+					op.result = tail.cursor.put(op.key, op.value, op.flags | MDB_APPEND);
+					tail.empty = false;
+				} else {
+					tail.append = false;
+					op.result = txn.put(op.dbi, op.key, op.value, op.flags);
+				}
+				break;
+			case DELETE:
+				tail = tails.get(op.dbi);
+				if ( tail == null )
+					tails.put(op.dbi, tail = new Tail(null));
+				tail.append = false;
+
+				op.result = txn.delete(op.dbi, op.key);
+				break;
+			case FLUSH:
+				op.result = true;
+				break;
+		}
+	}
+
+	/** Returns a snapshot of the writer statistics. */
+	public synchronized Statistics getStatistics() {
+		return new Statistics(System.nanoTime() - startTime, operations, failures, batches, commitTime, latencyTotal, latencyMax);
+	}
+
+	/** A queued operation. */
+	private static final class Op {
+
+		final int        kind;
+		final int        dbi;
+		final ByteBuffer key;
+		final ByteBuffer value;
+		final int        flags;
+
+		final long time = System.nanoTime();
+
+		final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+		boolean          result;
+		RuntimeException error;
+
+		Op(int kind, int dbi, ByteBuffer key, ByteBuffer value, int flags) {
+			this.kind = kind;
+			this.dbi = dbi;
+			this.key = key;
+			this.value = value;
+			this.flags = flags;
+		}
+
+	}
+
+	/** The last key of a database, as known by the current batch. */
+	private static final class Tail {
+
+		final LMDBCursor cursor;
+
+		/** True while only appends have been applied to the database in the current batch. */
+		boolean append;
+		/** True if the database is empty. */
+		boolean empty;
+
+		Tail(LMDBCursor cursor) {
+			this.cursor = cursor;
+			if ( cursor != null ) {
+				this.empty = !cursor.last();
+				this.append = true;
+			}
+		}
+
+	}
+
+	/** Writer statistics. Times are in nanoseconds. */
+	public static final class Statistics {
+
+		private final long elapsed;
+		private final long operations;
+		private final long failures;
+		private final long batches;
+		private final long commitTime;
+		private final long latencyTotal;
+		private final long latencyMax;
+
+		Statistics(long elapsed, long operations, long failures, long batches, long commitTime, long latencyTotal, long latencyMax) {
+			this.elapsed = elapsed;
+			this.operations = operations;
+			this.failures = failures;
+			this.batches = batches;
+			this.commitTime = commitTime;
+			this.latencyTotal = latencyTotal;
+			this.latencyMax = latencyMax;
+		}
+
+		/** Returns the number of completed operations, including failures and flushes. */
+		public long getOperations() { return operations; }
+
+		/** Returns the number of failed operations. */
+		public long getFailures() { return failures; }
+
+		/** Returns the number of committed transactions. */
+		public long getBatches() { return batches; }
+
+		/** Returns the average number of operations per transaction. */
+		public double getAverageBatchSize() { return batches == 0L ? 0.0 : (double)operations / batches; }
+
+		/** Returns the number of completed operations per second, since the writer was created. */
+		public double getThroughput() { return elapsed == 0L ? 0.0 : operations * 1e9 / elapsed; }
+
+		/** Returns the average time spent applying and committing a transaction. */
+		public double getAverageCommitTime() { return batches == 0L ? 0.0 : (double)commitTime / batches; }
+
+		/** Returns the average time between enqueuing an operation and completing its future. */
+		public double getAverageLatency() { return operations == 0L ? 0.0 : (double)latencyTotal / operations; }
+
+		/** Returns the maximum time between enqueuing an operation and completing its future. */
+		public long getMaxLatency() { return latencyMax; }
+
+	}
+
+}
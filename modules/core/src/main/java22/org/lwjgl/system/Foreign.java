@@ -0,0 +1,310 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import java.lang.foreign.*;
+import java.lang.invoke.*;
+import java.util.*;
+
+import static java.lang.invoke.MethodHandles.*;
+import static java.lang.invoke.MethodType.*;
+import static org.lwjgl.system.APIUtil.*;
+
+// Multi-release version: Java 22
+
+/**
+ * Downcall method handles for the {@link JNI} methods, used when {@link Configuration#NATIVE_BACKEND} is set to <em>FFM</em>.
+ *
+ * <p>Creating a downcall method handle is expensive, so the handles returned by {@link #downcall} are linked lazily, on first invocation. Each handle is the
+ * dynamic invoker of a {@link MutableCallSite}; after linking, the JIT compiler inlines the downcall into the {@link JNI} method.</p>
+ *
+ * <p>Independently of the backend, the {@code JavaCritical_} entry points of statically linked bindings are called with critical downcall method handles,
+ * if native access is enabled. Java arrays are passed as heap segments, without copying or pinning.</p>
+ */
+final class Foreign {
+
+	/** True if the {@link JNI} methods call native functions with downcall method handles. */
+	static final boolean ENABLED;
+
+	/** True if the {@code JavaCritical_} entry points are called with downcall method handles. */
+	private static final boolean CRITICAL;
+
+	private static final Linker LINKER;
+
+	private static final MethodHandle TO_SEGMENT;
+	private static final MethodHandle TO_ADDRESS;
+	private static final MethodHandle IS_NULL;
+	private static final MethodHandle LINK;
+
+	static {
+		Linker linker;
+		try {
+			linker = Linker.nativeLinker();
+		} catch (Throwable t) {
+			// Unsupported platform
+			linker = null;
+		}
+
+		boolean enabled = false;
+		if ( "FFM".equalsIgnoreCase(Configuration.NATIVE_BACKEND.get("JNI")) ) {
+			try {
+				if ( linker == null )
+					throw new UnsupportedOperationException("Linker.nativeLinker()");
+				// Restricted methods only print a warning when native access is not enabled, require it explicitly
+				if ( !Foreign.class.getModule().isNativeAccessEnabled() )
+					throw new IllegalStateException("Native access is not enabled, use --enable-native-access");
+				// Fails early if downcalls cannot be linked on this platform
+				linker.downcallHandle(FunctionDescriptor.ofVoid());
+				enabled = true;
+				apiLog("Using the FFM backend.");
+			} catch (Throwable t) {
+				apiLog("The FFM backend is not available, falling back to JNI: " + t);
+			}
+		}
+
+		try {
+			Lookup lookup = lookup();
+
+			TO_SEGMENT = lookup.findStatic(MemorySegment.class, "ofAddress", methodType(MemorySegment.class, long.class));
+			TO_ADDRESS = lookup.findVirtual(MemorySegment.class, "address", methodType(long.class));
+			IS_NULL = lookup.findStatic(Objects.class, "isNull", methodType(boolean.class, Object.class));
+			LINK = lookup.findVirtual(Linkage.class, "link", methodType(Object.class, Object[].class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+
+		LINKER = linker;
+		ENABLED = enabled;
+		// Restricted methods are only used automatically if the user has opted-in
+		CRITICAL = linker != null && Foreign.class.getModule().isNativeAccessEnabled();
+	}
+
+	private Foreign() {
+	}
+
+	/**
+	 * Returns a method handle that calls a native function with the specified signature.
+	 *
+	 * <p>The method handle takes the function address as a {@code long}, followed by the function arguments. The signature is a string with one character
+	 * per argument and one for the return type, separated by {@code ')'}. The characters are the JNI type signatures of the Java types, except that pointer
+	 * values are encoded as {@code 'P'}.</p>
+	 *
+	 * @param signature the function signature, e.g. {@code "PI)V"}
+	 * @param critical  if true, the function is short-running, does not call back into Java and does not block. Such functions may be called without a
+	 *                  thread state transition.
+	 */
+	static MethodHandle downcall(String signature, boolean critical) {
+		int split = signature.indexOf(')');
+
+		Class<?>[] params = new Class<?>[1 + split];
+		params[0] = long.class;
+		for ( int i = 0; i < split; i++ )
+			params[1 + i] = getJavaType(signature.charAt(i));
+
+		MethodType type = methodType(getJavaType(signature.charAt(split + 1)), params);
+
+		MutableCallSite site = new MutableCallSite(type);
+		site.setTarget(LINK
+			.bindTo(new Linkage(site, signature, critical))
+			.asCollector(Object[].class, params.length)
+			.asType(type)
+		);
+		return site.dynamicInvoker();
+	}
+
+	/**
+	 * Returns a method handle that calls the {@code JavaCritical_} entry point of a native method, or {@code null} if critical natives are not available.
+	 *
+	 * <p>The method handle has the parameter and return types of the native method. Each Java array is passed to the entry point as its length and a pointer
+	 * to the array elements.</p>
+	 *
+	 * @param name      the entry point name
+	 * @param signature the method signature, e.g. {@code "JF[F)V"}
+	 */
+	static MethodHandle criticalNative(String name, String signature) {
+		if ( !CRITICAL )
+			return null;
+
+		// The entry point is missing if the binding has not been compiled with it
+		MemorySegment symbol = SymbolLookup.loaderLookup().find(name).orElse(null);
+		if ( symbol == null )
+			return null;
+
+		int  split      = signature.indexOf(')');
+		char returnType = signature.charAt(split + 1);
+
+		List<MemoryLayout> args   = new ArrayList<>(split);
+		List<Class<?>>     arrays = new ArrayList<>(split);
+		for ( int i = 0; i < split; i++ ) {
+			char c = signature.charAt(i);
+			if ( c == '[' ) {
+				c = signature.charAt(++i);
+
+				args.add(ValueLayout.JAVA_INT);
+				args.add(ValueLayout.ADDRESS);
+				arrays.add(getJavaType(c).arrayType());
+			} else {
+				args.add(getLayout(c));
+				arrays.add(null);
+			}
+		}
+
+		MemoryLayout[] layouts = args.toArray(new MemoryLayout[0]);
+		FunctionDescriptor descriptor = returnType == 'V'
+			? FunctionDescriptor.ofVoid(layouts)
+			: FunctionDescriptor.of(getLayout(returnType), layouts);
+
+		MethodHandle handle = LINKER.downcallHandle(symbol, descriptor, Linker.Option.critical(true));
+
+		// Replace each (length, pointer) pair with the Java array
+		for ( int i = 0; i < arrays.size(); i++ ) {
+			Class<?> arrayType = arrays.get(i);
+			if ( arrayType == null )
+				continue;
+
+			handle = filterArguments(handle, i, getArrayLength(arrayType), getArraySegment(arrayType));
+
+			MethodType type    = handle.type().dropParameterTypes(i + 1, i + 2);
+			int[]      reorder = new int[type.parameterCount() + 1];
+			for ( int j = 0; j < reorder.length; j++ )
+				reorder[j] = j <= i ? j : j - 1;
+			handle = permuteArguments(handle, type, reorder);
+		}
+
+		return handle;
+	}
+
+	/** Rethrows a {@code Throwable} thrown by a downcall method handle. */
+	static RuntimeException rethrow(Throwable t) {
+		if ( t instanceof RuntimeException )
+			throw (RuntimeException)t;
+		if ( t instanceof Error )
+			throw (Error)t;
+		throw new IllegalStateException(t);
+	}
+
+	private static Class<?> getJavaType(char c) {
+		switch ( c ) {
+			case 'Z':
+				return boolean.class;
+			case 'B':
+				return byte.class;
+			case 'C':
+				return char.class;
+			case 'S':
+				return short.class;
+			case 'I':
+				return int.class;
+			case 'J':
+			case 'P':
+				return long.class;
+			case 'F':
+				return float.class;
+			case 'D':
+				return double.class;
+			case 'V':
+				return void.class;
+			default:
+				throw new IllegalArgumentException("Invalid signature type: " + c);
+		}
+	}
+
+	private static MemoryLayout getLayout(char c) {
+		switch ( c ) {
+			case 'Z':
+				return ValueLayout.JAVA_BOOLEAN;
+			case 'B':
+				return ValueLayout.JAVA_BYTE;
+			case 'C':
+				return ValueLayout.JAVA_CHAR;
+			case 'S':
+				return ValueLayout.JAVA_SHORT;
+			case 'I':
+				return ValueLayout.JAVA_INT;
+			case 'J':
+				return ValueLayout.JAVA_LONG;
+			case 'P':
+				return ValueLayout.ADDRESS;
+			case 'F':
+				return ValueLayout.JAVA_FLOAT;
+			case 'D':
+				return ValueLayout.JAVA_DOUBLE;
+			default:
+				throw new IllegalArgumentException("Invalid signature type: " + c);
+		}
+	}
+
+	private static MethodHandle getArrayLength(Class<?> arrayType) {
+		return guardWithTest(
+			IS_NULL.asType(methodType(boolean.class, arrayType)),
+			dropArguments(constant(int.class, 0), 0, arrayType),
+			arrayLength(arrayType)
+		);
+	}
+
+	private static MethodHandle getArraySegment(Class<?> arrayType) {
+		try {
+			return guardWithTest(
+				IS_NULL.asType(methodType(boolean.class, arrayType)),
+				dropArguments(constant(MemorySegment.class, MemorySegment.NULL), 0, arrayType),
+				lookup().findStatic(MemorySegment.class, "ofArray", methodType(MemorySegment.class, arrayType))
+			);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static MethodHandle link(String signature, boolean critical) {
+		int  split      = signature.indexOf(')');
+		char returnType = signature.charAt(split + 1);
+
+		MemoryLayout[] args = new MemoryLayout[split];
+		for ( int i = 0; i < split; i++ )
+			args[i] = getLayout(signature.charAt(i));
+
+		FunctionDescriptor descriptor = returnType == 'V'
+			? FunctionDescriptor.ofVoid(args)
+			: FunctionDescriptor.of(getLayout(returnType), args);
+
+		MethodHandle handle = critical
+			? LINKER.downcallHandle(descriptor, Linker.Option.critical(false))
+			: LINKER.downcallHandle(descriptor);
+
+		// Pointers are passed as long values, like in JNI
+		handle = filterArguments(handle, 0, TO_SEGMENT);
+		for ( int i = 0; i < split; i++ ) {
+			if ( signature.charAt(i) == 'P' )
+				handle = filterArguments(handle, 1 + i, TO_SEGMENT);
+		}
+		if ( returnType == 'P' )
+			handle = filterReturnValue(handle, TO_ADDRESS);
+
+		return handle;
+	}
+
+	/** Links a call site on first invocation. */
+	private static final class Linkage {
+
+		private final MutableCallSite site;
+		private final String          signature;
+		private final boolean         critical;
+
+		Linkage(MutableCallSite site, String signature, boolean critical) {
+			this.site = site;
+			this.signature = signature;
+			this.critical = critical;
+		}
+
+		@SuppressWarnings("unused")
+		Object link(Object[] args) throws Throwable {
+			// Concurrent linking is harmless, the downcall handles are equivalent
+			MethodHandle target = Foreign.link(signature, critical);
+			site.setTarget(target);
+			return target.invokeWithArguments(args);
+		}
+
+	}
+
+}
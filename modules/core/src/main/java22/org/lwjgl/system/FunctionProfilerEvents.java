@@ -0,0 +1,71 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import jdk.jfr.*;
+
+import static org.lwjgl.system.APIUtil.*;
+
+// Multi-release version: Java 22
+
+/**
+ * Records the {@link FunctionProfiler} counters as JFR events.
+ *
+ * <p>One {@code org.lwjgl.FunctionProfile} event is recorded for each profiled function, at the end of each recording chunk. The event values are totals
+ * since the start of the application (or the last {@link FunctionProfiler#reset}).</p>
+ */
+final class FunctionProfilerEvents {
+
+	private FunctionProfilerEvents() {
+	}
+
+	/** Registers the periodic JFR event. */
+	static void register() {
+		try {
+			FlightRecorder.addPeriodicEvent(FunctionProfileEvent.class, FunctionProfilerEvents::emit);
+		} catch (Throwable t) {
+			apiLog("Failed to register the function profiler JFR event: " + t);
+		}
+	}
+
+	private static void emit() {
+		FunctionProfileEvent probe = new FunctionProfileEvent();
+		if ( !probe.isEnabled() )
+			return;
+
+		for ( FunctionProfiler.Entry entry : FunctionProfiler.snapshot() ) {
+			FunctionProfileEvent event = new FunctionProfileEvent();
+			event.function = entry.getFunction();
+			event.calls = entry.getCalls();
+			event.timedCalls = entry.getTimedCalls();
+			event.time = entry.getTime();
+			event.commit();
+		}
+	}
+
+	@Name("org.lwjgl.FunctionProfile")
+	@Label("Native Function Profile")
+	@Category("LWJGL")
+	@Description("Call count and time spent in a native function called through LWJGL")
+	@Period("endChunk")
+	@StackTrace(false)
+	static final class FunctionProfileEvent extends Event {
+
+		@Label("Function")
+		String function;
+
+		@Label("Calls")
+		long calls;
+
+		@Label("Timed Calls")
+		long timedCalls;
+
+		@Label("Total Time")
+		@Timespan
+		long time;
+
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.demo.system.jemalloc;
+
+import org.lwjgl.system.Configuration;
+import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.system.MemoryUtil.MemoryAllocator;
+import org.lwjgl.system.PooledAllocator;
+import org.lwjgl.system.jemalloc.JEmallocAllocator;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Compares the stdlib, jemalloc and pooled {@link MemoryAllocator} implementations on small, short-lived allocations.
+ *
+ * <p>Usage: {@code AllocatorBenchmark [threads]}</p>
+ */
+public final class AllocatorBenchmark {
+
+	private static final int BATCH = 1024;
+
+	private static final int WARMUP     = 5;
+	private static final int ITERATIONS = 10;
+
+	private static final int OPS = 1 << 20;
+
+	private AllocatorBenchmark() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		int threads = args.length == 0 ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(args[0]);
+
+		// The system allocator, as used by MemoryUtil
+		Configuration.MEMORY_ALLOCATOR.set("system");
+		MemoryAllocator stdlib = MemoryUtil.getAllocator();
+		MemoryAllocator jemalloc = new JEmallocAllocator();
+
+		Map<String, MemoryAllocator> allocators = new LinkedHashMap<>();
+		allocators.put("stdlib", stdlib);
+		allocators.put("jemalloc", jemalloc);
+		allocators.put("pooled (stdlib)", new PooledAllocator(stdlib));
+		allocators.put("pooled (jemalloc)", new PooledAllocator(jemalloc));
+
+		int[] sizes = new int[BATCH];
+		Random rand = new Random(13);
+		for ( int i = 0; i < sizes.length; i++ )
+			sizes[i] = 1 + rand.nextInt(rand.nextInt(8) == 0 ? 2048 : 128);
+
+		System.out.format("%-20s%16s%16s%16s%16s\n", "ns/op", "malloc/free", "batch", threads + " threads", "cross-thread");
+		for ( Map.Entry<String, MemoryAllocator> entry : allocators.entrySet() ) {
+			MemoryAllocator allocator = entry.getValue();
+			System.out.format(
+				"%-20s%16.2f%16.2f%16.2f%16.2f\n",
+				entry.getKey(),
+				measure(() -> pair(allocator, sizes)),
+				measure(() -> batch(allocator, sizes)),
+				measure(() -> concurrent(allocator, sizes, threads)),
+				measure(() -> crossThread(allocator, sizes))
+			);
+		}
+	}
+
+	private interface Benchmark {
+		void run() throws Exception;
+	}
+
+	/** Returns the average time per operation, in nanoseconds. */
+	private static double measure(Benchmark benchmark) throws Exception {
+		for ( int i = 0; i < WARMUP; i++ )
+			benchmark.run();
+
+		long t = System.nanoTime();
+		for ( int i = 0; i < ITERATIONS; i++ )
+			benchmark.run();
+		return (System.nanoTime() - t) / (double)(ITERATIONS * OPS);
+	}
+
+	/** A malloc immediately followed by a free. */
+	private static void pair(MemoryAllocator allocator, int[] sizes) {
+		for ( int i = 0; i < OPS; i++ )
+			allocator.free(allocator.malloc(sizes[i & (BATCH - 1)]));
+	}
+
+	/** Many live allocations, freed in allocation order. */
+	private static void batch(MemoryAllocator allocator, int[] sizes) {
+		long[] pointers = new long[BATCH];
+		for ( int i = 0; i < OPS; i += BATCH ) {
+			for ( int j = 0; j < BATCH; j++ )
+				pointers[j] = allocator.malloc(sizes[j]);
+			for ( int j = 0; j < BATCH; j++ )
+				allocator.free(pointers[j]);
+		}
+	}
+
+	/** The batch benchmark, running concurrently on many threads. */
+	private static void concurrent(MemoryAllocator allocator, int[] sizes, int threads) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>(threads);
+			for ( int i = 0; i < threads; i++ )
+				futures.add(executor.submit(() -> batch(allocator, sizes)));
+			for ( Future<?> future : futures )
+				future.get();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/** Allocations made on one thread and freed on another. */
+	private static void crossThread(MemoryAllocator allocator, int[] sizes) throws Exception {
+		BlockingQueue<long[]> queue = new ArrayBlockingQueue<>(4);
+
+		Thread consumer = new Thread(() -> {
+			try {
+				for ( int i = 0; i < OPS; i += BATCH ) {
+					long[] pointers = queue.take();
+					for ( long pointer : pointers )
+						allocator.free(pointer);
+				}
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		consumer.start();
+
+		for ( int i = 0; i < OPS; i += BATCH ) {
+			long[] pointers = new long[BATCH];
+			for ( int j = 0; j < BATCH; j++ )
+				pointers[j] = allocator.malloc(sizes[j]);
+			queue.put(pointers);
+		}
+
+		consumer.join();
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.testng.annotations.*;
+
+import java.nio.*;
+import java.util.*;
+
+import static org.lwjgl.system.APIUtil.*;
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class APIUtilTest {
+
+	private static final String[] FUNCTIONS = { "a", "b", "missing", "c", "d" };
+
+	// a, b, missing: "V1", c: "EXT_c", d: "EXT_d"
+	private static final String[] FEATURES = {
+		"V1", ordinals(0, 1, 2),
+		"EXT_c", ordinals(3),
+		"EXT_d", ordinals(4)
+	};
+
+	private Boolean lazy;
+	private String  snapshot;
+
+	/** Returns a fake address for each function, except {@code missing}, and records the lookup order. */
+	private static final class Provider implements FunctionProvider {
+
+		final List<String> lookups = new ArrayList<>();
+
+		@Override
+		public long getFunctionAddress(ByteBuffer functionName) {
+			String name = memASCII(functionName);
+			lookups.add(name);
+			return name.equals("missing") ? NULL : 0x1000L + name.charAt(0);
+		}
+
+	}
+
+	private static String ordinals(int... ordinals) {
+		StringBuilder sb = new StringBuilder(ordinals.length);
+		for ( int ordinal : ordinals )
+			sb.append((char)(ordinal + APICAPS_ORDINAL_OFFSET));
+		return sb.toString();
+	}
+
+	@BeforeMethod
+	public void setUp() {
+		lazy = Configuration.LAZY_CAPABILITIES.get();
+		snapshot = Configuration.CAPABILITIES_SNAPSHOT_PATH.get();
+		Configuration.CAPABILITIES_SNAPSHOT_PATH.set(null);
+	}
+
+	@AfterMethod
+	public void tearDown() {
+		Configuration.LAZY_CAPABILITIES.set(lazy);
+		Configuration.CAPABILITIES_SNAPSHOT_PATH.set(snapshot);
+	}
+
+	public void testGetFunctionAddresses() {
+		Configuration.LAZY_CAPABILITIES.set(false);
+
+		Provider provider  = new Provider();
+		long[]   addresses = apiGetFunctionAddresses(provider, FUNCTIONS, FEATURES, Collections.singleton("V1"), null);
+
+		// All functions are retrieved, in ordinal order
+		assertEquals(provider.lookups, Arrays.asList(FUNCTIONS));
+		assertEquals(addresses, new long[] { 0x1000L + 'a', 0x1000L + 'b', NULL, 0x1000L + 'c', 0x1000L + 'd' });
+	}
+
+	public void testExclude() {
+		Configuration.LAZY_CAPABILITIES.set(false);
+
+		Provider provider  = new Provider();
+		long[]   addresses = apiGetFunctionAddresses(provider, FUNCTIONS, FEATURES, Collections.singleton("V1"), ordinals(1, 3));
+
+		assertEquals(provider.lookups, Arrays.asList("a", "missing", "d"));
+		assertEquals(addresses, new long[] { 0x1000L + 'a', NULL, NULL, NULL, 0x1000L + 'd' });
+	}
+
+	public void testLazy() {
+		Configuration.LAZY_CAPABILITIES.set(true);
+
+		Provider provider  = new Provider();
+		long[]   addresses = apiGetFunctionAddresses(provider, FUNCTIONS, FEATURES, new HashSet<>(Arrays.asList("V1", "EXT_d")), null);
+
+		// Only the functions of supported features are retrieved
+		assertEquals(provider.lookups, Arrays.asList("a", "b", "missing", "d"));
+		assertEquals(addresses, new long[] { 0x1000L + 'a', 0x1000L + 'b', NULL, NULL, 0x1000L + 'd' });
+
+		provider.lookups.clear();
+		addresses = apiGetFunctionAddresses(provider, FUNCTIONS, FEATURES, Collections.emptySet(), null);
+
+		assertTrue(provider.lookups.isEmpty());
+		assertEquals(addresses, new long[FUNCTIONS.length]);
+	}
+
+}
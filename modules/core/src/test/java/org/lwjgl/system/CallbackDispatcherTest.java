@@ -0,0 +1,145 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.Pointer.*;
+import static org.lwjgl.system.dyncall.DynCallback.*;
+import static org.testng.Assert.*;
+
+@Test
+public class CallbackDispatcherTest {
+
+	@FunctionalInterface
+	public interface TestCallbackI extends CallbackI.V {
+
+		String SIGNATURE = "(ppB)v";
+
+		@Override
+		default String getSignature() { return SIGNATURE; }
+
+		@Override
+		default Class<? extends CallbackI> getInvokeInterface() { return TestCallbackI.class; }
+
+		@Override
+		default void callback(long args) {
+			invoke(
+				dcbArgPointer(args),
+				dcbArgPointer(args),
+				dcbArgBool(args)
+			);
+		}
+
+		void invoke(long a, long b, boolean c);
+
+	}
+
+	public void testDispatch() throws Exception {
+		int threads = 4;
+		int invocations = 10000;
+
+		CallbackDispatcher dispatcher = CallbackDispatcher.create(256, 4, CallbackDispatcher.Backpressure.BLOCK);
+		try {
+			long[] last = new long[threads];
+			Thread[] dispatchThread = new Thread[1];
+
+			long callback = dispatcher.newCallback((TestCallbackI)(a, b, c) -> {
+				dispatchThread[0] = Thread.currentThread();
+
+				// Invocations from the same thread are delivered in order
+				assertEquals(b, last[(int)a] + 1);
+				assertTrue(c);
+				last[(int)a] = b;
+			});
+
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				List<Future<?>> futures = new ArrayList<>();
+				for ( int t = 0; t < threads; t++ ) {
+					long id = t;
+					futures.add(executor.submit(() -> {
+						for ( int i = 1; i <= invocations; i++ )
+							JNI.invokePPV(callback, id, i, true);
+					}));
+				}
+				for ( Future<?> future : futures )
+					future.get();
+			} finally {
+				executor.shutdown();
+			}
+
+			dispatcher.flush();
+
+			assertEquals(dispatcher.getDelivered(), (long)threads * invocations);
+			assertEquals(dispatcher.getPending(), 0L);
+			assertEquals(dispatcher.getDropped(), 0L);
+			for ( int t = 0; t < threads; t++ )
+				assertEquals(last[t], invocations);
+			assertNotEquals(dispatchThread[0], Thread.currentThread());
+
+			// Frees after the pending invocations have been delivered
+			JNI.invokePPV(callback, 0L, invocations + 1, true);
+			Callback.free(callback);
+			assertEquals(last[0], invocations + 1);
+		} finally {
+			dispatcher.free();
+		}
+
+		assertEquals(dispatcher.getDelivered(), (long)threads * invocations + 1);
+	}
+
+	public void testReleaseWhileFreeing() throws Exception {
+		for ( int run = 0; run < 10; run++ ) {
+			CallbackDispatcher dispatcher = CallbackDispatcher.create(16, 4, CallbackDispatcher.Backpressure.DROP);
+
+			long[] callbacks = new long[256];
+			for ( int i = 0; i < callbacks.length; i++ )
+				callbacks[i] = dispatcher.newCallback((TestCallbackI)(a, b, c) -> {});
+
+			long queue = memGetAddress(dcbGetUserData(callbacks[0]) + 2 * POINTER_SIZE);
+
+			// Each function is freed exactly once, either by release or by the dispatcher
+			Thread releasing = new Thread(() -> {
+				for ( long callback : callbacks ) {
+					dispatcher.flush();
+					CallbackDispatcher.release(queue, callback);
+				}
+			});
+			releasing.start();
+			dispatcher.free();
+			releasing.join();
+
+			// No-ops after the queue has been freed
+			dispatcher.flush();
+			CallbackDispatcher.release(queue, callbacks[0]);
+			assertEquals(dispatcher.getPending(), 0L);
+		}
+	}
+
+	public void testUnsupportedCallbacks() {
+		CallbackDispatcher dispatcher = CallbackDispatcher.create(16, 2, CallbackDispatcher.Backpressure.DROP);
+		try {
+			// Too many arguments
+			expectThrows(IllegalArgumentException.class, () -> dispatcher.newCallback((TestCallbackI)(a, b, c) -> {}));
+
+			// No typed method
+			expectThrows(IllegalArgumentException.class, () -> dispatcher.newCallback(new CallbackI.V() {
+				@Override
+				public String getSignature() { return "(p)v"; }
+
+				@Override
+				public void callback(long args) {}
+			}));
+		} finally {
+			dispatcher.free();
+		}
+	}
+
+}
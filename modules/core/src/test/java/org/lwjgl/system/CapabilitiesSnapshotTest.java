@@ -0,0 +1,163 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class CapabilitiesSnapshotTest {
+
+	private static final String[] FUNCTIONS = {
+		"nputInt",
+		"stub",
+		"missing",
+		"skipped",
+		"nputLong"
+	};
+
+	private static final boolean[] RESOLVE = { true, true, true, false, true };
+
+	private static final Set<String> EXT = new HashSet<>(Arrays.asList("A", "B"));
+
+	private SharedLibrary lib;
+	private long          stub;
+
+	private File dir;
+
+	/** Resolves the JNI functions from the LWJGL shared library, {@code stub} to an address outside any shared library. */
+	private final class Provider implements FunctionProvider {
+
+		int lookups;
+
+		@Override
+		public long getFunctionAddress(ByteBuffer functionName) {
+			lookups++;
+
+			String name = memASCII(functionName);
+			switch ( name ) {
+				case "stub":
+					return stub;
+				case "missing":
+					return NULL;
+				default:
+					return lib.getFunctionAddress(Platform.get() == Platform.WINDOWS && Pointer.BITS32
+						? "_Java_org_lwjgl_system_MemoryAccessJNI_" + name + (name.equals("nputInt") ? "@20" : "@24")
+						: "Java_org_lwjgl_system_MemoryAccessJNI_" + name
+					);
+			}
+		}
+
+	}
+
+	@BeforeMethod
+	public void setUp() throws IOException {
+		lib = Library.loadNative(Library.class, Library.JNI_LIBRARY_NAME, true);
+		stub = nmemAlloc(16);
+		dir = Files.createTempDirectory("lwjgl-caps").toFile();
+	}
+
+	@AfterMethod
+	public void tearDown() {
+		File[] files = dir.listFiles();
+		if ( files != null ) {
+			for ( File file : files )
+				file.delete();
+		}
+		dir.delete();
+
+		nmemFree(stub);
+		lib.free();
+	}
+
+	private long[] lookup(Provider provider) {
+		long[] addresses = new long[FUNCTIONS.length];
+		for ( int i = 0; i < FUNCTIONS.length; i++ ) {
+			if ( RESOLVE[i] )
+				addresses[i] = provider.getFunctionAddress(FUNCTIONS[i]);
+		}
+		return addresses;
+	}
+
+	private Path save(long[] addresses) {
+		CapabilitiesSnapshot.save(dir.getPath(), FUNCTIONS, EXT, RESOLVE, addresses);
+
+		File[] files = dir.listFiles();
+		assertNotNull(files);
+		assertEquals(files.length, 1);
+		return files[0].toPath();
+	}
+
+	public void testRoundtrip() {
+		Provider provider = new Provider();
+
+		long[] addresses = lookup(provider);
+		assertNotEquals(addresses[0], NULL);
+		assertNotEquals(addresses[4], NULL);
+
+		save(addresses);
+
+		provider.lookups = 0;
+		assertEquals(CapabilitiesSnapshot.load(dir.getPath(), provider, FUNCTIONS, EXT, RESOLVE), addresses);
+		// Only the function outside a shared library is retrieved again
+		assertEquals(provider.lookups, 1);
+	}
+
+	public void testMismatch() {
+		Provider provider = new Provider();
+		save(lookup(provider));
+
+		assertNull(CapabilitiesSnapshot.load(dir.getPath(), provider, FUNCTIONS, new HashSet<>(Collections.singletonList("A")), RESOLVE));
+		assertNull(CapabilitiesSnapshot.load(dir.getPath(), provider, FUNCTIONS, EXT, new boolean[] { true, true, true, true, true }));
+	}
+
+	public void testCorrupted() throws IOException {
+		Provider provider = new Provider();
+		Path     file     = save(lookup(provider));
+
+		byte[] bytes = Files.readAllBytes(file);
+
+		// Checksum mismatch
+		byte[] corrupted = bytes.clone();
+		corrupted[corrupted.length - 12] ^= 1;
+		Files.write(file, corrupted);
+		assertNull(CapabilitiesSnapshot.load(dir.getPath(), provider, FUNCTIONS, EXT, RESOLVE));
+
+		// Truncated
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 6));
+		assertNull(CapabilitiesSnapshot.load(dir.getPath(), provider, FUNCTIONS, EXT, RESOLVE));
+
+		// Trailing data
+		Files.write(file, Arrays.copyOf(bytes, bytes.length + 1));
+		assertNull(CapabilitiesSnapshot.load(dir.getPath(), provider, FUNCTIONS, EXT, RESOLVE));
+
+		assertEquals(provider.lookups, 4);
+	}
+
+	public void testOffsetOutOfBounds() throws IOException {
+		Provider provider = new Provider();
+		Path     file     = save(lookup(provider));
+
+		// The offset of the last function, followed by the checksum
+		ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+		bytes.putLong(bytes.capacity() - 12, Long.MAX_VALUE);
+
+		CRC32 crc = new CRC32();
+		crc.update(bytes.array(), 0, bytes.capacity() - 4);
+		bytes.putInt(bytes.capacity() - 4, (int)crc.getValue());
+
+		Files.write(file, bytes.array());
+		assertNull(CapabilitiesSnapshot.load(dir.getPath(), provider, FUNCTIONS, EXT, RESOLVE));
+	}
+
+}
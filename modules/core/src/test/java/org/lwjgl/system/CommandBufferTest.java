@@ -0,0 +1,74 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.testng.annotations.Test;
+
+import static org.lwjgl.system.CommandBuffer.*;
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class CommandBufferTest {
+
+	public void testExecute() {
+		MemoryAllocator allocator = getAllocator();
+
+		try ( CommandBuffer cb = CommandBuffer.create(64) ) {
+			int[] handles = new int[64];
+			for ( int i = 0; i < handles.length; i++ ) {
+				handles[i] = cb
+					.command(allocator.getCalloc(), 2, (TYPE_POINTER << 4) | TYPE_POINTER, TYPE_POINTER, false)
+					.putAddress(i + 1)
+					.putAddress(8)
+					.handle();
+			}
+			assertEquals(cb.commands(), handles.length);
+
+			// Nothing is called until the buffer is executed
+			for ( int handle : handles )
+				assertEquals(cb.getAddress(handle), NULL);
+
+			cb.execute();
+
+			long[] addresses = new long[handles.length];
+			for ( int i = 0; i < handles.length; i++ ) {
+				addresses[i] = cb.getAddress(handles[i]);
+				assertNotEquals(addresses[i], NULL);
+				for ( int j = 0; j < (i + 1) * 8; j++ )
+					assertEquals(memGetByte(addresses[i] + j), 0);
+			}
+
+			cb.clear();
+			assertEquals(cb.size(), 0);
+			assertEquals(cb.commands(), 0);
+
+			for ( long address : addresses ) {
+				cb
+					.command(allocator.getFree(), 1, TYPE_POINTER, TYPE_VOID, false)
+					.putAddress(address);
+			}
+			cb.execute();
+		}
+	}
+
+	public void testFree() {
+		CommandBuffer cb = CommandBuffer.create(64);
+		cb
+			.command(getAllocator().getMalloc(), 1, TYPE_POINTER, TYPE_POINTER, false)
+			.putAddress(8);
+
+		cb.free();
+		assertEquals(cb.address(), NULL);
+		assertEquals(cb.size(), 0);
+
+		// Freeing again has no effect
+		cb.free();
+
+		expectThrows(IllegalStateException.class, cb::execute);
+		expectThrows(IllegalStateException.class, () -> cb.command(getAllocator().getMalloc(), 1, TYPE_POINTER, TYPE_POINTER, false));
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.system.MemoryUtil.MemoryAllocator;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.lang.invoke.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class ForeignTest {
+
+	public void testBackend() {
+		if ( !"FFM".equalsIgnoreCase(Configuration.NATIVE_BACKEND.get("JNI")) )
+			assertFalse(Foreign.ENABLED);
+	}
+
+	public void testDowncall() throws Throwable {
+		if ( !Foreign.ENABLED )
+			throw new SkipException("The FFM backend is not enabled.");
+
+		MemoryAllocator allocator = getAllocator();
+
+		MethodHandle malloc = Foreign.downcall("P)P", false);
+		MethodHandle calloc = Foreign.downcall("PP)P", false);
+		MethodHandle free   = Foreign.downcall("P)V", true);
+
+		assertEquals(malloc.type(), MethodType.methodType(long.class, long.class, long.class));
+		assertEquals(free.type(), MethodType.methodType(void.class, long.class, long.class));
+
+		long a = (long)malloc.invokeExact(allocator.getMalloc(), 16L);
+		assertNotEquals(a, NULL);
+		memPutLong(a + 8, 0xDEADBEEFL);
+		assertEquals(memGetLong(a + 8), 0xDEADBEEFL);
+		free.invokeExact(allocator.getFree(), a);
+
+		long b = (long)calloc.invokeExact(allocator.getCalloc(), 4L, 8L);
+		assertNotEquals(b, NULL);
+		for ( int i = 0; i < 32; i++ )
+			assertEquals(memGetByte(b + i), 0);
+		free.invokeExact(allocator.getFree(), b);
+	}
+
+	public void testInvalidSignature() {
+		if ( !Foreign.ENABLED )
+			throw new SkipException("The FFM backend is not enabled.");
+
+		expectThrows(IllegalArgumentException.class, () -> Foreign.downcall("X)V", false));
+		expectThrows(IllegalArgumentException.class, () -> Foreign.downcall("P)Q", false));
+	}
+
+	public void testRethrow() {
+		IllegalArgumentException e = new IllegalArgumentException();
+		assertSame(expectThrows(IllegalArgumentException.class, () -> Foreign.rethrow(e)), e);
+		assertTrue(expectThrows(IllegalStateException.class, () -> Foreign.rethrow(new Exception())).getCause() instanceof Exception);
+	}
+
+}
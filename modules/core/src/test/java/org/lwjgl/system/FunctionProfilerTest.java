@@ -0,0 +1,84 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.testng.annotations.Test;
+
+import java.io.*;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+@Test
+public class FunctionProfilerTest {
+
+	private static FunctionProfiler.Entry find(String function) {
+		for ( FunctionProfiler.Entry entry : FunctionProfiler.snapshot() ) {
+			if ( entry.getFunction().equals(function) )
+				return entry;
+		}
+		return null;
+	}
+
+	public void testRegister() {
+		int base = FunctionProfiler.register("FunctionProfilerTest", "testRegisterA", "testRegisterB");
+		assertEquals(FunctionProfiler.register("FunctionProfilerTest", "testRegisterC"), base + 2);
+	}
+
+	public void testBegin() {
+		if ( 1 < Configuration.PROFILE_FUNCTIONS_SAMPLE_RATE.get(1) )
+			return;
+
+		// Every call is timed without sampling
+		for ( int i = 0; i < 100; i++ )
+			assertNotEquals(FunctionProfiler.begin(), FunctionProfiler.NOT_TIMED);
+	}
+
+	public void testUpdate() {
+		int id = FunctionProfiler.register("FunctionProfilerTest", "testUpdate");
+
+		FunctionProfiler.update(id, FunctionProfiler.begin());
+		FunctionProfiler.update(id, FunctionProfiler.NOT_TIMED);
+		// A start time of 0 is a valid System.nanoTime() value
+		FunctionProfiler.update(id, 0L);
+
+		FunctionProfiler.Entry entry = find("FunctionProfilerTest.testUpdate");
+		assertNotNull(entry);
+		assertEquals(entry.getCalls(), 3L);
+		assertEquals(entry.getTimedCalls(), 2L);
+		assertTrue(0.0 < entry.getAverageTime());
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		FunctionProfiler.report(new PrintStream(bytes), Collections.singletonList(entry));
+		assertTrue(bytes.toString().contains("FunctionProfilerTest.testUpdate"));
+	}
+
+	public void testTerminatedThreads() throws InterruptedException {
+		int id = FunctionProfiler.register("FunctionProfilerTest", "testTerminatedThreads");
+
+		Thread t = new Thread(() -> {
+			for ( int i = 0; i < 10; i++ )
+				FunctionProfiler.update(id, FunctionProfiler.NOT_TIMED);
+		});
+		t.start();
+		t.join();
+
+		FunctionProfiler.update(id, FunctionProfiler.NOT_TIMED);
+
+		FunctionProfiler.Entry entry = find("FunctionProfilerTest.testTerminatedThreads");
+		assertNotNull(entry);
+		assertEquals(entry.getCalls(), 11L);
+		assertEquals(entry.getTimedCalls(), 0L);
+		assertEquals(entry.getTime(), 0L);
+	}
+
+	public void testEntry() {
+		// Sampled: the total time is extrapolated from the timed calls
+		FunctionProfiler.Entry entry = new FunctionProfiler.Entry("f", 10L, 2L, 100L);
+		assertEquals(entry.getTime(), 500L);
+		assertEquals(entry.getAverageTime(), 50.0);
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.testng.annotations.Test;
+
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class MemoryArenaTest {
+
+	public void testAlignment() {
+		try ( MemoryArena arena = MemoryArena.create(1024) ) {
+			for ( int alignment = 1; alignment <= 128; alignment <<= 1 ) {
+				arena.nmalloc(1, 1);
+				long address = arena.nmalloc(alignment, 3);
+				assertEquals(address & (alignment - 1), 0L);
+			}
+		}
+	}
+
+	public void testChunks() {
+		try ( MemoryArena arena = MemoryArena.create(1024) ) {
+			assertEquals(arena.getChunkCount(), 1);
+			assertEquals(arena.getReservedBytes(), 1024L);
+
+			long prev = arena.nmalloc(8, 200);
+			memSet(prev, 0xAA, 200);
+			for ( int i = 0; i < 20; i++ ) {
+				long address = arena.nmalloc(8, 200);
+				assertFalse(prev <= address && address < prev + 200);
+				memSet(address, i, 200);
+				prev = address;
+			}
+			assertTrue(1 < arena.getChunkCount());
+
+			// Oversized allocations get a dedicated chunk and do not consume the current chunk
+			long small = arena.nmalloc(1, 1);
+			int count = arena.getChunkCount();
+			long large = arena.nmalloc(16, 4096);
+			assertEquals(large & 15L, 0L);
+			assertEquals(arena.getChunkCount(), count + 1);
+			memSet(large, 0, 4096);
+			assertEquals(arena.nmalloc(1, 1), small + 1);
+
+			long reserved = arena.getReservedBytes();
+
+			arena.reset();
+			assertEquals(arena.getChunkCount(), 1);
+			assertEquals(arena.getReservedBytes(), reserved - 4096 - 15);
+
+			// Regular chunks are reused after a reset
+			for ( int i = 0; i < 21; i++ )
+				arena.nmalloc(8, 200);
+			assertEquals(arena.getReservedBytes(), reserved - 4096 - 15);
+
+			arena.reset();
+			arena.trim();
+			assertEquals(arena.getChunkCount(), 1);
+			assertEquals(arena.getReservedBytes(), 1024L);
+		}
+	}
+
+	public void testBuffers() {
+		try ( MemoryArena arena = MemoryArena.create() ) {
+			IntBuffer ints = arena.callocInt(16);
+			assertEquals(ints.capacity(), 16);
+			assertEquals(memAddress(ints) & 3L, 0L);
+			for ( int i = 0; i < 16; i++ )
+				assertEquals(ints.get(i), 0);
+
+			ByteBuffer text = arena.UTF8("arena");
+			assertEquals(text.remaining(), 6);
+			assertEquals(memUTF8(memAddress(text)), "arena");
+
+			assertNull(arena.ASCII(null));
+		}
+	}
+
+	public void testFree() {
+		MemoryArena arena = MemoryArena.create(1024);
+		arena.nmalloc(8, 4096);
+		arena.free();
+		assertEquals(arena.getChunkCount(), 0);
+		assertEquals(arena.getReservedBytes(), 0L);
+
+		// free is idempotent
+		arena.free();
+
+		expectThrows(IllegalStateException.class, () -> arena.nmalloc(8, 16));
+		expectThrows(IllegalStateException.class, arena::reset);
+	}
+
+	public void testShared() throws Exception {
+		int threads = 4;
+		int allocations = 10000;
+
+		try ( MemoryArena arena = MemoryArena.createShared(4096) ) {
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				List<Future<long[]>> futures = new ArrayList<>();
+				for ( int t = 0; t < threads; t++ ) {
+					int id = t;
+					futures.add(executor.submit(() -> {
+						long[] addresses = new long[allocations];
+						for ( int i = 0; i < allocations; i++ ) {
+							long address = arena.nmalloc(8, 24);
+							memPutInt(address, id);
+							memPutInt(address + 4, i);
+							addresses[i] = address;
+						}
+						return addresses;
+					}));
+				}
+
+				Set<Long> all = new HashSet<>();
+				for ( int t = 0; t < threads; t++ ) {
+					long[] addresses = futures.get(t).get();
+					for ( int i = 0; i < allocations; i++ ) {
+						long address = addresses[i];
+						assertEquals(address & 7L, 0L);
+						assertTrue(all.add(address));
+
+						// No other thread overwrote the allocation
+						assertEquals(memGetInt(address), t);
+						assertEquals(memGetInt(address + 4), i);
+					}
+				}
+			} finally {
+				executor.shutdown();
+			}
+		}
+	}
+
+}
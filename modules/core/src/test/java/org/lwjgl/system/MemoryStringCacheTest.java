@@ -0,0 +1,173 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class MemoryStringCacheTest {
+
+	public void testEncoding() {
+		MemoryStringCache cache = MemoryStringCache.createUTF8(4);
+		try {
+			try ( MemoryStringCache.Entry entry = cache.acquire("caf\u00E9") ) {
+				assertEquals(entry.length(), 5);
+				assertEquals(memGetByte(entry.address() + 5), 0);
+				assertEquals(memUTF8(entry.address()), "caf\u00E9");
+				assertEquals(entry.buffer().remaining(), 6);
+				assertTrue(entry.buffer().isReadOnly());
+			}
+		} finally {
+			cache.free();
+		}
+
+		cache = MemoryStringCache.createASCII(4);
+		try {
+			try ( MemoryStringCache.Entry entry = cache.acquire(new StringBuilder("glClear")) ) {
+				assertEquals(entry.length(), 7);
+				assertEquals(memASCII(entry.address()), "glClear");
+			}
+		} finally {
+			cache.free();
+		}
+	}
+
+	public void testHitsAndEviction() {
+		MemoryStringCache cache = MemoryStringCache.createUTF8(2);
+		try {
+			long a;
+			try ( MemoryStringCache.Entry entry = cache.acquire("a") ) {
+				a = entry.address();
+			}
+			try ( MemoryStringCache.Entry entry = cache.acquire("a") ) {
+				assertEquals(entry.address(), a);
+			}
+			assertEquals(cache.getHits(), 1L);
+			assertEquals(cache.getMisses(), 1L);
+
+			cache.acquire("b").close();
+			assertEquals(cache.size(), 2);
+			assertEquals(cache.getBytes(), 4L);
+
+			// "a" was referenced after insertion, "b" was not
+			cache.acquire("c").close();
+			assertEquals(cache.size(), 2);
+			assertEquals(cache.getEvictions(), 1L);
+
+			cache.acquire("a").close();
+			assertEquals(cache.getHits(), 2L);
+		} finally {
+			cache.free();
+		}
+	}
+
+	public void testEvictionWhileAcquired() {
+		MemoryStringCache cache = MemoryStringCache.createUTF8(1);
+		try {
+			MemoryStringCache.Entry a = cache.acquire("a");
+			cache.acquire("b").close();
+
+			// "a" has been evicted, but its memory is still valid
+			assertEquals(cache.getEvictions(), 1L);
+			assertEquals(memUTF8(a.address()), "a");
+			a.close();
+
+			expectThrows(IllegalStateException.class, a::close);
+		} finally {
+			cache.free();
+		}
+	}
+
+	public void testPinning() {
+		MemoryStringCache cache = MemoryStringCache.createUTF8(1);
+		try {
+			MemoryStringCache.Entry pinned = cache.pin("pinned");
+			long address = pinned.address();
+
+			for ( int i = 0; i < 10; i++ )
+				cache.acquire(Integer.toString(i)).close();
+
+			// Pinned entries are never evicted and do not count against the capacity
+			assertEquals(cache.size(), 2);
+			try ( MemoryStringCache.Entry entry = cache.acquire("pinned") ) {
+				assertEquals(entry.address(), address);
+			}
+
+			cache.unpin(pinned);
+			expectThrows(IllegalStateException.class, () -> cache.unpin(pinned));
+
+			cache.acquire("x").close();
+			cache.acquire("y").close();
+			assertEquals(cache.size(), 1);
+		} finally {
+			cache.free();
+		}
+	}
+
+	public void testPinWhileEvicting() throws Exception {
+		MemoryStringCache cache = MemoryStringCache.createUTF8(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<?> pinning = executor.submit(() -> {
+				for ( int i = 0; i < 100_000; i++ ) {
+					MemoryStringCache.Entry pinned = cache.pin("pinned");
+					// A pinned entry is always in the cache
+					try ( MemoryStringCache.Entry entry = cache.acquire("pinned") ) {
+						assertSame(entry, pinned);
+					}
+					assertSame(pinned.buffer(), pinned.buffer());
+					cache.unpin(pinned);
+				}
+			});
+			Future<?> evicting = executor.submit(() -> {
+				for ( int i = 0; i < 100_000; i++ )
+					cache.acquire(Integer.toString(i & 7)).close();
+			});
+
+			pinning.get();
+			evicting.get();
+		} finally {
+			executor.shutdown();
+			cache.free();
+		}
+	}
+
+	public void testConcurrent() throws Exception {
+		MemoryStringCache cache = MemoryStringCache.createUTF8(16);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for ( int t = 0; t < 4; t++ ) {
+				int seed = t;
+				futures.add(executor.submit(() -> {
+					Random random = new Random(seed);
+					for ( int i = 0; i < 100_000; i++ ) {
+						String text = "string" + random.nextInt(32);
+						try ( MemoryStringCache.Entry entry = cache.acquire(text) ) {
+							assertEquals(memUTF8(entry.address()), text);
+						}
+					}
+				}));
+			}
+			for ( Future<?> future : futures )
+				future.get();
+		} finally {
+			executor.shutdown();
+			cache.free();
+		}
+
+		assertEquals(cache.getHits() + cache.getMisses(), 400_000L);
+		assertEquals(cache.size(), 0);
+	}
+
+}
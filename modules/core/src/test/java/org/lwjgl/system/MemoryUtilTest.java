@@ -9,6 +9,7 @@ import org.testng.annotations.Test;
 
 import java.nio.*;
 import java.nio.charset.StandardCharsets;
+import java.util.*;
 
 import static org.lwjgl.system.MemoryUtil.*;
 import static org.lwjgl.system.jni.JNINativeInterface.*;
@@ -67,6 +68,129 @@ public class MemoryUtilTest {
 			assertEquals(src.get(i), dst.get(i));
 	}
 
+	public void testMemCopyArray() {
+		int[] src = new int[1000];
+		for ( int i = 0; i < src.length; i++ )
+			src[i] = i * 31;
+
+		IntBuffer buffer = BufferUtils.createIntBuffer(src.length);
+		memCopy(src, 10, memAddress(buffer), src.length - 10);
+		for ( int i = 0; i < src.length - 10; i++ )
+			assertEquals(buffer.get(i), src[10 + i]);
+
+		double[] dst = new double[4];
+		DoubleBuffer values = BufferUtils.createDoubleBuffer(2).put(0, 1.5).put(1, -2.5);
+		memCopy(memAddress(values), dst, 1, 2);
+		assertEquals(dst[0], 0.0);
+		assertEquals(dst[1], 1.5);
+		assertEquals(dst[2], -2.5);
+		assertEquals(dst[3], 0.0);
+
+		expectThrows(IndexOutOfBoundsException.class, () -> memCopy(src, 999, memAddress(buffer), 2));
+		expectThrows(IndexOutOfBoundsException.class, () -> memCopy(memAddress(values), dst, -1, 1));
+	}
+
+	public void testMemCopyBuffer() {
+		ShortBuffer src = BufferUtils.createShortBuffer(16);
+		ShortBuffer dst = BufferUtils.createShortBuffer(16);
+		for ( int i = 0; i < src.capacity(); i++ )
+			src.put(i, (short)i);
+
+		src.position(4).limit(12);
+		dst.position(2);
+		memCopy(src, dst);
+
+		assertEquals(src.position(), 4);
+		assertEquals(dst.position(), 2);
+		for ( int i = 0; i < dst.capacity(); i++ )
+			assertEquals(dst.get(i), 2 <= i && i < 10 ? (short)(i + 2) : (short)0);
+
+		dst.position(10);
+		expectThrows(IllegalArgumentException.class, () -> memCopy(src, dst));
+	}
+
+	public void testMemFill() {
+		long mem = nmemCalloc(1, 1024 + 16);
+		try {
+			for ( int offset = 0; offset < 8; offset += 2 ) {
+				for ( int count : new int[] { 0, 1, 3, 4, 7, 100, 500 } ) {
+					memSet(mem, 0, 1024 + 16);
+
+					memFillShort(mem + offset, (short)0xA1B2, count);
+					for ( int i = 0; i < count; i++ )
+						assertEquals(memGetShort(mem + offset + (i << 1)), (short)0xA1B2);
+					assertEquals(memGetShort(mem + offset + (count << 1)), 0);
+				}
+			}
+
+			for ( int offset = 0; offset < 8; offset += 4 ) {
+				for ( int count : new int[] { 0, 1, 2, 3, 100, 250 } ) {
+					memSet(mem, 0, 1024 + 16);
+
+					memFillInt(mem + offset, 0xDEADBEEF, count);
+					for ( int i = 0; i < count; i++ )
+						assertEquals(memGetInt(mem + offset + (i << 2)), 0xDEADBEEF);
+					assertEquals(memGetInt(mem + offset + (count << 2)), 0);
+				}
+			}
+
+			for ( int count : new int[] { 0, 1, 33, 127 } ) {
+				memSet(mem, 0, 1024 + 16);
+
+				memFillLong(mem, 0x0123456789ABCDEFL, count);
+				for ( int i = 0; i < count; i++ )
+					assertEquals(memGetLong(mem + (i << 3)), 0x0123456789ABCDEFL);
+				assertEquals(memGetLong(mem + (count << 3)), 0L);
+			}
+		} finally {
+			nmemFree(mem);
+		}
+	}
+
+	public void testMemCompare() {
+		long a = nmemAlloc(1024);
+		long b = nmemAlloc(1024);
+		try {
+			for ( int i = 0; i < 1024; i++ ) {
+				memPutByte(a + i, (byte)i);
+				memPutByte(b + i, (byte)i);
+			}
+
+			for ( int offset = 0; offset < 8; offset++ ) {
+				for ( int bytes : new int[] { 0, 1, 7, 8, 9, 63, 255, 256, 1000 } ) {
+					if ( 1024 < offset + bytes )
+						continue;
+
+					assertEquals(memCompare(a + offset, b + offset, bytes), 0);
+					assertTrue(memEquals(a + offset, b + offset, bytes));
+					if ( bytes == 0 )
+						continue;
+
+					// The first difference decides, compared as unsigned bytes
+					long last = offset + bytes - 1;
+					memPutByte(b + last, (byte)0xFF);
+					memPutByte(a + offset + bytes / 2, (byte)0x80);
+					memPutByte(b + offset + bytes / 2, (byte)0x7F);
+
+					assertTrue(0 < memCompare(a + offset, b + offset, bytes));
+					assertTrue(memCompare(b + offset, a + offset, bytes) < 0);
+					assertFalse(memEquals(a + offset, b + offset, bytes));
+
+					// Misaligned relative to each other
+					if ( offset + bytes < 1024 )
+						assertTrue(memCompare(a + offset, b + offset + 1, bytes) != 0);
+
+					memPutByte(a + offset + bytes / 2, (byte)(offset + bytes / 2));
+					memPutByte(b + offset + bytes / 2, (byte)(offset + bytes / 2));
+					memPutByte(b + last, (byte)last);
+				}
+			}
+		} finally {
+			nmemFree(b);
+			nmemFree(a);
+		}
+	}
+
 	public void testJNINewBuffer() {
 		ByteBuffer buffer = BufferUtils.createByteBuffer(32);
 		for ( int i = 0; i < buffer.capacity(); i++ )
@@ -290,4 +414,104 @@ public class MemoryUtilTest {
 		}
 	}
 
+	public void testTextLongRuns() {
+		// ASCII runs of various lengths and alignments, followed by non-ASCII characters
+		ByteBuffer buffer = BufferUtils.createByteBuffer(256);
+		for ( int offset = 0; offset < 8; offset++ ) {
+			for ( int length = 0; length < 40; length++ ) {
+				for ( String suffix : new String[] { "", "\u00E9", "\u4E2D\u6587", "\uD83D\uDE00x" } ) {
+					StringBuilder sb = new StringBuilder(length + suffix.length());
+					for ( int i = 0; i < length; i++ )
+						sb.append((char)('a' + i % 26));
+					String text = sb.append(suffix).toString();
+
+					byte[] expected = text.getBytes(StandardCharsets.UTF_8);
+
+					assertEquals(memLengthUTF8(text, false), expected.length);
+					assertEquals(memUTF8(text, false, buffer, offset), expected.length);
+					for ( int i = 0; i < expected.length; i++ )
+						assertEquals(buffer.get(offset + i), expected[i]);
+					buffer.put(offset + expected.length, (byte)0);
+
+					buffer.position(offset);
+					assertEquals(memLengthNT1(buffer), expected.length);
+					assertEquals(memUTF8(buffer, expected.length), text);
+					assertEquals(memUTF8(memAddress(buffer)), text);
+					buffer.clear();
+				}
+
+				String ascii = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefg".substring(0, length);
+
+				assertEquals(memASCII(ascii, false, buffer, offset), length);
+				assertEquals(memASCII(buffer, length, offset), ascii);
+			}
+		}
+	}
+
+	public void testTextOutOfBounds() {
+		if ( !Checks.CHECKS )
+			return;
+
+		ByteBuffer buffer = BufferUtils.createByteBuffer(32);
+		buffer.limit(16);
+
+		assertEquals(memASCII(buffer, 8, 8).length(), 8);
+		expectThrows(IndexOutOfBoundsException.class, () -> memASCII(buffer, 16, 8));
+		expectThrows(IndexOutOfBoundsException.class, () -> memASCII(buffer, 8, -1));
+		expectThrows(IndexOutOfBoundsException.class, () -> memASCII(buffer, 17));
+
+		assertEquals(memUTF8(buffer, 8, 8).length(), 8);
+		expectThrows(IndexOutOfBoundsException.class, () -> memUTF8(buffer, 16, 8));
+		expectThrows(IndexOutOfBoundsException.class, () -> memUTF8(buffer, 8, Integer.MAX_VALUE));
+	}
+
+	public void testLengthNTMaxLength() {
+		ByteBuffer buffer = BufferUtils.createByteBuffer(64);
+		long       base   = memAddress(buffer);
+
+		// The terminator is just past maxLength, at every alignment
+		for ( int offset = 0; offset < 8; offset++ ) {
+			for ( int maxLength = 0; maxLength <= 32; maxLength++ ) {
+				memSet(base, 'a', 64);
+				memPutByte(base + offset + maxLength, (byte)0);
+
+				assertEquals(memLengthNT1(memByteBuffer(base + offset, maxLength)), maxLength);
+				assertEquals(memByteBufferNT1(base + offset, maxLength).remaining(), maxLength);
+
+				if ( (offset & 1) == 0 && (maxLength & 1) == 0 ) {
+					memPutShort(base + offset + maxLength, (short)0);
+
+					assertEquals(memLengthNT2(memByteBuffer(base + offset, maxLength)), maxLength);
+					assertEquals(memByteBufferNT2(base + offset, maxLength).remaining(), maxLength);
+				}
+			}
+		}
+	}
+
+	public void testDebugAllocatorSampling() {
+		Random random = new Random(13);
+
+		long total = 0L;
+		long estimateRate = 0L;
+		long estimateBytes = 0L;
+		for ( int i = 0; i < 1_000_000; i++ ) {
+			long size = 1 + random.nextInt(4096);
+			total += size;
+
+			long e = MemoryManage.DebugAllocator.sample(random, size, 64, 0);
+			if ( e != -1L )
+				estimateRate += e;
+
+			e = MemoryManage.DebugAllocator.sample(random, size, 0, 16 * 1024);
+			if ( e != -1L ) {
+				assertTrue(size <= e);
+				estimateBytes += e;
+			}
+		}
+
+		// The extrapolated totals should be within a few percent of the actual total
+		assertEquals(estimateRate / (double)total, 1.0, 0.05);
+		assertEquals(estimateBytes / (double)total, 1.0, 0.05);
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,156 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.system.MemoryUtil.MemoryAllocator;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class MetricsAllocatorTest {
+
+	public void testHistogramBucket() {
+		assertEquals(MetricsAllocator.getHistogramBucket(0), 0);
+		assertEquals(MetricsAllocator.getHistogramBucket(1), 0);
+		assertEquals(MetricsAllocator.getHistogramBucket(16), 0);
+		assertEquals(MetricsAllocator.getHistogramBucket(17), 1);
+		assertEquals(MetricsAllocator.getHistogramBucket(32), 1);
+		assertEquals(MetricsAllocator.getHistogramBucket(33), 2);
+		assertEquals(MetricsAllocator.getHistogramBucket(4096), 8);
+		assertEquals(MetricsAllocator.getHistogramBucket(Long.MAX_VALUE), MetricsAllocator.HISTOGRAM_BUCKETS - 1);
+	}
+
+	public void testMetrics() {
+		MetricsAllocator allocator = new MetricsAllocator(MemoryManage.getDefaultInstance());
+
+		long a = allocator.malloc(100);
+		long b = allocator.calloc(10, 10);
+		long c = allocator.aligned_alloc(64, 1000);
+
+		assertEquals(a & 15L, 0L);
+		assertEquals(b & 15L, 0L);
+		assertEquals(c & 63L, 0L);
+
+		for ( int i = 0; i < 100; i++ )
+			assertEquals(memGetByte(b + i), 0);
+
+		MetricsAllocator.Snapshot snapshot = allocator.snapshot();
+		assertEquals(snapshot.getBytesInUse(), 1200L);
+		assertEquals(snapshot.getBlocksInUse(), 3L);
+		assertEquals(snapshot.getPeakBytesInUse(), 1200L);
+		assertEquals(snapshot.getHistogram()[MetricsAllocator.getHistogramBucket(100)], 2L);
+		assertEquals(snapshot.getHistogram()[MetricsAllocator.getHistogramBucket(1000)], 1L);
+		assertEquals(snapshot.getThreads().size(), 1);
+		assertEquals(snapshot.getThreads().get(0).getThreadId(), Thread.currentThread().getId());
+
+		memPutInt(a + 96, 0xDEADBEEF);
+		a = allocator.realloc(a, 10000);
+		assertEquals(memGetInt(a + 96), 0xDEADBEEF);
+
+		snapshot = allocator.snapshot();
+		assertEquals(snapshot.getBytesInUse(), 11100L);
+		assertEquals(snapshot.getBlocksInUse(), 3L);
+		assertEquals(snapshot.getPeakBytesInUse(), 11100L);
+
+		allocator.free(a);
+		allocator.free(b);
+		allocator.aligned_free(c);
+
+		snapshot = allocator.snapshot();
+		assertEquals(snapshot.getBytesInUse(), 0L);
+		assertEquals(snapshot.getBlocksInUse(), 0L);
+		assertEquals(snapshot.getPeakBytesInUse(), 11100L);
+		assertEquals(snapshot.getBytesAllocated(), snapshot.getBytesFreed());
+
+		allocator.resetPeak();
+		assertEquals(allocator.getPeakBytesInUse(), 0L);
+	}
+
+	public void testUntracked() {
+		MetricsAllocator allocator = new MetricsAllocator(MemoryManage.getDefaultInstance());
+		MemoryAllocator  wrapped   = allocator.getAllocator();
+
+		// Blocks are interchangeable with the wrapped allocator, e.g. when native code uses the function pointers
+		long a = wrapped.malloc(100);
+		a = allocator.realloc(a, 200);
+		allocator.free(a);
+
+		long b = allocator.malloc(100);
+		wrapped.free(b);
+
+		MetricsAllocator.Snapshot snapshot = allocator.snapshot();
+		assertEquals(snapshot.getBlocksAllocated(), 2L);
+		assertEquals(snapshot.getBytesAllocated(), 300L);
+		assertEquals(snapshot.getBlocksFreed(), 1L);
+		assertEquals(snapshot.getBytesFreed(), 200L);
+	}
+
+	public void testManyBlocks() {
+		MetricsAllocator allocator = new MetricsAllocator(MemoryManage.getDefaultInstance());
+
+		Random random = new Random(13);
+
+		long[] pointers = new long[10000];
+		long   total    = 0L;
+		for ( int i = 0; i < pointers.length; i++ ) {
+			pointers[i] = allocator.malloc(i + 1);
+			total += i + 1;
+		}
+
+		// Free half of the blocks in random order
+		List<Integer> order = new ArrayList<>();
+		for ( int i = 0; i < pointers.length; i++ )
+			order.add(i);
+		Collections.shuffle(order, random);
+
+		for ( int i = 0; i < pointers.length / 2; i++ ) {
+			int index = order.get(i);
+			allocator.free(pointers[index]);
+			total -= index + 1;
+		}
+
+		MetricsAllocator.Snapshot snapshot = allocator.snapshot();
+		assertEquals(snapshot.getBytesInUse(), total);
+		assertEquals(snapshot.getBlocksInUse(), pointers.length / 2);
+
+		for ( int i = pointers.length / 2; i < pointers.length; i++ )
+			allocator.free(pointers[order.get(i)]);
+
+		snapshot = allocator.snapshot();
+		assertEquals(snapshot.getBytesInUse(), 0L);
+		assertEquals(snapshot.getBlocksInUse(), 0L);
+	}
+
+	public void testTerminatedThreads() throws InterruptedException {
+		MetricsAllocator allocator = new MetricsAllocator(MemoryManage.getDefaultInstance());
+
+		long[] pointers = new long[100];
+
+		Thread t = new Thread(() -> {
+			for ( int i = 0; i < pointers.length; i++ )
+				pointers[i] = allocator.malloc(1024);
+		});
+		t.start();
+		t.join();
+
+		MetricsAllocator.Snapshot snapshot = allocator.snapshot();
+		assertEquals(snapshot.getBytesInUse(), 100 * 1024L);
+		assertEquals(snapshot.getPeakBytesInUse(), 100 * 1024L);
+		assertTrue(snapshot.getThreads().isEmpty());
+
+		for ( long pointer : pointers )
+			allocator.free(pointer);
+
+		snapshot = allocator.snapshot();
+		assertEquals(snapshot.getBytesInUse(), 0L);
+		assertEquals(snapshot.getThreads().size(), 1);
+		assertEquals(snapshot.getThreads().get(0).getBlocksFreed(), 100L);
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class PooledAllocatorTest {
+
+	private static void fill(long address, long size, int seed) {
+		for ( long i = 0; i < size; i++ )
+			memPutByte(address + i, (byte)(seed + i));
+	}
+
+	private static void check(long address, long size, int seed) {
+		for ( long i = 0; i < size; i++ )
+			assertEquals(memGetByte(address + i), (byte)(seed + i));
+	}
+
+	public void testMallocFree() {
+		PooledAllocator allocator = new PooledAllocator(MemoryManage.getDefaultInstance());
+
+		Random rand = new Random(13);
+
+		long[] pointers = new long[4096];
+		int[] sizes = new int[pointers.length];
+		for ( int i = 0; i < pointers.length; i++ ) {
+			sizes[i] = rand.nextInt(8) == 0 ? rand.nextInt(3 * PooledAllocator.MAX_POOLED_SIZE) : rand.nextInt(256);
+			pointers[i] = allocator.malloc(sizes[i]);
+
+			assertNotEquals(pointers[i], NULL);
+			assertEquals(pointers[i] & 15L, 0L);
+
+			fill(pointers[i], sizes[i], i);
+		}
+
+		for ( int i = 0; i < pointers.length; i++ ) {
+			check(pointers[i], sizes[i], i);
+			allocator.free(pointers[i]);
+		}
+
+		// Freed blocks are reused by the same thread
+		long a = allocator.malloc(64);
+		allocator.free(a);
+		assertEquals(allocator.malloc(64), a);
+		allocator.free(a);
+	}
+
+	public void testCalloc() {
+		PooledAllocator allocator = new PooledAllocator(MemoryManage.getDefaultInstance());
+
+		for ( int size : new int[] { 1, 100, PooledAllocator.MAX_POOLED_SIZE, PooledAllocator.MAX_POOLED_SIZE + 1 } ) {
+			// Dirty the block that calloc will reuse
+			long dirty = allocator.malloc(size);
+			fill(dirty, size, 1);
+			allocator.free(dirty);
+
+			long address = allocator.calloc(1, size);
+			for ( int i = 0; i < size; i++ )
+				assertEquals(memGetByte(address + i), 0);
+			allocator.free(address);
+		}
+	}
+
+	public void testRealloc() {
+		PooledAllocator allocator = new PooledAllocator(MemoryManage.getDefaultInstance());
+
+		int[] sizes = { 8, 24, 100, 1000, PooledAllocator.MAX_POOLED_SIZE, 10000, 100000, 50, 1 };
+
+		long address = allocator.malloc(sizes[0]);
+		fill(address, sizes[0], 7);
+		for ( int i = 1; i < sizes.length; i++ ) {
+			address = allocator.realloc(address, sizes[i]);
+			check(address, Math.min(sizes[i - 1], sizes[i]), 7);
+			fill(address, sizes[i], 7);
+		}
+
+		assertEquals(allocator.realloc(address, 0), NULL);
+	}
+
+	public void testWrappedAllocatorMemory() {
+		PooledAllocator allocator = new PooledAllocator(MemoryManage.getDefaultInstance());
+
+		// e.g. memory allocated by native code through the function pointers
+		long a = allocator.getAllocator().malloc(64);
+		fill(a, 64, 3);
+		a = allocator.realloc(a, 128);
+		check(a, 64, 3);
+		allocator.free(a);
+
+		// Large blocks are plain allocations of the wrapped allocator
+		long b = allocator.malloc(PooledAllocator.MAX_POOLED_SIZE + 1);
+		allocator.getAllocator().free(b);
+	}
+
+	public void testCrossThreadFree() throws InterruptedException {
+		PooledAllocator allocator = new PooledAllocator(MemoryManage.getDefaultInstance());
+
+		long[] pointers = new long[10000];
+		for ( int i = 0; i < pointers.length; i++ ) {
+			pointers[i] = allocator.malloc(i & 511);
+			memPutInt(pointers[i], i);
+		}
+
+		Thread t = new Thread(() -> {
+			for ( int i = 0; i < pointers.length; i++ ) {
+				assertEquals(memGetInt(pointers[i]), i);
+				allocator.free(pointers[i]);
+			}
+
+			// Leave a populated cache behind, it must be reclaimed after this thread terminates.
+			for ( int i = 0; i < 100; i++ )
+				allocator.free(allocator.malloc(32));
+		});
+		t.start();
+		t.join();
+
+		for ( int i = 0; i < pointers.length; i++ )
+			allocator.free(allocator.malloc(i & 511));
+	}
+
+}
@@ -9,6 +9,7 @@ import org.testng.annotations.Test;
 
 import static org.lwjgl.system.Checks.*;
 import static org.lwjgl.system.MemoryStack.*;
+import static org.lwjgl.system.MemoryUtil.*;
 import static org.testng.Assert.*;
 
 @Test
@@ -103,4 +104,174 @@ public class StackTest {
 		recursivePush(stack);
 	}
 
+	public void testSegmented() {
+		MemoryStack stack = MemoryStack.create(64, true);
+
+		int pointer = stack.getPointer();
+
+		long a, b;
+		try ( MemoryStack frame = stack.push() ) {
+			a = frame.nmalloc(8, 48);
+			memPutLong(a, 0x0123456789ABCDEFL);
+
+			// Does not fit in the first segment
+			b = frame.nmalloc(8, 100);
+			assertNotEquals(b, a);
+			memPutLong(b, 0xFEDCBA9876543210L);
+
+			try ( MemoryStack nested = frame.push() ) {
+				long c = nested.nmalloc(8, 64 * 1024);
+				memSet(c, 0xFF, 64 * 1024);
+			}
+
+			// Addresses are stable
+			assertEquals(memGetLong(a), 0x0123456789ABCDEFL);
+			assertEquals(memGetLong(b), 0xFEDCBA9876543210L);
+		}
+		assertEquals(stack.getPointer(), pointer);
+
+		try ( MemoryStack frame = stack.push() ) {
+			assertEquals(frame.nmalloc(8, 48), a);
+			// The second segment has been retained
+			long c = frame.nmalloc(8, 100);
+			assertEquals(c, b);
+			memPutLong(c, 0xFEDCBA9876543210L);
+			assertEquals(memGetLong(c), 0xFEDCBA9876543210L);
+		}
+		assertEquals(stack.getPointer(), pointer);
+	}
+
+	public void testSegmentedRetain() {
+		MemoryStack stack = MemoryStack.create(64, true);
+
+		int pointer = stack.getPointer();
+
+		// Pushing and popping across a segment boundary reuses the same segment
+		long overflow = NULL;
+		for ( int i = 0; i < 1000; i++ ) {
+			try ( MemoryStack frame = stack.push() ) {
+				frame.nmalloc(8, 48);
+
+				long a = frame.nmalloc(8, 100);
+				if ( i == 0 )
+					overflow = a;
+				else
+					assertEquals(a, overflow);
+				memPutLong(a, i);
+			}
+			assertEquals(stack.getPointer(), pointer);
+		}
+
+		// A larger allocation does not fit in the retained segment, it is replaced
+		try ( MemoryStack frame = stack.push() ) {
+			frame.nmalloc(8, 48);
+			long a = frame.nmalloc(8, 16 * 1024);
+			memSet(a, 0xFF, 16 * 1024);
+		}
+
+		try ( MemoryStack frame = stack.push() ) {
+			frame.nmalloc(8, 48);
+			assertNotEquals(frame.nmalloc(8, 100), NULL);
+		}
+		assertEquals(stack.getPointer(), pointer);
+	}
+
+	public void testPool() throws InterruptedException {
+		if ( MemoryStackPool.getCapacity() == 0 )
+			throw new SkipException("The stack pool is disabled.");
+
+		MemoryStack stack = MemoryStackPool.borrow();
+		MemoryStackPool.release(stack);
+
+		long hits = MemoryStackPool.getHits();
+
+		MemoryStack[] borrowed = new MemoryStack[1];
+		Thread t = new Thread(() -> borrowed[0] = MemoryStackPool.borrow());
+		t.start();
+		t.join();
+
+		assertNotNull(borrowed[0]);
+		assertEquals(MemoryStackPool.getHits(), hits + 1);
+		assertTrue(0.0 < MemoryStackPool.getHitRate());
+		MemoryStackPool.release(borrowed[0]);
+	}
+
+	public void testStackGetAcrossFrames() {
+		MemoryStack stack = stackGet();
+
+		int pointer = stack.getPointer();
+		try ( MemoryStack outer = stackPush() ) {
+			outer.malloc(16);
+			try ( MemoryStack inner = stackPush() ) {
+				inner.malloc(16);
+			}
+		}
+
+		// A pooled stack is taken back from the pool, if no other thread has borrowed it
+		assertSame(stackGet(), stack);
+		assertEquals(stack.getFrameIndex(), 0);
+		assertEquals(stack.getPointer(), pointer);
+
+		stack.malloc(8);
+		assertSame(stackGet(), stack);
+		stack.setPointer(pointer);
+	}
+
+	public void testPoolReturnOnPop() throws InterruptedException {
+		if ( MemoryStackPool.getCapacity() == 0 )
+			throw new SkipException("The stack pool is disabled.");
+
+		MemoryStack stack = MemoryStackPool.borrow();
+		int pointer = stack.getPointer();
+
+		// Returned to the pool when the outermost frame is popped
+		stack.push().malloc(16);
+		stack.pop();
+		assertNull(stack.owner);
+
+		// Taken back by the next push
+		stack.push().malloc(16);
+		assertSame(stack.owner, Thread.currentThread());
+		stack.pop();
+
+		// Allocations outside of any frame keep the stack with its thread
+		assertTrue(MemoryStackPool.take(stack));
+		stack.malloc(8);
+		stack.push();
+		stack.pop();
+		assertSame(stack.owner, Thread.currentThread());
+
+		stack.setPointer(pointer);
+		MemoryStackPool.release(stack);
+
+		// Borrowed by another thread, a stale reference can no longer be used
+		boolean[] taken = new boolean[1];
+		Thread t = new Thread(() -> taken[0] = MemoryStackPool.take(stack));
+		t.start();
+		t.join();
+
+		assertTrue(taken[0]);
+		expectThrows(IllegalStateException.class, stack::push);
+
+		MemoryStackPool.release(stack);
+	}
+
+	public void testSegmentedSetPointer() {
+		MemoryStack stack = MemoryStack.create(64, true);
+
+		int pointer = stack.getPointer();
+		long a = stack.nmalloc(8, 32);
+
+		int saved = stack.getPointer();
+		stack.nmalloc(8, 1024);
+		stack.setPointer(saved);
+		assertEquals(stack.getPointer(), saved);
+
+		// Back in the first segment
+		assertEquals(stack.nmalloc(8, 32), a - 32);
+
+		stack.setPointer(pointer);
+		assertEquals(stack.nmalloc(8, 32), a);
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.BufferUtils;
+import org.testng.annotations.Test;
+
+import java.nio.*;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class StructBufferTest {
+
+	/** A minimal {@code struct { int value; int padding; }}. */
+	private static final class Item extends Struct {
+
+		static final int SIZEOF = 8;
+
+		Item(long address, ByteBuffer container) {
+			super(address, container);
+		}
+
+		@Override
+		public int sizeof() { return SIZEOF; }
+
+		int value() { return memGetInt(address()); }
+
+		static final class Buffer extends StructBuffer<Item, Buffer> {
+
+			Buffer(long address, ByteBuffer container, int mark, int pos, int lim, int cap) {
+				super(address, container, mark, pos, lim, cap);
+			}
+
+			@Override
+			protected Buffer self() { return this; }
+
+			@Override
+			protected Buffer newBufferInstance(long address, ByteBuffer container, int mark, int pos, int lim, int cap) {
+				return new Buffer(address, container, mark, pos, lim, cap);
+			}
+
+			@Override
+			protected Item newInstance(long address) { return new Item(address, container); }
+
+			@Override
+			protected int sizeof() { return SIZEOF; }
+
+		}
+
+	}
+
+	private static Item.Buffer createBuffer(ByteBuffer container) {
+		int capacity = container.remaining() / Item.SIZEOF;
+		for ( int i = 0; i < capacity; i++ )
+			container.putInt(i * Item.SIZEOF, i);
+		return new Item.Buffer(memAddress(container), container, -1, 0, capacity, capacity);
+	}
+
+	public void testFlyweight() {
+		Item.Buffer buffer = createBuffer(BufferUtils.createByteBuffer(16 * Item.SIZEOF));
+
+		Item view = buffer.flyweight();
+		for ( int i = 0; i < buffer.limit(); i++ ) {
+			assertSame(buffer.flyweight(i, view), view);
+			assertEquals(view.value(), i);
+		}
+
+		expectThrows(IndexOutOfBoundsException.class, () -> buffer.flyweight(16, view));
+	}
+
+	public void testIteration() {
+		Item.Buffer buffer = createBuffer(BufferUtils.createByteBuffer(16 * Item.SIZEOF));
+		buffer.position(4).limit(12);
+
+		List<Integer> values = new ArrayList<>();
+		Set<Item>     views  = Collections.newSetFromMap(new IdentityHashMap<>());
+		for ( Item item : buffer ) {
+			values.add(item.value());
+			views.add(item);
+		}
+		assertEquals(values, Arrays.asList(4, 5, 6, 7, 8, 9, 10, 11));
+		assertEquals(views.size(), 1);
+
+		values.clear();
+		buffer.forEach(item -> values.add(item.value()));
+		assertEquals(values, Arrays.asList(4, 5, 6, 7, 8, 9, 10, 11));
+
+		assertEquals(buffer.position(), 4);
+	}
+
+	public void testStream() {
+		Item.Buffer buffer = createBuffer(BufferUtils.createByteBuffer(10000 * Item.SIZEOF));
+
+		long expected = 10000L * 9999L / 2L;
+		assertEquals(buffer.stream().mapToLong(Item::value).sum(), expected);
+		assertEquals(buffer.parallelStream().mapToLong(Item::value).sum(), expected);
+		assertEquals(
+			buffer.parallelStream().map(Item::value).collect(Collectors.toList()),
+			IntStream.range(0, 10000).boxed().collect(Collectors.toList())
+		);
+	}
+
+	public void testColumns() {
+		Item.Buffer buffer = createBuffer(BufferUtils.createByteBuffer(16 * Item.SIZEOF));
+		buffer.position(4).limit(12);
+
+		int[] values = new int[8];
+		buffer.gather(0, values);
+		assertEquals(values, new int[] { 4, 5, 6, 7, 8, 9, 10, 11 });
+
+		IntBuffer column = BufferUtils.createIntBuffer(9).put(-1);
+		buffer.gather(0, column);
+		assertEquals(column.position(), 1);
+		for ( int i = 0; i < 8; i++ )
+			assertEquals(column.get(1 + i), 4 + i);
+
+		for ( int i = 0; i < 8; i++ )
+			values[i] = -i;
+		buffer.scatter(0, values);
+		for ( int i = 0; i < 16; i++ ) {
+			assertEquals(buffer.get(i).value(), 4 <= i && i < 12 ? 4 - i : i);
+			assertEquals(memGetInt(buffer.address(i) + 4), 0);
+		}
+
+		buffer.scatter(0, column);
+		for ( int i = 0; i < 8; i++ )
+			assertEquals(buffer.get(4 + i).value(), 4 + i);
+
+		assertEquals(buffer.position(), 4);
+		expectThrows(IllegalArgumentException.class, () -> buffer.gather(0, new int[7]));
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.*;
+import org.testng.annotations.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class ThreadLocalUtilTest {
+
+	/** A capabilities class, laid out like the generated ones. */
+	private static final class Capabilities {
+
+		final long glA, glB, glC, glD;
+
+		final PointerBuffer addresses;
+
+		Capabilities(long[] functions) {
+			glA = functions[0];
+			glB = functions[1];
+			glC = functions[2];
+			glD = functions[3];
+
+			addresses = ThreadLocalUtil.getAddressesFromCapabilities(functions);
+		}
+
+	}
+
+	public void testAddresses() {
+		Capabilities caps = new Capabilities(new long[] { 0x1000L, 0x2000L, NULL, 0x4000L });
+
+		// Same order as the function ordinals
+		assertEquals(caps.addresses.remaining(), 4);
+		assertEquals(caps.addresses.get(0), caps.glA);
+		assertEquals(caps.addresses.get(1), caps.glB);
+		assertEquals(caps.addresses.get(3), caps.glD);
+
+		// Missing functions are replaced
+		assertEquals(caps.glC, NULL);
+		assertNotEquals(caps.addresses.get(2), NULL);
+		assertEquals(new Capabilities(new long[] { NULL, NULL, NULL, NULL }).addresses.get(0), caps.addresses.get(2));
+	}
+
+	public void testCompare() {
+		Capabilities ref = new Capabilities(new long[] { 0x1000L, 0x2000L, NULL, 0x4000L });
+
+		assertTrue(ThreadLocalUtil.compareCapabilities(ref.addresses, new Capabilities(new long[] { 0x1000L, 0x2000L, NULL, 0x4000L }).addresses));
+
+		// Different address
+		assertFalse(ThreadLocalUtil.compareCapabilities(ref.addresses, new Capabilities(new long[] { 0x1000L, 0x2000L, NULL, 0x4001L }).addresses));
+		// Missing vs available
+		assertFalse(ThreadLocalUtil.compareCapabilities(ref.addresses, new Capabilities(new long[] { 0x1000L, 0x2000L, 0x3000L, 0x4000L }).addresses));
+		// Same addresses, different order
+		assertFalse(ThreadLocalUtil.compareCapabilities(ref.addresses, new Capabilities(new long[] { 0x2000L, 0x1000L, NULL, 0x4000L }).addresses));
+
+		// Different size
+		PointerBuffer prefix = BufferUtils.createPointerBuffer(3);
+		for ( int i = 0; i < 3; i++ )
+			prefix.put(i, ref.addresses.get(i));
+		assertFalse(ThreadLocalUtil.compareCapabilities(ref.addresses, prefix));
+	}
+
+}
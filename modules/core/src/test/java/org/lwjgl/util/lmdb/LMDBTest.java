@@ -0,0 +1,181 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.util.lmdb;
+
+import org.lwjgl.BufferUtils;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.util.lmdb.LMDB.*;
+import static org.testng.Assert.*;
+
+@Test
+public class LMDBTest {
+
+	private File dir;
+
+	private LMDBEnv env;
+	private int     dbi;
+
+	@BeforeMethod
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("lwjgl-lmdb").toFile();
+		env = new LMDBEnv(dir.getPath(), MDB_NOSYNC, 16L * 1024 * 1024, 0, 0);
+		dbi = env.openDatabase(null, MDB_INTEGERKEY);
+	}
+
+	@AfterMethod
+	public void tearDown() {
+		env.close();
+
+		File[] files = dir.listFiles();
+		if ( files != null ) {
+			for ( File file : files )
+				file.delete();
+		}
+		dir.delete();
+	}
+
+	private static ByteBuffer key(int key) {
+		return BufferUtils.createByteBuffer(4).putInt(0, key);
+	}
+
+	private static ByteBuffer value(int value) {
+		return BufferUtils.createByteBuffer(8).putLong(0, value);
+	}
+
+	public void testPutGet() {
+		try ( LMDBTxn txn = env.write() ) {
+			assertTrue(txn.put(dbi, key(1), value(10), 0));
+			assertFalse(txn.put(dbi, key(1), value(11), MDB_NOOVERWRITE));
+
+			ByteBuffer value = txn.reserve(dbi, key(2), 8, 0);
+			assertEquals(value.remaining(), 8);
+			value.putLong(0, 20L);
+
+			txn.commit();
+		}
+
+		try ( LMDBTxn txn = env.read() ) {
+			assertEquals(txn.get(dbi, key(1)).getLong(0), 10L);
+			assertEquals(txn.get(dbi, key(2)).getLong(0), 20L);
+			assertNull(txn.get(dbi, key(3)));
+		}
+
+		try ( LMDBTxn txn = env.write() ) {
+			assertTrue(txn.delete(dbi, key(1)));
+			assertFalse(txn.delete(dbi, key(3)));
+			// aborted
+		}
+
+		try ( LMDBTxn txn = env.read() ) {
+			assertNotNull(txn.get(dbi, key(1)));
+		}
+	}
+
+	public void testReadReuse() {
+		LMDBTxn txn = env.read();
+		long    handle = txn.address();
+		txn.close();
+
+		expectThrows(IllegalStateException.class, txn::address);
+
+		try ( LMDBTxn reused = env.read() ) {
+			assertSame(reused, txn);
+			assertEquals(reused.address(), handle);
+			expectThrows(IllegalStateException.class, env::read);
+		}
+	}
+
+	public void testUseAfterClose() throws InterruptedException {
+		// Caches a transaction in another thread
+		Thread t = new Thread(() -> env.read().close());
+		t.start();
+		t.join();
+
+		LMDBTxn txn = env.read();
+		txn.close();
+
+		env.close();
+
+		expectThrows(IllegalStateException.class, env::read);
+		expectThrows(IllegalStateException.class, env::write);
+		expectThrows(IllegalStateException.class, txn::address);
+
+		// close() is idempotent, the tear down closes again
+		env.close();
+	}
+
+	public void testReapTerminatedThread() throws InterruptedException {
+		LMDBTxn[] cached = new LMDBTxn[1];
+
+		Thread t = new Thread(() -> {
+			LMDBTxn txn = env.read();
+			cached[0] = txn;
+			txn.close();
+		});
+		t.start();
+		t.join();
+
+		// The first transaction of this thread frees the transaction of the terminated thread
+		try ( LMDBTxn txn = env.read() ) {
+			assertNotSame(txn, cached[0]);
+		}
+		expectThrows(IllegalStateException.class, cached[0]::begin);
+	}
+
+	public void testReleaseThread() {
+		LMDBTxn txn = env.read();
+
+		// Active transactions are aborted
+		env.releaseThread();
+		expectThrows(IllegalStateException.class, txn::begin);
+
+		try ( LMDBTxn reader = env.read() ) {
+			assertNotSame(reader, txn);
+			assertNotEquals(reader.address(), NULL);
+		}
+
+		env.releaseThread();
+		env.releaseThread();
+
+		try ( LMDBTxn writer = env.write() ) {
+			assertTrue(writer.put(dbi, key(1), value(10), 0));
+			writer.commit();
+		}
+		try ( LMDBTxn reader = env.read() ) {
+			assertEquals(reader.get(dbi, key(1)).getLong(0), 10L);
+		}
+	}
+
+	public void testCursorStream() {
+		try ( LMDBTxn txn = env.write() ) {
+			for ( int i = 0; i < 100; i++ )
+				txn.put(dbi, key(i), value(i * 10), MDB_APPEND);
+			txn.commit();
+		}
+
+		try ( LMDBTxn txn = env.read(); LMDBCursor cursor = txn.cursor(dbi) ) {
+			List<Long> values = cursor.stream(key(90))
+				.map(c -> c.value().getLong(0))
+				.collect(Collectors.toList());
+			assertEquals(values, LongStream.range(90, 100).map(i -> i * 10).boxed().collect(Collectors.toList()));
+
+			assertEquals(cursor.stream(null).count(), 100L);
+			assertFalse(cursor.seek(key(100)));
+
+			assertTrue(cursor.get(key(42)));
+			assertEquals(cursor.key().getInt(0), 42);
+			assertEquals(cursor.valueVal().mv_size(), 8L);
+		}
+	}
+
+}
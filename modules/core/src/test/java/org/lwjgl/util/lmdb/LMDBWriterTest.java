@@ -0,0 +1,111 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.util.lmdb;
+
+import org.lwjgl.BufferUtils;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.lwjgl.util.lmdb.LMDB.*;
+import static org.testng.Assert.*;
+
+@Test
+public class LMDBWriterTest {
+
+	private File dir;
+
+	private LMDBEnv env;
+	private int     dbi;
+
+	@BeforeMethod
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("lwjgl-lmdb").toFile();
+		env = new LMDBEnv(dir.getPath(), MDB_NOSYNC, 64L * 1024 * 1024, 0, 0);
+		dbi = env.openDatabase(null, MDB_INTEGERKEY);
+	}
+
+	@AfterMethod
+	public void tearDown() {
+		env.close();
+
+		File[] files = dir.listFiles();
+		if ( files != null ) {
+			for ( File file : files )
+				file.delete();
+		}
+		dir.delete();
+	}
+
+	private static ByteBuffer key(int key) {
+		return BufferUtils.createByteBuffer(4).putInt(0, key);
+	}
+
+	public void testConcurrentProducers() throws Exception {
+		int threads   = 4;
+		int perThread = 2500;
+
+		List<CompletableFuture<Boolean>> futures = Collections.synchronizedList(new ArrayList<>());
+		try ( LMDBWriter writer = new LMDBWriter(env, 256, TimeUnit.MILLISECONDS.toNanos(2)) ) {
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			for ( int t = 0; t < threads; t++ ) {
+				int base = t * perThread;
+				executor.execute(() -> {
+					for ( int i = base; i < base + perThread; i++ )
+						futures.add(writer.put(dbi, key(i), key(-i), 0));
+				});
+			}
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+			for ( CompletableFuture<Boolean> future : futures )
+				assertTrue(future.get());
+
+			// Statistics are updated after the futures are completed
+			writer.close();
+
+			LMDBWriter.Statistics stats = writer.getStatistics();
+			assertEquals(stats.getOperations(), (long)threads * perThread);
+			assertEquals(stats.getFailures(), 0L);
+			assertTrue(stats.getBatches() < stats.getOperations());
+		}
+
+		try ( LMDBTxn txn = env.read() ) {
+			for ( int i = 0; i < threads * perThread; i++ )
+				assertEquals(txn.get(dbi, key(i)).getInt(0), -i);
+		}
+	}
+
+	public void testResults() throws Exception {
+		try ( LMDBWriter writer = new LMDBWriter(env, 1024, TimeUnit.SECONDS.toNanos(10)) ) {
+			CompletableFuture<Boolean> put1   = writer.put(dbi, key(1), key(10), 0);
+			CompletableFuture<Boolean> put2   = writer.put(dbi, key(1), key(11), MDB_NOOVERWRITE);
+			CompletableFuture<Boolean> delete = writer.delete(dbi, key(2));
+
+			writer.flush().get(10, TimeUnit.SECONDS);
+
+			assertTrue(put1.get());
+			assertFalse(put2.get());
+			assertFalse(delete.get());
+
+			// Pending operations are committed on close
+			delete = writer.delete(dbi, key(1));
+			writer.close();
+			assertTrue(delete.isDone());
+			assertTrue(delete.get());
+
+			expectThrows(IllegalStateException.class, writer::flush);
+		}
+
+		try ( LMDBTxn txn = env.read() ) {
+			assertNull(txn.get(dbi, key(1)));
+		}
+	}
+
+}
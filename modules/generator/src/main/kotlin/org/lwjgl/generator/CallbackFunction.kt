@@ -142,6 +142,9 @@ ${access.modifier}interface ${className}I extends CallbackI.${returns.mapping.jn
 	@Override
 	default String getSignature() { return SIGNATURE; }
 
+	@Override
+	default Class<? extends CallbackI> getInvokeInterface() { return ${className}I.class; }
+
 	@Override
 	default ${returns.nativeMethodType} callback(long args) {
 		""")
@@ -180,4 +180,47 @@ class Construct(
 /** Returns the address of the return value, instead of the return value itself. */
 object Address : FunctionModifier {
 	override val isSpecial = false
+}
+
+/**
+ * Marks a function that is short-running, does not call back into Java and does not block. Such functions are called through the {@code Critical} methods
+ * of {@code org.lwjgl.system.JNI}, which the FFM backend calls without a thread state transition.
+ *
+ * In bindings to statically linked libraries, the Java methods call the {@code JavaCritical_} entry point of the function directly, when the JVM supports
+ * it. Array parameters are then passed without copying or pinning.
+ */
+object Critical : FunctionModifier {
+	override val isSpecial = false
+	override fun validate(func: Func) {
+		if (func.nativeClass.binding == null) {
+			if (func.parameters.contains(JNI_ENV))
+				throw IllegalArgumentException("The Critical modifier cannot be applied on functions that use the JNI environment.")
+
+			if (func.returns.isStructValue || func.parameters.any { it.nativeType is StructType })
+				throw IllegalArgumentException("The Critical modifier cannot be applied on functions with struct values.")
+		}
+	}
+}
+
+/**
+ * Generates an overload that records the function call to an {@code org.lwjgl.system.CommandBuffer}, instead of calling the function. The overload has the
+ * parameters of the unsafe version of the function, prefixed with the command buffer.
+ *
+ * This is useful for small functions that are called many times per frame, where the cost of the JNI transition dominates the native work.
+ */
+object CommandBuffered : FunctionModifier {
+	override val isSpecial = false
+	override fun validate(func: Func) {
+		if (func.nativeClass.binding == null)
+			throw IllegalArgumentException("The CommandBuffered modifier can only be applied on functions of dynamically loaded libraries.")
+
+		if (func.returns.isStructValue || func.parameters.any { it.nativeType is StructType })
+			throw IllegalArgumentException("The CommandBuffered modifier cannot be applied on functions with struct values.")
+
+		if (func.parameters.contains(JNI_ENV))
+			throw IllegalArgumentException("The CommandBuffered modifier cannot be applied on functions with custom native code.")
+
+		if (16 < func.parameters.count { it !== EXPLICIT_FUNCTION_ADDRESS && !it.has<Virtual>() })
+			throw IllegalArgumentException("The CommandBuffered modifier can only be applied on functions with up to 16 parameters.")
+	}
 }
\ No newline at end of file
@@ -33,6 +33,8 @@ internal const val POINTER_POSTFIX = "Address"
 internal const val MAP_OLD = "old_buffer"
 internal const val MAP_LENGTH = "length"
 const val FUNCTION_ADDRESS = "__functionAddress"
+internal const val PROFILE_START = "__profile"
+internal const val PROFILE_BASE = "PROFILE_BASE"
 
 internal const val JNIENV = "__env"
 
@@ -48,6 +50,19 @@ enum class GenerationMode {
 	ALTERNATIVE
 }
 
+/** The argument and return types of org.lwjgl.system.CommandBuffer. The ordinals match the TYPE_ constants. */
+internal enum class CommandType(val method: String) {
+	VOID("Void"),
+	BOOL("Bool"),
+	BYTE("Byte"),
+	SHORT("Short"),
+	INT("Int"),
+	LONG("Long"),
+	POINTER("Address"),
+	FLOAT("Float"),
+	DOUBLE("Double")
+}
+
 // DSL extensions
 
 fun NativeType.IN(name: String, javadoc: String, links: String = "", linkMode: LinkMode = LinkMode.SINGLE) = Parameter(this, name, IN, javadoc, links, linkMode)
@@ -147,10 +162,33 @@ class Func(
 		(!hasFunctionAddressParam || returns.isStructValue || hasNativeCode) && (!has<Macro>() || get<Macro>().expression == null)
 	}
 
+	/** The name of the org.lwjgl.system.JNI method that calls this function. The array API does not have critical methods. */
+	private val jniMethod
+		get() = "${nativeClass.binding!!.callingConvention.method}${if (has<Critical>() && !hasParam { it.nativeType is ArrayType }) "Critical" else ""}${
+		getNativeParams(withExplicitFunctionAddress = false).map { it.nativeType.mapping.jniSignatureJava }.joinToString("")
+		}${returns.nativeType.mapping.jniSignature}"
+
+	/** Returns true if the native method has a {@code JavaCritical_} entry point that is called directly, when supported by the JVM. */
+	internal val hasCriticalNative
+		get() = nativeClass.binding == null && has<Critical>() && !parameters.contains(JNI_ENV)
+
+	/** Returns true if the Java methods of this function record the native call with {@code FunctionProfiler}. */
+	internal val isProfiled
+		get() = Binding.PROFILE_FUNCTIONS && nativeClass.binding != null && !isNativeOnly && !has<Macro>() && !has<Address>()
+
+	/** The {@code FunctionProfiler} id of this function. */
+	private val profileID
+		get() = nativeClass.profiledFunctions.indexOf(name).let { if (it == 0) PROFILE_BASE else "$PROFILE_BASE + $it" }
+
+	private fun PrintWriter.printProfileBegin(indent: String) {
+		println("${indent}long $PROFILE_START = PROFILE_FUNCTIONS ? FunctionProfiler.begin() : FunctionProfiler.NOT_TIMED;")
+	}
+
 	private val isNativeOnly
 		get() = (nativeClass.binding == null || nativeClass.binding.apiCapabilities === APICapabilities.JNI_CAPABILITIES) &&
 		        !(
 			        modifiers.any { it.value.isSpecial }
+			        || hasCriticalNative
 			        || this.returns.isSpecial
 			        || hasParam { it.isSpecial }
 			        || has<NativeName>()
@@ -568,6 +606,9 @@ class Func(
 			writer.generateAlternativeMethods()
 		}
 
+		if (has<CommandBuffered>())
+			writer.generateCommandMethod()
+
 		if (constantMacro && !has(private)) {
 			writer.println()
 			writer.printDocumentation { true }
@@ -638,6 +679,47 @@ class Func(
 		}
 
 		println(");")
+
+		if (hasCriticalNative)
+			generateCriticalNativeMethod()
+	}
+
+	/** The name of the static field that holds the method handle of the {@code JavaCritical_} entry point. */
+	private val criticalNativeHandle
+		get() = "n$nativeName${getNativeParams().map { it.nativeType.jniSignatureMangled }.joinToString("", prefix = "__")}"
+
+	private val NativeType.jniSignatureMangled get() = if (this is ArrayType) this.mapping.jniSignatureArray else this.mapping.jniSignatureStrict
+
+	private fun PrintWriter.generateCriticalNativeMethod() {
+		val nativeParams = getNativeParams()
+		val handle = criticalNativeHandle
+
+		println()
+		println("	private static final MethodHandle $handle = apiCriticalNative(\"${getJNIFunctionName(critical = true)}\", \"${
+		nativeParams.map { it.nativeType.jniSignatureMangled.replace("_3", "[") }.joinToString("")
+		})${returns.nativeType.mapping.jniSignatureStrict}\");")
+
+		// Calls the JavaCritical_ entry point if available, otherwise the JNI method
+		println()
+		print("	private static $returnsNativeMethodType n${nativeName}Critical(")
+		printList(nativeParams) { it.asNativeMethodParam }
+		println(") {")
+		println("		if ( $handle != null ) {")
+		println("			try {")
+		print("				")
+		if (!returns.isVoid)
+			print("return ($returnsNativeMethodType)")
+		print("$handle.invokeExact(")
+		printList(nativeParams) { it.name }
+		println(");")
+		println("			} catch (Throwable t) {")
+		println("				throw apiRethrow(t);")
+		println("			}")
+		println("		}${if (returns.isVoid) " else" else ""}")
+		print("		${if (returns.isVoid) "\t" else "return "}n$nativeName(")
+		printList(nativeParams) { it.name }
+		println(");")
+		println("	}")
 	}
 
 	private fun PrintWriter.generateUnsafeMethod(constantMacro: Boolean) {
@@ -708,13 +790,19 @@ class Func(
 		}
 
 		// Native method call
+		val profiled = isProfiled
+		val profiledVoid = profiled && (returns.isVoid || returns.isStructValue)
+		if (profiled)
+			printProfileBegin("\t\t")
 		print("\t\t")
 		if (!returns.isVoid && !returns.isStructValue)
 			print("return ")
+		if (profiled && !profiledVoid)
+			print("FunctionProfiler.end($profileID, $PROFILE_START, ")
 		print(if (hasCustomJNI)
 			"n$nativeName("
 		else
-			"${binding.callingConvention.method}${getNativeParams(withExplicitFunctionAddress = false).map { it.nativeType.mapping.jniSignatureJava }.joinToString("")}${returns.nativeType.mapping.jniSignature}("
+			"$jniMethod("
 		)
 		if (!hasExplicitFunctionAddress) {
 			print(FUNCTION_ADDRESS)
@@ -730,7 +818,75 @@ class Func(
 			print(", ")
 			print(RESULT)
 		}
+		if (profiled && !profiledVoid)
+			print(")")
 		println(");")
+		if (profiledVoid)
+			println("\t\tFunctionProfiler.end($profileID, $PROFILE_START);")
+
+		println("\t}")
+	}
+
+	private val NativeType.commandType get() = when {
+		mapping === TypeMapping.VOID -> CommandType.VOID
+		isPointer                    -> CommandType.POINTER
+		else                         -> when (mapping.nativeMethodType) {
+			Boolean::class.java                 -> CommandType.BOOL
+			Byte::class.java                    -> CommandType.BYTE
+			Short::class.java, Char::class.java -> CommandType.SHORT
+			Int::class.java                     -> CommandType.INT
+			Long::class.java                    -> CommandType.LONG
+			Float::class.java                   -> CommandType.FLOAT
+			Double::class.java                  -> CommandType.DOUBLE
+			else                                -> throw IllegalStateException("Unsupported command buffer type: $name")
+		}
+	}
+
+	private fun PrintWriter.generateCommandMethod() {
+		println()
+
+		val nativeParams = getNativeParams(withExplicitFunctionAddress = false).toList()
+		val returnType = returns.nativeType.commandType
+
+		val documentation = if (returns.isVoid)
+			"Command buffer version of: $javaDocLink"
+		else
+			"""
+			Command buffer version of: $javaDocLink
+
+			Returns a handle to the return value, which can be retrieved with {@link CommandBuffer#get${returnType.method}} after the command buffer has been
+			executed.
+			"""
+		println(nativeClass.processDocumentation(documentation).toJavaDoc())
+		print("\t${accessModifier}static ${if (returns.isVoid) "void" else "int"} $name(CommandBuffer __buffer")
+		if (hasExplicitFunctionAddress)
+			print(", long $FUNCTION_ADDRESS")
+		nativeParams.forEach {
+			print(", ")
+			print(if (it.isFunctionProvider) it.asJavaMethodParam else it.asNativeMethodParam)
+		}
+		println(") {")
+
+		if (!hasExplicitFunctionAddress)
+			nativeClass.binding!!.generateFunctionAddress(this, this@Func)
+
+		val argTypes = nativeParams.foldIndexed(0L) { i, types, param -> types or (param.nativeType.commandType.ordinal.toLong() shl (i * 4)) }
+		val stdcall = nativeClass.binding!!.callingConvention === CallingConvention.STDCALL
+
+		print("\t\t")
+		if (!returns.isVoid)
+			print("return ")
+		print("__buffer\n\t\t\t.command($FUNCTION_ADDRESS, ${nativeParams.size}, 0x${java.lang.Long.toHexString(argTypes).toUpperCase()}L, CommandBuffer.TYPE_${returnType.name}, $stdcall)")
+		nativeParams.forEach {
+			print("\n\t\t\t.put${it.nativeType.commandType.method}(${when {
+				it.isFunctionProvider                                       -> "${it.name}.$ADDRESS"
+				it.nativeType.mapping.nativeMethodType === Char::class.java -> "(short)${it.name}"
+				else                                                        -> it.name
+			}})")
+		}
+		if (!returns.isVoid)
+			print("\n\t\t\t.handle()")
+		println(";")
 
 		println("\t}")
 	}
@@ -921,6 +1077,12 @@ class Func(
 		val returnsObject = returns.nativeType is ObjectType
 		val returnType = if (returnsObject) (returns.nativeType as ObjectType).className else returnsNativeMethodType
 
+		// Functions with an unsafe method are profiled there
+		val profiled = isProfiled && !hasUnsafeMethod
+		val profiledVoid = profiled && (returns.isVoid || returns.isStructValue)
+		if (profiled)
+			printProfileBegin(if (hasFinally) "\t\t\t" else "\t\t")
+
 		if (hasFinally)
 			print("\t")
 		print("\t\t")
@@ -940,11 +1102,15 @@ class Func(
 		if (hasUnsafeMethod) {
 			print("n$name(")
 		} else {
+			if (profiled && !profiledVoid)
+				print("FunctionProfiler.end($profileID, $PROFILE_START, ")
 			print(
-				if (hasCustomJNI)
+				if (hasCriticalNative)
+					"n${nativeName}Critical("
+				else if (hasCustomJNI)
 					"n$nativeName("
 				else macroExpression ?:
-				     "${nativeClass.binding!!.callingConvention.method}${getNativeParams(withExplicitFunctionAddress = false).map { it.nativeType.mapping.jniSignatureJava }.joinToString("")}${returns.nativeType.mapping.jniSignature}("
+				     "$jniMethod("
 			)
 			if (hasFunctionAddressParam && !hasExplicitFunctionAddress && !has<Macro>()) {
 				print(FUNCTION_ADDRESS)
@@ -958,6 +1124,8 @@ class Func(
 				print("$RESULT.$ADDRESS")
 			}
 			print(")")
+			if (profiled && !profiledVoid)
+				print(")")
 		}
 
 		if (returnsObject) {
@@ -972,6 +1140,12 @@ class Func(
 		if (returns.nativeType.mapping == PrimitiveMapping.BOOLEAN4)
 			print(" != 0")
 		println(";")
+
+		if (profiledVoid) {
+			if (hasFinally)
+				print("\t")
+			println("\t\tFunctionProfiler.end($profileID, $PROFILE_START);")
+		}
 	}
 
 	/** Alternative methods are generated by applying one or more transformations. */
@@ -1554,10 +1728,25 @@ class Func(
 	internal fun generateFunction(writer: PrintWriter) {
 		val hasArrays = hasParam { it.nativeType is ArrayType }
 		writer.generateFunctionImpl(hasArrays, critical = false)
-		if (hasArrays && !parameters.contains(JNI_ENV))
+		if ((hasArrays || hasCriticalNative) && !parameters.contains(JNI_ENV))
 			writer.generateFunctionImpl(hasArrays, critical = true)
 	}
 
+	private fun getJNIFunctionName(critical: Boolean) = StringBuilder().run {
+		append("Java${if (critical) "Critical" else ""}_${nativeClass.nativeFileNameJNI}_")
+		if (!isNativeOnly)
+			append('n')
+		append(nativeName.asJNIName)
+		if (hasParam { it.nativeType is ArrayType } || hasArrayOverloads)
+			append(getNativeParams(withExplicitFunctionAddress = false).map {
+				if (it.nativeType is ArrayType)
+					it.nativeType.mapping.jniSignatureArray
+				else
+					it.nativeType.mapping.jniSignatureStrict
+			}.joinToString("", prefix = if (hasFunctionAddressParam) "__J" else "__", postfix = if (returns.isStructValue) "J" else ""))
+		toString()
+	}
+
 	private fun PrintWriter.generateFunctionImpl(hasArrays: Boolean, critical: Boolean) {
 		val params = ArrayList<String>(4 + parameters.size)
 		if (!critical)
@@ -1583,17 +1772,7 @@ class Func(
 			(it.nativeType is PointerType && it.nativeType !is ArrayType) || it.nativeType.mapping.let { it is PrimitiveMapping && 4 < it.bytes }
 		}
 		if (workaroundJDK8167409) println("#ifdef LWJGL_WINDOWS")
-		print("JNIEXPORT $returnsJniFunctionType JNICALL Java${if (critical) "Critical" else ""}_${nativeClass.nativeFileNameJNI}_")
-		if (!isNativeOnly)
-			print('n')
-		print(nativeName.asJNIName)
-		if (hasArrays || hasArrayOverloads)
-			print(getNativeParams(withExplicitFunctionAddress = false).map {
-				if (it.nativeType is ArrayType)
-					it.nativeType.mapping.jniSignatureArray
-				else
-					it.nativeType.mapping.jniSignatureStrict
-			}.joinToString("", prefix = if (hasFunctionAddressParam) "__J" else "__", postfix = if (returns.isStructValue) "J" else ""))
+		print("JNIEXPORT $returnsJniFunctionType JNICALL ${getJNIFunctionName(critical)}")
 		println("(${if (params.isEmpty()) "void" else params.joinToString(", ")}) {")
 
 		// Cast function address to pointer
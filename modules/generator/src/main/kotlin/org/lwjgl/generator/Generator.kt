@@ -64,6 +64,7 @@ enum class Binding(
 
 	companion object {
 		val CHECKS = !System.getProperty("binding.DISABLE_CHECKS", "false").toBoolean()
+		val PROFILE_FUNCTIONS = System.getProperty("binding.PROFILE_FUNCTIONS", "false").toBoolean()
 
 		private val PACKAGES = enumValues<Binding>().associateBy { it.packageName }
 
@@ -26,12 +26,18 @@ object JNI : GeneratorTargetNative("org.lwjgl.system", "JNI") {
 	private val sortedSignatures by lazy(LazyThreadSafetyMode.NONE) { signatures.keys.sorted() }
 	private val sortedSignaturesArray by lazy(LazyThreadSafetyMode.NONE) { signaturesArray.keys.sorted() }
 
-	internal fun register(function: Func) = signatures.put(Signature(function), Unit)
+	internal fun register(function: Func) {
+		// The array API and custom code may use the non-critical signature
+		signatures.put(Signature(function, critical = false), Unit)
+		if (function.has<Critical>())
+			signatures.put(Signature(function, critical = true), Unit)
+	}
 	internal fun registerArray(function: Func) = signaturesArray.put(SignatureArray(function), Unit)
 
 	override fun PrintWriter.generateJava() {
 		print(HEADER)
 		println("package $packageName;\n")
+		println("import java.lang.invoke.*;\n")
 		print(
 			"""
 			This class contains native methods that can be used to call dynamically loaded functions. It is used internally by the LWJGL bindings, but can also
@@ -49,6 +55,12 @@ object JNI : GeneratorTargetNative("org.lwjgl.system", "JNI") {
 				systems.
 				""",
 				"""
+				an optional {@code Critical} infix
+
+				Methods with the {@code Critical} infix must only be used with functions that are short-running, do not call back into Java and do not block.
+				The FFM backend calls them without a thread state transition.
+				""",
+				"""
 				a {@code J} or a {@code P} for each {@code long} parameter
 
 				{@code J} parameters represent 64-bit integer values. {@code P} parameters represent pointer addresses. A pointer address is a 32-bit value on
@@ -56,6 +68,9 @@ object JNI : GeneratorTargetNative("org.lwjgl.system", "JNI") {
 				""",
 				"the return value <a href=\"http://docs.oracle.com/javase/8/docs/technotes/guides/jni/spec/types.html#type_signatures\">JNI type signature</a>"
 			)}
+
+			The methods of the pointer API call native functions with JNI or, if {@link Configuration#NATIVE_BACKEND} is set to <em>FFM</em>, with downcall
+			method handles of the Foreign Function &amp; Memory API. The array API always uses JNI.
 			""".toJavaDoc(indentation = "")
 		)
 		print("""
@@ -71,10 +86,24 @@ public final class JNI {
 
 """)
 		sortedSignatures.forEach {
-			print("\tpublic static native ${it.returnType.nativeMethodType} ${it.signature}(long $FUNCTION_ADDRESS")
-			if (it.arguments.isNotEmpty())
-				print(it.arguments.asSequence().mapIndexed { i, param -> "${param.nativeMethodType} param$i" }.joinToString(", ", prefix = ", "))
-			println(");")
+			val params = it.arguments.asSequence().mapIndexed { i, param -> ", ${param.nativeMethodType} param$i" }.joinToString("")
+			val args = it.arguments.indices.joinToString("") { i -> ", param$i" }
+			val returnType = it.returnType.nativeMethodType
+			val isVoid = it.returnType.mapping === TypeMapping.VOID
+
+			println("""
+	private static final MethodHandle ${it.signatureNative} = Foreign.ENABLED ? Foreign.downcall("${it.descriptor}", ${it.critical}) : null;
+	private static native $returnType n${it.signature}(long $FUNCTION_ADDRESS$params);
+	public static $returnType ${it.signature}(long $FUNCTION_ADDRESS$params) {
+		if ( Foreign.ENABLED ) {
+			try {
+				${if (isVoid) "" else "return ($returnType)"}${it.signatureNative}.invokeExact($FUNCTION_ADDRESS$args);
+			} catch (Throwable t) {
+				throw Foreign.rethrow(t);
+			}
+		} else
+			${if (isVoid) "" else "return "}n${it.signature}($FUNCTION_ADDRESS$args);
+	}""")
 		}
 
 		println("\n\t// Array API\n")
@@ -107,13 +136,13 @@ public final class JNI {
 		preamble.printNative(this)
 
 		println("""#define ARITY0(type, signature, expression) \
-JNIEXPORT type JNICALL Java_org_lwjgl_system_JNI_##signature(JNIEnv *$JNIENV, jclass clazz, jlong __functionAddress) { \
+JNIEXPORT type JNICALL Java_org_lwjgl_system_JNI_n##signature(JNIEnv *$JNIENV, jclass clazz, jlong __functionAddress) { \
 	UNUSED_PARAMS($JNIENV, clazz) \
 	expression; \
 }
 
 #define ARITYn(type, signature, expression, ...) \
-JNIEXPORT type JNICALL Java_org_lwjgl_system_JNI_##signature(JNIEnv *$JNIENV, jclass clazz, jlong __functionAddress, __VA_ARGS__) { \
+JNIEXPORT type JNICALL Java_org_lwjgl_system_JNI_n##signature(JNIEnv *$JNIENV, jclass clazz, jlong __functionAddress, __VA_ARGS__) { \
 	UNUSED_PARAMS($JNIENV, clazz) \
 	expression; \
 }
@@ -145,7 +174,7 @@ JNIEXPORT type JNICALL Java_org_lwjgl_system_JNI_##signature(JNIEnv *$JNIENV, jc
 	${it.arguments.asSequence()
 					.mapIndexedNotNull { i, param -> if (param !is ArrayType) null else "void *paramArray$i = param$i == NULL ? NULL : (*$JNIENV)->GetPrimitiveArrayCritical($JNIENV, param$i, 0);" }
 					.joinToString("\n\t")}
-	${if (it.returnType.mapping === TypeMapping.VOID) "" else "${it.returnType.jniFunctionType} __result = "}Java_org_lwjgl_system_JNI_${it.signatureNative}(NULL, NULL, __functionAddress, ${it.arguments.mapIndexed { i, param -> if (param is ArrayType) "(intptr_t)paramArray$i" else "param$i" }.joinToString(", ")});
+	${if (it.returnType.mapping === TypeMapping.VOID) "" else "${it.returnType.jniFunctionType} __result = "}Java_org_lwjgl_system_JNI_n${it.signatureNative}(NULL, NULL, __functionAddress, ${it.arguments.mapIndexed { i, param -> if (param is ArrayType) "(intptr_t)paramArray$i" else "param$i" }.joinToString(", ")});
 	${it.arguments.asSequence()
 					.withIndex()
 					.sortedByDescending { it.index }
@@ -162,7 +191,7 @@ JNIEXPORT type JNICALL Java_org_lwjgl_system_JNI_##signature(JNIEnv *$JNIENV, jc
 				if (it.arguments.isEmpty()) "" else it.arguments.asSequence().mapIndexed { i, param -> "${param.jniFunctionTypeArrayCritical(i)} param$i" }.joinToString(", ", prefix = ", ")
 				}) {
 	${it.arguments.asSequence().mapIndexedNotNull { i, param -> if (param !is ArrayType) null else "UNUSED_PARAM(length$i)" }.joinToString("\n\t")}
-	${if (it.returnType.mapping === TypeMapping.VOID) "" else "return "}Java_org_lwjgl_system_JNI_${it.signatureNative}(NULL, NULL, __functionAddress, ${it.arguments.mapIndexed { i, param -> if (param is ArrayType) "(intptr_t)param$i" else "param$i" }.joinToString(", ")});
+	${if (it.returnType.mapping === TypeMapping.VOID) "" else "return "}Java_org_lwjgl_system_JNI_n${it.signatureNative}(NULL, NULL, __functionAddress, ${it.arguments.mapIndexed { i, param -> if (param is ArrayType) "(intptr_t)param$i" else "param$i" }.joinToString(", ")});
 }""")
 			if (workaroundJDK8167409) println("#endif")
 		}
@@ -176,23 +205,30 @@ private val NativeType.jniSignature get() = this.mapping.jniSignature
 private open class Signature constructor(
 	val callingConvention: CallingConvention,
 	val returnType: NativeType,
-	val arguments: List<NativeType>
+	val arguments: List<NativeType>,
+	val critical: Boolean = false
 ) : Comparable<Signature> {
 
-	val key = "${callingConvention.method}${arguments.asSequence().map { it.jniSignature }.joinToString("")}${returnType.jniSignature}"
+	private val method = "${callingConvention.method}${if (critical) "Critical" else ""}"
+
+	val key = "$method${arguments.asSequence().map { it.jniSignature }.joinToString("")}${returnType.jniSignature}"
 
 	private val paramSignatureStrict = arguments.asSequence().map { it.mapping.jniSignatureStrict }.joinToString("")
 
-	val signature = "${callingConvention.method}${arguments.asSequence().map { it.mapping.jniSignatureJava }.joinToString("")}${returnType.jniSignature}"
+	val signature = "$method${arguments.asSequence().map { it.mapping.jniSignatureJava }.joinToString("")}${returnType.jniSignature}"
 	val signatureNative = "${signature}__J$paramSignatureStrict"
 
-	constructor(function: Func) : this(
+	/** The signature passed to Foreign.downcall. */
+	val descriptor = "${arguments.asSequence().map { it.jniSignature }.joinToString("")})${returnType.jniSignature}"
+
+	constructor(function: Func, critical: Boolean) : this(
 		function.nativeClass.binding!!.callingConvention,
 		function.returns.nativeType,
 		function.parameters.asSequence()
 			.filter { it !== EXPLICIT_FUNCTION_ADDRESS }
 			.map { it.nativeType }
-			.toList()
+			.toList(),
+		critical
 	)
 
 	override fun equals(other: Any?) = other is Signature && this.signatureNative == other.signatureNative
@@ -203,6 +239,9 @@ private open class Signature constructor(
 		if (this.callingConvention !== other.callingConvention)
 			return this.callingConvention.ordinal.compareTo(other.callingConvention.ordinal)
 
+		if (this.critical != other.critical)
+			return this.critical.compareTo(other.critical)
+
 		return returnType.jniSignature.compareTo(other.returnType.jniSignature).let {
 			if (it != 0)
 				it
@@ -80,6 +80,43 @@ abstract class APIBinding(
 	/** Can be overriden to implement a custom condition for checking the function address. */
 	open fun shouldCheckFunctionAddress(function: Func) = apiCapabilities.ordinal > 1
 
+	/**
+	 * Prints the {@code FUNCTIONS} and {@code FEATURES} tables that are passed to {@code APIUtil.apiGetFunctionAddresses}, in a capabilities class.
+	 *
+	 * The ordinal of each function is its index in [functions]. The functions of each feature are encoded as a string of ordinals.
+	 */
+	protected fun PrintWriter.printFunctionTables(functions: Collection<Func>, features: List<Pair<String, Iterable<Func>>>) {
+		val ordinals = getFunctionOrdinals(functions)
+
+		println("\tprivate static final String[] FUNCTIONS = {")
+		println(functions.joinToString(",\n\t\t", prefix = "\t\t") { it.functionAddress })
+		println("\t};\n")
+
+		println("\tprivate static final String[] FEATURES = {")
+		println(features
+			.filter { it.second.any() }
+			.joinToString(",\n\t\t", prefix = "\t\t") { "\"${it.first}\", ${it.second.encodeOrdinals(ordinals, "\t\t\t")}" })
+		println("\t};")
+	}
+
+	protected fun getFunctionOrdinals(functions: Collection<Func>): Map<String, Int> {
+		val ordinals = HashMap<String, Int>(functions.size)
+		functions.forEachIndexed { i, func -> ordinals[func.name] = i }
+		return ordinals
+	}
+
+	/** Returns a Java string literal that encodes the ordinals of the specified functions, see {@code APIUtil.APICAPS_ORDINAL_OFFSET}. */
+	protected fun Iterable<Func>.encodeOrdinals(ordinals: Map<String, Int>, indentation: String) = this
+		.map { ordinals[it.name]!! }
+		.distinct()
+		.sorted()
+		.map { "\\u%04X".format(it + 0x100) }
+		.withIndex()
+		.groupBy({ it.index / 16 }, { it.value })
+		.values
+		.joinToString(" +\n$indentation") { it.joinToString("", prefix = "\"", postfix = "\"") }
+		.let { if (it.isEmpty()) "\"\"" else it }
+
 	/** Can be overriden to add custom parameter checks. */
 	open fun addParameterChecks(
 		checks: MutableList<String>,
@@ -191,6 +228,11 @@ class NativeClass(
 		ArrayList<Func>(_functions.values)
 	}
 
+	/** The names of the functions that are recorded with {@code FunctionProfiler}, in {@code FunctionProfiler} id order. */
+	internal val profiledFunctions: List<String> by lazy(LazyThreadSafetyMode.NONE) {
+		genFunctions.asSequence().filter { it.isProfiled }.map { it.name }.distinct().toList()
+	}
+
 	private val customMethods = ArrayList<String>()
 
 	internal val hasBody
@@ -413,6 +455,10 @@ class NativeClass(
 			// TODO: This is horrible. Refactor so that we build imports after code generation.
 			val hasBuffers = functions.any { it.returns.nativeType.isPointerData || it.hasParam { it.nativeType.isPointerData } }
 
+			val hasCriticalNatives = functions.any { it.hasCriticalNative }
+			if (hasCriticalNatives)
+				println("import java.lang.invoke.*;\n")
+
 			if (hasBuffers) {
 				if (functions.any {
 					(it.returns.isBufferPointer && it.returns.nativeType.mapping !== PointerMapping.DATA_POINTER && it.returns.nativeType !is CharSequenceType)
@@ -443,14 +489,14 @@ class NativeClass(
 				}
 			}
 
-			if (hasMemoryStack || (binding is SimpleBinding && !binding.libraryExpression.contains('.')) || (binding == null && (library == null || !library.endsWith(");")))) {
+			if (hasMemoryStack || (binding is SimpleBinding && !binding.libraryExpression.contains('.')) || (binding == null && (library == null || !library.endsWith(");"))) || functions.any { it.has<CommandBuffered>() } || profiledFunctions.isNotEmpty()) {
 				if (packageName != "org.lwjgl.system")
 					println("import org.lwjgl.system.*;\n")
 			}
 
-			if (hasFunctions && (binding is SimpleBinding || (binding != null && functions.any { it.has<MapPointer>() })))
+			if (hasFunctions && (binding is SimpleBinding || (binding != null && functions.any { it.has<MapPointer>() }) || hasCriticalNatives))
 				println("import static org.lwjgl.system.APIUtil.*;")
-			if (hasFunctions && ((binding != null && binding !is SimpleBinding) || functions.any { func ->
+			if (hasFunctions && ((binding != null && binding !is SimpleBinding) || profiledFunctions.isNotEmpty() || functions.any { func ->
 				func.hasParam { param ->
 					param.nativeType is PointerType && func.getReferenceParam<AutoSize>(param.name).let {
 						if (it == null)
@@ -536,6 +582,11 @@ class NativeClass(
 			println("\n\tprivate $className() {}")
 		}
 
+		if (profiledFunctions.isNotEmpty()) {
+			println("\n\tprivate static final int $PROFILE_BASE = PROFILE_FUNCTIONS ? FunctionProfiler.register(\"$className\",")
+			println(profiledFunctions.joinToString(",\n\t\t", prefix = "\t\t", postfix = "\n\t) : 0;") { "\"$it\"" })
+		}
+
 		genFunctions.forEach { func ->
 			if (!func.hasParam { it.nativeType is ArrayType })
 				println("\n\t// --- [ ${func.name} ] ---")
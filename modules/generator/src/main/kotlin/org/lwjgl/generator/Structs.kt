@@ -794,6 +794,46 @@ $indentation}"""
 	public static Buffer callocStack(int $BUFFER_CAPACITY_PARAM, MemoryStack stack) {
 		return create(stack.ncalloc(ALIGNOF, $BUFFER_CAPACITY_PARAM, SIZEOF), $BUFFER_CAPACITY_PARAM);
 	}
+
+	// -----------------------------------
+
+	/**
+	 * Returns a new {@link $className} instance allocated in the specified {@link MemoryArena}.
+	 *
+	 * @param arena the arena from which to allocate
+	 */
+	public static $className malloc(MemoryArena arena) {
+		return create(arena.nmalloc(ALIGNOF, SIZEOF));
+	}
+
+	/**
+	 * Returns a new {@link $className} instance allocated in the specified {@link MemoryArena} and initializes all its bits to zero.
+	 *
+	 * @param arena the arena from which to allocate
+	 */
+	public static $className calloc(MemoryArena arena) {
+		return create(arena.ncalloc(ALIGNOF, 1, SIZEOF));
+	}
+
+	/**
+	 * Returns a new {@link $className.Buffer} instance allocated in the specified {@link MemoryArena}.
+	 *
+	 * @param $BUFFER_CAPACITY_PARAM the buffer capacity
+	 * @param arena the arena from which to allocate
+	 */
+	public static Buffer malloc(int $BUFFER_CAPACITY_PARAM, MemoryArena arena) {
+		return create(arena.nmalloc(ALIGNOF, (long)$BUFFER_CAPACITY_PARAM * SIZEOF), $BUFFER_CAPACITY_PARAM);
+	}
+
+	/**
+	 * Returns a new {@link $className.Buffer} instance allocated in the specified {@link MemoryArena} and initializes all its bits to zero.
+	 *
+	 * @param $BUFFER_CAPACITY_PARAM the buffer capacity
+	 * @param arena the arena from which to allocate
+	 */
+	public static Buffer calloc(int $BUFFER_CAPACITY_PARAM, MemoryArena arena) {
+		return create(arena.ncalloc(ALIGNOF, $BUFFER_CAPACITY_PARAM, SIZEOF), $BUFFER_CAPACITY_PARAM);
+	}
 """)
 		}
 
@@ -911,6 +951,12 @@ ${validations.joinToString("\n")}
 				println()
 				generateSetters(AccessMode.FLYWEIGHT, settableMembers)
 			}
+
+			val columns = members.filter { it.isColumn }
+			if (columns.any()) {
+				println()
+				generateColumns(columns, if (hasMutableMembers()) settableMembers.filter { it.isColumn } else emptySequence())
+			}
 		}
 
 		print("""
@@ -919,6 +965,52 @@ ${validations.joinToString("\n")}
 }""")
 	}
 
+	/** Primitive members that can be copied column-wise, from/to primitive arrays and NIO buffers. */
+	private val StructMember.isColumn
+		get() = this !is StructMemberArray && !isNestedStruct && !nativeType.isPointer && nativeType.mapping.let {
+			it === PrimitiveMapping.BYTE ||
+			it === PrimitiveMapping.SHORT ||
+			it === PrimitiveMapping.INT ||
+			it === PrimitiveMapping.LONG ||
+			it === PrimitiveMapping.FLOAT ||
+			it === PrimitiveMapping.DOUBLE
+		}
+
+	private fun PrintWriter.generateColumns(
+		getters: Sequence<StructMember>,
+		setters: Sequence<StructMember>
+	) {
+		fun StructMember.overrides() = extends != null && extends.members.any { parentMember -> parentMember.name == this.name && parentMember.isColumn }
+
+		getters.forEach {
+			val getter = it.field("")
+			val javaType = it.nativeType.javaMethodType
+			val bufferType = (it.nativeType.mapping as PrimitiveMapping).toPointer.javaMethodName
+			val overrides = it.overrides()
+
+			println("		/** Copies the {@code $getter} field of each struct between the current position and the limit to {@code dst}. */")
+			if (overrides) println("		@Override")
+			println("		public $className.Buffer ${getter}Gather($javaType[] dst) { gather($className.${it.offsetField}, dst); return this; }")
+			println("		/** Copies the {@code $getter} field of each struct between the current position and the limit to {@code dst}. */")
+			if (overrides) println("		@Override")
+			println("		public $className.Buffer ${getter}Gather($bufferType dst) { gather($className.${it.offsetField}, dst); return this; }")
+		}
+
+		setters.forEach {
+			val setter = it.field("")
+			val javaType = it.nativeType.javaMethodType
+			val bufferType = (it.nativeType.mapping as PrimitiveMapping).toPointer.javaMethodName
+			val overrides = it.overrides()
+
+			println("		/** Copies {@code src} to the {@code $setter} field of each struct between the current position and the limit. */")
+			if (overrides) println("		@Override")
+			println("		public $className.Buffer ${setter}Scatter($javaType[] src) { scatter($className.${it.offsetField}, src); return this; }")
+			println("		/** Copies {@code src} to the {@code $setter} field of each struct between the current position and the limit. */")
+			if (overrides) println("		@Override")
+			println("		public $className.Buffer ${setter}Scatter($bufferType src) { scatter($className.${it.offsetField}, src); return this; }")
+		}
+	}
+
 	private fun PrintWriter.generateOffsetFields(
 		members: Sequence<StructMember>,
 		indentation: String = "\t\t",
@@ -71,10 +71,16 @@ private val ALBinding = Generator.register(object : APIBinding(
 		println("""
 	/** Off-heap array of the above function addresses. */
 	final PointerBuffer addresses;
+""")
 
-	$CAPABILITIES_CLASS(FunctionProvider provider, Set<String> ext) {""")
+		printFunctionTables(addresses, classesWithFunctions.map { it.capName("AL") to it.functions })
 
-		println(addresses.map { "${it.name} = provider.getFunctionAddress(${it.functionAddress});" }.joinToString("\n\t\t", prefix = "\t\t"))
+		println("""
+	$CAPABILITIES_CLASS(FunctionProvider provider, Set<String> ext) {
+		long[] functions = apiGetFunctionAddresses(provider, FUNCTIONS, FEATURES, ext, null);
+""")
+
+		println(addresses.mapIndexed { i, it -> "${it.name} = functions[$i];" }.joinToString("\n\t\t", prefix = "\t\t"))
 
 		for (extension in classes) {
 			val capName = extension.capName("AL")
@@ -85,7 +91,7 @@ private val ALBinding = Generator.register(object : APIBinding(
 		}
 		print("""
 
-		addresses = ThreadLocalUtil.getAddressesFromCapabilities(this);
+		addresses = ThreadLocalUtil.getAddressesFromCapabilities(functions);
 	}
 
 	private static boolean checkExtension(String extension, boolean supported) {
@@ -147,7 +147,7 @@ val AL10 = "AL10".nativeClassAL("AL10") {
 		"PROCESSED"..0x2012
 	)
 
-	ALenum(
+	Critical..ALenum(
 		"GetError",
 		"""
 		Obtains error information.
@@ -333,7 +333,7 @@ f' = f * (SS * DV - DF*vls) / (SS * DV - DF * vss)
 		ALfloat.IN("dopplerVelocity", "the doppler velocity")
 	)
 
-	ALvoid(
+	Critical..ALvoid(
 		"Listenerf",
 		"Sets the float value of a listener parameter.",
 
@@ -349,7 +349,7 @@ f' = f * (SS * DV - DF*vls) / (SS * DV - DF * vss)
 		ALint.IN("values", "the parameter value")
 	)
 
-	ALvoid(
+	Critical..ALvoid(
 		"Listener3f",
 		"Sets the 3 dimensional float values of a listener parameter.",
 
@@ -424,7 +424,7 @@ f' = f * (SS * DV - DF*vls) / (SS * DV - DF * vss)
 		ALuint.IN("sourceName", "a value that may be a source name")
 	)
 
-	ALvoid(
+	Critical..ALvoid(
 		"Sourcef",
 		"Sets the float value of a source parameter.",
 
@@ -433,7 +433,7 @@ f' = f * (SS * DV - DF*vls) / (SS * DV - DF * vss)
 		ALfloat.IN("value", "the parameter value")
 	)
 
-	ALvoid(
+	Critical..ALvoid(
 		"Source3f",
 		"Sets the 3 dimensional values of a source parameter.",
 
@@ -453,7 +453,7 @@ f' = f * (SS * DV - DF*vls) / (SS * DV - DF * vss)
 		Check(1)..const..ALfloat_p.IN("values", "the parameter values")
 	)
 
-	ALvoid(
+	Critical..ALvoid(
 		"Sourcei",
 		"Integer version of #Sourcef().",
 
@@ -491,7 +491,7 @@ f' = f * (SS * DV - DF*vls) / (SS * DV - DF * vss)
 		Check(1)..ALfloat_p.OUT("values", "the parameter values")
 	)
 
-	ALvoid(
+	Critical..ALvoid(
 		"GetSourcei",
 		"Returns the integer value of the specified source parameter.",
 
@@ -199,17 +199,20 @@ val GLBinding = Generator.register(object : APIBinding(
 
 	/** Off-heap array of the above function addresses. */
 	final PointerBuffer addresses;
+""")
+
+		printFunctionTables(functions, classes.filter { it.hasNativeFunctions }.map { it.capName to it.functions })
+
+		println("""
+	private static final String DEPRECATED = ${functions.filter { it has DeprecatedGL }.encodeOrdinals(functionOrdinals, "\t\t")};
 
 	$CAPABILITIES_CLASS(FunctionProvider provider, Set<String> ext, boolean fc) {
 		forwardCompatible = fc;
+
+		long[] functions = apiGetFunctionAddresses(provider, FUNCTIONS, FEATURES, ext, fc ? DEPRECATED : null);
 """)
 
-		println(functions.map {
-			if (it has DeprecatedGL)
-				"${it.name} = getFunctionAddress(fc, provider, ${it.functionAddress});"
-			else
-				"${it.name} = provider.getFunctionAddress(${it.functionAddress});"
-		}.joinToString(prefix = "\t\t", separator = "\n\t\t"))
+		println(functions.mapIndexed { i, it -> "${it.name} = functions[$i];" }.joinToString(prefix = "\t\t", separator = "\n\t\t"))
 
 		for (extension in classes) {
 			val capName = extension.capName
@@ -223,11 +226,7 @@ val GLBinding = Generator.register(object : APIBinding(
 		}
 		print("""
 
-		addresses = ThreadLocalUtil.getAddressesFromCapabilities(this);
-	}
-
-	private static long getFunctionAddress(boolean fc, FunctionProvider provider, String functionName) {
-		return fc ? NULL : provider.getFunctionAddress(functionName);
+		addresses = ThreadLocalUtil.getAddressesFromCapabilities(functions);
 	}
 
 	private static boolean checkExtension(String extension, boolean supported) {
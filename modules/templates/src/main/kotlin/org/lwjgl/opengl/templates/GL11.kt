@@ -925,14 +925,14 @@ val GL11 = "GL11".nativeClassGL("GL11") {
 
 	// Functions
 
-	void(
+	CommandBuffered..void(
 		"Enable",
 		"Enables the specified OpenGL state.",
 
 		GLenum.IN("target", "the OpenGL state to enable")
 	)
 
-	void(
+	CommandBuffered..void(
 		"Disable",
 		"Disables the specified OpenGL state.",
 
@@ -989,7 +989,7 @@ val GL11 = "GL11".nativeClassGL("GL11") {
 		GLenum.IN("mode", "the primitive type being defined", PRIMITIVE_TYPES)
 	)
 
-	void(
+	CommandBuffered..void(
 		"BindTexture",
 		"""
 		Binds the a texture to a texture target.
@@ -1290,7 +1290,7 @@ val GL11 = "GL11".nativeClassGL("GL11") {
 		)
 	)
 
-	void(
+	CommandBuffered..void(
 		"DrawArrays",
 		"""
 		Constructs a sequence of geometric primitives by successively transferring elements for {@code count} vertices. Elements {@code first} through
@@ -1317,7 +1317,7 @@ val GL11 = "GL11".nativeClassGL("GL11") {
 		GLenum.IN("buf", "the color buffer to draw to", FRAMEBUFFERS)
 	)
 
-	void(
+	CommandBuffered..void(
 		"DrawElements",
 		"""
 		Constructs a sequence of geometric primitives by successively transferring elements for {@code count} vertices to the GL.
@@ -129,7 +129,7 @@ val GL15 = "GL15".nativeClassGL("GL15") {
 		"BUFFER_MAP_POINTER"..0x88BD
 	)
 
-	void(
+	CommandBuffered..void(
 		"BindBuffer",
 		"Binds a named buffer object.",
 
@@ -211,7 +211,7 @@ val GL20 = "GL20".nativeClassGL("GL20") {
 	val uniformZ = "the uniform z value"
 	val uniformW = "the uniform w value"
 
-	void(
+	CommandBuffered..void(
 		"Uniform1f",
 		"Specifies the value of a float uniform variable for the current program object.",
 
@@ -219,7 +219,7 @@ val GL20 = "GL20".nativeClassGL("GL20") {
 		GLfloat.IN("v0", "the uniform value")
 	)
 
-	void(
+	CommandBuffered..void(
 		"Uniform2f",
 		"Specifies the value of a vec2 uniform variable for the current program object.",
 
@@ -228,7 +228,7 @@ val GL20 = "GL20".nativeClassGL("GL20") {
 		GLfloat.IN("v1", uniformY)
 	)
 
-	void(
+	CommandBuffered..void(
 		"Uniform3f",
 		"Specifies the value of a vec3 uniform variable for the current program object.",
 
@@ -238,7 +238,7 @@ val GL20 = "GL20".nativeClassGL("GL20") {
 		GLfloat.IN("v2", uniformZ)
 	)
 
-	void(
+	CommandBuffered..void(
 		"Uniform4f",
 		"Specifies the value of a vec4 uniform variable for the current program object.",
 
@@ -249,7 +249,7 @@ val GL20 = "GL20".nativeClassGL("GL20") {
 		GLfloat.IN("v3", uniformW)
 	)
 
-	void(
+	CommandBuffered..void(
 		"Uniform1i",
 		"Specifies the value of an int uniform variable for the current program object.",
 
@@ -257,7 +257,7 @@ val GL20 = "GL20".nativeClassGL("GL20") {
 		GLint.IN("v0", "the uniform value")
 	)
 
-	void(
+	CommandBuffered..void(
 		"Uniform2i",
 		"Specifies the value of an ivec2 uniform variable for the current program object.",
 
@@ -266,7 +266,7 @@ val GL20 = "GL20".nativeClassGL("GL20") {
 		GLint.IN("v1", uniformY)
 	)
 
-	void(
+	CommandBuffered..void(
 		"Uniform3i",
 		"Specifies the value of an ivec3 uniform variable for the current program object.",
 
@@ -276,7 +276,7 @@ val GL20 = "GL20".nativeClassGL("GL20") {
 		GLint.IN("v2", uniformZ)
 	)
 
-	void(
+	CommandBuffered..void(
 		"Uniform4i",
 		"Specifies the value of an ivec4 uniform variable for the current program object.",
 
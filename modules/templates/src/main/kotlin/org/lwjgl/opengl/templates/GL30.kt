@@ -1292,7 +1292,7 @@ val GL30 = "GL30".nativeClassGL("GL30") {
 		"VERTEX_ARRAY_BINDING"..0x85B5
 	)
 
-	void(
+	CommandBuffered..void(
 		"BindVertexArray",
 		"Binds a vertex array object",
 
@@ -166,11 +166,16 @@ private val GLESBinding = Generator.register(object : APIBinding(
 		println("""
 	/** Off-heap array of the above function addresses. */
 	final PointerBuffer addresses;
+""")
+
+		printFunctionTables(functions, classes.filter { it.hasNativeFunctions }.map { it.capName to it.functions })
 
+		println("""
 	$CAPABILITIES_CLASS(FunctionProvider provider, Set<String> ext) {
+		long[] functions = apiGetFunctionAddresses(provider, FUNCTIONS, FEATURES, ext, null);
 """)
 
-		println(functions.map { "${it.name} = provider.getFunctionAddress(${it.functionAddress});" }.joinToString(prefix = "\t\t", separator = "\n\t\t"))
+		println(functions.mapIndexed { i, it -> "${it.name} = functions[$i];" }.joinToString(prefix = "\t\t", separator = "\n\t\t"))
 
 		for (extension in classes) {
 			val capName = extension.capName
@@ -183,7 +188,7 @@ private val GLESBinding = Generator.register(object : APIBinding(
 		}
 		print("""
 
-		addresses = ThreadLocalUtil.getAddressesFromCapabilities(this);
+		addresses = ThreadLocalUtil.getAddressesFromCapabilities(functions);
 	}
 
 	private static boolean checkExtension(String extension, boolean supported) {
@@ -19,7 +19,7 @@ val stb_perlin = "STBPerlin".nativeClass(packageName = STB_PACKAGE, prefix = "ST
 		Revised Perlin noise (3D input, 1D output).
 		"""
 
-	float(
+	Critical..float(
 		"perlin_noise3",
 		"""
 		Computes a random value at the coordinate (x,y,z).
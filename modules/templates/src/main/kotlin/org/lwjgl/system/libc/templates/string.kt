@@ -62,4 +62,33 @@ val string = "LibCString".nativeClass(packageName = LIBC_PACKAGE) {
 
 		returnDoc = "the value of {@code dest}"
 	)
+
+	int(
+		"memcmp",
+		"Compares characters in two buffers.",
+
+		MultiType(
+			PointerMapping.DATA_SHORT,
+			PointerMapping.DATA_INT,
+			PointerMapping.DATA_LONG,
+			PointerMapping.DATA_FLOAT,
+			PointerMapping.DATA_DOUBLE,
+			byteArray = true
+		)..const..void_p.IN("buf1", "first buffer"),
+		MultiType(
+			PointerMapping.DATA_SHORT,
+			PointerMapping.DATA_INT,
+			PointerMapping.DATA_LONG,
+			PointerMapping.DATA_FLOAT,
+			PointerMapping.DATA_DOUBLE,
+			byteArray = true
+		)..const..void_p.IN("buf2", "second buffer"),
+		AutoSize("buf1", "buf2")..size_t.IN("count", "number of characters to compare"),
+
+		returnDoc =
+		"""
+		a negative value if the first differing byte (interpreted as {@code unsigned char}) in {@code buf1} is less than the corresponding byte in
+		{@code buf2}, 0 if the first {@code count} bytes are equal, a positive value otherwise
+		"""
+	)
 }
\ No newline at end of file
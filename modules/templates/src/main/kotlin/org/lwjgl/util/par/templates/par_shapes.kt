@@ -212,7 +212,7 @@ par_shapes_mesh* par_shapes_create_parametric(par_shapes_fn, int slices,
 		const..charASCII_p.IN("objfile", "the OBJ file path")
 	)
 
-	void(
+	Critical..void(
 		"compute_aabb",
 		"Takes a pointer to 6 floats and sets them to min xyz, max xyz.",
 
@@ -236,7 +236,7 @@ par_shapes_mesh* par_shapes_create_parametric(par_shapes_fn, int slices,
 		const..par_shapes_mesh_p.IN("src", "the source mesh")
 	)
 
-	void(
+	Critical..void(
 		"translate",
 		"Translates the specified mesh.",
 
@@ -246,7 +246,7 @@ par_shapes_mesh* par_shapes_create_parametric(par_shapes_fn, int slices,
 		float.IN("z", "the Z axis translation amount")
 	)
 
-	void(
+	Critical..void(
 		"rotate",
 		"Rotates the specified mesh.",
 
@@ -255,7 +255,7 @@ par_shapes_mesh* par_shapes_create_parametric(par_shapes_fn, int slices,
 		Check(3)..const..float_p.IN("axis", "the rotation axis")
 	)
 
-	void(
+	Critical..void(
 		"scale",
 		"Scales the specified mesh.",
 
@@ -56,15 +56,15 @@ val SSE = "SSE".nativeClass("org.lwjgl.util.simd", prefix = "_MM", prefixMethod
 		"FLUSH_ZERO_OFF"..0x0000
 	).javaDocLinks
 
-	macro()..void(
+	Critical..macro()..void(
 		"SET_EXCEPTION_STATE",
 		"Sets the exception state bits of the MXCSR control and status register.",
 
 		unsigned_int.IN("mask", "the exception state", ExceptionState)
 	)
-	macro()..unsigned_int("GET_EXCEPTION_STATE", "Returns the exception state bits from the MXCSR control and status register.")
+	Critical..macro()..unsigned_int("GET_EXCEPTION_STATE", "Returns the exception state bits from the MXCSR control and status register.")
 
-	macro()..void(
+	Critical..macro()..void(
 		"SET_EXCEPTION_MASK",
 		"""
 	    Sets the exception mask bits of the MXCSR control and status register.
@@ -74,17 +74,17 @@ val SSE = "SSE".nativeClass("org.lwjgl.util.simd", prefix = "_MM", prefixMethod
 
 		unsigned_int.IN("mask", "the exception mask", ExceptionMask, LinkMode.BITFIELD)
 	)
-	macro()..unsigned_int("GET_EXCEPTION_MASK", "Returns the exception mask bits from the MXCSR control and status register.")
+	Critical..macro()..unsigned_int("GET_EXCEPTION_MASK", "Returns the exception mask bits from the MXCSR control and status register.")
 
-	macro()..void(
+	Critical..macro()..void(
 		"SET_ROUNDING_MODE",
 		"Sets the rounding mode bits of the MXCSR control and status register.",
 
 		unsigned_int.IN("mode", "the rounding mode", RoundMode)
 	)
-	macro()..unsigned_int("GET_ROUNDING_MODE", "Returns the rounding mode bits from the MXCSR control and status register.")
+	Critical..macro()..unsigned_int("GET_ROUNDING_MODE", "Returns the rounding mode bits from the MXCSR control and status register.")
 
-	macro()..void(
+	Critical..macro()..void(
 		"SET_FLUSH_ZERO_MODE",
 		"""
 		Sets the flush zero bits of the MXCSR control and status register. FTZ sets denormal results from floating-point calculations to zero.
@@ -95,5 +95,5 @@ val SSE = "SSE".nativeClass("org.lwjgl.util.simd", prefix = "_MM", prefixMethod
 
 		unsigned_int.IN("mode", "the flush-to-zero mode", FlushZeroMode)
 	)
-	macro()..unsigned_int("GET_FLUSH_ZERO_MODE", "Returns the flush zero bits from the MXCSR control and status register.")
+	Critical..macro()..unsigned_int("GET_FLUSH_ZERO_MODE", "Returns the flush zero bits from the MXCSR control and status register.")
 }
\ No newline at end of file
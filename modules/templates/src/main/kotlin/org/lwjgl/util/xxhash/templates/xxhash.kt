@@ -52,7 +52,7 @@ ENABLE_WARNINGS()""")
 
 	// 32-bits hash
 
-	val XXH32 = XXH32_hash_t(
+	val XXH32 = Critical..XXH32_hash_t(
 		"32",
 		"Calculates the 32-bits hash of sequence {@code length} bytes stored at memory address {@code input}.",
 
@@ -96,7 +96,7 @@ ENABLE_WARNINGS()""")
 		unsigned_int.IN("seed", "the seed that can be used to alter the hashing result predictably")
 	)
 
-	XXH_errorcode(
+	Critical..XXH_errorcode(
 		"32_update",
 		"""
 		These functions generate the xxHash of an input provided in multiple segments. Note that, for small input, they are slower than single-call functions,
@@ -122,7 +122,7 @@ ENABLE_WARNINGS()""")
 		XXH32["length"]
 	)
 
-	XXH32_hash_t(
+	Critical..XXH32_hash_t(
 		"32_digest",
 		"Returns the final 32-bits hash of the specified {@code XXH32_state_t}.",
 
@@ -152,7 +152,7 @@ ENABLE_WARNINGS()""")
 
 	// 64-bits hash
 
-	XXH64_hash_t(
+	Critical..XXH64_hash_t(
 		"64",
 		"""
 		64-bit version of #32().
@@ -193,7 +193,7 @@ ENABLE_WARNINGS()""")
 		unsigned_long_long.IN("seed", "the seed that can be used to alter the hashing result predictably")
 	)
 
-	XXH_errorcode(
+	Critical..XXH_errorcode(
 		"64_update",
 		"64-bit version of #32_update().",
 
@@ -202,7 +202,7 @@ ENABLE_WARNINGS()""")
 		XXH32["length"]
 	)
 
-	XXH64_hash_t(
+	Critical..XXH64_hash_t(
 		"64_digest",
 		"64-bit version of #32_digest().",
 
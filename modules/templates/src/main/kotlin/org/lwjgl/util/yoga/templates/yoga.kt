@@ -472,7 +472,7 @@ div {
 	}
 
 	fun YG_NODE_LAYOUT_PROPERTY(type: NativeType, name: String) {
-		type(
+		Critical..type(
 			"NodeLayoutGet$name",
 			"",
 
@@ -481,7 +481,7 @@ div {
 	}
 
 	fun YG_NODE_LAYOUT_EDGE_PROPERTY(type: NativeType, name: String) {
-		type(
+		Critical..type(
 			"NodeLayoutGet$name",
 			"""
 			Gets the computed value for this nodes after performing layout. If they were set using point values then the returned value will be the same as
@@ -7209,7 +7209,7 @@ val VK10 = "VK10".nativeClass(VULKAN_PACKAGE, "VK10", prefix = "VK", binding = V
 
 	// Command buffer building commands
 
-	void(
+	CommandBuffered..void(
 		"CmdBindPipeline",
 		"""
 		Bind a pipeline object to a command buffer.
@@ -7325,7 +7325,7 @@ val VK10 = "VK10".nativeClass(VULKAN_PACKAGE, "VK10", prefix = "VK", binding = V
 		const..VkViewport.p.IN("pViewports", "a pointer to an array of ##VkViewport structures specifying viewport parameters.")
 	)
 
-	void(
+	CommandBuffered..void(
 		"CmdSetScissor",
 		"""
 		Set the dynamic scissor rectangles on a command buffer.
@@ -7931,7 +7931,7 @@ o = min(m &times; depthBiasSlopeFactor + r &times; depthBiasConstantFactor, dept
 		const..VkDeviceSize.p.IN("pOffsets", "a pointer to an array of buffer offsets.")
 	)
 
-	void(
+	CommandBuffered..void(
 		"CmdDraw",
 		"""
 		Draw primitives.
@@ -8000,7 +8000,7 @@ o = min(m &times; depthBiasSlopeFactor + r &times; depthBiasConstantFactor, dept
 		uint32_t.IN("firstInstance", "the instance ID of the first instance to draw.")
 	)
 
-	void(
+	CommandBuffered..void(
 		"CmdDrawIndexed",
 		"""
 		Issue an indexed draw into a command buffer.